@@ -30,6 +30,11 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+
+    testOptions {
+        //本地单元测试中android.util.Log等方法返回默认值
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -37,11 +42,11 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
-    implementation("com.google.code.gson:gson:2.10.1")
-
-    implementation("com.squareup.okhttp3:okhttp:4.12.0")
+    //签名、请求构建、响应解析和容错逻辑（纯Java模块，经api传递OkHttp和Gson依赖）
+    implementation(project(":ocr-core"))
 
     testImplementation(libs.junit)
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
@@ -0,0 +1,45 @@
+package com.example.IdCardOcr;
+
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Log;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+//本地数据加密密钥：AES-256-GCM密钥保存在AndroidKeyStore，按用途区分别名
+final class LocalKeys {
+    private static final String PROVIDER = "AndroidKeyStore";
+
+    private LocalKeys() { }
+
+    //获取或创建指定别名的密钥；密钥库不可用时退回进程内临时密钥，本次写入的数据重启后不可读
+    static RecordCipher cipher(String alias) {
+        try {
+            return new RecordCipher(getOrCreate(alias));
+        } catch (Exception e) {
+            Log.e("OCR_KEYS", "密钥库不可用，使用临时密钥: " + e.getMessage());
+            return RecordCipher.withEphemeralKey();
+        }
+    }
+
+    private static SecretKey getOrCreate(String alias) throws GeneralSecurityException, IOException {
+        KeyStore keyStore = KeyStore.getInstance(PROVIDER);
+        keyStore.load(null);
+        KeyStore.Entry entry = keyStore.getEntry(alias, null);
+        if (entry instanceof KeyStore.SecretKeyEntry) return ((KeyStore.SecretKeyEntry) entry).getSecretKey();
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, PROVIDER);
+        generator.init(new KeyGenParameterSpec.Builder(alias, KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .setKeySize(256)
+                .build());
+        return generator.generateKey();
+    }
+}
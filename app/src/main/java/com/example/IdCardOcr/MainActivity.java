@@ -7,6 +7,7 @@ import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
+import android.util.Log;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -23,42 +24,98 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
-import com.example.IdCardOcr.model.Base64Util;
+import com.example.IdCardOcr.batch.BatchItemResult;
+import com.example.IdCardOcr.batch.BatchProgress;
+import com.example.IdCardOcr.batch.BatchRecognizer;
+import com.example.IdCardOcr.batch.ImageSources;
+import com.example.IdCardOcr.batch.StageLimits;
+import com.example.IdCardOcr.cache.CachedOcrClient;
+import com.example.IdCardOcr.history.HistoryRecognizer;
+import com.example.IdCardOcr.history.HistoryStore;
+import com.example.IdCardOcr.image.BitmapPool;
+import com.example.IdCardOcr.image.ImagePreprocessor;
+import com.example.IdCardOcr.image.PreprocessedImage;
+import com.example.IdCardOcr.image.PreviewLoader;
+import com.example.IdCardOcr.image.QualityReport;
+import com.example.IdCardOcr.metrics.ScanMetrics;
 import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.Deadline;
+import com.example.IdCardOcr.network.DualSideRecognizer;
 import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.network.OcrFuture;
+import com.example.IdCardOcr.network.OcrLog;
 import com.example.IdCardOcr.network.SignHelper;
+import com.example.IdCardOcr.queue.JobListener;
+import com.example.IdCardOcr.queue.OfflineJob;
+import com.example.IdCardOcr.queue.OfflineJobs;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 //主界面Activity：拍照或选择图片进行身份证OCR识别
 public class MainActivity extends AppCompatActivity {
     //权限请求码
     private static final int REQUEST_CAMERA_PERMISSION = 100;
     private static final int REQUEST_STORAGE_PERMISSION = 101;
+    private static final int REQUEST_SCAN_PERMISSION = 102;
+    private static final int REQUEST_BATCH_PERMISSION = 103;
+    private static final int REQUEST_DUAL_SIDE_PERMISSION = 104;
+    //单张识别总时限，涵盖预处理、签名、限流排队、重试和网络
+    private static final long SCAN_DEADLINE_MS = 40_000;
     //图片URI
     private Uri photoUri;
     private Uri selectedImageUri;
-    //OCR客户端
+    //OCR客户端（带结果缓存）和图片预处理器
     private OcrApiClient ocrApiClient;
+    private CachedOcrClient cachedOcrClient;
+    private DualSideRecognizer dualSideRecognizer;
+    //识别历史：同一图片不重复上传，同一证件提示已识别过
+    private HistoryStore historyStore;
+    private HistoryRecognizer historyRecognizer;
+    private ImagePreprocessor imagePreprocessor;
+    //当前单张识别（预处理+上传），选择新图片、重新识别或离开页面时取消
+    private OcrFuture<IdentifyResult> currentScan;
+    //预处理和预览共用的Bitmap池，预览图后台按控件尺寸加载
+    private BitmapPool bitmapPool;
+    private PreviewLoader previewLoader;
     //UI控件
     private TextView titleText;
     private ImageView photoView;
     private Button btnTakePhoto;
+    private Button btnScan;
     private Button btnSelectImage;
     private Button btnUpload;
+    private Button btnDualSide;
+    private Button btnBatchSelect;
+    private Button btnBatchFolder;
+    private TextView tvBatchProgress;
     //Activity结果启动器
     private ActivityResultLauncher<Intent> cameraLauncher;
+    private ActivityResultLauncher<Intent> scanLauncher;
     private ActivityResultLauncher<Intent> selectImageLauncher;
+    private ActivityResultLauncher<Intent> batchSelectLauncher;
+    private ActivityResultLauncher<Intent> dualFrontLauncher;
+    private ActivityResultLauncher<Intent> dualBackLauncher;
+    private ActivityResultLauncher<Intent> batchFolderLauncher;
+    //进程级离线任务队列：网络不可用时保存待识别图片，联网后自动重放；本页面只订阅结果
+    private OfflineJobs offlineJobs;
+    private JobListener offlineListener;
+    //批量识别器及当前批次
+    private BatchRecognizer<Uri> batchRecognizer;
+    private BatchRecognizer<Uri>.Batch currentBatch;
+    //已选人像面、等待选择国徽面的正反面识别
+    private DualSideRecognizer.Session pendingDualSession;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_main);
-        //初始化腾讯云密钥
-        SignHelper.init(getApplicationContext());
+        //核心库日志转到Logcat，并从assets/env加载腾讯云密钥
+        OcrLog.setSink(Log::println);
+        initCredentials();
         initViews();
         initOcrClient();
         initLaunchers();
@@ -66,16 +123,115 @@ public class MainActivity extends AppCompatActivity {
         setupEdgeToEdge();
     }
 
-    //初始化OCR客户端单例
-    private void initOcrClient() { ocrApiClient = OcrApiClient.getInstance(); }
+    //回到前台时预热连接，用户取景期间完成握手；前台期间后台探测各地域接入点
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (ocrApiClient != null) {
+            ocrApiClient.startEndpointProbing();
+            ocrApiClient.warmUp();
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (ocrApiClient != null) ocrApiClient.stopEndpointProbing();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (currentScan != null) currentScan.cancel(true);
+        if (currentBatch != null) currentBatch.cancel();
+        if (batchRecognizer != null) batchRecognizer.shutdown();
+        if (imagePreprocessor != null) imagePreprocessor.shutdown();
+        if (previewLoader != null) previewLoader.release();
+        if (bitmapPool != null) bitmapPool.clear();
+        if (offlineJobs != null) offlineJobs.removeListener(offlineListener);
+    }
+
+    //内存紧张时释放池中的空闲Bitmap
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (previewLoader != null) previewLoader.onTrimMemory(level);
+        if (bitmapPool != null) bitmapPool.onTrimMemory(level);
+    }
+
+    //初始化OCR客户端单例和图片预处理器
+    private void initOcrClient() {
+        ocrApiClient = OcrApiClient.getInstance();
+        //缓存和历史为进程级，Activity重建时复用同一实例
+        OcrServices services = OcrServices.getInstance(this);
+        cachedOcrClient = services.getCachedOcrClient();
+        historyStore = services.getHistoryStore();
+        historyRecognizer = services.getHistoryRecognizer();
+        bitmapPool = new BitmapPool(BitmapPool.defaultMaxBytes());
+        imagePreprocessor = new ImagePreprocessor(getContentResolver(), bitmapPool);
+        previewLoader = new PreviewLoader(photoView, getContentResolver(), bitmapPool);
+        dualSideRecognizer = new DualSideRecognizer(cachedOcrClient);
+        //批量识别：解码、压缩、签名、上传分别限流，OkHttp调度器按上传并发预留容量
+        batchRecognizer = new BatchRecognizer<>(imagePreprocessor.batchStages(), cachedOcrClient, StageLimits.DEFAULT);
+        ocrApiClient.setMaxConcurrentRequests(batchRecognizer.getUploadConcurrency());
+        initOfflineQueue();
+    }
+
+    //获取进程级离线队列并订阅任务结果，队列的打开、网络监听和重放不随Activity重建
+    private void initOfflineQueue() {
+        try {
+            offlineJobs = OcrServices.getInstance(this).getOfflineJobs();
+        } catch (IOException e) {
+            Log.e("OCR_OFFLINE", "打开离线队列失败: " + e.getMessage());
+            return;
+        }
+        offlineListener = new JobListener() {
+            @Override
+            public void onJobCompleted(OfflineJob job, IdentifyResult result) {
+                Log.d("OCR_OFFLINE", job + " -> " + result.getName() + ", " + result.getId());
+                runOnUiThread(() -> Toast.makeText(MainActivity.this, "离线任务识别完成: " + result.getName(), Toast.LENGTH_SHORT).show());
+            }
+            @Override
+            public void onJobFailed(OfflineJob job, String error) {
+                Log.w("OCR_OFFLINE", job + " 失败: " + error);
+            }
+        };
+        offlineJobs.addListener(offlineListener);
+    }
+
+    //保存到离线队列，返回是否成功
+    private boolean enqueueOffline(byte[] jpegBytes) {
+        if (offlineJobs == null) return false;
+        try {
+            offlineJobs.enqueue(jpegBytes, CardSide.FRONT);
+            return true;
+        } catch (IOException e) {
+            Log.e("OCR_OFFLINE", "保存离线任务失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    //从assets/env文件加载密钥
+    private void initCredentials() {
+        try {
+            SignHelper.init(getAssets().open("env"));
+        } catch (IOException e) {
+            Log.e("SignHelper", "加载env文件失败: " + e.getMessage());
+        }
+    }
 
     //绑定UI控件
     private void initViews() {
         titleText = findViewById(R.id.titleText);
         photoView = findViewById(R.id.photoView);
         btnTakePhoto = findViewById(R.id.btnTakePhoto);
+        btnScan = findViewById(R.id.btnScan);
         btnSelectImage = findViewById(R.id.btnSelectImage);
         btnUpload = findViewById(R.id.btnUpload);
+        btnDualSide = findViewById(R.id.btnDualSide);
+        btnBatchSelect = findViewById(R.id.btnBatchSelect);
+        btnBatchFolder = findViewById(R.id.btnBatchFolder);
+        tvBatchProgress = findViewById(R.id.tvBatchProgress);
     }
 
     //初始化Activity结果启动器
@@ -87,55 +243,107 @@ public class MainActivity extends AppCompatActivity {
                     if (result.getResultCode() == RESULT_OK) {
                         Intent data = result.getData();
                         selectedImageUri = null;
-                        photoView.setImageDrawable(null);
+                        cancelCurrentScan();
+                        previewLoader.clear();
                         //优先从Intent获取缩略图
                         if (data != null && data.getExtras() != null) {
                             Bitmap thumbnailBitmap = (Bitmap) data.getExtras().get("data");
                             if (thumbnailBitmap != null) {
-                                photoView.setImageBitmap(thumbnailBitmap);
+                                previewLoader.show(thumbnailBitmap);
                                 Toast.makeText(this, "照片拍摄成功", Toast.LENGTH_SHORT).show();
                                 return;
                             }
                         }
-                        //从photoUri加载完整图片
+                        //从photoUri后台按预览尺寸加载照片
                         if (photoUri != null) {
-                            try {
-                                Bitmap bitmap = MediaStore.Images.Media.getBitmap(getContentResolver(), photoUri);
-                                photoView.setImageBitmap(bitmap);
-                                Toast.makeText(this, "照片拍摄成功", Toast.LENGTH_SHORT).show();
-                            } catch (IOException e) {
-                                Toast.makeText(this, "加载照片失败", Toast.LENGTH_SHORT).show();
-                            }
+                            previewLoader.load(photoUri, success -> Toast.makeText(this,
+                                    success ? "照片拍摄成功" : "加载照片失败", Toast.LENGTH_SHORT).show());
                         } else {
                             Toast.makeText(this, "照片数据获取失败", Toast.LENGTH_SHORT).show();
                         }
                     }
                 });
+        //连续扫描结果回调处理：选出的最佳帧直接上传识别
+        scanLauncher = registerForActivityResult(
+                new ActivityResultContracts.StartActivityForResult(),
+                result -> {
+                    if (result.getResultCode() == RESULT_OK && result.getData() != null && result.getData().getData() != null) {
+                        photoUri = null;
+                        selectedImageUri = result.getData().getData();
+                        previewLoader.load(selectedImageUri, null);
+                        uploadAndRecognize();
+                    }
+                });
         //相册选择结果回调处理
         selectImageLauncher = registerForActivityResult(
                 new ActivityResultContracts.StartActivityForResult(),
                 result -> {
                     if (result.getResultCode() == RESULT_OK && result.getData() != null) {
                         photoUri = null;
-                        photoView.setImageDrawable(null);
+                        cancelCurrentScan();
+                        previewLoader.clear();
                         selectedImageUri = result.getData().getData();
                         if (selectedImageUri != null) {
-                            photoView.setImageURI(selectedImageUri);
+                            previewLoader.load(selectedImageUri, null);
                             Toast.makeText(this, "图片选择成功", Toast.LENGTH_SHORT).show();
                         }
                     }
                 });
+        //批量多选结果回调处理
+        batchSelectLauncher = registerForActivityResult(
+                new ActivityResultContracts.StartActivityForResult(),
+                result -> {
+                    if (result.getResultCode() == RESULT_OK) startBatch(ImageSources.fromPickerResult(result.getData()));
+                });
+        //正反面分两次选择：先人像面，再国徽面，相册多选不保证顺序
+        dualFrontLauncher = registerForActivityResult(
+                new ActivityResultContracts.StartActivityForResult(),
+                result -> {
+                    List<Uri> uris = ImageSources.fromPickerResult(result.getData());
+                    if (result.getResultCode() == RESULT_OK && !uris.isEmpty()) startDualSide(uris.get(0));
+                });
+        dualBackLauncher = registerForActivityResult(
+                new ActivityResultContracts.StartActivityForResult(),
+                result -> {
+                    List<Uri> uris = ImageSources.fromPickerResult(result.getData());
+                    onDualBackPicked(result.getResultCode() == RESULT_OK && !uris.isEmpty() ? uris.get(0) : null);
+                });
+        //批量文件夹选择结果回调处理
+        batchFolderLauncher = registerForActivityResult(
+                new ActivityResultContracts.StartActivityForResult(),
+                result -> {
+                    if (result.getResultCode() == RESULT_OK && result.getData() != null && result.getData().getData() != null) {
+                        listFolderAndStartBatch(result.getData().getData());
+                    }
+                });
     }
 
     //设置按钮点击监听器
     private void setupListeners() {
         btnTakePhoto.setOnClickListener(v -> {
+            ocrApiClient.warmUp();
             if (checkCameraPermission()) { openCamera(); } else { requestCameraPermission(); }
         });
+        btnScan.setOnClickListener(v -> {
+            ocrApiClient.warmUp();
+            if (checkCameraPermission()) {
+                openScanner();
+            } else {
+                ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.CAMERA}, REQUEST_SCAN_PERMISSION);
+            }
+        });
         btnSelectImage.setOnClickListener(v -> {
-            if (checkStoragePermission()) { openImageSelector(); } else { requestStoragePermission(); }
+            ocrApiClient.warmUp();
+            if (checkStoragePermission()) { openImageSelector(); } else { requestStoragePermission(REQUEST_STORAGE_PERMISSION); }
         });
         btnUpload.setOnClickListener(v -> uploadAndRecognize());
+        btnDualSide.setOnClickListener(v -> {
+            if (checkStoragePermission()) { openDualSideSelector(); } else { requestStoragePermission(REQUEST_DUAL_SIDE_PERMISSION); }
+        });
+        btnBatchSelect.setOnClickListener(v -> {
+            if (checkStoragePermission()) { openBatchSelector(); } else { requestStoragePermission(REQUEST_BATCH_PERMISSION); }
+        });
+        btnBatchFolder.setOnClickListener(v -> openFolderSelector());
     }
 
     //设置全面屏边距适配
@@ -166,12 +374,12 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    //请求存储权限
-    private void requestStoragePermission() {
+    //请求存储权限，请求码区分授权后要打开的选择器
+    private void requestStoragePermission(int requestCode) {
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.TIRAMISU) {
-            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.READ_MEDIA_IMAGES}, REQUEST_STORAGE_PERMISSION);
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.READ_MEDIA_IMAGES}, requestCode);
         } else {
-            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.READ_EXTERNAL_STORAGE}, REQUEST_STORAGE_PERMISSION);
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.READ_EXTERNAL_STORAGE}, requestCode);
         }
     }
 
@@ -196,6 +404,11 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    //打开连续扫描页面
+    private void openScanner() {
+        scanLauncher.launch(new Intent(this, ScanActivity.class));
+    }
+
     //打开系统相册选择图片
     private void openImageSelector() {
         Intent intent = new Intent(Intent.ACTION_PICK, MediaStore.Images.Media.EXTERNAL_CONTENT_URI);
@@ -203,6 +416,32 @@ public class MainActivity extends AppCompatActivity {
         selectImageLauncher.launch(intent);
     }
 
+    //打开系统相册多选图片
+    private void openBatchSelector() {
+        Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
+        intent.setType("image/*");
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
+        batchSelectLauncher.launch(intent);
+    }
+
+    //打开系统相册选择人像面，选好后再选择国徽面
+    private void openDualSideSelector() {
+        Toast.makeText(this, "请选择人像面", Toast.LENGTH_SHORT).show();
+        dualFrontLauncher.launch(singleImagePicker());
+    }
+
+    //单选图片
+    private static Intent singleImagePicker() {
+        Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
+        intent.setType("image/*");
+        return intent;
+    }
+
+    //打开系统文件夹选择器
+    private void openFolderSelector() {
+        batchFolderLauncher.launch(new Intent(Intent.ACTION_OPEN_DOCUMENT_TREE));
+    }
+
     //创建临时图片文件
     private File createImageFile() throws IOException {
         String timeStamp = String.valueOf(System.currentTimeMillis());
@@ -221,12 +460,30 @@ public class MainActivity extends AppCompatActivity {
             } else {
                 Toast.makeText(this, "相机权限被拒绝，无法拍照", Toast.LENGTH_SHORT).show();
             }
+        } else if (requestCode == REQUEST_SCAN_PERMISSION) {
+            if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+                openScanner();
+            } else {
+                Toast.makeText(this, "相机权限被拒绝，无法扫描", Toast.LENGTH_SHORT).show();
+            }
         } else if (requestCode == REQUEST_STORAGE_PERMISSION) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
                 openImageSelector();
             } else {
                 Toast.makeText(this, "存储权限被拒绝，无法选择图片", Toast.LENGTH_SHORT).show();
             }
+        } else if (requestCode == REQUEST_BATCH_PERMISSION) {
+            if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+                openBatchSelector();
+            } else {
+                Toast.makeText(this, "存储权限被拒绝，无法选择图片", Toast.LENGTH_SHORT).show();
+            }
+        } else if (requestCode == REQUEST_DUAL_SIDE_PERMISSION) {
+            if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+                openDualSideSelector();
+            } else {
+                Toast.makeText(this, "存储权限被拒绝，无法选择图片", Toast.LENGTH_SHORT).show();
+            }
         }
     }
 
@@ -242,60 +499,173 @@ public class MainActivity extends AppCompatActivity {
             Toast.makeText(this, "请先拍照或选择图片", Toast.LENGTH_SHORT).show();
             return;
         }
+        cancelCurrentScan();
         showLoading();
         Uri imageUri = (selectedImageUri != null) ? selectedImageUri : photoUri;
-        try {
-            //将图片转换为Base64编码
-            String base64Image = convertImageToBase64(imageUri);
-            if (base64Image == null || base64Image.isEmpty()) {
-                hideLoading();
-                Toast.makeText(this, "图片转换失败", Toast.LENGTH_SHORT).show();
-                return;
+        //后台线程解码、缩放并压缩为JPEG，完成后直接提交OCR识别；整个过程共用一个截止时间，可随时取消
+        final Deadline deadline = Deadline.after(SCAN_DEADLINE_MS);
+        final OcrFuture<IdentifyResult> scan = imagePreprocessor.processAsync(imageUri, deadline).then(image -> {
+            //质量一般时提示但仍上传，不合格的图片在预处理阶段已被拒绝
+            if (image.getQuality() != null && image.getQuality().getVerdict() == QualityReport.Verdict.WARN) {
+                final String warning = image.getQuality().describe();
+                runOnUiThread(() -> Toast.makeText(MainActivity.this, "图片质量提示: " + warning, Toast.LENGTH_SHORT).show());
             }
-            //异步调用OCR接口
-            ocrApiClient.recognizeIdCard(base64Image, new OcrApiClient.Callback() {
-                @Override
-                public void onSuccess(IdentifyResult result) {
-                    //切换到主线程更新UI
-                    runOnUiThread(() -> {
-                        hideLoading();
-                        navigateToResultActivity(result);
-                    });
-                }
-                @Override
-                public void onFailure(String error) {
-                    runOnUiThread(() -> {
-                        hideLoading();
-                        Toast.makeText(MainActivity.this, "识别失败: " + error, Toast.LENGTH_LONG).show();
-                    });
+            return recognize(image.getJpegBytes(), deadline);
+        });
+        currentScan = scan;
+        scan.whenComplete((result, error) -> {
+            //被新的识别取代或离开页面，不再更新界面
+            if (scan.isCancelled()) return;
+            final int seen = result != null && result.getId() != null ? historyStore.findByIdNum(result.getId()).size() : 0;
+            if (result != null) {
+                Log.d("OCR_CACHE", cachedOcrClient.getStats() + ", historyDuplicates=" + historyRecognizer.getDuplicateCount());
+                Log.d("OCR_METRICS", ScanMetrics.getInstance().summary() + "dns " + ocrApiClient.getDnsStats()
+                        + "\nendpoints " + ocrApiClient.getEndpointSelector().getStats() + "\nbitmapPool " + bitmapPool.getStats()
+                        + "\npreview " + previewLoader.getStats() + "\ncancelled " + ocrApiClient.getCancelledCount()
+                        + "\nclock " + ocrApiClient.getServerClock().getStats() + ", resigned=" + ocrApiClient.getClockSkewRetryCount());
+            }
+            //切换到主线程更新UI
+            runOnUiThread(() -> {
+                if (currentScan != scan) return;
+                currentScan = null;
+                hideLoading();
+                if (result != null) {
+                    if (seen > 1) Toast.makeText(MainActivity.this, "该证件此前已识别过" + (seen - 1) + "次", Toast.LENGTH_SHORT).show();
+                    navigateToResultActivity(result);
+                } else if (OcrFuture.unwrap(error) instanceof QueuedOfflineException) {
+                    Toast.makeText(MainActivity.this, OcrFuture.errorMessage(error), Toast.LENGTH_LONG).show();
+                } else {
+                    Toast.makeText(MainActivity.this, "识别失败: " + OcrFuture.errorMessage(error), Toast.LENGTH_LONG).show();
                 }
             });
-        } catch (Exception e) {
-            Toast.makeText(this, "处理图片异常: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    //取消进行中的单张识别：中止预处理和HTTP调用，不再回调界面
+    private void cancelCurrentScan() {
+        if (currentScan == null) return;
+        currentScan.cancel(true);
+        currentScan = null;
+        hideLoading();
+    }
+
+    //识别已转入离线队列，联网后自动重放
+    private static final class QueuedOfflineException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        QueuedOfflineException(String message) { super(message); }
+    }
+
+    //识别预处理后的图片，相同图片命中缓存或合并到进行中的请求；无网络或临时故障（网络异常、服务端故障、熔断、超时）时转入离线队列
+    private OcrFuture<IdentifyResult> recognize(final byte[] jpegBytes, Deadline deadline) {
+        if (offlineJobs != null && !offlineJobs.isOnline() && enqueueOffline(jpegBytes)) {
+            return OcrFuture.failed(new QueuedOfflineException("网络不可用，已加入离线队列，联网后自动识别"));
         }
+        return historyRecognizer.recognizeAsync(jpegBytes, CardSide.FRONT, deadline).mapError(error -> {
+            boolean queued = OcrFuture.isTransient(error) && enqueueOffline(jpegBytes);
+            return queued ? new QueuedOfflineException(OcrFuture.errorMessage(error) + "，已加入离线队列，稍后自动识别") : error;
+        });
     }
 
-    //将URI对应的图片转换为Base64字符串
-    private String convertImageToBase64(Uri imageUri) {
-        try {
-            Bitmap bitmap = MediaStore.Images.Media.getBitmap(getContentResolver(), imageUri);
-            return bitmapToBase64(bitmap);
-        } catch (IOException e) {
-            return null;
+    //正反面识别：人像面选好即开始预处理和上传，与选择国徽面重叠
+    private void startDualSide(Uri frontUri) {
+        if (!SignHelper.hasValidCredentials()) {
+            Toast.makeText(this, "错误：腾讯云密钥未配置，请检查assets/env文件", Toast.LENGTH_LONG).show();
+            return;
         }
+        showLoading();
+        final DualSideRecognizer.Session session = dualSideRecognizer.start(new DualSideRecognizer.Callback() {
+            @Override
+            public void onSuccess(IdentifyResult merged) {
+                runOnUiThread(() -> {
+                    hideLoading();
+                    navigateToResultActivity(merged);
+                });
+            }
+            @Override
+            public void onPartialSuccess(IdentifyResult merged, CardSide failedSide, String error) {
+                runOnUiThread(() -> {
+                    hideLoading();
+                    String side = failedSide == CardSide.FRONT ? "人像面" : "国徽面";
+                    Toast.makeText(MainActivity.this, side + "识别失败: " + error, Toast.LENGTH_LONG).show();
+                    navigateToResultActivity(merged);
+                });
+            }
+            @Override
+            public void onFailure(String frontError, String backError) {
+                runOnUiThread(() -> {
+                    hideLoading();
+                    Toast.makeText(MainActivity.this, "识别失败: " + frontError + "; " + backError, Toast.LENGTH_LONG).show();
+                });
+            }
+        });
+        preprocessAndSubmit(session, CardSide.FRONT, frontUri);
+        pendingDualSession = session;
+        Toast.makeText(this, "请选择国徽面", Toast.LENGTH_SHORT).show();
+        dualBackLauncher.launch(singleImagePicker());
     }
 
-    //Bitmap转Base64编码
-    private String bitmapToBase64(Bitmap bitmap) {
-        if (bitmap == null) return null;
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            //压缩为JPEG格式，质量80%
-            bitmap.compress(Bitmap.CompressFormat.JPEG, 80, baos);
-            return Base64Util.encode(baos.toByteArray());
-        } catch (Exception e) {
-            return null;
+    //国徽面选择结果，未选择时只返回人像面结果
+    private void onDualBackPicked(Uri backUri) {
+        DualSideRecognizer.Session session = pendingDualSession;
+        pendingDualSession = null;
+        //页面重建后没有进行中的会话，忽略
+        if (session == null) return;
+        if (backUri != null) preprocessAndSubmit(session, CardSide.BACK, backUri); else session.fail(CardSide.BACK, "未选择国徽面");
+    }
+
+    //预处理完成后立即提交该面
+    private void preprocessAndSubmit(final DualSideRecognizer.Session session, final CardSide side, Uri uri) {
+        imagePreprocessor.process(uri, new ImagePreprocessor.Callback() {
+            @Override
+            public void onSuccess(PreprocessedImage image) { session.submit(side, image.getJpegBytes()); }
+            @Override
+            public void onFailure(String error) { session.fail(side, error); }
+        });
+    }
+
+    //在解码线程池上列出文件夹中的图片（ContentResolver查询可能很慢），回到主线程开始批量识别
+    private void listFolderAndStartBatch(Uri treeUri) {
+        batchRecognizer.execute(() -> {
+            try {
+                List<Uri> uris = ImageSources.listImagesInTree(getContentResolver(), treeUri);
+                runOnUiThread(() -> { if (!isDestroyed()) startBatch(uris); });
+            } catch (RuntimeException e) {
+                runOnUiThread(() -> Toast.makeText(MainActivity.this, "读取文件夹失败: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+            }
+        });
+    }
+
+    //批量识别，逐项在日志输出结果，进度实时显示
+    private void startBatch(List<Uri> uris) {
+        if (!SignHelper.hasValidCredentials()) {
+            Toast.makeText(this, "错误：腾讯云密钥未配置，请检查assets/env文件", Toast.LENGTH_LONG).show();
+            return;
+        }
+        if (uris.isEmpty()) {
+            Toast.makeText(this, "未找到图片", Toast.LENGTH_SHORT).show();
+            return;
         }
+        if (currentBatch != null) currentBatch.cancel();
+        tvBatchProgress.setText("批量识别: 0/" + uris.size());
+        currentBatch = batchRecognizer.submit(uris, CardSide.FRONT, new BatchRecognizer.Listener<Uri>() {
+            @Override
+            public void onItemComplete(BatchItemResult<Uri> item, BatchProgress progress) {
+                if (item.isSuccess()) {
+                    Log.d("OCR_BATCH", item.getSource() + " -> " + item.getResult().getName() + ", " + item.getResult().getId() + ", " + item.getLatencyMs() + "ms");
+                } else {
+                    Log.w("OCR_BATCH", item.getSource() + " 失败: " + item.getError());
+                }
+                runOnUiThread(() -> tvBatchProgress.setText("批量识别: " + progress));
+            }
+            @Override
+            public void onBatchComplete(BatchProgress progress) {
+                runOnUiThread(() -> {
+                    tvBatchProgress.setText("批量识别完成: " + progress);
+                    Toast.makeText(MainActivity.this, "批量识别完成，成功" + progress.getSucceeded() + "张，失败" + progress.getFailed() + "张", Toast.LENGTH_LONG).show();
+                });
+            }
+        });
     }
 
     //跳转到结果展示页面
@@ -0,0 +1,71 @@
+package com.example.IdCardOcr;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.IdCardOcr.cache.CachedOcrClient;
+import com.example.IdCardOcr.cache.ResultCache;
+import com.example.IdCardOcr.history.HistoryRecognizer;
+import com.example.IdCardOcr.history.HistoryStore;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.queue.OfflineJobs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//进程级识别组件：结果缓存、识别历史、去重识别器和离线队列随进程存在，不随Activity重建
+//同一个历史文件只由一个HistoryStore读写，避免旧实例在压缩重命名后重新打开文件导致追加丢失
+final class OcrServices {
+    //识别历史保留180天
+    private static final long HISTORY_RETENTION_MS = 180L * 24 * 60 * 60 * 1000;
+
+    private static OcrServices instance;
+
+    private final Context context;
+    private final CachedOcrClient cachedOcrClient;
+    private final HistoryStore historyStore;
+    private final HistoryRecognizer historyRecognizer;
+    //首次使用时打开，打开失败时下次调用重试
+    private OfflineJobs offlineJobs;
+    //历史加载和压缩在后台线程执行
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ocr-history");
+        t.setDaemon(true);
+        return t;
+    });
+
+    //首次调用时创建，并在后台加载历史、按保留期压缩一次
+    static synchronized OcrServices getInstance(Context context) {
+        if (instance == null) instance = new OcrServices(context.getApplicationContext());
+        return instance;
+    }
+
+    private OcrServices(Context context) {
+        this.context = context;
+        cachedOcrClient = new CachedOcrClient(OcrApiClient.getInstance(),
+                new ResultCache(new File(context.getCacheDir(), "ocr_results"), LocalKeys.cipher("ocr_results")));
+        historyStore = new HistoryStore(new File(context.getFilesDir(), "history.jsonl"), LocalKeys.cipher("ocr_history"));
+        historyRecognizer = new HistoryRecognizer(cachedOcrClient, historyStore);
+        background.execute(() -> {
+            try {
+                int removed = historyStore.compact(HISTORY_RETENTION_MS, System.currentTimeMillis());
+                Log.d("OCR_HISTORY", "历史记录" + historyStore.size() + "条，清理过期" + removed + "条");
+            } catch (IOException e) {
+                Log.w("OCR_HISTORY", "压缩历史失败: " + e.getMessage());
+            }
+        });
+    }
+
+    //离线队列：重放经由历史识别器，离线结果同样进入缓存和历史
+    synchronized OfflineJobs getOfflineJobs() throws IOException {
+        if (offlineJobs == null) offlineJobs = new OfflineJobs(context, historyRecognizer, LocalKeys.cipher("ocr_offline"));
+        return offlineJobs;
+    }
+
+    //Getter方法
+    CachedOcrClient getCachedOcrClient() { return cachedOcrClient; }
+    HistoryStore getHistoryStore() { return historyStore; }
+    HistoryRecognizer getHistoryRecognizer() { return historyRecognizer; }
+}
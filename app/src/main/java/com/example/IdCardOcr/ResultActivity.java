@@ -2,6 +2,7 @@ package com.example.IdCardOcr;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 
@@ -22,6 +23,8 @@ public class ResultActivity extends AppCompatActivity {
     private TextView tvBirthDate;
     private TextView tvAddress;
     private TextView tvIdNumber;
+    private TextView tvAuthority;
+    private TextView tvValidDate;
     private Button btnBack;
 
     @Override
@@ -48,6 +51,8 @@ public class ResultActivity extends AppCompatActivity {
         tvBirthDate = findViewById(R.id.tvBirthDate);
         tvAddress = findViewById(R.id.tvAddress);
         tvIdNumber = findViewById(R.id.tvIdNumber);
+        tvAuthority = findViewById(R.id.tvAuthority);
+        tvValidDate = findViewById(R.id.tvValidDate);
         btnBack = findViewById(R.id.btnBack);
     }
 
@@ -64,7 +69,17 @@ public class ResultActivity extends AppCompatActivity {
                 tvBirthDate.setText("出生日期：" + result.getBirth());
                 tvAddress.setText("地址：" + result.getAddress());
                 tvIdNumber.setText("身份证号：" + result.getId());
+                //国徽面字段仅在正反面识别时存在
+                showIfPresent(tvAuthority, "签发机关：", result.getAuthority());
+                showIfPresent(tvValidDate, "有效期限：", result.getValidDate());
             }
         }
     }
-}
\ No newline at end of file
+
+    //字段非空时显示
+    private static void showIfPresent(TextView view, String label, String value) {
+        if (value == null || value.isEmpty()) return;
+        view.setText(label + value);
+        view.setVisibility(View.VISIBLE);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.IdCardOcr;
+
+import android.content.Intent;
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.SurfaceTexture;
+import android.graphics.YuvImage;
+import android.hardware.camera2.CameraAccessException;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.Log;
+import android.util.Size;
+import android.view.TextureView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.IdCardOcr.capture.BestFrameSelector;
+import com.example.IdCardOcr.capture.CameraFrameSource;
+import com.example.IdCardOcr.capture.FrameScore;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//连续取景扫描页面：实时分析预览帧，证件清晰稳定时自动选出最佳帧并返回给主界面上传识别
+public class ScanActivity extends AppCompatActivity {
+    //最佳帧JPEG质量，主界面预处理时还会裁剪并重新压缩
+    private static final int JPEG_QUALITY = 95;
+    //UI控件
+    private TextureView textureView;
+    private TextView tvHint;
+    //相机与选帧器
+    private CameraFrameSource frameSource;
+    private BestFrameSelector selector;
+    //最佳帧转JPEG用的NV21缓冲区，色度固定为中性灰，按分辨率复用
+    private byte[] nv21;
+    private String currentHint;
+    //开始取景时的界面方向，保存最佳帧时据此写EXIF方向
+    private volatile int displayRotation;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_scan);
+        textureView = findViewById(R.id.textureView);
+        tvHint = findViewById(R.id.tvScanHint);
+        frameSource = new CameraFrameSource(this);
+        selector = new BestFrameSelector(this::onBestFrame);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (textureView.isAvailable()) {
+            startCamera(textureView.getSurfaceTexture());
+        } else {
+            textureView.setSurfaceTextureListener(new TextureView.SurfaceTextureListener() {
+                @Override
+                public void onSurfaceTextureAvailable(@NonNull SurfaceTexture surface, int width, int height) { startCamera(surface); }
+                @Override
+                public void onSurfaceTextureSizeChanged(@NonNull SurfaceTexture surface, int width, int height) {
+                    applyPreviewTransform(width, height);
+                }
+                @Override
+                public boolean onSurfaceTextureDestroyed(@NonNull SurfaceTexture surface) { return true; }
+                @Override
+                public void onSurfaceTextureUpdated(@NonNull SurfaceTexture surface) { }
+            });
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        frameSource.stop();
+        super.onPause();
+    }
+
+    //开始取景，分析帧交给选帧器
+    private void startCamera(SurfaceTexture surface) {
+        selector.reset();
+        displayRotation = getWindowManager().getDefaultDisplay().getRotation();
+        try {
+            frameSource.start(surface, new CameraFrameSource.FrameCallback() {
+                @Override
+                public void onFrame(ByteBuffer yPlane, int width, int height, int rowStride, long timestampNanos) {
+                    if (!selector.isArmed()) return;
+                    showHint(hintFor(selector.onFrame(yPlane, width, height, rowStride, timestampNanos)));
+                }
+                @Override
+                public void onError(String error) { finishWithError(error); }
+            });
+            applyPreviewTransform(textureView.getWidth(), textureView.getHeight());
+        } catch (CameraAccessException | RuntimeException e) {
+            finishWithError("相机不可用: " + e.getMessage());
+        }
+    }
+
+    //按界面方向旋转预览并等比铺满，视图尺寸未知或相机未启动时跳过
+    private void applyPreviewTransform(int viewWidth, int viewHeight) {
+        Size streamSize = frameSource.getStreamSize();
+        if (streamSize == null || viewWidth == 0 || viewHeight == 0) return;
+        textureView.setTransform(CameraFrameSource.previewTransform(viewWidth, viewHeight, streamSize,
+                getWindowManager().getDefaultDisplay().getRotation()));
+    }
+
+    //根据当前帧评分给出取景提示
+    private static String hintFor(FrameScore score) {
+        if (!score.isCardPresent()) return "请将身份证放入取景框";
+        if (!score.isEligible()) return "请保持手机稳定";
+        return "正在选取最清晰的一帧…";
+    }
+
+    //提示变化时才切换到主线程更新
+    private void showHint(String hint) {
+        if (hint.equals(currentHint)) return;
+        currentHint = hint;
+        runOnUiThread(() -> tvHint.setText(hint));
+    }
+
+    //在分析线程上把最佳帧编码为JPEG写入缓存目录，返回文件URI给主界面
+    //帧保持传感器方向，写入EXIF方向由预处理统一旋转，不在此处旋转像素
+    private void onBestFrame(BestFrameSelector.Frame frame) {
+        int width = frame.getWidth(), height = frame.getHeight();
+        if (nv21 == null || nv21.length != width * height * 3 / 2) {
+            nv21 = new byte[width * height * 3 / 2];
+            Arrays.fill(nv21, width * height, nv21.length, (byte) 128);
+        }
+        System.arraycopy(frame.getLuma(), 0, nv21, 0, width * height);
+        Log.d("OCR_SCAN", "最佳帧: " + frame.getScore().describe() + ", " + selector.getStats());
+        File file = new File(getCacheDir(), "scan_" + System.currentTimeMillis() + ".jpg");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            new YuvImage(nv21, ImageFormat.NV21, width, height, null).compressToJpeg(new Rect(0, 0, width, height), JPEG_QUALITY, out);
+        } catch (IOException e) {
+            finishWithError("保存扫描图片失败: " + e.getMessage());
+            return;
+        }
+        int rotation = CameraFrameSource.frameRotation(frameSource.getSensorOrientation(), displayRotation);
+        if (rotation != 0) {
+            try {
+                ExifInterface exif = new ExifInterface(file.getAbsolutePath());
+                exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(CameraFrameSource.exifOrientation(rotation)));
+                exif.saveAttributes();
+            } catch (IOException e) {
+                finishWithError("保存扫描图片失败: " + e.getMessage());
+                return;
+            }
+        }
+        runOnUiThread(() -> {
+            setResult(RESULT_OK, new Intent().setData(Uri.fromFile(file)));
+            finish();
+        });
+    }
+
+    //提示错误并关闭页面
+    private void finishWithError(String error) {
+        runOnUiThread(() -> {
+            Toast.makeText(this, error, Toast.LENGTH_SHORT).show();
+            finish();
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.IdCardOcr.batch;
+
+import android.content.ClipData;
+import android.content.ContentResolver;
+import android.content.Intent;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//批量识别的图片来源：相册多选结果或文件夹中的图片
+public final class ImageSources {
+    private ImageSources() { }
+
+    //从多选Intent结果中提取图片URI
+    public static List<Uri> fromPickerResult(Intent data) {
+        List<Uri> uris = new ArrayList<>();
+        if (data == null) return uris;
+        ClipData clipData = data.getClipData();
+        if (clipData != null) {
+            for (int i = 0; i < clipData.getItemCount(); i++) {
+                Uri uri = clipData.getItemAt(i).getUri();
+                if (uri != null) uris.add(uri);
+            }
+        } else if (data.getData() != null) {
+            uris.add(data.getData());
+        }
+        return uris;
+    }
+
+    //列出文件夹（SAF目录树）下一层的所有图片，按文件名排序
+    public static List<Uri> listImagesInTree(ContentResolver resolver, Uri treeUri) {
+        List<Uri> uris = new ArrayList<>();
+        Uri childrenUri = DocumentsContract.buildChildDocumentsUriUsingTree(treeUri, DocumentsContract.getTreeDocumentId(treeUri));
+        String[] projection = {DocumentsContract.Document.COLUMN_DOCUMENT_ID, DocumentsContract.Document.COLUMN_MIME_TYPE};
+        try (Cursor cursor = resolver.query(childrenUri, projection, null, null, DocumentsContract.Document.COLUMN_DISPLAY_NAME)) {
+            if (cursor == null) return uris;
+            while (cursor.moveToNext()) {
+                String mimeType = cursor.getString(1);
+                if (mimeType != null && mimeType.startsWith("image/")) {
+                    uris.add(DocumentsContract.buildDocumentUriUsingTree(treeUri, cursor.getString(0)));
+                }
+            }
+        }
+        return uris;
+    }
+}
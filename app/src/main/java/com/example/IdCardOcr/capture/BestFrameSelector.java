@@ -0,0 +1,202 @@
+package com.example.IdCardOcr.capture;
+
+import com.example.IdCardOcr.image.CardDetector;
+import com.example.IdCardOcr.image.QualityAnalyzer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+//连续取景最佳帧选择器：对相机Y平面逐帧评估清晰度、稳定性与证件是否在画面中，
+//在证件持续稳定出现的滚动窗口内保留得分最高的一帧，窗口结束时自动交给监听者上传。
+//所有缓冲区在首帧（或分辨率变化时）分配一次，之后每帧不再分配内存；非线程安全，应在同一分析线程调用
+public class BestFrameSelector {
+    //分析用降采样图像的长边像素数
+    static final int ANALYSIS_LONG_EDGE = 256;
+    //默认窗口长度、最低清晰度、最大帧间平均亮度差与最少连续合格帧数
+    static final long DEFAULT_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(800);
+    static final double DEFAULT_MIN_SHARPNESS = 40;
+    static final double DEFAULT_MAX_MOTION = 6;
+    static final int DEFAULT_MIN_STABLE_FRAMES = 5;
+
+    //最佳帧回调，在分析线程上调用；frame中的缓冲区在回调返回后会被复用，需要保留时应自行复制或编码
+    public interface Listener {
+        void onBestFrame(Frame frame);
+    }
+
+    //选中的帧：紧凑排列（无行填充）的Y平面及其评分
+    public static final class Frame {
+        private byte[] luma;
+        private int width;
+        private int height;
+        private final FrameScore score = new FrameScore();
+        private final float[] corners = new float[8];
+
+        //Getter方法
+        public byte[] getLuma() { return luma; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public FrameScore getScore() { return score; }
+
+        //证件四角在原始帧坐标系中的位置（左上、右上、右下、左下）
+        public float[] getCorners() { return corners; }
+    }
+
+    private final Listener listener;
+    private final long windowNanos;
+    private final double minSharpness;
+    private final double maxMotion;
+    private final int minStableFrames;
+
+    //复用的缓冲区
+    private int frameWidth;
+    private int frameHeight;
+    private int step;
+    private int smallWidth;
+    private int smallHeight;
+    private byte[] current;
+    private byte[] previous;
+    private boolean hasPrevious;
+    private CardDetector.Workspace workspace;
+    private final float[] smallCorners = new float[8];
+    private final FrameScore last = new FrameScore();
+    private final Frame best = new Frame();
+
+    //窗口状态
+    private boolean armed = true;
+    private boolean hasCandidate;
+    private int stableFrames;
+    private long windowStartNanos;
+    //统计
+    private long analyzedFrames;
+    private long emittedFrames;
+    private long totalAnalysisMicros;
+
+    public BestFrameSelector(Listener listener) {
+        this(listener, DEFAULT_WINDOW_NANOS, DEFAULT_MIN_SHARPNESS, DEFAULT_MAX_MOTION, DEFAULT_MIN_STABLE_FRAMES);
+    }
+
+    BestFrameSelector(Listener listener, long windowNanos, double minSharpness, double maxMotion, int minStableFrames) {
+        this.listener = listener;
+        this.windowNanos = windowNanos;
+        this.minSharpness = minSharpness;
+        this.maxMotion = maxMotion;
+        this.minStableFrames = minStableFrames;
+    }
+
+    //分析一帧Y平面：yPlane从position开始按rowStride排列，pixelStride为1（YUV_420_888的Y平面均满足）
+    public FrameScore onFrame(ByteBuffer yPlane, int width, int height, int rowStride, long timestampNanos) {
+        long start = System.nanoTime();
+        ensureBuffers(width, height);
+        int base = yPlane.position();
+        downsample(yPlane, base, rowStride);
+
+        FrameScore score = last;
+        score.timestampNanos = timestampNanos;
+        score.sharpness = QualityAnalyzer.laplacianVariance(current, smallWidth, smallHeight);
+        score.motion = hasPrevious ? meanAbsDiff(current, previous, smallWidth * smallHeight) : Double.MAX_VALUE;
+        score.cardPresent = CardDetector.locate(current, smallWidth, smallHeight, workspace, smallCorners);
+        score.eligible = score.cardPresent && score.sharpness >= minSharpness && score.motion <= maxMotion;
+        score.score = score.eligible ? score.sharpness / (1 + score.motion) : 0;
+        score.elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+        byte[] swap = previous;
+        previous = current;
+        current = swap;
+        hasPrevious = true;
+        analyzedFrames++;
+        totalAnalysisMicros += score.elapsedMicros;
+
+        if (armed) updateWindow(yPlane, base, rowStride, score);
+        return score;
+    }
+
+    //证件离开画面或抖动即清空窗口；连续合格时保留最高分帧，窗口期满后交付
+    private void updateWindow(ByteBuffer yPlane, int base, int rowStride, FrameScore score) {
+        if (!score.eligible) {
+            stableFrames = 0;
+            hasCandidate = false;
+            return;
+        }
+        if (stableFrames++ == 0) windowStartNanos = score.timestampNanos;
+        if (!hasCandidate || score.score > best.score.score) {
+            copyPlane(yPlane, base, rowStride);
+            score.copyTo(best.score);
+            for (int i = 0; i < 8; i++) best.corners[i] = smallCorners[i] * step;
+            hasCandidate = true;
+        }
+        if (stableFrames >= minStableFrames && score.timestampNanos - windowStartNanos >= windowNanos) {
+            armed = false;
+            emittedFrames++;
+            if (listener != null) listener.onBestFrame(best);
+        }
+    }
+
+    //重新开始选帧（交付一帧后选择器停止，需要再次调用以继续）
+    public void reset() {
+        armed = true;
+        hasCandidate = false;
+        hasPrevious = false;
+        stableFrames = 0;
+    }
+
+    //分辨率变化时重新分配缓冲区
+    private void ensureBuffers(int width, int height) {
+        if (width == frameWidth && height == frameHeight) return;
+        frameWidth = width;
+        frameHeight = height;
+        step = Math.max(1, (Math.max(width, height) + ANALYSIS_LONG_EDGE - 1) / ANALYSIS_LONG_EDGE);
+        smallWidth = width / step;
+        smallHeight = height / step;
+        current = new byte[smallWidth * smallHeight];
+        previous = new byte[smallWidth * smallHeight];
+        workspace = new CardDetector.Workspace(smallWidth * smallHeight);
+        best.luma = new byte[width * height];
+        best.width = width;
+        best.height = height;
+        reset();
+    }
+
+    //step x step块平均降采样到current
+    private void downsample(ByteBuffer yPlane, int base, int rowStride) {
+        int area = step * step;
+        for (int sy = 0; sy < smallHeight; sy++) {
+            for (int sx = 0; sx < smallWidth; sx++) {
+                int sum = 0;
+                int rowOffset = base + sy * step * rowStride + sx * step;
+                for (int dy = 0; dy < step; dy++) {
+                    int offset = rowOffset + dy * rowStride;
+                    for (int dx = 0; dx < step; dx++) sum += yPlane.get(offset + dx) & 0xFF;
+                }
+                current[sy * smallWidth + sx] = (byte) (sum / area);
+            }
+        }
+    }
+
+    //把原始帧Y平面逐行复制到候选缓冲区，去掉行填充
+    private void copyPlane(ByteBuffer yPlane, int base, int rowStride) {
+        for (int y = 0; y < frameHeight; y++) {
+            yPlane.position(base + y * rowStride);
+            yPlane.get(best.luma, y * frameWidth, frameWidth);
+        }
+        yPlane.position(base);
+    }
+
+    //两帧降采样图像的平均绝对亮度差
+    static double meanAbsDiff(byte[] a, byte[] b, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) sum += Math.abs((a[i] & 0xFF) - (b[i] & 0xFF));
+        return (double) sum / length;
+    }
+
+    //Getter方法
+    public FrameScore getLastScore() { return last; }
+    public boolean isArmed() { return armed; }
+    public long getAnalyzedFrames() { return analyzedFrames; }
+    public long getEmittedFrames() { return emittedFrames; }
+
+    //统计摘要，便于日志输出
+    public String getStats() {
+        return "frames=" + analyzedFrames + ", emitted=" + emittedFrames + ", avgAnalysisUs="
+                + (analyzedFrames == 0 ? 0 : totalAnalysisMicros / analyzedFrames);
+    }
+}
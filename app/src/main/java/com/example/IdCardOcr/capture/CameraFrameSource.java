@@ -0,0 +1,227 @@
+package com.example.IdCardOcr.capture;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.ImageFormat;
+import android.graphics.Matrix;
+import android.graphics.RectF;
+import android.graphics.SurfaceTexture;
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCaptureSession;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraDevice;
+import android.hardware.camera2.CameraManager;
+import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.params.StreamConfigurationMap;
+import android.media.ExifInterface;
+import android.media.Image;
+import android.media.ImageReader;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Size;
+import android.view.Surface;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//Camera2取景帧来源：后置摄像头同时输出预览和YUV分析流，分析帧在独立线程上逐帧回调Y平面
+//分析帧保持传感器方向，保存时按SENSOR_ORIENTATION和界面方向写EXIF方向；预览由previewTransform旋转并等比铺满
+public class CameraFrameSource {
+    //分析流分辨率上限，超过1080p对选帧无益且拖慢分析
+    private static final int MAX_ANALYSIS_PIXELS = 1920 * 1080;
+
+    //帧回调，yPlane仅在回调期间有效
+    public interface FrameCallback {
+        void onFrame(ByteBuffer yPlane, int width, int height, int rowStride, long timestampNanos);
+
+        void onError(String error);
+    }
+
+    private final CameraManager cameraManager;
+    private HandlerThread thread;
+    private Handler handler;
+    private CameraDevice camera;
+    private CameraCaptureSession session;
+    private ImageReader reader;
+    private Surface previewSurface;
+    //传感器方向（图像需顺时针旋转多少度才能在设备自然方向下正向显示）和当前流尺寸
+    private volatile int sensorOrientation = 90;
+    private volatile Size streamSize;
+
+    public CameraFrameSource(Context context) {
+        this.cameraManager = (CameraManager) context.getSystemService(Context.CAMERA_SERVICE);
+    }
+
+    //打开后置摄像头并开始取景，调用前需已获得相机权限
+    @SuppressLint("MissingPermission")
+    public void start(SurfaceTexture previewTexture, FrameCallback callback) throws CameraAccessException {
+        String cameraId = findBackCamera();
+        if (cameraId == null) throw new CameraAccessException(CameraAccessException.CAMERA_ERROR, "没有可用的后置摄像头");
+        Size size = chooseAnalysisSize(cameraId);
+        Integer orientation = cameraManager.getCameraCharacteristics(cameraId).get(CameraCharacteristics.SENSOR_ORIENTATION);
+        sensorOrientation = orientation != null ? orientation : 90;
+        streamSize = size;
+        thread = new HandlerThread("frame-analysis");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        reader = ImageReader.newInstance(size.getWidth(), size.getHeight(), ImageFormat.YUV_420_888, 2);
+        reader.setOnImageAvailableListener(r -> {
+            //只取最新帧，分析跟不上时丢弃积压的旧帧
+            Image image = r.acquireLatestImage();
+            if (image == null) return;
+            try {
+                Image.Plane y = image.getPlanes()[0];
+                callback.onFrame(y.getBuffer(), image.getWidth(), image.getHeight(), y.getRowStride(), image.getTimestamp());
+            } finally {
+                image.close();
+            }
+        }, handler);
+        previewTexture.setDefaultBufferSize(size.getWidth(), size.getHeight());
+        previewSurface = new Surface(previewTexture);
+        cameraManager.openCamera(cameraId, new CameraDevice.StateCallback() {
+            @Override
+            public void onOpened(CameraDevice device) {
+                camera = device;
+                createSession(callback);
+            }
+            @Override
+            public void onDisconnected(CameraDevice device) {
+                device.close();
+                camera = null;
+            }
+            @Override
+            public void onError(CameraDevice device, int error) {
+                device.close();
+                camera = null;
+                callback.onError("相机打开失败: " + error);
+            }
+        }, handler);
+    }
+
+    //建立预览+分析双输出会话，连续自动对焦
+    private void createSession(FrameCallback callback) {
+        try {
+            final CaptureRequest.Builder builder = camera.createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
+            builder.addTarget(previewSurface);
+            builder.addTarget(reader.getSurface());
+            builder.set(CaptureRequest.CONTROL_AF_MODE, CaptureRequest.CONTROL_AF_MODE_CONTINUOUS_PICTURE);
+            camera.createCaptureSession(Arrays.asList(previewSurface, reader.getSurface()), new CameraCaptureSession.StateCallback() {
+                @Override
+                public void onConfigured(CameraCaptureSession configured) {
+                    if (camera == null) return;
+                    session = configured;
+                    try {
+                        session.setRepeatingRequest(builder.build(), null, handler);
+                    } catch (CameraAccessException e) {
+                        callback.onError("相机预览失败: " + e.getMessage());
+                    }
+                }
+                @Override
+                public void onConfigureFailed(CameraCaptureSession failed) {
+                    callback.onError("相机会话配置失败");
+                }
+            }, handler);
+        } catch (CameraAccessException e) {
+            callback.onError("相机预览失败: " + e.getMessage());
+        }
+    }
+
+    //停止取景并释放相机与分析线程
+    public void stop() {
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+        if (camera != null) {
+            camera.close();
+            camera = null;
+        }
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+        if (previewSurface != null) {
+            previewSurface.release();
+            previewSurface = null;
+        }
+        if (thread != null) {
+            thread.quitSafely();
+            thread = null;
+            handler = null;
+        }
+    }
+
+    public int getSensorOrientation() { return sensorOrientation; }
+    //预览和分析流共用的尺寸（传感器方向），start之前为null
+    public Size getStreamSize() { return streamSize; }
+
+    //后置摄像头的帧在当前界面方向下需要顺时针旋转的角度
+    public static int frameRotation(int sensorOrientation, int surfaceRotation) {
+        return (sensorOrientation - displayDegrees(surfaceRotation) + 360) % 360;
+    }
+
+    //Display.getRotation()对应的角度
+    static int displayDegrees(int surfaceRotation) {
+        switch (surfaceRotation) {
+            case Surface.ROTATION_90: return 90;
+            case Surface.ROTATION_180: return 180;
+            case Surface.ROTATION_270: return 270;
+            default: return 0;
+        }
+    }
+
+    //顺时针旋转角度对应的EXIF方向值
+    public static int exifOrientation(int rotationDegrees) {
+        switch (rotationDegrees) {
+            case 90: return ExifInterface.ORIENTATION_ROTATE_90;
+            case 180: return ExifInterface.ORIENTATION_ROTATE_180;
+            case 270: return ExifInterface.ORIENTATION_ROTATE_270;
+            default: return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    //TextureView变换：SurfaceTexture已按传感器方向旋转到设备自然方向，这里再按界面方向反向旋转，
+    //并等比缩放铺满视图（超出部分裁掉），避免拉伸变形
+    public static Matrix previewTransform(int viewWidth, int viewHeight, Size streamSize, int surfaceRotation) {
+        Matrix matrix = new Matrix();
+        float cx = viewWidth / 2f, cy = viewHeight / 2f;
+        //自然方向（竖屏）下内容的宽高与传感器方向的流尺寸对调
+        float contentWidth = streamSize.getHeight(), contentHeight = streamSize.getWidth();
+        if (surfaceRotation == Surface.ROTATION_90 || surfaceRotation == Surface.ROTATION_270) {
+            RectF viewRect = new RectF(0, 0, viewWidth, viewHeight);
+            RectF bufferRect = new RectF(0, 0, contentWidth, contentHeight);
+            bufferRect.offset(cx - bufferRect.centerX(), cy - bufferRect.centerY());
+            matrix.setRectToRect(viewRect, bufferRect, Matrix.ScaleToFit.FILL);
+            float scale = Math.max(viewHeight / contentWidth, viewWidth / contentHeight);
+            matrix.postScale(scale, scale, cx, cy);
+            matrix.postRotate(90 * (surfaceRotation - 2), cx, cy);
+        } else {
+            float scale = Math.max(viewWidth / contentWidth, viewHeight / contentHeight);
+            matrix.setScale(contentWidth * scale / viewWidth, contentHeight * scale / viewHeight, cx, cy);
+            if (surfaceRotation == Surface.ROTATION_180) matrix.postRotate(180, cx, cy);
+        }
+        return matrix;
+    }
+
+    //查找后置摄像头
+    private String findBackCamera() throws CameraAccessException {
+        for (String id : cameraManager.getCameraIdList()) {
+            Integer facing = cameraManager.getCameraCharacteristics(id).get(CameraCharacteristics.LENS_FACING);
+            if (facing != null && facing == CameraCharacteristics.LENS_FACING_BACK) return id;
+        }
+        return null;
+    }
+
+    //选择不超过上限的最大YUV输出尺寸
+    private Size chooseAnalysisSize(String cameraId) throws CameraAccessException {
+        StreamConfigurationMap map = cameraManager.getCameraCharacteristics(cameraId)
+                .get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+        Size best = null;
+        for (Size size : map.getOutputSizes(ImageFormat.YUV_420_888)) {
+            long pixels = (long) size.getWidth() * size.getHeight();
+            if (pixels > MAX_ANALYSIS_PIXELS) continue;
+            if (best == null || pixels > (long) best.getWidth() * best.getHeight()) best = size;
+        }
+        return best != null ? best : new Size(640, 480);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.IdCardOcr.capture;
+
+import java.util.Locale;
+
+//单帧评分结果：清晰度、帧间运动量与证件是否在画面中，由BestFrameSelector复用同一实例写入
+public class FrameScore {
+    double sharpness;
+    double motion;
+    boolean cardPresent;
+    boolean eligible;
+    double score;
+    long timestampNanos;
+    long elapsedMicros;
+
+    //Getter方法
+    public double getSharpness() { return sharpness; }
+    public double getMotion() { return motion; }
+    public boolean isCardPresent() { return cardPresent; }
+    public boolean isEligible() { return eligible; }
+    public double getScore() { return score; }
+    public long getTimestampNanos() { return timestampNanos; }
+    public long getElapsedMicros() { return elapsedMicros; }
+
+    //复制到另一个实例（不分配内存）
+    void copyTo(FrameScore target) {
+        target.sharpness = sharpness;
+        target.motion = motion;
+        target.cardPresent = cardPresent;
+        target.eligible = eligible;
+        target.score = score;
+        target.timestampNanos = timestampNanos;
+        target.elapsedMicros = elapsedMicros;
+    }
+
+    //简要描述，便于日志输出
+    public String describe() {
+        return String.format(Locale.US, "score=%.1f, sharpness=%.1f, motion=%.2f, card=%b, %dus",
+                score, sharpness, motion, cardPresent, elapsedMicros);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.IdCardOcr.history;
+
+import android.util.Log;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.Deadline;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.network.OcrFuture;
+import com.example.IdCardOcr.network.Tc3Signer;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+//历史去重层：同一张图片识别过则直接返回历史结果不再上传，识别成功后写入历史
+public class HistoryRecognizer implements IdCardRecognizer {
+    private final IdCardRecognizer delegate;
+    private final HistoryStore store;
+    private final AtomicLong duplicates = new AtomicLong();
+
+    public HistoryRecognizer(IdCardRecognizer delegate, HistoryStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, OcrApiClient.Callback callback) {
+        OcrFuture.deliver(recognizeAsync(jpegBytes, cardSide, Deadline.NONE), callback);
+    }
+
+    //取消返回的Future时同时取消下层请求；图片哈希只算一次，传给下层缓存复用
+    @Override
+    public OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, CardSide cardSide, Deadline deadline) {
+        return recognizeAsync(jpegBytes, Tc3Signer.sha256Hex(jpegBytes), cardSide, deadline);
+    }
+
+    @Override
+    public OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, String jpegSha256, CardSide cardSide, Deadline deadline) {
+        final String imageHash = jpegSha256 + "_" + cardSide.name();
+        HistoryRecord previous = store.findByImageHash(imageHash);
+        if (previous != null) {
+            duplicates.incrementAndGet();
+            return OcrFuture.completed(previous.toResult());
+        }
+        return delegate.recognizeAsync(jpegBytes, jpegSha256, cardSide, deadline).map(result -> {
+            try {
+                store.add(result, imageHash, System.currentTimeMillis());
+            } catch (IOException e) {
+                Log.w("OCR_HISTORY", "写入历史失败: " + e.getMessage());
+            }
+            return result;
+        });
+    }
+
+    public HistoryStore getStore() { return store; }
+    public long getDuplicateCount() { return duplicates.get(); }
+}
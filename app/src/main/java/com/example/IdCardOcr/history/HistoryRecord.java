@@ -0,0 +1,109 @@
+package com.example.IdCardOcr.history;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+//历史识别记录：识别结果 + 识别时间 + 图片哈希
+public class HistoryRecord {
+    private long seq;
+    private long recognizedAt;
+    private String imageHash;
+    private String name;
+    private String sex;
+    private String nation;
+    private String birth;
+    private String address;
+    private String idNum;
+    private String authority;
+    private String validDate;
+
+    HistoryRecord() { }
+
+    HistoryRecord(long seq, long recognizedAt, String imageHash, IdentifyResult result) {
+        this.seq = seq;
+        this.recognizedAt = recognizedAt;
+        this.imageHash = imageHash;
+        this.name = result.getName();
+        this.sex = result.getSex();
+        this.nation = result.getNation();
+        this.birth = result.getBirth();
+        this.address = result.getAddress();
+        this.idNum = result.getId();
+        this.authority = result.getAuthority();
+        this.validDate = result.getValidDate();
+    }
+
+    //还原为识别结果，用于重复图片直接返回
+    public IdentifyResult toResult() {
+        IdentifyResult result = new IdentifyResult();
+        result.setName(name);
+        result.setSex(sex);
+        result.setNation(nation);
+        result.setBirth(birth);
+        result.setAddress(address);
+        result.setId(idNum);
+        result.setAuthority(authority);
+        result.setValidDate(validDate);
+        return result;
+    }
+
+    //写为一个JSON对象，空字段省略
+    void write(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("seq").value(seq);
+        writer.name("at").value(recognizedAt);
+        if (imageHash != null) writer.name("hash").value(imageHash);
+        if (name != null) writer.name("name").value(name);
+        if (sex != null) writer.name("sex").value(sex);
+        if (nation != null) writer.name("nation").value(nation);
+        if (birth != null) writer.name("birth").value(birth);
+        if (address != null) writer.name("address").value(address);
+        if (idNum != null) writer.name("id").value(idNum);
+        if (authority != null) writer.name("authority").value(authority);
+        if (validDate != null) writer.name("validDate").value(validDate);
+        writer.endObject();
+    }
+
+    //读取write写出的JSON对象，未知字段跳过
+    static HistoryRecord read(JsonReader reader) throws IOException {
+        HistoryRecord record = new HistoryRecord();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "seq": record.seq = reader.nextLong(); break;
+                case "at": record.recognizedAt = reader.nextLong(); break;
+                case "hash": record.imageHash = reader.nextString(); break;
+                case "name": record.name = reader.nextString(); break;
+                case "sex": record.sex = reader.nextString(); break;
+                case "nation": record.nation = reader.nextString(); break;
+                case "birth": record.birth = reader.nextString(); break;
+                case "address": record.address = reader.nextString(); break;
+                case "id": record.idNum = reader.nextString(); break;
+                case "authority": record.authority = reader.nextString(); break;
+                case "validDate": record.validDate = reader.nextString(); break;
+                default: reader.skipValue(); break;
+            }
+        }
+        reader.endObject();
+        return record;
+    }
+
+    //Getter方法
+    public long getSeq() { return seq; }
+    public long getRecognizedAt() { return recognizedAt; }
+    public String getImageHash() { return imageHash; }
+    public String getName() { return name; }
+    public String getIdNum() { return idNum; }
+
+    @Override
+    public String toString() { return "HistoryRecord{" + seq + ", " + name + ", " + idNum + ", " + recognizedAt + "}"; }
+}
@@ -0,0 +1,286 @@
+package com.example.IdCardOcr.history;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+//本地识别历史：JSON行追加写入文件（手写编解码，不使用反射），内存中按身份证号、姓名、图片哈希建索引，记录按识别时间有序
+//每行用RecordCipher加密，身份证号和姓名不以明文落盘；旧版明文行可读，压缩时加密重写
+//首次访问时加载，读取失败时不标记已加载，不写入也不压缩，避免按不完整的索引重写文件
+public class HistoryStore {
+    private final File file;
+    //为null时按明文读写，仅供测试
+    private final RecordCipher cipher;
+    //按(识别时间, 序号)排序的全部记录
+    private final List<HistoryRecord> records = new ArrayList<>();
+    //有序索引支持前缀查询
+    private final TreeMap<String, List<HistoryRecord>> byIdNum = new TreeMap<>();
+    private final TreeMap<String, List<HistoryRecord>> byName = new TreeMap<>();
+    private final Map<String, HistoryRecord> byImageHash = new HashMap<>();
+    private boolean loaded = false;
+    private long nextSeq = 1;
+    //无法解析或解密的行数（不含写入中断留下的末行），大于0时拒绝压缩，避免丢弃密钥恢复后仍可读的记录
+    private int unreadableLines;
+    //旧版明文行数，压缩时加密重写
+    private int plaintextLines;
+    private Writer writer;
+
+    public HistoryStore(File file, RecordCipher cipher) {
+        this.file = file;
+        this.cipher = cipher;
+    }
+
+    HistoryStore(File file) { this(file, null); }
+
+    //追加一条记录，历史未能完整加载时抛出IOException
+    public synchronized HistoryRecord add(IdentifyResult result, String imageHash, long recognizedAt) throws IOException {
+        load();
+        HistoryRecord record = new HistoryRecord(nextSeq++, recognizedAt, imageHash, result);
+        if (writer == null) writer = openWriter(true);
+        writeLine(writer, record);
+        writer.flush();
+        index(record);
+        return record;
+    }
+
+    //按身份证号精确查询，按时间升序
+    public synchronized List<HistoryRecord> findByIdNum(String idNum) {
+        ensureLoaded();
+        List<HistoryRecord> list = byIdNum.get(idNum);
+        return list == null ? Collections.emptyList() : new ArrayList<>(list);
+    }
+
+    //按身份证号前缀查询，最多返回limit条
+    public synchronized List<HistoryRecord> findByIdNumPrefix(String prefix, int limit) {
+        ensureLoaded();
+        return prefixScan(byIdNum, prefix, limit);
+    }
+
+    public synchronized List<HistoryRecord> findByName(String name) {
+        ensureLoaded();
+        List<HistoryRecord> list = byName.get(name);
+        return list == null ? Collections.emptyList() : new ArrayList<>(list);
+    }
+
+    public synchronized List<HistoryRecord> findByNamePrefix(String prefix, int limit) {
+        ensureLoaded();
+        return prefixScan(byName, prefix, limit);
+    }
+
+    //同一张图片的识别记录，用于上传前去重
+    public synchronized HistoryRecord findByImageHash(String imageHash) {
+        ensureLoaded();
+        return byImageHash.get(imageHash);
+    }
+
+    //识别时间在[from, to)内的记录，按时间升序
+    public synchronized List<HistoryRecord> findByDateRange(long from, long to, int limit) {
+        ensureLoaded();
+        List<HistoryRecord> result = new ArrayList<>();
+        for (int i = lowerBound(from); i < records.size() && result.size() < limit; i++) {
+            HistoryRecord record = records.get(i);
+            if (record.getRecognizedAt() >= to) break;
+            result.add(record);
+        }
+        return result;
+    }
+
+    //分页，最新的在前
+    public synchronized List<HistoryRecord> page(int offset, int limit) {
+        ensureLoaded();
+        List<HistoryRecord> result = new ArrayList<>();
+        for (int i = records.size() - 1 - offset; i >= 0 && result.size() < limit; i--) result.add(records.get(i));
+        return result;
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return records.size();
+    }
+
+    //删除识别时间早于now-retentionMs的记录并重写文件，返回删除条数；有明文旧记录时即使没有过期记录也重写
+    //历史未能完整加载或有无法读取的行时抛出IOException，不重写文件
+    public synchronized int compact(long retentionMs, long now) throws IOException {
+        load();
+        if (unreadableLines > 0) throw new IOException("历史文件有" + unreadableLines + "行无法读取，跳过压缩");
+        int cut = lowerBound(now - retentionMs);
+        if (cut == 0 && (cipher == null || plaintextLines == 0)) return 0;
+        List<HistoryRecord> kept = new ArrayList<>(records.subList(cut, records.size()));
+        //先写临时文件再替换，中断时保留原文件
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+            for (HistoryRecord record : kept) writeLine(out, record);
+        }
+        closeWriter();
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("重写历史文件失败");
+        }
+        clearIndexes();
+        for (HistoryRecord record : kept) index(record);
+        plaintextLines = 0;
+        return cut;
+    }
+
+    public synchronized void close() throws IOException { closeWriter(); }
+
+    //查询时加载，读取失败时按空历史返回，下次访问重试
+    private void ensureLoaded() {
+        try {
+            load();
+        } catch (IOException e) {
+            //索引已清空
+        }
+    }
+
+    //首次访问时从文件加载并建立索引，损坏的行跳过；读取失败时清空索引并抛出，不标记已加载
+    private void load() throws IOException {
+        if (loaded) return;
+        clearIndexes();
+        nextSeq = 1;
+        unreadableLines = 0;
+        plaintextLines = 0;
+        if (file.isFile()) {
+            int bad = 0;
+            boolean lastBad = false;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) continue;
+                    HistoryRecord record = decode(line);
+                    lastBad = record == null;
+                    if (lastBad) {
+                        bad++;
+                        continue;
+                    }
+                    index(record);
+                    nextSeq = Math.max(nextSeq, record.getSeq() + 1);
+                }
+            } catch (IOException e) {
+                clearIndexes();
+                throw e;
+            }
+            //写入中断只会留下最后半行
+            unreadableLines = lastBad ? bad - 1 : bad;
+        }
+        loaded = true;
+    }
+
+    //解析一行，加密行先解密；无法解析或解密时返回null
+    private HistoryRecord decode(String line) {
+        boolean plain = line.charAt(0) == '{';
+        try {
+            String json = plain ? line : cipher != null ? cipher.open(line) : null;
+            if (json == null) return null;
+            HistoryRecord record = HistoryRecord.read(new JsonReader(new StringReader(json)));
+            if (plain) plaintextLines++;
+            return record;
+        } catch (IOException | IllegalStateException | NumberFormatException | GeneralSecurityException e) {
+            return null;
+        }
+    }
+
+    private void index(HistoryRecord record) {
+        //通常按时间追加到末尾，时钟回拨时二分插入
+        int size = records.size();
+        if (size == 0 || compare(records.get(size - 1), record) <= 0) {
+            records.add(record);
+        } else {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(records.get(mid), record) <= 0) lo = mid + 1; else hi = mid;
+            }
+            records.add(lo, record);
+        }
+        if (record.getIdNum() != null) byIdNum.computeIfAbsent(record.getIdNum(), k -> new ArrayList<>(1)).add(record);
+        if (record.getName() != null) byName.computeIfAbsent(record.getName(), k -> new ArrayList<>(1)).add(record);
+        if (record.getImageHash() != null) byImageHash.put(record.getImageHash(), record);
+    }
+
+    private void clearIndexes() {
+        records.clear();
+        byIdNum.clear();
+        byName.clear();
+        byImageHash.clear();
+    }
+
+    private static int compare(HistoryRecord a, HistoryRecord b) {
+        int c = Long.compare(a.getRecognizedAt(), b.getRecognizedAt());
+        return c != 0 ? c : Long.compare(a.getSeq(), b.getSeq());
+    }
+
+    //第一条识别时间不早于time的记录下标
+    private int lowerBound(long time) {
+        int lo = 0, hi = records.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (records.get(mid).getRecognizedAt() < time) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    //按键的字典序扫描前缀范围
+    private static List<HistoryRecord> prefixScan(TreeMap<String, List<HistoryRecord>> index, String prefix, int limit) {
+        List<HistoryRecord> result = new ArrayList<>();
+        NavigableMap<String, List<HistoryRecord>> range = index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (List<HistoryRecord> list : range.values()) {
+            for (HistoryRecord record : list) {
+                if (result.size() >= limit) return result;
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    //一条记录一行，有密钥时整行加密
+    private void writeLine(Writer out, HistoryRecord record) throws IOException {
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        record.write(writer);
+        writer.flush();
+        if (cipher == null) {
+            out.write(json.toString());
+        } else {
+            try {
+                out.write(cipher.seal(json.toString()));
+            } catch (GeneralSecurityException e) {
+                throw new IOException("加密历史记录失败: " + e.getMessage(), e);
+            }
+        }
+        out.write('\n');
+    }
+
+    private Writer openWriter(boolean append) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) throw new IOException("无法创建目录: " + parent);
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), StandardCharsets.UTF_8));
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) writer.close();
+        writer = null;
+    }
+}
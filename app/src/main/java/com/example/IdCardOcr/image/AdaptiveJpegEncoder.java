@@ -0,0 +1,176 @@
+package com.example.IdCardOcr.image;
+
+import android.graphics.Bitmap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//按字节预算自适应压缩JPEG：搜索质量（必要时缩小尺寸）使结果刚好低于预算，并按源分辨率记住选定参数
+public class AdaptiveJpegEncoder {
+    //腾讯云要求ImageBase64不超过7MB，换算为原始字节并预留JSON信封余量
+    public static final int MAX_PAYLOAD_BYTES = 7 * 1024 * 1024 / 4 * 3 - 1024;
+    public static final int DEFAULT_TARGET_BYTES = 1024 * 1024;
+    //质量搜索范围
+    static final int MIN_QUALITY = 40;
+    static final int MAX_QUALITY = 95;
+    //最多缩小尺寸的轮数及单轮最小缩放系数
+    private static final int MAX_SCALE_STEPS = 4;
+    private static final double MIN_SCALE_STEP = 0.5;
+    //记住的分辨率数量上限
+    private static final int MAX_REMEMBERED = 16;
+
+    private final int targetBytes;
+    //源分辨率 -> 上次选定的压缩参数，按访问顺序淘汰
+    private final Map<Long, Settings> remembered = new LinkedHashMap<Long, Settings>(MAX_REMEMBERED, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Settings> eldest) { return size() > MAX_REMEMBERED; }
+    };
+
+    //按指定缩放比例和质量压缩，供测试替换Bitmap实现
+    interface Compressor {
+        void compress(float scale, int quality, OutputStream out) throws IOException;
+    }
+
+    public AdaptiveJpegEncoder() { this(DEFAULT_TARGET_BYTES); }
+
+    public AdaptiveJpegEncoder(int targetBytes) {
+        if (targetBytes <= 0 || targetBytes > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("targetBytes超出范围(1~" + MAX_PAYLOAD_BYTES + "): " + targetBytes);
+        }
+        this.targetBytes = targetBytes;
+    }
+
+    public int getTargetBytes() { return targetBytes; }
+
+    //压缩Bitmap，不回收传入的Bitmap
+    public EncodedJpeg encode(final Bitmap bitmap) throws IOException {
+        BitmapCompressor compressor = new BitmapCompressor(bitmap);
+        try {
+            return encode(bitmap.getWidth(), bitmap.getHeight(), compressor);
+        } finally {
+            compressor.release();
+        }
+    }
+
+    //搜索满足预算的最高质量，质量降到下限仍超出时按比例缩小尺寸
+    EncodedJpeg encode(int width, int height, Compressor compressor) throws IOException {
+        long start = System.nanoTime();
+        Long key = ((long) width << 32) | (height & 0xFFFFFFFFL);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.min(targetBytes, width * height / 2) + 1024);
+        int attempts = 0;
+        //优先使用该分辨率上次选定的参数
+        Settings previous;
+        synchronized (remembered) {
+            previous = remembered.get(key);
+        }
+        if (previous != null) {
+            attempts++;
+            if (compressTo(compressor, previous.scale, previous.quality, buffer) <= targetBytes) {
+                return result(buffer.toByteArray(), previous, width, height, attempts, start, true);
+            }
+        }
+        float scale = 1f;
+        byte[] smallest = null;
+        Settings smallestSettings = null;
+        for (int step = 0; step < MAX_SCALE_STEPS; step++) {
+            //最高质量已满足预算时直接返回
+            attempts++;
+            if (compressTo(compressor, scale, MAX_QUALITY, buffer) <= targetBytes) {
+                return remember(key, buffer.toByteArray(), new Settings(scale, MAX_QUALITY), width, height, attempts, start);
+            }
+            //二分查找满足预算的最高质量
+            int lo = MIN_QUALITY;
+            int hi = MAX_QUALITY - 1;
+            int bestQuality = -1;
+            byte[] best = null;
+            int minQualitySize = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                attempts++;
+                int size = compressTo(compressor, scale, mid, buffer);
+                if (mid == MIN_QUALITY) minQualitySize = size;
+                if (size <= targetBytes) {
+                    bestQuality = mid;
+                    best = buffer.toByteArray();
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (best != null) {
+                return remember(key, best, new Settings(scale, bestQuality), width, height, attempts, start);
+            }
+            //最低质量仍超出预算：记录当前最小结果，按面积比例缩小尺寸后重试
+            smallest = buffer.toByteArray();
+            smallestSettings = new Settings(scale, MIN_QUALITY);
+            double ratio = Math.sqrt((double) targetBytes / Math.max(minQualitySize, 1)) * 0.95;
+            scale *= (float) Math.max(MIN_SCALE_STEP, ratio);
+        }
+        //无法满足预算时返回最小的结果，由调用方根据isWithinBudget决定
+        return result(smallest, smallestSettings, width, height, attempts, start, false);
+    }
+
+    private int compressTo(Compressor compressor, float scale, int quality, ByteArrayOutputStream buffer) throws IOException {
+        buffer.reset();
+        compressor.compress(scale, quality, buffer);
+        return buffer.size();
+    }
+
+    private EncodedJpeg remember(Long key, byte[] bytes, Settings settings, int width, int height, int attempts, long start) {
+        synchronized (remembered) {
+            remembered.put(key, settings);
+        }
+        return result(bytes, settings, width, height, attempts, start, false);
+    }
+
+    private EncodedJpeg result(byte[] bytes, Settings settings, int width, int height, int attempts, long start, boolean reused) {
+        int outWidth = Math.max(1, Math.round(width * settings.scale));
+        int outHeight = Math.max(1, Math.round(height * settings.scale));
+        return new EncodedJpeg(bytes, settings.quality, settings.scale, outWidth, outHeight,
+                bytes.length <= targetBytes, reused, attempts, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    //选定的压缩参数
+    private static final class Settings {
+        final float scale;
+        final int quality;
+
+        Settings(float scale, int quality) {
+            this.scale = scale;
+            this.quality = quality;
+        }
+    }
+
+    //Bitmap压缩实现，同一缩放比例的缩放结果在本次编码内复用
+    private static final class BitmapCompressor implements Compressor {
+        private final Bitmap source;
+        private Bitmap scaled;
+        private float scaledFor = 1f;
+
+        BitmapCompressor(Bitmap source) { this.source = source; }
+
+        @Override
+        public void compress(float scale, int quality, OutputStream out) {
+            Bitmap target = source;
+            if (scale < 1f) {
+                if (scaled == null || scaledFor != scale) {
+                    release();
+                    int w = Math.max(1, Math.round(source.getWidth() * scale));
+                    int h = Math.max(1, Math.round(source.getHeight() * scale));
+                    scaled = Bitmap.createScaledBitmap(source, w, h, true);
+                    scaledFor = scale;
+                }
+                target = scaled;
+            }
+            target.compress(Bitmap.CompressFormat.JPEG, quality, out);
+        }
+
+        void release() {
+            if (scaled != null && scaled != source) scaled.recycle();
+            scaled = null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.IdCardOcr.image;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+//可复用Bitmap池：解码时通过inBitmap复用同一尺寸级别的像素内存，连续扫描不再每张图片重新分配大块内存
+//所有权规则：get/decode返回的Bitmap归调用方独占；不再被任何View或绘制引用后调用put交还，交还后调用方不得再使用；
+//put总是接管所有权，无法复用的Bitmap（不可变、超出上限、被淘汰）由池回收
+public class BitmapPool {
+    //默认内存上限，不超过进程可用堆的1/8
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    //打开图片输入流，解码需要读取两次时调用两次
+    public interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    private final long maxBytes;
+    //每种像素格式一个池，inBitmap和reconfigure都要求格式一致
+    private final Map<Bitmap.Config, SizeBucketPool<Bitmap>> pools = new EnumMap<>(Bitmap.Config.class);
+    //inBitmap不兼容、退回普通解码的次数
+    private final AtomicLong decodeFallbacks = new AtomicLong();
+
+    private static final SizeBucketPool.Sizer<Bitmap> SIZER = new SizeBucketPool.Sizer<Bitmap>() {
+        @Override
+        public int sizeOf(Bitmap bitmap) { return bitmap.getAllocationByteCount(); }
+        @Override
+        public void release(Bitmap bitmap) { bitmap.recycle(); }
+    };
+
+    public BitmapPool(long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("maxBytes不能为负数");
+        this.maxBytes = maxBytes;
+    }
+
+    //按进程可用堆计算的默认上限
+    public static long defaultMaxBytes() {
+        return Math.min(DEFAULT_MAX_BYTES, Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    //每种格式各自使用全部上限，同一时间实际只有一两种格式在用
+    private synchronized SizeBucketPool<Bitmap> pool(Bitmap.Config config) {
+        SizeBucketPool<Bitmap> pool = pools.get(config);
+        if (pool == null) {
+            pool = new SizeBucketPool<>(SIZER, maxBytes);
+            pools.put(config, pool);
+        }
+        return pool;
+    }
+
+    //取得指定尺寸的可变Bitmap，内容已清空；池中没有合适对象时新建
+    public Bitmap get(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = pool(config).get(byteCount(width, height, config));
+        if (bitmap == null) return Bitmap.createBitmap(width, height, config);
+        bitmap.reconfigure(width, height, config);
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+    }
+
+    //交还Bitmap，池接管所有权
+    public void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) return;
+        Bitmap.Config config = bitmap.getConfig();
+        if (!bitmap.isMutable() || config == null || config == Bitmap.Config.HARDWARE) {
+            bitmap.recycle();
+            return;
+        }
+        pool(config).put(bitmap);
+    }
+
+    //按options解码，优先复用池中的像素内存；srcWidth/srcHeight为原图尺寸，用于估算解码结果大小
+    //inBitmap不兼容（如格式不支持复用）时退回普通解码
+    public Bitmap decode(StreamOpener opener, int srcWidth, int srcHeight, BitmapFactory.Options options) throws IOException {
+        Bitmap.Config config = options.inPreferredConfig != null ? options.inPreferredConfig : Bitmap.Config.ARGB_8888;
+        int sample = Math.max(1, options.inSampleSize);
+        int width = (srcWidth + sample - 1) / sample;
+        int height = (srcHeight + sample - 1) / sample;
+        Bitmap candidate = pool(config).get(byteCount(width, height, config));
+        options.inMutable = true;
+        options.inBitmap = candidate;
+        if (candidate != null) {
+            try (InputStream in = opener.open()) {
+                Bitmap decoded = BitmapFactory.decodeStream(in, null, options);
+                if (decoded != null) return decoded;
+            } catch (IllegalArgumentException e) {
+                decodeFallbacks.incrementAndGet();
+            }
+            options.inBitmap = null;
+            put(candidate);
+        }
+        try (InputStream in = opener.open()) {
+            return BitmapFactory.decodeStream(in, null, options);
+        }
+    }
+
+    //解码为长边不小于reqLongEdge的下采样图，用于预览显示；无法解码时返回null
+    public Bitmap decodeSampled(StreamOpener opener, int reqLongEdge, Bitmap.Config config) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = opener.open()) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) return null;
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = ImagePreprocessor.calculateInSampleSize(bounds.outWidth, bounds.outHeight, reqLongEdge);
+        options.inPreferredConfig = config;
+        return decode(opener, bounds.outWidth, bounds.outHeight, options);
+    }
+
+    //系统内存紧张时释放：后台时全部释放，前台内存不足时释放一半
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            for (SizeBucketPool<Bitmap> pool : snapshot()) pool.trimTo(maxBytes / 2);
+        }
+    }
+
+    public void clear() {
+        for (SizeBucketPool<Bitmap> pool : snapshot()) pool.clear();
+    }
+
+    private synchronized SizeBucketPool<Bitmap>[] snapshot() {
+        @SuppressWarnings("unchecked")
+        SizeBucketPool<Bitmap>[] copy = pools.values().toArray(new SizeBucketPool[0]);
+        return copy;
+    }
+
+    static int byteCount(int width, int height, Bitmap.Config config) {
+        return width * height * bytesPerPixel(config);
+    }
+
+    static int bytesPerPixel(Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8: return 1;
+            case RGB_565:
+            case ARGB_4444: return 2;
+            case RGBA_F16: return 8;
+            default: return 4;
+        }
+    }
+
+    public long getBytesHeld() {
+        long total = 0;
+        for (SizeBucketPool<Bitmap> pool : snapshot()) total += pool.getBytesHeld();
+        return total;
+    }
+
+    //所有格式合计的命中率
+    public double getHitRate() {
+        long hits = 0;
+        long total = 0;
+        for (SizeBucketPool<Bitmap> pool : snapshot()) {
+            hits += pool.getHitCount();
+            total += pool.getHitCount() + pool.getMissCount();
+        }
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public String getStats() {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        int count = 0;
+        for (SizeBucketPool<Bitmap> pool : snapshot()) {
+            hits += pool.getHitCount();
+            misses += pool.getMissCount();
+            evictions += pool.getEvictionCount();
+            count += pool.getCount();
+        }
+        return "hits=" + hits + ", misses=" + misses + ", hitRate=" + String.format(Locale.US, "%.2f", getHitRate())
+                + ", bitmaps=" + count + ", bytesHeld=" + getBytesHeld() + ", maxBytes=" + maxBytes
+                + ", evictions=" + evictions + ", decodeFallbacks=" + decodeFallbacks.get();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.IdCardOcr.image;
+
+import java.util.Locale;
+
+//证件定位结果：四个角点（左上、右上、右下、左下，源图坐标），未找到时为null
+public class CardDetection {
+    private final float[] corners;
+    private final double cropRatio;
+    private final long elapsedMicros;
+
+    CardDetection(float[] corners, double cropRatio, long elapsedMicros) {
+        this.corners = corners;
+        this.cropRatio = cropRatio;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    static CardDetection notFound(long elapsedMicros) { return new CardDetection(null, 1, elapsedMicros); }
+
+    //Getter方法
+    public boolean isFound() { return corners != null; }
+    public float[] getCorners() { return corners == null ? null : corners.clone(); }
+    //证件区域占原图面积的比例，未找到时为1（使用整图）
+    public double getCropRatio() { return cropRatio; }
+    public long getElapsedMicros() { return elapsedMicros; }
+
+    //四边中较长一对边的平均长度，用于确定裁剪输出尺寸
+    public double getLongEdgeLength() {
+        if (corners == null) return 0;
+        double top = distance(0, 1), right = distance(1, 2), bottom = distance(2, 3), left = distance(3, 0);
+        return Math.max((top + bottom) / 2, (left + right) / 2);
+    }
+
+    //按横向输出排列的角点：证件竖放时旋转角点顺序，使长边对应输出宽度
+    public float[] getLandscapeCorners() {
+        if (corners == null) return null;
+        if (!isPortrait()) return corners.clone();
+        return new float[]{corners[6], corners[7], corners[0], corners[1], corners[2], corners[3], corners[4], corners[5]};
+    }
+
+    //长边是否为竖直方向（证件竖放）
+    public boolean isPortrait() {
+        if (corners == null) return false;
+        return distance(1, 2) + distance(3, 0) > distance(0, 1) + distance(2, 3);
+    }
+
+    private double distance(int a, int b) {
+        return Math.hypot(corners[2 * a] - corners[2 * b], corners[2 * a + 1] - corners[2 * b + 1]);
+    }
+
+    @Override
+    public String toString() {
+        return isFound() ? String.format(Locale.US, "found cropRatio=%.2f %dus", cropRatio, elapsedMicros)
+                : "notFound " + elapsedMicros + "us";
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.IdCardOcr.image;
+
+import java.util.Arrays;
+
+//证件定位：在缩小的灰度图上用Otsu二值化分离证件与背景，取最大的不接触边界的连通区域作为候选轮廓，
+//以x+y、x-y极值求四个角点，再校验面积、填充率、角度和长宽比（ID-1为85.6x53.98mm），不满足时返回未找到
+//无共享状态，可在多个线程同时使用
+public class CardDetector {
+    //ID-1证件长宽比
+    public static final double ID1_ASPECT = 85.6 / 53.98;
+    //定位分辨率长边
+    static final int ANALYSIS_LONG_EDGE = 320;
+    //证件至少占画面的比例、连通区域占四边形的最小比例
+    private static final double MIN_AREA_RATIO = 0.06;
+    private static final double MIN_FILL_RATIO = 0.6;
+    //透视后允许的长宽比范围和角度偏差
+    private static final double MIN_ASPECT = 1.25;
+    private static final double MAX_ASPECT = 2.0;
+    private static final double MAX_CORNER_COS = 0.35;
+
+    //定位所需的工作缓冲区，连续分析视频帧时复用以避免每帧分配
+    public static final class Workspace {
+        final int[] labels;
+        final int[] stack;
+        final int[] histogram = new int[256];
+
+        public Workspace(int pixels) {
+            labels = new int[pixels];
+            stack = new int[pixels];
+        }
+
+        public int capacity() { return labels.length; }
+    }
+
+    //在ARGB像素中定位证件
+    public CardDetection detect(int[] argb, int width, int height) {
+        long start = System.nanoTime();
+        int step = Math.max(1, (Math.max(width, height) + ANALYSIS_LONG_EDGE - 1) / ANALYSIS_LONG_EDGE);
+        int w = width / step;
+        int h = height / step;
+        byte[] luma = QualityAnalyzer.downsampleLuma(argb, width, w, h, step);
+        float[] corners = new float[8];
+        if (!locate(luma, w, h, new Workspace(w * h), corners)) corners = null;
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+        if (corners == null) return CardDetection.notFound(elapsedMicros);
+        //缩放回源图坐标，取块中心
+        for (int i = 0; i < 8; i++) corners[i] = (corners[i] + 0.5f) * step;
+        double ratio = quadArea(corners) / ((double) width * height);
+        return new CardDetection(corners, Math.min(1, ratio), elapsedMicros);
+    }
+
+    //在灰度图中定位证件，找到时把角点（左上、右上、右下、左下）写入cornersOut并返回true，不分配内存
+    public static boolean locate(byte[] luma, int w, int h, Workspace workspace, float[] cornersOut) {
+        if (workspace.capacity() < w * h) throw new IllegalArgumentException("工作缓冲区太小");
+        int threshold = otsuThreshold(luma, w * h, workspace.histogram);
+        int[] labels = workspace.labels;
+        int[] stack = workspace.stack;
+        boolean found = false;
+        long bestArea = 0;
+        //证件可能比背景亮也可能比背景暗，两种极性都尝试
+        for (int polarity = 0; polarity < 2; polarity++) {
+            Arrays.fill(labels, 0, w * h, 0);
+            int label = 0;
+            for (int seed = 0; seed < w * h; seed++) {
+                if (labels[seed] != 0 || !isForeground(luma[seed], threshold, polarity)) continue;
+                label++;
+                //深度优先填充，同时记录面积、是否接触边界和四个方向的极值点
+                long area = 0;
+                boolean touchesBorder = false;
+                int tl = seed, br = seed, tr = seed, bl = seed;
+                int sp = 0;
+                stack[sp++] = seed;
+                labels[seed] = label;
+                while (sp > 0) {
+                    int p = stack[--sp];
+                    int x = p % w, y = p / w;
+                    area++;
+                    if (x == 0 || y == 0 || x == w - 1 || y == h - 1) touchesBorder = true;
+                    if (x + y < tl % w + tl / w) tl = p;
+                    if (x + y > br % w + br / w) br = p;
+                    if (x - y > tr % w - tr / w) tr = p;
+                    if (x - y < bl % w - bl / w) bl = p;
+                    if (x > 0) sp = push(luma, labels, stack, sp, p - 1, label, threshold, polarity);
+                    if (x < w - 1) sp = push(luma, labels, stack, sp, p + 1, label, threshold, polarity);
+                    if (y > 0) sp = push(luma, labels, stack, sp, p - w, label, threshold, polarity);
+                    if (y < h - 1) sp = push(luma, labels, stack, sp, p + w, label, threshold, polarity);
+                }
+                if (touchesBorder || area <= bestArea || area < MIN_AREA_RATIO * w * h) continue;
+                if (isPlausibleCard(tl % w, tl / w, tr % w, tr / w, br % w, br / w, bl % w, bl / w, area)) {
+                    cornersOut[0] = tl % w;
+                    cornersOut[1] = tl / w;
+                    cornersOut[2] = tr % w;
+                    cornersOut[3] = tr / w;
+                    cornersOut[4] = br % w;
+                    cornersOut[5] = br / w;
+                    cornersOut[6] = bl % w;
+                    cornersOut[7] = bl / w;
+                    found = true;
+                    bestArea = area;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean isForeground(byte value, int threshold, int polarity) {
+        return ((value & 0xFF) > threshold) == (polarity == 0);
+    }
+
+    private static int push(byte[] luma, int[] labels, int[] stack, int sp, int p, int label, int threshold, int polarity) {
+        if (labels[p] == 0 && isForeground(luma[p], threshold, polarity)) {
+            labels[p] = label;
+            stack[sp++] = p;
+        }
+        return sp;
+    }
+
+    //校验填充率、四个角接近直角、长宽比接近ID-1（角点按左上、右上、右下、左下传入）
+    static boolean isPlausibleCard(double x0, double y0, double x1, double y1, double x2, double y2, double x3, double y3,
+                                   long componentArea) {
+        double area = quadArea(x0, y0, x1, y1, x2, y2, x3, y3);
+        if (area <= 0 || componentArea < MIN_FILL_RATIO * area) return false;
+        if (!isNearRightAngle(x3, y3, x0, y0, x1, y1) || !isNearRightAngle(x0, y0, x1, y1, x2, y2)
+                || !isNearRightAngle(x1, y1, x2, y2, x3, y3) || !isNearRightAngle(x2, y2, x3, y3, x0, y0)) {
+            return false;
+        }
+        double horizontal = (Math.hypot(x1 - x0, y1 - y0) + Math.hypot(x2 - x3, y2 - y3)) / 2;
+        double vertical = (Math.hypot(x3 - x0, y3 - y0) + Math.hypot(x2 - x1, y2 - y1)) / 2;
+        double aspect = Math.max(horizontal, vertical) / Math.min(horizontal, vertical);
+        return aspect >= MIN_ASPECT && aspect <= MAX_ASPECT;
+    }
+
+    //顶点(x, y)处两条边的夹角是否接近直角
+    private static boolean isNearRightAngle(double px, double py, double x, double y, double nx, double ny) {
+        double ax = px - x, ay = py - y, bx = nx - x, by = ny - y;
+        double la = Math.hypot(ax, ay), lb = Math.hypot(bx, by);
+        return la >= 1 && lb >= 1 && Math.abs((ax * bx + ay * by) / (la * lb)) <= MAX_CORNER_COS;
+    }
+
+    static double quadArea(float[] c) { return quadArea(c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7]); }
+
+    //鞋带公式求四边形面积
+    static double quadArea(double x0, double y0, double x1, double y1, double x2, double y2, double x3, double y3) {
+        return Math.abs((x0 * y1 - x1 * y0) + (x1 * y2 - x2 * y1) + (x2 * y3 - x3 * y2) + (x3 * y0 - x0 * y3)) / 2;
+    }
+
+    //Otsu法求使类间方差最大的灰度阈值
+    static int otsuThreshold(byte[] luma, int length, int[] histogram) {
+        Arrays.fill(histogram, 0);
+        for (int i = 0; i < length; i++) histogram[luma[i] & 0xFF]++;
+        long total = length;
+        double sumAll = 0;
+        for (int i = 0; i < 256; i++) sumAll += (double) i * histogram[i];
+        double sumBackground = 0;
+        long weightBackground = 0;
+        double bestVariance = -1;
+        int threshold = 127;
+        for (int t = 0; t < 256; t++) {
+            weightBackground += histogram[t];
+            if (weightBackground == 0) continue;
+            long weightForeground = total - weightBackground;
+            if (weightForeground == 0) break;
+            sumBackground += (double) t * histogram[t];
+            double meanBackground = sumBackground / weightBackground;
+            double meanForeground = (sumAll - sumBackground) / weightForeground;
+            double variance = (double) weightBackground * weightForeground * (meanBackground - meanForeground) * (meanBackground - meanForeground);
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = t;
+            }
+        }
+        return threshold;
+    }
+
+    //纯Java透视校正：把四边形区域双线性采样到outWidth x outHeight，Android上使用Matrix.setPolyToPoly代替
+    public static int[] warp(int[] argb, int width, int height, float[] corners, int outWidth, int outHeight) {
+        double[] m = squareToQuad(corners);
+        int[] out = new int[outWidth * outHeight];
+        for (int y = 0; y < outHeight; y++) {
+            double v = (y + 0.5) / outHeight;
+            for (int x = 0; x < outWidth; x++) {
+                double u = (x + 0.5) / outWidth;
+                double d = m[6] * u + m[7] * v + 1;
+                double sx = (m[0] * u + m[1] * v + m[2]) / d - 0.5;
+                double sy = (m[3] * u + m[4] * v + m[5]) / d - 0.5;
+                out[y * outWidth + x] = sampleBilinear(argb, width, height, sx, sy);
+            }
+        }
+        return out;
+    }
+
+    //单位正方形(0,0)(1,0)(1,1)(0,1)到四边形的单应矩阵（Heckbert）
+    static double[] squareToQuad(float[] c) {
+        double x0 = c[0], y0 = c[1], x1 = c[2], y1 = c[3], x2 = c[4], y2 = c[5], x3 = c[6], y3 = c[7];
+        double sx = x0 - x1 + x2 - x3, sy = y0 - y1 + y2 - y3;
+        double dx1 = x1 - x2, dx2 = x3 - x2, dy1 = y1 - y2, dy2 = y3 - y2;
+        double g = 0, h = 0;
+        if (Math.abs(sx) > 1e-9 || Math.abs(sy) > 1e-9) {
+            double det = dx1 * dy2 - dx2 * dy1;
+            g = (sx * dy2 - dx2 * sy) / det;
+            h = (dx1 * sy - sx * dy1) / det;
+        }
+        return new double[]{x1 - x0 + g * x1, x3 - x0 + h * x3, x0, y1 - y0 + g * y1, y3 - y0 + h * y3, y0, g, h};
+    }
+
+    private static int sampleBilinear(int[] argb, int width, int height, double x, double y) {
+        x = Math.max(0, Math.min(width - 1, x));
+        y = Math.max(0, Math.min(height - 1, y));
+        int x0 = (int) x, y0 = (int) y;
+        int x1 = Math.min(width - 1, x0 + 1), y1 = Math.min(height - 1, y0 + 1);
+        double fx = x - x0, fy = y - y0;
+        int c00 = argb[y0 * width + x0], c10 = argb[y0 * width + x1], c01 = argb[y1 * width + x0], c11 = argb[y1 * width + x1];
+        int result = 0xFF000000;
+        for (int shift = 0; shift < 24; shift += 8) {
+            double top = ((c00 >> shift) & 0xFF) * (1 - fx) + ((c10 >> shift) & 0xFF) * fx;
+            double bottom = ((c01 >> shift) & 0xFF) * (1 - fx) + ((c11 >> shift) & 0xFF) * fx;
+            result |= ((int) Math.round(top * (1 - fy) + bottom * fy)) << shift;
+        }
+        return result;
+    }
+}
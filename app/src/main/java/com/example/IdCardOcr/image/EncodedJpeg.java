@@ -0,0 +1,46 @@
+package com.example.IdCardOcr.image;
+
+//自适应JPEG压缩结果：字节、选定参数及搜索耗时
+public class EncodedJpeg {
+    private final byte[] bytes;
+    private final int quality;
+    private final float scale;
+    private final int width;
+    private final int height;
+    private final boolean withinBudget;
+    private final boolean reusedSettings;
+    private final int attempts;
+    private final long elapsedMs;
+
+    public EncodedJpeg(byte[] bytes, int quality, float scale, int width, int height,
+                       boolean withinBudget, boolean reusedSettings, int attempts, long elapsedMs) {
+        this.bytes = bytes;
+        this.quality = quality;
+        this.scale = scale;
+        this.width = width;
+        this.height = height;
+        this.withinBudget = withinBudget;
+        this.reusedSettings = reusedSettings;
+        this.attempts = attempts;
+        this.elapsedMs = elapsedMs;
+    }
+
+    //Getter方法
+    public byte[] getBytes() { return bytes; }
+    public int getSize() { return bytes.length; }
+    public int getQuality() { return quality; }
+    public float getScale() { return scale; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public boolean isWithinBudget() { return withinBudget; }
+    public boolean isReusedSettings() { return reusedSettings; }
+    public int getAttempts() { return attempts; }
+    public long getElapsedMs() { return elapsedMs; }
+
+    @Override
+    public String toString() {
+        return "EncodedJpeg{size=" + bytes.length + ", quality=" + quality + ", scale=" + scale
+                + ", " + width + "x" + height + ", withinBudget=" + withinBudget + ", reused=" + reusedSettings
+                + ", attempts=" + attempts + ", elapsedMs=" + elapsedMs + "}";
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.IdCardOcr.image;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.IdCardOcr.batch.BatchRecognizer;
+import com.example.IdCardOcr.metrics.ScanMetrics;
+import com.example.IdCardOcr.metrics.Stage;
+import com.example.IdCardOcr.network.Deadline;
+import com.example.IdCardOcr.network.OcrException;
+import com.example.IdCardOcr.network.OcrFuture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//图片预处理阶段：后台线程按目标分辨率解码、缩放、校正方向并压缩为JPEG
+public class ImagePreprocessor {
+    private static final String TAG = "OCR_IMAGE";
+    //默认OCR目标长边像素
+    public static final int DEFAULT_TARGET_LONG_EDGE = 1920;
+    //证件裁剪输出宽度，高度按ID-1长宽比计算
+    public static final int CARD_TARGET_WIDTH = 1280;
+
+    private final ContentResolver contentResolver;
+    private final int targetLongEdge;
+    //按字节预算自适应压缩
+    private final AdaptiveJpegEncoder jpegEncoder;
+    //上传前质量检查，为null时不检查
+    private final QualityAnalyzer qualityAnalyzer;
+    //证件定位，为null时上传整图
+    private final CardDetector cardDetector;
+    //解码和中间结果复用的Bitmap池
+    private final BitmapPool bitmapPool;
+    //解码像素格式：只用于OCR上传时默认RGB_565，像素内存减半
+    private final Bitmap.Config decodeConfig;
+    //单线程执行器，同一时间只解码一张图片，限制解码内存峰值
+    private final ExecutorService executor;
+
+    //预处理回调接口，在后台线程回调
+    public interface Callback {
+        void onSuccess(PreprocessedImage image);
+        void onFailure(String error);
+    }
+
+    public ImagePreprocessor(ContentResolver contentResolver) {
+        this(contentResolver, new BitmapPool(BitmapPool.defaultMaxBytes()));
+    }
+
+    public ImagePreprocessor(ContentResolver contentResolver, BitmapPool bitmapPool) {
+        this(contentResolver, DEFAULT_TARGET_LONG_EDGE, new AdaptiveJpegEncoder(), new QualityAnalyzer(),
+                new CardDetector(), bitmapPool, Bitmap.Config.RGB_565);
+    }
+
+    public ImagePreprocessor(ContentResolver contentResolver, int targetLongEdge, AdaptiveJpegEncoder jpegEncoder,
+                             QualityAnalyzer qualityAnalyzer, CardDetector cardDetector, BitmapPool bitmapPool,
+                             Bitmap.Config decodeConfig) {
+        if (targetLongEdge <= 0) throw new IllegalArgumentException("targetLongEdge必须大于0");
+        this.contentResolver = contentResolver;
+        this.targetLongEdge = targetLongEdge;
+        this.jpegEncoder = jpegEncoder;
+        this.qualityAnalyzer = qualityAnalyzer;
+        this.cardDetector = cardDetector;
+        this.bitmapPool = bitmapPool;
+        this.decodeConfig = decodeConfig;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ocr-preprocess");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    //异步预处理图片
+    public void process(final Uri imageUri, final Callback callback) {
+        executor.execute(() -> {
+            try {
+                PreprocessedImage image = processSync(imageUri);
+                if (callback != null) callback.onSuccess(image);
+            } catch (ImageQualityException e) {
+                if (callback != null) callback.onFailure(e.getMessage());
+            } catch (Exception | OutOfMemoryError e) {
+                if (callback != null) callback.onFailure("图片处理失败: " + e.getMessage());
+            }
+        });
+    }
+
+    //可取消的异步预处理：取消或超过deadline时中断后台线程，在下一个阶段之间停止，已用的Bitmap交还池
+    //质量不合格以ImageQualityException结束，其他错误以OcrException结束
+    public OcrFuture<PreprocessedImage> processAsync(final Uri imageUri, final Deadline deadline) {
+        final OcrFuture<PreprocessedImage> future = new OcrFuture<>();
+        final Future<?> task = executor.submit(() -> {
+            try {
+                future.complete(processSync(imageUri, deadline));
+            } catch (ImageQualityException e) {
+                future.completeExceptionally(e);
+            } catch (Exception | OutOfMemoryError e) {
+                future.completeExceptionally(new OcrException("图片处理失败: " + e.getMessage()));
+            }
+        });
+        future.onAbort(() -> task.cancel(true));
+        return future.expireAt(deadline);
+    }
+
+    //同步预处理，必须在后台线程调用；质量不合格时抛出ImageQualityException
+    public PreprocessedImage processSync(Uri imageUri) throws IOException {
+        return processSync(imageUri, Deadline.NONE);
+    }
+
+    //各阶段之间检查线程中断和截止时间，被取消或超时时抛出InterruptedIOException
+    public PreprocessedImage processSync(Uri imageUri, Deadline deadline) throws IOException {
+        return encodeSync(decodeSync(imageUri, deadline));
+    }
+
+    //解码阶段：解码、缩放、旋转、定位裁剪和质量检查，结果交给encodeSync压缩或release释放
+    public Decoded decodeSync(Uri imageUri, Deadline deadline) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        long decodeStart = System.nanoTime();
+        //第一步：只读取尺寸，不分配像素内存
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(imageUri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) throw new IOException("无法识别的图片格式");
+        int orientation = readOrientation(imageUri);
+        checkpoint(deadline);
+        //第二步：按2的幂次下采样解码到池中复用的像素内存，解码结果不小于目标尺寸
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight, targetLongEdge);
+        options.inPreferredConfig = decodeConfig;
+        Bitmap decoded = bitmapPool.decode(() -> open(imageUri), bounds.outWidth, bounds.outHeight, options);
+        if (decoded == null) throw new IOException("图片解码失败");
+        //第三步：精确缩放到目标长边并按EXIF旋转
+        Bitmap output = scaleAndRotate(decoded, targetLongEdge, orientation);
+        if (output != decoded) bitmapPool.put(decoded);
+        ScanMetrics.getInstance().recordSince(Stage.DECODE, decodeStart, 0);
+        try {
+            checkpoint(deadline);
+            //第四步：定位证件并透视裁剪，未找到时使用整图
+            CardDetection detection = null;
+            if (cardDetector != null) {
+                long detectStart = System.nanoTime();
+                detection = detectCard(output);
+                if (detection.isFound()) {
+                    Bitmap cropped = cropCard(output, detection);
+                    bitmapPool.put(output);
+                    output = cropped;
+                }
+                ScanMetrics.getInstance().recordSince(Stage.CARD_DETECT, detectStart, 0);
+                Log.d(TAG, "证件定位: " + detection);
+            }
+            checkpoint(deadline);
+            //第五步：质量检查，不合格的图片不再压缩上传
+            QualityReport quality = checkQuality(output);
+            checkpoint(deadline);
+            return new Decoded(output, bounds.outWidth, bounds.outHeight, start, quality, detection);
+        } catch (IOException | RuntimeException e) {
+            bitmapPool.put(output);
+            throw e;
+        }
+    }
+
+    //压缩阶段：第六步，按字节预算压缩JPEG，完成后位图归还池
+    public PreprocessedImage encodeSync(Decoded decoded) throws IOException {
+        try {
+            long encodeStart = System.nanoTime();
+            EncodedJpeg jpeg = jpegEncoder.encode(decoded.bitmap);
+            ScanMetrics.getInstance().recordSince(Stage.JPEG_ENCODE, encodeStart, jpeg.getSize());
+            Log.d(TAG, "JPEG压缩: " + jpeg + ", 预算=" + jpegEncoder.getTargetBytes());
+            return new PreprocessedImage(jpeg, decoded.sourceWidth, decoded.sourceHeight,
+                    SystemClock.elapsedRealtime() - decoded.startMillis, decoded.quality, decoded.detection);
+        } finally {
+            release(decoded);
+        }
+    }
+
+    //不再压缩的解码结果（如批次已取消）归还位图池
+    public void release(Decoded decoded) { bitmapPool.put(decoded.bitmap); }
+
+    //批量识别流水线的解码/压缩两级，两级并发由BatchRecognizer分别限制
+    public BatchRecognizer.ImageStages<Uri, Decoded> batchStages() {
+        return new BatchRecognizer.ImageStages<Uri, Decoded>() {
+            @Override
+            public Decoded decode(Uri source) throws IOException { return decodeSync(source, Deadline.NONE); }
+            @Override
+            public byte[] encode(Decoded decoded) throws IOException { return encodeSync(decoded).getJpegBytes(); }
+            @Override
+            public void discard(Decoded decoded) { release(decoded); }
+        };
+    }
+
+    //解码阶段的中间结果：已缩放、裁剪并通过质量检查的位图
+    public static final class Decoded {
+        private final Bitmap bitmap;
+        private final int sourceWidth;
+        private final int sourceHeight;
+        private final long startMillis;
+        private final QualityReport quality;
+        private final CardDetection detection;
+
+        private Decoded(Bitmap bitmap, int sourceWidth, int sourceHeight, long startMillis, QualityReport quality, CardDetection detection) {
+            this.bitmap = bitmap;
+            this.sourceWidth = sourceWidth;
+            this.sourceHeight = sourceHeight;
+            this.startMillis = startMillis;
+            this.quality = quality;
+            this.detection = detection;
+        }
+    }
+
+    private static void checkpoint(Deadline deadline) throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("预处理已取消");
+        if (deadline.isExpired()) throw new InterruptedIOException("预处理超时");
+    }
+
+    //缩小到定位分辨率后定位证件，角点换算回原图坐标
+    private CardDetection detectCard(Bitmap bitmap) {
+        int longEdge = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        float scale = Math.min(1f, (float) CardDetector.ANALYSIS_LONG_EDGE / longEdge);
+        int w = Math.max(3, Math.round(bitmap.getWidth() * scale));
+        int h = Math.max(3, Math.round(bitmap.getHeight() * scale));
+        int[] pixels = readPixels(bitmap, w, h);
+        CardDetection small = cardDetector.detect(pixels, w, h);
+        if (!small.isFound() || scale == 1f) return small;
+        float[] corners = small.getCorners();
+        for (int i = 0; i < corners.length; i++) corners[i] /= scale;
+        return new CardDetection(corners, small.getCropRatio(), small.getElapsedMicros());
+    }
+
+    //透视校正到ID-1比例，输出宽度不超过证件在原图中的长边长度，避免放大
+    private Bitmap cropCard(Bitmap source, CardDetection detection) {
+        int outWidth = (int) Math.min(CARD_TARGET_WIDTH, Math.round(detection.getLongEdgeLength()));
+        int outHeight = (int) Math.round(outWidth / CardDetector.ID1_ASPECT);
+        float[] dst = {0, 0, outWidth, 0, outWidth, outHeight, 0, outHeight};
+        Matrix matrix = new Matrix();
+        matrix.setPolyToPoly(detection.getLandscapeCorners(), 0, dst, 0, 4);
+        Bitmap cropped = bitmapPool.get(outWidth, outHeight, decodeConfig);
+        new Canvas(cropped).drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+        return cropped;
+    }
+
+    //缩小到w x h后读取像素
+    private static int[] readPixels(Bitmap bitmap, int w, int h) {
+        Bitmap small = w != bitmap.getWidth() || h != bitmap.getHeight() ? Bitmap.createScaledBitmap(bitmap, w, h, true) : bitmap;
+        int[] pixels = new int[w * h];
+        small.getPixels(pixels, 0, w, 0, 0, w, h);
+        if (small != bitmap) small.recycle();
+        return pixels;
+    }
+
+    //缩小到分析分辨率后做质量分析
+    private QualityReport checkQuality(Bitmap bitmap) throws ImageQualityException {
+        if (qualityAnalyzer == null) return null;
+        long start = System.nanoTime();
+        int longEdge = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        float scale = Math.min(1f, (float) QualityAnalyzer.ANALYSIS_LONG_EDGE / longEdge);
+        int w = Math.max(3, Math.round(bitmap.getWidth() * scale));
+        int h = Math.max(3, Math.round(bitmap.getHeight() * scale));
+        int[] pixels = readPixels(bitmap, w, h);
+        QualityReport report = qualityAnalyzer.analyze(pixels, w, h);
+        ScanMetrics.getInstance().recordSince(Stage.QUALITY_CHECK, start, 0);
+        Log.d(TAG, "质量检查: " + report);
+        if (report.isRejected()) throw new ImageQualityException(report);
+        return report;
+    }
+
+    //释放后台线程
+    public void shutdown() { executor.shutdownNow(); }
+
+    //计算不低于目标长边的最大2的幂次采样率
+    static int calculateInSampleSize(int width, int height, int targetLongEdge) {
+        int longEdge = Math.max(width, height);
+        int sampleSize = 1;
+        while (longEdge / (sampleSize * 2) >= targetLongEdge) sampleSize *= 2;
+        return sampleSize;
+    }
+
+    //按目标长边缩放并应用EXIF方向，结果绘制到池中的Bitmap；无需变换时返回原图
+    private Bitmap scaleAndRotate(Bitmap source, int targetLongEdge, int orientation) {
+        Matrix matrix = new Matrix();
+        int longEdge = Math.max(source.getWidth(), source.getHeight());
+        if (longEdge > targetLongEdge) {
+            float scale = (float) targetLongEdge / longEdge;
+            matrix.postScale(scale, scale);
+        }
+        applyOrientation(matrix, orientation);
+        if (matrix.isIdentity()) return source;
+        //与Bitmap.createBitmap(source, matrix)一致：变换后的外接矩形平移到原点
+        RectF bounds = new RectF(0, 0, source.getWidth(), source.getHeight());
+        matrix.mapRect(bounds);
+        matrix.postTranslate(-bounds.left, -bounds.top);
+        Bitmap output = bitmapPool.get(Math.max(1, Math.round(bounds.width())), Math.max(1, Math.round(bounds.height())),
+                decodeConfig);
+        new Canvas(output).drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+        return output;
+    }
+
+    //EXIF方向转换为矩阵变换
+    private static void applyOrientation(Matrix matrix, int orientation) {
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(-90);
+                break;
+            default:
+                break;
+        }
+    }
+
+    //读取EXIF方向，失败时视为正常方向
+    private int readOrientation(Uri imageUri) {
+        try (InputStream in = open(imageUri)) {
+            return new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    private InputStream open(Uri imageUri) throws IOException {
+        InputStream in = contentResolver.openInputStream(imageUri);
+        if (in == null) throw new IOException("无法打开图片: " + imageUri);
+        return in;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.IdCardOcr.image;
+
+import java.io.IOException;
+
+//图片质量不合格，不再压缩上传
+public class ImageQualityException extends IOException {
+    private final QualityReport report;
+
+    public ImageQualityException(QualityReport report) {
+        super("图片质量不合格: " + report.describe());
+        this.report = report;
+    }
+
+    public QualityReport getReport() { return report; }
+}
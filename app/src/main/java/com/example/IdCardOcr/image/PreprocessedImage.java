@@ -0,0 +1,34 @@
+package com.example.IdCardOcr.image;
+
+//预处理结果：待上传的JPEG字节及尺寸、耗时、质量分析和证件定位信息
+public class PreprocessedImage {
+    private final EncodedJpeg jpeg;
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final long elapsedMs;
+    //未启用质量检查时为null
+    private final QualityReport quality;
+    //未启用证件定位时为null
+    private final CardDetection cardDetection;
+
+    public PreprocessedImage(EncodedJpeg jpeg, int sourceWidth, int sourceHeight, long elapsedMs, QualityReport quality,
+                             CardDetection cardDetection) {
+        this.jpeg = jpeg;
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.elapsedMs = elapsedMs;
+        this.quality = quality;
+        this.cardDetection = cardDetection;
+    }
+
+    //Getter方法
+    public byte[] getJpegBytes() { return jpeg.getBytes(); }
+    public EncodedJpeg getJpeg() { return jpeg; }
+    public int getWidth() { return jpeg.getWidth(); }
+    public int getHeight() { return jpeg.getHeight(); }
+    public int getSourceWidth() { return sourceWidth; }
+    public int getSourceHeight() { return sourceHeight; }
+    public long getElapsedMs() { return elapsedMs; }
+    public QualityReport getQuality() { return quality; }
+    public CardDetection getCardDetection() { return cardDetection; }
+}
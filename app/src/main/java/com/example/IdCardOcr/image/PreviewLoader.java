@@ -0,0 +1,169 @@
+package com.example.IdCardOcr.image;
+
+import android.content.ComponentCallbacks2;
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//预览图加载：后台线程按ImageView实际尺寸下采样解码，按URI和尺寸缓存最近的预览图，新图片到来时取消旧的加载
+//除解码外的状态只在主线程访问；缓存和预览中的Bitmap都来自BitmapPool，既不在缓存也不在预览时交还池
+public class PreviewLoader {
+    private static final String TAG = "OCR_PREVIEW";
+    //预览缓存上限，不超过进程可用堆的1/16
+    private static final int MAX_CACHE_BYTES = 8 * 1024 * 1024;
+
+    //加载结果回调，在主线程回调；被新的加载取代时不回调
+    public interface Listener {
+        void onPreviewLoaded(boolean success);
+    }
+
+    private final ImageView view;
+    private final ContentResolver contentResolver;
+    private final BitmapPool bitmapPool;
+    private final LruCache<String, Bitmap> cache;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    //每次load/show/clear递增，后台结果的代号不一致即已过期
+    private volatile int generation;
+    private Future<?> pending;
+    //当前预览中的Bitmap
+    private Bitmap displayed;
+    private int staleDrops;
+
+    public PreviewLoader(ImageView view, ContentResolver contentResolver, BitmapPool bitmapPool) {
+        this.view = view;
+        this.contentResolver = contentResolver;
+        this.bitmapPool = bitmapPool;
+        int maxBytes = (int) Math.min(MAX_CACHE_BYTES, Runtime.getRuntime().maxMemory() / 16);
+        this.cache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) { return value.getAllocationByteCount(); }
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue != newValue) releaseIfUnused(oldValue);
+            }
+        };
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ocr-preview");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    //加载并显示预览，必须在主线程调用；命中缓存时立即显示
+    public void load(final Uri uri, final Listener listener) {
+        final int gen = cancelPending();
+        final int reqLongEdge = targetLongEdge();
+        final String key = uri + "@" + reqLongEdge;
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            display(cached);
+            if (listener != null) listener.onPreviewLoaded(true);
+            return;
+        }
+        display(null);
+        pending = executor.submit(() -> {
+            if (gen != generation) return;
+            Bitmap bitmap = null;
+            try {
+                bitmap = bitmapPool.decodeSampled(() -> open(uri), reqLongEdge, Bitmap.Config.ARGB_8888);
+            } catch (IOException | SecurityException e) {
+                Log.w(TAG, "加载预览失败: " + e.getMessage());
+            }
+            final Bitmap result = bitmap;
+            mainHandler.post(() -> deliver(gen, key, result, listener));
+        });
+    }
+
+    //显示不经过加载的图片（如相机返回的缩略图），取消进行中的加载
+    public void show(Bitmap bitmap) {
+        cancelPending();
+        display(bitmap);
+    }
+
+    //清空预览并取消进行中的加载
+    public void clear() {
+        cancelPending();
+        display(null);
+    }
+
+    private void deliver(int gen, String key, Bitmap bitmap, Listener listener) {
+        if (gen != generation) {
+            //已被新的加载取代
+            staleDrops++;
+            if (bitmap != null) bitmapPool.put(bitmap);
+            return;
+        }
+        pending = null;
+        if (bitmap != null) {
+            cache.put(key, bitmap);
+            display(bitmap);
+        }
+        if (listener != null) listener.onPreviewLoaded(bitmap != null);
+    }
+
+    private int cancelPending() {
+        int gen = ++generation;
+        if (pending != null) pending.cancel(true);
+        pending = null;
+        return gen;
+    }
+
+    //先让View引用新图，再释放旧图
+    private void display(Bitmap bitmap) {
+        if (bitmap == displayed) return;
+        Bitmap previous = displayed;
+        if (bitmap != null) {
+            view.setImageBitmap(bitmap);
+        } else {
+            view.setImageDrawable(null);
+        }
+        displayed = bitmap;
+        releaseIfUnused(previous);
+    }
+
+    private void releaseIfUnused(Bitmap bitmap) {
+        if (bitmap == null || bitmap == displayed || cache.snapshot().containsValue(bitmap)) return;
+        bitmapPool.put(bitmap);
+    }
+
+    //View尚未布局时按屏幕宽度估算
+    private int targetLongEdge() {
+        int longEdge = Math.max(view.getWidth(), view.getHeight());
+        return longEdge > 0 ? longEdge : view.getResources().getDisplayMetrics().widthPixels;
+    }
+
+    private InputStream open(Uri uri) throws IOException {
+        InputStream in = contentResolver.openInputStream(uri);
+        if (in == null) throw new IOException("无法打开图片: " + uri);
+        return in;
+    }
+
+    //内存紧张时清空缓存（预览中的图保留）
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) cache.evictAll();
+    }
+
+    //Activity销毁时调用：取消加载、清空预览和缓存并停止后台线程
+    public void release() {
+        clear();
+        cache.evictAll();
+        executor.shutdownNow();
+    }
+
+    public String getStats() {
+        return "hits=" + cache.hitCount() + ", misses=" + cache.missCount() + ", entries=" + cache.snapshot().size()
+                + ", bytes=" + cache.size() + ", maxBytes=" + cache.maxSize() + ", staleDrops=" + staleDrops;
+    }
+}
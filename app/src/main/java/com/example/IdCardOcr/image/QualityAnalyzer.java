@@ -0,0 +1,125 @@
+package com.example.IdCardOcr.image;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//图片质量分析：在缩小的灰度图上计算拉普拉斯方差（清晰度）、亮度直方图（曝光）和高光比例（反光），上传前拦截废片
+//无共享状态，可在多个线程同时使用
+public class QualityAnalyzer {
+    //分析分辨率长边，门限按此分辨率标定
+    public static final int ANALYSIS_LONG_EDGE = 512;
+    //高光和欠曝像素的灰度阈值
+    private static final int HIGHLIGHT_LUMA = 250;
+    private static final int DARK_LUMA = 20;
+
+    private final QualityThresholds thresholds;
+
+    public QualityAnalyzer() { this(QualityThresholds.DEFAULT); }
+
+    public QualityAnalyzer(QualityThresholds thresholds) { this.thresholds = thresholds; }
+
+    //分析ARGB像素，尺寸超过分析分辨率时先按块平均缩小
+    public QualityReport analyze(int[] argb, int width, int height) {
+        long start = System.nanoTime();
+        int step = Math.max(1, (Math.max(width, height) + ANALYSIS_LONG_EDGE - 1) / ANALYSIS_LONG_EDGE);
+        int w = width / step;
+        int h = height / step;
+        byte[] luma = downsampleLuma(argb, width, w, h, step);
+        return evaluate(luma, w, h, start);
+    }
+
+    //分析已是分析分辨率的灰度图（如相机Y平面缩小后的数据）
+    public QualityReport analyzeLuma(byte[] luma, int width, int height) {
+        return evaluate(luma, width, height, System.nanoTime());
+    }
+
+    //块平均缩小并转灰度：Y = (77R + 150G + 29B) / 256
+    static byte[] downsampleLuma(int[] argb, int stride, int w, int h, int step) {
+        byte[] luma = new byte[w * h];
+        int area = step * step;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                int sum = 0;
+                int base = y * step * stride + x * step;
+                for (int dy = 0; dy < step; dy++) {
+                    int row = base + dy * stride;
+                    for (int dx = 0; dx < step; dx++) {
+                        int c = argb[row + dx];
+                        sum += (77 * ((c >> 16) & 0xFF) + 150 * ((c >> 8) & 0xFF) + 29 * (c & 0xFF)) >> 8;
+                    }
+                }
+                luma[y * w + x] = (byte) (sum / area);
+            }
+        }
+        return luma;
+    }
+
+    private QualityReport evaluate(byte[] luma, int w, int h, long start) {
+        if (w < 3 || h < 3) throw new IllegalArgumentException("图片太小");
+        //直方图：亮度、高光和欠曝比例
+        int[] histogram = new int[256];
+        for (int i = 0, n = w * h; i < n; i++) histogram[luma[i] & 0xFF]++;
+        long total = (long) w * h;
+        long lumaSum = 0;
+        long highlight = 0;
+        long dark = 0;
+        for (int v = 0; v < 256; v++) {
+            lumaSum += (long) v * histogram[v];
+            if (v >= HIGHLIGHT_LUMA) highlight += histogram[v];
+            if (v <= DARK_LUMA) dark += histogram[v];
+        }
+        double meanLuma = (double) lumaSum / total;
+        double highlightRatio = (double) highlight / total;
+        double darkRatio = (double) dark / total;
+        double sharpness = laplacianVariance(luma, w, h);
+
+        List<String> reasons = new ArrayList<>();
+        QualityReport.Verdict verdict = QualityReport.Verdict.OK;
+        if (sharpness < thresholds.rejectSharpness) {
+            verdict = QualityReport.Verdict.REJECT;
+            reasons.add("图片模糊");
+        } else if (sharpness < thresholds.warnSharpness) {
+            verdict = worse(verdict, QualityReport.Verdict.WARN);
+            reasons.add("图片不够清晰");
+        }
+        if (meanLuma < thresholds.rejectMinLuma || meanLuma > thresholds.rejectMaxLuma) {
+            verdict = QualityReport.Verdict.REJECT;
+            reasons.add(meanLuma < thresholds.rejectMinLuma ? "光线太暗" : "曝光过度");
+        } else if (meanLuma < thresholds.warnMinLuma || meanLuma > thresholds.warnMaxLuma) {
+            verdict = worse(verdict, QualityReport.Verdict.WARN);
+            reasons.add(meanLuma < thresholds.warnMinLuma ? "光线偏暗" : "光线偏亮");
+        }
+        if (highlightRatio > thresholds.rejectHighlightRatio) {
+            verdict = QualityReport.Verdict.REJECT;
+            reasons.add("反光严重");
+        } else if (highlightRatio > thresholds.warnHighlightRatio) {
+            verdict = worse(verdict, QualityReport.Verdict.WARN);
+            reasons.add("存在反光");
+        }
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+        return new QualityReport(verdict, reasons, sharpness, meanLuma, highlightRatio, darkRatio, elapsedMicros);
+    }
+
+    //4邻域拉普拉斯响应的方差，边缘越锐利方差越大
+    public static double laplacianVariance(byte[] luma, int w, int h) {
+        long sum = 0;
+        long sumSq = 0;
+        for (int y = 1; y < h - 1; y++) {
+            int row = y * w;
+            for (int x = 1; x < w - 1; x++) {
+                int i = row + x;
+                int lap = 4 * (luma[i] & 0xFF) - (luma[i - 1] & 0xFF) - (luma[i + 1] & 0xFF)
+                        - (luma[i - w] & 0xFF) - (luma[i + w] & 0xFF);
+                sum += lap;
+                sumSq += (long) lap * lap;
+            }
+        }
+        long n = (long) (w - 2) * (h - 2);
+        double mean = (double) sum / n;
+        return (double) sumSq / n - mean * mean;
+    }
+
+    private static QualityReport.Verdict worse(QualityReport.Verdict a, QualityReport.Verdict b) {
+        return a.ordinal() >= b.ordinal() ? a : b;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.IdCardOcr.image;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+//图片质量分析结果
+public class QualityReport {
+    //判定结果
+    public enum Verdict { OK, WARN, REJECT }
+
+    private final Verdict verdict;
+    private final List<String> reasons;
+    private final double sharpness;
+    private final double meanLuma;
+    private final double highlightRatio;
+    private final double darkRatio;
+    private final long elapsedMicros;
+
+    QualityReport(Verdict verdict, List<String> reasons, double sharpness, double meanLuma, double highlightRatio,
+                  double darkRatio, long elapsedMicros) {
+        this.verdict = verdict;
+        this.reasons = Collections.unmodifiableList(reasons);
+        this.sharpness = sharpness;
+        this.meanLuma = meanLuma;
+        this.highlightRatio = highlightRatio;
+        this.darkRatio = darkRatio;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    //Getter方法
+    public Verdict getVerdict() { return verdict; }
+    public boolean isRejected() { return verdict == Verdict.REJECT; }
+    public List<String> getReasons() { return reasons; }
+    public double getSharpness() { return sharpness; }
+    public double getMeanLuma() { return meanLuma; }
+    public double getHighlightRatio() { return highlightRatio; }
+    public double getDarkRatio() { return darkRatio; }
+    public long getElapsedMicros() { return elapsedMicros; }
+
+    //原因拼接为一句提示
+    public String describe() { return String.join("，", reasons); }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s sharpness=%.1f luma=%.1f highlight=%.3f dark=%.3f %dus %s",
+                verdict, sharpness, meanLuma, highlightRatio, darkRatio, elapsedMicros, reasons);
+    }
+}
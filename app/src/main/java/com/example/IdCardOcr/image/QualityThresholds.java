@@ -0,0 +1,33 @@
+package com.example.IdCardOcr.image;
+
+//图片质量门限：低于reject直接拒绝，低于warn提示后仍可上传
+public final class QualityThresholds {
+    //默认值按512像素长边的分析分辨率标定
+    public static final QualityThresholds DEFAULT = new QualityThresholds(20, 60, 45, 215, 70, 195, 0.08, 0.02);
+
+    final double rejectSharpness;
+    final double warnSharpness;
+    final int rejectMinLuma;
+    final int rejectMaxLuma;
+    final int warnMinLuma;
+    final int warnMaxLuma;
+    final double rejectHighlightRatio;
+    final double warnHighlightRatio;
+
+    //清晰度为拉普拉斯方差，亮度为平均灰度（0~255），高光比例为接近饱和的像素占比
+    public QualityThresholds(double rejectSharpness, double warnSharpness, int rejectMinLuma, int rejectMaxLuma,
+                             int warnMinLuma, int warnMaxLuma, double rejectHighlightRatio, double warnHighlightRatio) {
+        if (rejectSharpness > warnSharpness || rejectMinLuma > warnMinLuma || rejectMaxLuma < warnMaxLuma
+                || rejectHighlightRatio < warnHighlightRatio) {
+            throw new IllegalArgumentException("拒绝门限必须比提示门限更宽松");
+        }
+        this.rejectSharpness = rejectSharpness;
+        this.warnSharpness = warnSharpness;
+        this.rejectMinLuma = rejectMinLuma;
+        this.rejectMaxLuma = rejectMaxLuma;
+        this.warnMinLuma = warnMinLuma;
+        this.warnMaxLuma = warnMaxLuma;
+        this.rejectHighlightRatio = rejectHighlightRatio;
+        this.warnHighlightRatio = warnHighlightRatio;
+    }
+}
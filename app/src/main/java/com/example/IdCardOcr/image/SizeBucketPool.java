@@ -0,0 +1,113 @@
+package com.example.IdCardOcr.image;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//按字节大小分桶的对象池：取出时选不小于需求的最小对象，总字节数超过上限时淘汰最久未放回的对象
+//与Bitmap无关的部分放在这里，便于在JVM上测试
+final class SizeBucketPool<T> {
+    //对象的字节大小与淘汰时的释放动作
+    interface Sizer<T> {
+        int sizeOf(T item);
+        void release(T item);
+    }
+
+    //取出对象的大小不超过需求的倍数，避免小图占用大块内存
+    static final int MAX_SIZE_MULTIPLE = 4;
+
+    private final Sizer<T> sizer;
+    private final long maxBytes;
+    //字节大小 -> 该大小的空闲对象，后放回的先取出
+    private final TreeMap<Integer, ArrayDeque<T>> buckets = new TreeMap<>();
+    //放回顺序，队首最久未使用，超出上限时从队首淘汰
+    private final ArrayDeque<T> lru = new ArrayDeque<>();
+    private long bytesHeld;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    SizeBucketPool(Sizer<T> sizer, long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("maxBytes不能为负数");
+        this.sizer = sizer;
+        this.maxBytes = maxBytes;
+    }
+
+    //取出不小于minBytes的最小空闲对象，没有合适对象时返回null
+    synchronized T get(int minBytes) {
+        Map.Entry<Integer, ArrayDeque<T>> entry = buckets.ceilingEntry(minBytes);
+        if (entry == null || entry.getKey() > (long) minBytes * MAX_SIZE_MULTIPLE) {
+            misses.incrementAndGet();
+            return null;
+        }
+        T item = entry.getValue().pollLast();
+        if (entry.getValue().isEmpty()) buckets.remove(entry.getKey());
+        removeFromLru(item);
+        bytesHeld -= entry.getKey();
+        hits.incrementAndGet();
+        return item;
+    }
+
+    //放回对象，池接管所有权；单个对象超过上限时直接释放
+    synchronized void put(T item) {
+        int size = sizer.sizeOf(item);
+        if (size > maxBytes) {
+            evictions.incrementAndGet();
+            sizer.release(item);
+            return;
+        }
+        puts.incrementAndGet();
+        buckets.computeIfAbsent(size, k -> new ArrayDeque<>()).addLast(item);
+        lru.addLast(item);
+        bytesHeld += size;
+        trimTo(maxBytes);
+    }
+
+    //淘汰最久未使用的对象直到总字节数不超过limit
+    synchronized void trimTo(long limit) {
+        while (bytesHeld > limit && !lru.isEmpty()) {
+            T eldest = lru.pollFirst();
+            int size = sizer.sizeOf(eldest);
+            ArrayDeque<T> bucket = buckets.get(size);
+            if (bucket != null) {
+                removeIdentical(bucket.iterator(), eldest);
+                if (bucket.isEmpty()) buckets.remove(size);
+            }
+            bytesHeld -= size;
+            evictions.incrementAndGet();
+            sizer.release(eldest);
+        }
+    }
+
+    synchronized void clear() { trimTo(0); }
+
+    private void removeFromLru(T item) { removeIdentical(lru.iterator(), item); }
+
+    //按引用移除，不依赖equals
+    private static <T> void removeIdentical(Iterator<T> it, T item) {
+        while (it.hasNext()) {
+            if (it.next() == item) {
+                it.remove();
+                return;
+            }
+        }
+    }
+
+    synchronized long getBytesHeld() { return bytesHeld; }
+    synchronized int getCount() { return lru.size(); }
+    long getMaxBytes() { return maxBytes; }
+    long getHitCount() { return hits.get(); }
+    long getMissCount() { return misses.get(); }
+    long getPutCount() { return puts.get(); }
+    long getEvictionCount() { return evictions.get(); }
+
+    //命中率，没有取用记录时为0
+    double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+}
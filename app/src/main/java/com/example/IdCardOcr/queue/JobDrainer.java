@@ -0,0 +1,173 @@
+package com.example.IdCardOcr.queue;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.ErrorClassifier;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.example.IdCardOcr.network.OcrApiClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+//离线队列消费者：联网时按入队顺序重放任务，进行中的任务数不超过并发上限
+//临时故障时记录尝试次数并暂停本轮消费（OcrApiClient内部已重试，再失败通常是网络或服务仍不可用），按指数退避延迟后自动恢复，达到上限后放弃；
+//图片无身份证等永久错误重试无意义且每次计费，直接放弃
+public class JobDrainer {
+    public static final int DEFAULT_CONCURRENCY = 2;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    //退避延迟：首次30秒，每次失败翻倍，最长10分钟
+    public static final long DEFAULT_RETRY_BASE_MS = 30_000;
+    public static final long DEFAULT_RETRY_MAX_MS = 10 * 60_000;
+
+    private final JobQueue queue;
+    private final IdCardRecognizer recognizer;
+    private final BooleanSupplier online;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final List<JobListener> listeners = new CopyOnWriteArrayList<>();
+    //进行中的任务ID
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    //读取图片等磁盘操作和延迟恢复在后台线程执行
+    private final ScheduledExecutorService executor;
+    private long retryBaseMs = DEFAULT_RETRY_BASE_MS;
+    private long retryMaxMs = DEFAULT_RETRY_MAX_MS;
+    private boolean paused = false;
+    //已安排的延迟恢复，同一时间最多一个
+    private ScheduledFuture<?> resume;
+
+    public JobDrainer(JobQueue queue, IdCardRecognizer recognizer, BooleanSupplier online) {
+        this(queue, recognizer, online, DEFAULT_CONCURRENCY, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public JobDrainer(JobQueue queue, IdCardRecognizer recognizer, BooleanSupplier online, int concurrency, int maxAttempts) {
+        if (concurrency <= 0 || maxAttempts <= 0) throw new IllegalArgumentException("并发数和尝试次数必须大于0");
+        this.queue = queue;
+        this.recognizer = recognizer;
+        this.online = online;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ocr-offline-drain");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void addListener(JobListener listener) { listeners.add(listener); }
+    public void removeListener(JobListener listener) { listeners.remove(listener); }
+
+    //网络恢复时调用，清除暂停状态并开始消费
+    public void drain() {
+        synchronized (this) { paused = false; }
+        schedule();
+    }
+
+    //在线时因服务端故障入队的任务：服务可能仍不可用，按首次退避延迟后再消费
+    public void drainLater() { scheduleResume(retryBaseMs); }
+
+    //测试用：缩短退避延迟
+    void setRetryBackoff(long baseMs, long maxMs) {
+        this.retryBaseMs = baseMs;
+        this.retryMaxMs = maxMs;
+    }
+
+    public int getInFlightCount() { return inFlight.size(); }
+
+    public void shutdown() { executor.shutdownNow(); }
+
+    //在并发上限内提交待处理任务
+    private void fill() {
+        for (OfflineJob job : queue.pending()) {
+            synchronized (this) {
+                if (paused || inFlight.size() >= concurrency || !online.getAsBoolean()) return;
+                if (!inFlight.add(job.getId())) continue;
+            }
+            submit(job);
+        }
+    }
+
+    private void submit(final OfflineJob job) {
+        byte[] jpegBytes;
+        try {
+            jpegBytes = queue.readPayload(job);
+        } catch (IOException e) {
+            finish(job, null, "读取离线图片失败: " + e.getMessage());
+            return;
+        }
+        recognizer.recognizeIdCard(jpegBytes, job.getCardSide(), new OcrApiClient.Callback() {
+            @Override
+            public void onSuccess(IdentifyResult result) { finish(job, result, null); }
+            @Override
+            public void onFailure(String error) { retryLater(job, error); }
+            @Override
+            public void onFailure(String error, ErrorClassifier.Kind kind) {
+                if (kind == ErrorClassifier.Kind.FATAL) finish(job, null, error); else retryLater(job, error);
+            }
+        });
+    }
+
+    //成功或放弃：删除任务，通知订阅者，继续消费
+    private void finish(OfflineJob job, IdentifyResult result, String error) {
+        try {
+            queue.remove(job.getId());
+        } catch (IOException e) {
+            //删除记录失败时任务会在下次启动时重放，结果可能重复通知
+        }
+        inFlight.remove(job.getId());
+        for (JobListener listener : listeners) {
+            if (result != null) listener.onJobCompleted(job, result); else listener.onJobFailed(job, error);
+        }
+        schedule();
+    }
+
+    //在消费线程上继续提交，关闭后忽略
+    private void schedule() {
+        try {
+            executor.execute(this::fill);
+        } catch (RejectedExecutionException e) {
+            //已关闭
+        }
+    }
+
+    //失败：记录尝试次数，未达上限则保留任务并暂停，退避后自动恢复，网络恢复时也会提前恢复
+    private void retryLater(OfflineJob job, String error) {
+        OfflineJob updated;
+        try {
+            updated = queue.recordFailure(job.getId());
+        } catch (IOException e) {
+            updated = job.withAttempts(job.getAttempts() + 1);
+        }
+        if (updated != null && updated.getAttempts() >= maxAttempts) {
+            finish(updated, null, error);
+            return;
+        }
+        synchronized (this) { paused = true; }
+        inFlight.remove(job.getId());
+        int attempts = updated != null ? updated.getAttempts() : job.getAttempts() + 1;
+        scheduleResume(backoffMs(attempts));
+    }
+
+    //第n次失败后的延迟：base * 2^(n-1)，不超过上限
+    long backoffMs(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(retryBaseMs << shift, retryMaxMs);
+    }
+
+    //安排一次延迟drain，已有未执行的安排时不重复
+    private synchronized void scheduleResume(long delayMs) {
+        if (resume != null && !resume.isDone()) return;
+        try {
+            resume = executor.schedule(this::drain, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //已关闭
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.IdCardOcr.queue;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+
+//离线任务结果订阅者，在网络线程回调
+public interface JobListener {
+    void onJobCompleted(OfflineJob job, IdentifyResult result);
+    //超过最大尝试次数或任务损坏，任务已从队列删除
+    void onJobFailed(OfflineJob job, String error);
+}
@@ -0,0 +1,212 @@
+package com.example.IdCardOcr.queue;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+import com.example.IdCardOcr.network.CardSide;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+//持久化离线任务队列：追加写日志 + 定期压缩为快照，每条记录fsync后才返回，进程崩溃后可恢复
+//日志格式（制表符分隔，一行一条）：ADD id side createdAt attempts path / TRY id attempts / DEL id
+//图片写入payloads目录后再追加ADD记录，日志只保存路径；有密钥时图片加密落盘（身份证照片不以明文保存）
+public class JobQueue {
+    private static final String JOURNAL = "journal.log";
+    private static final String SNAPSHOT = "state.snapshot";
+    private static final String PAYLOAD_DIR = "payloads";
+    //日志记录数超过该值时压缩
+    private static final int COMPACT_THRESHOLD = 64;
+
+    private final File payloadDir;
+    private final File journalFile;
+    private final File snapshotFile;
+    //图片加密，为null时明文保存（仅测试）
+    private final RecordCipher cipher;
+    //按入队顺序保存的待处理任务
+    private final Map<String, OfflineJob> jobs = new LinkedHashMap<>();
+    private FileOutputStream journal;
+    private int journalRecords;
+
+    //打开队列目录：加载快照，重放日志，清理无主的图片文件
+    public JobQueue(File directory, RecordCipher cipher) throws IOException {
+        this.cipher = cipher;
+        this.payloadDir = new File(directory, PAYLOAD_DIR);
+        this.journalFile = new File(directory, JOURNAL);
+        this.snapshotFile = new File(directory, SNAPSHOT);
+        if (!payloadDir.isDirectory() && !payloadDir.mkdirs()) throw new IOException("无法创建队列目录: " + directory);
+        replay(snapshotFile);
+        journalRecords = replay(journalFile);
+        removeOrphans();
+        repairTornTail();
+        journal = new FileOutputStream(journalFile, true);
+        if (journalRecords >= COMPACT_THRESHOLD) compact();
+    }
+
+    //测试用：图片明文保存
+    JobQueue(File directory) throws IOException { this(directory, null); }
+
+    //保存JPEG并入队
+    public synchronized OfflineJob enqueue(byte[] jpegBytes, CardSide cardSide) throws IOException {
+        String id = UUID.randomUUID().toString();
+        File payload = new File(payloadDir, id + ".jpg");
+        File temp = new File(payloadDir, id + ".tmp");
+        byte[] content = jpegBytes;
+        if (cipher != null) {
+            try {
+                content = cipher.seal(jpegBytes);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("加密离线图片失败: " + e.getMessage(), e);
+            }
+        }
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(content);
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(payload)) {
+            temp.delete();
+            throw new IOException("保存图片失败: " + payload);
+        }
+        OfflineJob job = new OfflineJob(id, cardSide, payload, System.currentTimeMillis(), 0);
+        append(addRecord(job));
+        jobs.put(id, job);
+        return job;
+    }
+
+    //任务完成（成功或放弃），删除记录和图片
+    public synchronized void remove(String id) throws IOException {
+        OfflineJob job = jobs.remove(id);
+        if (job == null) return;
+        append("DEL\t" + id);
+        job.getPayload().delete();
+        if (journalRecords >= COMPACT_THRESHOLD) compact();
+    }
+
+    //记录一次失败，返回更新后的任务
+    public synchronized OfflineJob recordFailure(String id) throws IOException {
+        OfflineJob job = jobs.get(id);
+        if (job == null) return null;
+        OfflineJob updated = job.withAttempts(job.getAttempts() + 1);
+        append("TRY\t" + id + "\t" + updated.getAttempts());
+        jobs.put(id, updated);
+        return updated;
+    }
+
+    //读取并解密任务的JPEG；密钥丢失（如密钥库不可用时的临时密钥）时抛出IOException，任务无法再重放
+    public byte[] readPayload(OfflineJob job) throws IOException {
+        byte[] content = job.readPayload();
+        if (cipher == null) return content;
+        try {
+            return cipher.open(content);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("解密离线图片失败: " + e.getMessage(), e);
+        }
+    }
+
+    //待处理任务快照，按入队顺序
+    public synchronized List<OfflineJob> pending() { return new ArrayList<>(jobs.values()); }
+
+    public synchronized int size() { return jobs.size(); }
+
+    //把当前状态写成快照并清空日志：先写临时文件并fsync，重命名后再截断日志
+    public synchronized void compact() throws IOException {
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            StringBuilder builder = new StringBuilder();
+            for (OfflineJob job : jobs.values()) builder.append(addRecord(job)).append('\n');
+            out.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(snapshotFile)) throw new IOException("写入快照失败");
+        journal.close();
+        journal = new FileOutputStream(journalFile, false);
+        journal.getFD().sync();
+        journalRecords = 0;
+    }
+
+    public synchronized void close() throws IOException { journal.close(); }
+
+    private static String addRecord(OfflineJob job) {
+        return "ADD\t" + job.getId() + "\t" + job.getCardSide().name() + "\t" + job.getCreatedAt() + "\t"
+                + job.getAttempts() + "\t" + job.getPayload().getAbsolutePath();
+    }
+
+    //追加一条记录并fsync
+    private void append(String record) throws IOException {
+        journal.write((record + "\n").getBytes(StandardCharsets.UTF_8));
+        journal.getFD().sync();
+        journalRecords++;
+    }
+
+    //重放记录文件，返回记录条数；格式错误的行（如崩溃时写了一半）跳过
+    private int replay(File file) throws IOException {
+        if (!file.isFile()) return 0;
+        int records = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (apply(line.split("\t"))) records++;
+            }
+        }
+        return records;
+    }
+
+    private boolean apply(String[] f) {
+        try {
+            if (f[0].equals("ADD") && f.length == 6) {
+                File payload = new File(f[5]);
+                if (!payload.isFile()) return false;
+                jobs.put(f[1], new OfflineJob(f[1], CardSide.valueOf(f[2]), payload, Long.parseLong(f[3]), Integer.parseInt(f[4])));
+                return true;
+            }
+            if (f[0].equals("TRY") && f.length == 3) {
+                OfflineJob job = jobs.get(f[1]);
+                if (job != null) jobs.put(f[1], job.withAttempts(Integer.parseInt(f[2])));
+                return true;
+            }
+            if (f[0].equals("DEL") && f.length == 2) {
+                jobs.remove(f[1]);
+                return true;
+            }
+        } catch (IllegalArgumentException e) {
+            //截断的记录
+        }
+        return false;
+    }
+
+    //删除没有对应任务的图片和临时文件（入队或删除过程中崩溃留下的）
+    private void removeOrphans() {
+        Set<String> referenced = new HashSet<>();
+        for (OfflineJob job : jobs.values()) referenced.add(job.getPayload().getName());
+        File[] files = payloadDir.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            if (!referenced.contains(file.getName())) file.delete();
+        }
+    }
+
+    //日志末尾不是换行符时补一个，避免新记录接在半条记录后面
+    private void repairTornTail() throws IOException {
+        if (!journalFile.isFile() || journalFile.length() == 0) return;
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.seek(file.length() - 1);
+            if (file.read() != '\n') {
+                file.seek(file.length());
+                file.write('\n');
+                file.getFD().sync();
+            }
+        }
+    }
+}
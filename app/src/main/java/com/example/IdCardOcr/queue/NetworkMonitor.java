@@ -0,0 +1,42 @@
+package com.example.IdCardOcr.queue;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+
+//网络状态监听：默认网络可用时触发回调，用于恢复离线队列消费（需要ACCESS_NETWORK_STATE权限）
+public class NetworkMonitor {
+    private final ConnectivityManager connectivityManager;
+    private final Runnable onAvailable;
+    private final ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+        @Override
+        public void onAvailable(Network network) { onAvailable.run(); }
+    };
+    private boolean registered = false;
+
+    public NetworkMonitor(Context context, Runnable onAvailable) {
+        this.connectivityManager = (ConnectivityManager) context.getApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+        this.onAvailable = onAvailable;
+    }
+
+    //当前是否有可访问互联网的网络
+    public boolean isOnline() {
+        Network network = connectivityManager.getActiveNetwork();
+        if (network == null) return false;
+        NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(network);
+        return capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+    }
+
+    public synchronized void start() {
+        if (registered) return;
+        connectivityManager.registerDefaultNetworkCallback(networkCallback);
+        registered = true;
+    }
+
+    public synchronized void stop() {
+        if (!registered) return;
+        connectivityManager.unregisterNetworkCallback(networkCallback);
+        registered = false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.IdCardOcr.queue;
+
+import com.example.IdCardOcr.network.CardSide;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+//离线识别任务：日志中只记录图片文件路径，上传时才读取内容
+public class OfflineJob {
+    private final String id;
+    private final CardSide cardSide;
+    private final File payload;
+    private final long createdAt;
+    private final int attempts;
+
+    OfflineJob(String id, CardSide cardSide, File payload, long createdAt, int attempts) {
+        this.id = id;
+        this.cardSide = cardSide;
+        this.payload = payload;
+        this.createdAt = createdAt;
+        this.attempts = attempts;
+    }
+
+    //失败次数加一后的副本
+    OfflineJob withAttempts(int attempts) { return new OfflineJob(id, cardSide, payload, createdAt, attempts); }
+
+    //读取图片文件原始内容，加密时由JobQueue.readPayload解密
+    byte[] readPayload() throws IOException {
+        try (InputStream in = new FileInputStream(payload)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) payload.length());
+            byte[] buffer = new byte[16 * 1024];
+            int n;
+            while ((n = in.read(buffer)) != -1) out.write(buffer, 0, n);
+            return out.toByteArray();
+        }
+    }
+
+    //Getter方法
+    public String getId() { return id; }
+    public CardSide getCardSide() { return cardSide; }
+    public File getPayload() { return payload; }
+    public long getCreatedAt() { return createdAt; }
+    public int getAttempts() { return attempts; }
+
+    @Override
+    public String toString() { return "OfflineJob{" + id + ", " + cardSide + ", attempts=" + attempts + "}"; }
+}
@@ -0,0 +1,44 @@
+package com.example.IdCardOcr.queue;
+
+import android.content.Context;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+
+import java.io.File;
+import java.io.IOException;
+
+//进程级离线队列：队列、消费者和网络监听随进程存在，不随Activity重建
+//旋转屏幕时进行中的重放继续完成并删除记录，新Activity只注册监听，同一任务不会被两个消费者重复上传
+//每个进程只应创建一个实例（由应用的进程级组件持有）；重放经由调用方传入的识别器，结果同样写入缓存和历史
+public final class OfflineJobs {
+    private final JobQueue queue;
+    private final JobDrainer drainer;
+    private final NetworkMonitor networkMonitor;
+
+    //打开队列并开始监听网络，启动时先尝试重放上次遗留的任务；图片用cipher加密落盘
+    public OfflineJobs(Context context, IdCardRecognizer recognizer, RecordCipher cipher) throws IOException {
+        context = context.getApplicationContext();
+        queue = new JobQueue(new File(context.getFilesDir(), "offline_jobs"), cipher);
+        networkMonitor = new NetworkMonitor(context, this::drain);
+        drainer = new JobDrainer(queue, recognizer, networkMonitor::isOnline);
+        networkMonitor.start();
+        if (queue.size() > 0) drainer.drain();
+    }
+
+    //保存待识别图片，联网后自动重放；在线时入队说明服务端暂时故障，退避后重放，不等网络变化
+    public OfflineJob enqueue(byte[] jpegBytes, CardSide cardSide) throws IOException {
+        OfflineJob job = queue.enqueue(jpegBytes, cardSide);
+        if (networkMonitor.isOnline()) drainer.drainLater();
+        return job;
+    }
+
+    public void drain() { drainer.drain(); }
+    public boolean isOnline() { return networkMonitor.isOnline(); }
+    public int size() { return queue.size(); }
+
+    //界面在创建时订阅、销毁时取消订阅任务结果
+    public void addListener(JobListener listener) { drainer.addListener(listener); }
+    public void removeListener(JobListener listener) { drainer.removeListener(listener); }
+}
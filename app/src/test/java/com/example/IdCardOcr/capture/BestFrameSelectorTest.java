@@ -0,0 +1,129 @@
+package com.example.IdCardOcr.capture;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+//最佳帧选择器测试，使用合成的带行填充Y平面模拟相机帧
+public class BestFrameSelectorTest {
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+    private static final int ROW_STRIDE = 704;
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(33);
+
+    private final List<Long> emitted = new ArrayList<>();
+    private final List<float[]> emittedCorners = new ArrayList<>();
+    private byte[] emittedLuma;
+
+    private final BestFrameSelector selector = new BestFrameSelector(frame -> {
+        emitted.add(frame.getScore().getTimestampNanos());
+        emittedCorners.add(frame.getCorners().clone());
+        emittedLuma = frame.getLuma().clone();
+    });
+
+    //深色噪声背景上的浅色证件，textLuma越暗文字边缘越锐利；offsetX为证件水平位移
+    static ByteBuffer frame(int offsetX, int textLuma, boolean withCard, long seed) {
+        Random random = new Random(seed);
+        byte[] data = new byte[ROW_STRIDE * HEIGHT];
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < ROW_STRIDE; x++) {
+                int v = x >= WIDTH ? 255 : 40 + random.nextInt(20);
+                if (withCard && x < WIDTH) {
+                    int u = x - 170 - offsetX, w = y - 140;
+                    if (u >= 0 && u < 300 && w >= 0 && w < 190) {
+                        boolean text = u > 100 && u < 280 && w > 30 && w < 160 && (w / 6) % 2 == 0 && (u / 9) % 3 != 0;
+                        v = text ? textLuma : 210;
+                    }
+                }
+                data[y * ROW_STRIDE + x] = (byte) v;
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    private void feed(ByteBuffer buffer, int index) {
+        selector.onFrame(buffer, WIDTH, HEIGHT, ROW_STRIDE, index * FRAME_NANOS);
+    }
+
+    @Test
+    public void steadyCard_emitsSharpestFrameOfWindow() {
+        ByteBuffer soft = frame(0, 150, true, 1);
+        ByteBuffer sharp = frame(0, 40, true, 1);
+        //第10~14帧对焦清晰；第10帧相对上一帧变化较大，得分被运动量拉低，最佳为第11帧
+        for (int i = 0; i < 40 && emitted.isEmpty(); i++) feed(i >= 10 && i < 15 ? sharp : soft, i);
+        assertEquals(1, emitted.size());
+        assertEquals(11 * FRAME_NANOS, (long) emitted.get(0));
+        assertFalse(selector.isArmed());
+        //候选帧去掉行填充后与原帧一致
+        for (int y = 0; y < HEIGHT; y += 37) {
+            for (int x = 0; x < WIDTH; x += 23) {
+                assertEquals(sharp.get(y * ROW_STRIDE + x), emittedLuma[y * WIDTH + x]);
+            }
+        }
+        float[] corners = emittedCorners.get(0);
+        assertEquals(170, corners[0], 8);
+        assertEquals(140, corners[1], 8);
+        assertEquals(470, corners[4], 8);
+        assertEquals(330, corners[5], 8);
+        //交付后停止，直到重新开始
+        for (int i = 40; i < 80; i++) feed(sharp, i);
+        assertEquals(1, emitted.size());
+        selector.reset();
+        for (int i = 80; i < 120; i++) feed(sharp, i);
+        assertEquals(2, emitted.size());
+    }
+
+    @Test
+    public void emptyScene_neverEmits() {
+        ByteBuffer empty = frame(0, 40, false, 2);
+        for (int i = 0; i < 60; i++) feed(empty, i);
+        assertTrue(emitted.isEmpty());
+        assertFalse(selector.getLastScore().isCardPresent());
+    }
+
+    @Test
+    public void movingCard_isNotStable() {
+        ByteBuffer[] frames = {frame(0, 40, true, 3), frame(24, 40, true, 3)};
+        for (int i = 0; i < 60; i++) feed(frames[i % 2], i);
+        assertTrue(emitted.isEmpty());
+        assertTrue(selector.getLastScore().isCardPresent());
+        assertTrue(selector.getLastScore().getMotion() > BestFrameSelector.DEFAULT_MAX_MOTION);
+    }
+
+    @Test
+    public void cardLeavingFrame_restartsWindow() {
+        ByteBuffer card = frame(0, 40, true, 4);
+        ByteBuffer empty = frame(0, 40, false, 4);
+        int i = 0;
+        for (; i < 15; i++) feed(card, i);
+        feed(empty, i++);
+        int restart = i;
+        for (; i < 60 && emitted.isEmpty(); i++) feed(card, i);
+        assertEquals(1, emitted.size());
+        //离开后第一帧与前一帧差异大，从下一帧开始重新计窗
+        long windowStart = (restart + 1) * FRAME_NANOS;
+        assertTrue(emitted.get(0) >= windowStart);
+        assertEquals(restart + 1 + 25, i, 1);
+    }
+
+    @Test
+    public void steadyStateAnalysis_doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BestFrameSelector noEmit = new BestFrameSelector(null, Long.MAX_VALUE, 0, 255, 1);
+        ByteBuffer[] frames = {frame(0, 40, true, 5), frame(0, 150, true, 5), frame(0, 40, false, 5)};
+        for (int i = 0; i < 10; i++) noEmit.onFrame(frames[i % 3], WIDTH, HEIGHT, ROW_STRIDE, i);
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 10; i < 40; i++) noEmit.onFrame(frames[i % 3], WIDTH, HEIGHT, ROW_STRIDE, i);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        assertTrue("allocated " + allocated, allocated < 4096);
+        assertEquals(40, noEmit.getAnalyzedFrames());
+    }
+}
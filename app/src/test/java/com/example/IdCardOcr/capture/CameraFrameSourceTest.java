@@ -0,0 +1,32 @@
+package com.example.IdCardOcr.capture;
+
+import android.media.ExifInterface;
+import android.view.Surface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+//取景帧方向换算测试：常见传感器方向在横屏/竖屏界面下保存的EXIF方向
+public class CameraFrameSourceTest {
+
+    @Test
+    public void frameRotation_followsSensorAndDisplayOrientation() {
+        //多数手机传感器为90度：竖屏需顺时针转90度，横屏（ROTATION_90）帧已是正向
+        assertEquals(90, CameraFrameSource.frameRotation(90, Surface.ROTATION_0));
+        assertEquals(0, CameraFrameSource.frameRotation(90, Surface.ROTATION_90));
+        assertEquals(180, CameraFrameSource.frameRotation(90, Surface.ROTATION_270));
+        //传感器倒装（270度）的机型在横屏下帧是倒置的
+        assertEquals(180, CameraFrameSource.frameRotation(270, Surface.ROTATION_90));
+        //自然方向为横屏的平板
+        assertEquals(0, CameraFrameSource.frameRotation(0, Surface.ROTATION_0));
+    }
+
+    @Test
+    public void exifOrientation_mapsClockwiseRotation() {
+        assertEquals(ExifInterface.ORIENTATION_NORMAL, CameraFrameSource.exifOrientation(0));
+        assertEquals(ExifInterface.ORIENTATION_ROTATE_90, CameraFrameSource.exifOrientation(90));
+        assertEquals(ExifInterface.ORIENTATION_ROTATE_180, CameraFrameSource.exifOrientation(180));
+        assertEquals(ExifInterface.ORIENTATION_ROTATE_270, CameraFrameSource.exifOrientation(270));
+    }
+}
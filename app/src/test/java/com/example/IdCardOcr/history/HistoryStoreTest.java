@@ -0,0 +1,213 @@
+package com.example.IdCardOcr.history;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.Deadline;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.network.OcrFuture;
+import com.example.IdCardOcr.network.Tc3Signer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+//识别历史存储测试：索引查询、分页、压缩、重启加载和重复图片去重
+public class HistoryStoreTest {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private File file;
+
+    @Before
+    public void setUp() throws Exception { file = File.createTempFile("history", ".jsonl"); file.delete(); }
+
+    @After
+    public void tearDown() { file.delete(); }
+
+    private static IdentifyResult result(String name, String id) {
+        IdentifyResult result = new IdentifyResult();
+        result.setName(name);
+        result.setId(id);
+        return result;
+    }
+
+    @Test
+    public void lookupsPagingAndReload() throws Exception {
+        HistoryStore store = new HistoryStore(file);
+        store.add(result("张三", "110101199003070011"), "h1", 1000);
+        store.add(result("张三丰", "110101199003070022"), "h2", 2000);
+        store.add(result("李四", "320102198501010033"), "h3", 3000);
+        store.add(result("张三", "110101199003070011"), "h4", 4000);
+        assertEquals(2, store.findByIdNum("110101199003070011").size());
+        assertEquals(3, store.findByIdNumPrefix("110101", 10).size());
+        assertEquals(1, store.findByIdNumPrefix("110101", 1).size());
+        assertEquals(2, store.findByName("张三").size());
+        assertEquals(3, store.findByNamePrefix("张三", 10).size());
+        assertEquals("h3", store.findByDateRange(2500, 4000, 10).get(0).getImageHash());
+        assertEquals(1, store.findByDateRange(2500, 4000, 10).size());
+        List<HistoryRecord> page = store.page(1, 2);
+        assertEquals("李四", page.get(0).getName());
+        assertEquals("张三丰", page.get(1).getName());
+        store.close();
+
+        HistoryStore reloaded = new HistoryStore(file);
+        assertEquals(4, reloaded.size());
+        assertEquals("李四", reloaded.findByImageHash("h3").getName());
+        //序号从已有最大值继续
+        assertEquals(5, reloaded.add(result("王五", "1"), "h5", 5000).getSeq());
+        reloaded.close();
+    }
+
+    @Test
+    public void outOfOrderTimestampsStaySorted() throws Exception {
+        HistoryStore store = new HistoryStore(file);
+        store.add(result("a", "1"), null, 3000);
+        store.add(result("b", "2"), null, 1000);
+        store.add(result("c", "3"), null, 2000);
+        List<HistoryRecord> all = store.findByDateRange(0, Long.MAX_VALUE, 10);
+        assertEquals("b", all.get(0).getName());
+        assertEquals("c", all.get(1).getName());
+        assertEquals("a", all.get(2).getName());
+        store.close();
+    }
+
+    @Test
+    public void compactDropsExpiredAndRewritesFile() throws Exception {
+        HistoryStore store = new HistoryStore(file);
+        long now = 100 * DAY;
+        store.add(result("old", "1"), "old", now - 200 * DAY);
+        store.add(result("new", "2"), "new", now - DAY);
+        assertEquals(1, store.compact(180 * DAY, now));
+        assertNull(store.findByImageHash("old"));
+        store.add(result("newer", "3"), "newer", now);
+        store.close();
+        HistoryStore reloaded = new HistoryStore(file);
+        assertEquals(2, reloaded.size());
+        assertTrue(reloaded.findByName("old").isEmpty());
+        reloaded.close();
+    }
+
+    @Test
+    public void tornLastLineIsSkipped() throws Exception {
+        HistoryStore store = new HistoryStore(file);
+        store.add(result("张三", "1"), "h1", 1000);
+        store.close();
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("{\"seq\":2,\"name\":\"半".getBytes("UTF-8"));
+        }
+        assertEquals(1, new HistoryStore(file).size());
+    }
+
+    @Test
+    public void encryptedLinesHideIdentityAndMigratePlaintext() throws Exception {
+        HistoryStore legacy = new HistoryStore(file);
+        legacy.add(result("张三", "110101199003070011"), "h1", 1000);
+        legacy.close();
+        RecordCipher cipher = RecordCipher.withEphemeralKey();
+        HistoryStore store = new HistoryStore(file, cipher);
+        store.add(result("李四", "320102198501010033"), "h2", 2000);
+        //没有过期记录，但明文旧记录需要加密重写
+        assertEquals(0, store.compact(DAY, 3000));
+        store.close();
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertFalse(content.contains("110101199003070011"));
+        assertFalse(content.contains("李四"));
+        HistoryStore reloaded = new HistoryStore(file, cipher);
+        assertEquals("张三", reloaded.findByImageHash("h1").getName());
+        assertEquals("320102198501010033", reloaded.findByImageHash("h2").getIdNum());
+        reloaded.close();
+    }
+
+    @Test
+    public void unreadableHistoryIsNeverCompacted() throws Exception {
+        HistoryStore store = new HistoryStore(file, RecordCipher.withEphemeralKey());
+        store.add(result("张三", "1"), "h1", 1000);
+        store.add(result("李四", "2"), "h2", 2000);
+        store.close();
+        long length = file.length();
+        //密钥不同（如密钥库被重置）时记录无法解密，压缩会丢弃它们，必须拒绝
+        HistoryStore other = new HistoryStore(file, RecordCipher.withEphemeralKey());
+        assertEquals(0, other.size());
+        try {
+            other.compact(1, 100 * DAY);
+            fail("应当拒绝压缩");
+        } catch (IOException expected) {
+        }
+        assertEquals(length, file.length());
+    }
+
+    @Test
+    public void imageHashIsComputedOnceAndPassedDown() throws Exception {
+        final String[] passed = new String[1];
+        IdCardRecognizer upstream = new IdCardRecognizer() {
+            @Override
+            public void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, OcrApiClient.Callback callback) { fail("应当走带哈希的接口"); }
+            @Override
+            public OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, String jpegSha256, CardSide cardSide, Deadline deadline) {
+                passed[0] = jpegSha256;
+                return OcrFuture.completed(result("张三", "1"));
+            }
+        };
+        HistoryRecognizer recognizer = new HistoryRecognizer(upstream, new HistoryStore(file));
+        byte[] jpeg = {4, 5, 6};
+        assertEquals("张三", recognizer.recognizeAsync(jpeg, CardSide.FRONT, Deadline.NONE).get().getName());
+        assertEquals(Tc3Signer.sha256Hex(jpeg), passed[0]);
+        assertNotNull(recognizer.getStore().findByImageHash(passed[0] + "_FRONT"));
+    }
+
+    @Test
+    public void duplicateImagesAreServedFromHistory() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        IdCardRecognizer upstream = (jpegBytes, side, callback) -> {
+            calls.incrementAndGet();
+            callback.onSuccess(result("张三", "110101199003070011"));
+        };
+        HistoryRecognizer recognizer = new HistoryRecognizer(upstream, new HistoryStore(file));
+        final IdentifyResult[] got = new IdentifyResult[2];
+        recognizer.recognizeIdCard(new byte[]{1, 2, 3}, CardSide.FRONT, callback(got, 0));
+        recognizer.recognizeIdCard(new byte[]{1, 2, 3}, CardSide.FRONT, callback(got, 1));
+        assertEquals(1, calls.get());
+        assertEquals(1, recognizer.getDuplicateCount());
+        assertEquals("110101199003070011", got[1].getId());
+        //另一面视为不同图片
+        recognizer.recognizeIdCard(new byte[]{1, 2, 3}, CardSide.BACK, callback(got, 0));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void indexesStayConsistentAtScale() throws Exception {
+        HistoryStore store = new HistoryStore(file);
+        for (int i = 0; i < 20_000; i++) {
+            store.add(result("姓名" + (i % 1000), String.format("%06d19900101%04d", 110000 + i % 300, i)), "h" + i, i * 1000L);
+        }
+        store.close();
+        HistoryStore reloaded = new HistoryStore(file);
+        assertEquals(20_000, reloaded.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1, reloaded.findByIdNum(String.format("%06d19900101%04d", 110000 + i % 300, i)).size());
+            assertFalse(reloaded.findByIdNumPrefix("110" + (i % 3), 20).isEmpty());
+            assertEquals(20, reloaded.findByName("姓名" + i).size());
+            assertEquals(20, reloaded.page(i * 20, 20).size());
+        }
+        reloaded.close();
+    }
+
+    private static OcrApiClient.Callback callback(final IdentifyResult[] got, final int index) {
+        return new OcrApiClient.Callback() {
+            @Override
+            public void onSuccess(IdentifyResult result) { got[index] = result; }
+            @Override
+            public void onFailure(String error) { fail(error); }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.IdCardOcr.image;
+
+import org.junit.Test;
+
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+
+//自适应JPEG压缩搜索逻辑测试，用按面积和质量估算大小的假压缩器代替Bitmap
+public class AdaptiveJpegEncoderTest {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+
+    //模拟JPEG大小：与像素数及质量近似成正比
+    private static final class FakeCompressor implements AdaptiveJpegEncoder.Compressor {
+        int calls = 0;
+
+        @Override
+        public void compress(float scale, int quality, OutputStream out) throws java.io.IOException {
+            calls++;
+            int size = (int) (WIDTH * scale * HEIGHT * scale * quality / 100.0);
+            out.write(new byte[size]);
+        }
+    }
+
+    @Test
+    public void encode_picksHighestQualityUnderBudget() throws Exception {
+        AdaptiveJpegEncoder encoder = new AdaptiveJpegEncoder(1_000_000);
+        EncodedJpeg result = encoder.encode(WIDTH, HEIGHT, new FakeCompressor());
+        assertTrue(result.isWithinBudget());
+        assertEquals(1f, result.getScale(), 0f);
+        //1920*1080*q/100 <= 1e6 => q <= 48
+        assertEquals(48, result.getQuality());
+        assertTrue(result.getSize() <= 1_000_000);
+    }
+
+    @Test
+    public void encode_returnsMaxQualityWhenItFits() throws Exception {
+        FakeCompressor compressor = new FakeCompressor();
+        EncodedJpeg result = new AdaptiveJpegEncoder(AdaptiveJpegEncoder.MAX_PAYLOAD_BYTES).encode(WIDTH, HEIGHT, compressor);
+        assertEquals(AdaptiveJpegEncoder.MAX_QUALITY, result.getQuality());
+        assertEquals(1, compressor.calls);
+    }
+
+    @Test
+    public void encode_scalesDownWhenMinQualityExceedsBudget() throws Exception {
+        EncodedJpeg result = new AdaptiveJpegEncoder(200_000).encode(WIDTH, HEIGHT, new FakeCompressor());
+        assertTrue(result.isWithinBudget());
+        assertTrue(result.getScale() < 1f);
+        assertTrue(result.getWidth() < WIDTH);
+    }
+
+    @Test
+    public void encode_reusesSettingsForSameResolution() throws Exception {
+        AdaptiveJpegEncoder encoder = new AdaptiveJpegEncoder(1_000_000);
+        FakeCompressor first = new FakeCompressor();
+        EncodedJpeg initial = encoder.encode(WIDTH, HEIGHT, first);
+        assertFalse(initial.isReusedSettings());
+        assertTrue(first.calls > 1);
+        FakeCompressor second = new FakeCompressor();
+        EncodedJpeg again = encoder.encode(WIDTH, HEIGHT, second);
+        assertTrue(again.isReusedSettings());
+        assertEquals(1, second.calls);
+        assertEquals(initial.getQuality(), again.getQuality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsBudgetAbovePayloadLimit() {
+        new AdaptiveJpegEncoder(AdaptiveJpegEncoder.MAX_PAYLOAD_BYTES + 1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.IdCardOcr.image;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+//证件定位与透视裁剪测试，使用合成图片：暗色杂色背景上的浅色证件（含文字笔画）
+public class CardDetectorTest {
+    private final CardDetector detector = new CardDetector();
+
+    //在width x height的背景上绘制四边形证件，角点顺序左上、右上、右下、左下
+    static int[] scene(int width, int height, float[] quad, long seed) {
+        Random random = new Random(seed);
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) argb[i] = QualityAnalyzerTest.gray(40 + random.nextInt(30));
+        double[] m = CardDetector.squareToQuad(quad);
+        //按证件内坐标逆向绘制：遍历证件平面的(u,v)并前向映射，采样足够密以覆盖每个像素
+        int samples = (int) (Math.max(width, height) * 2.5);
+        for (int j = 0; j < samples; j++) {
+            double v = (j + 0.5) / samples;
+            for (int i = 0; i < samples; i++) {
+                double u = (i + 0.5) / samples;
+                double d = m[6] * u + m[7] * v + 1;
+                int x = (int) ((m[0] * u + m[1] * v + m[2]) / d);
+                int y = (int) ((m[3] * u + m[4] * v + m[5]) / d);
+                if (x < 0 || y < 0 || x >= width || y >= height) continue;
+                //证件上的文字：固定网格位置的深色短横
+                boolean text = u > 0.35 && u < 0.9 && v > 0.15 && v < 0.8 && ((int) (v * 30)) % 3 == 0 && ((int) (u * 40)) % 4 != 0;
+                argb[y * width + x] = QualityAnalyzerTest.gray(text ? 60 : 210);
+            }
+        }
+        return argb;
+    }
+
+    private static void assertCornersNear(float[] expected, float[] actual, double tolerance) {
+        for (int i = 0; i < 8; i++) assertEquals("corner[" + i + "]", expected[i], actual[i], tolerance);
+    }
+
+    @Test
+    public void axisAlignedCard_isLocated() {
+        int width = 1600, height = 1200;
+        float[] quad = {500, 400, 1100, 400, 1100, 778, 500, 778};
+        CardDetection detection = detector.detect(scene(width, height, quad, 1), width, height);
+        assertTrue(detection.toString(), detection.isFound());
+        assertCornersNear(quad, detection.getCorners(), width * 0.015);
+        assertEquals(600.0 * 378 / (width * height), detection.getCropRatio(), 0.02);
+        assertFalse(detection.isPortrait());
+    }
+
+    @Test
+    public void rotatedAndPerspectiveCard_isLocated() {
+        int width = 1600, height = 1200;
+        //约10度旋转并带透视收缩
+        float[] quad = {420, 380, 1130, 300, 1180, 760, 470, 870};
+        CardDetection detection = detector.detect(scene(width, height, quad, 2), width, height);
+        assertTrue(detection.toString(), detection.isFound());
+        assertCornersNear(quad, detection.getCorners(), width * 0.02);
+    }
+
+    @Test
+    public void portraitCard_reordersCornersForLandscapeOutput() {
+        int width = 1200, height = 1600;
+        float[] quad = {400, 400, 778, 400, 778, 1000, 400, 1000};
+        CardDetection detection = detector.detect(scene(width, height, quad, 3), width, height);
+        assertTrue(detection.isFound());
+        assertTrue(detection.isPortrait());
+        float[] landscape = detection.getLandscapeCorners();
+        //输出左上角对应证件的左下角
+        assertEquals(400, landscape[0], 20);
+        assertEquals(1000, landscape[1], 20);
+    }
+
+    @Test
+    public void noCardOrCardTouchingBorder_fallsBack() {
+        Random random = new Random(4);
+        int[] noise = new int[800 * 600];
+        for (int i = 0; i < noise.length; i++) noise[i] = QualityAnalyzerTest.gray(random.nextInt(256));
+        CardDetection detection = detector.detect(noise, 800, 600);
+        assertFalse(detection.isFound());
+        assertEquals(1, detection.getCropRatio(), 0);
+        //证件超出画面
+        float[] quad = {-100, 100, 900, 100, 900, 730, -100, 730};
+        assertFalse(detector.detect(scene(800, 800, quad, 5), 800, 800).isFound());
+    }
+
+    @Test
+    public void warp_producesId1CropOfCardContent() {
+        int width = 1600, height = 1200;
+        float[] quad = {420, 380, 1130, 300, 1180, 760, 470, 870};
+        int[] argb = scene(width, height, quad, 6);
+        CardDetection detection = detector.detect(argb, width, height);
+        int outWidth = 856, outHeight = (int) Math.round(outWidth / CardDetector.ID1_ASPECT);
+        int[] crop = CardDetector.warp(argb, width, height, detection.getLandscapeCorners(), outWidth, outHeight);
+        assertEquals(540, outHeight);
+        //裁剪结果四角附近应为证件底色而不是背景
+        int inset = 12;
+        int[][] probes = {{inset, inset}, {outWidth - inset, inset}, {outWidth - inset, outHeight - inset}, {inset, outHeight - inset}};
+        for (int[] p : probes) {
+            int luma = crop[p[1] * outWidth + p[0]] & 0xFF;
+            assertTrue("luma=" + luma, luma > 150);
+        }
+    }
+
+    @Test
+    public void squareToQuad_mapsUnitCornersToQuad() {
+        float[] quad = {10, 20, 110, 15, 120, 90, 5, 80};
+        double[] m = CardDetector.squareToQuad(quad);
+        double[][] unit = {{0, 0}, {1, 0}, {1, 1}, {0, 1}};
+        for (int i = 0; i < 4; i++) {
+            double u = unit[i][0], v = unit[i][1];
+            double d = m[6] * u + m[7] * v + 1;
+            assertEquals(quad[2 * i], (m[0] * u + m[1] * v + m[2]) / d, 1e-6);
+            assertEquals(quad[2 * i + 1], (m[3] * u + m[4] * v + m[5]) / d, 1e-6);
+        }
+    }
+}
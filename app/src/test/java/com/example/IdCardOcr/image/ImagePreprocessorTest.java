@@ -0,0 +1,21 @@
+package com.example.IdCardOcr.image;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+//图片预处理采样率计算测试
+public class ImagePreprocessorTest {
+
+    @Test
+    public void inSampleSize_keepsLongEdgeAtOrAboveTarget() {
+        //50MP（8160x6120）到1920目标：采样4后长边2040
+        assertEquals(4, ImagePreprocessor.calculateInSampleSize(8160, 6120, 1920));
+        //12MP（4000x3000）竖拍
+        assertEquals(2, ImagePreprocessor.calculateInSampleSize(3000, 4000, 1920));
+        //小图不下采样
+        assertEquals(1, ImagePreprocessor.calculateInSampleSize(1280, 720, 1920));
+        assertEquals(1, ImagePreprocessor.calculateInSampleSize(3839, 2000, 1920));
+        assertEquals(2, ImagePreprocessor.calculateInSampleSize(3840, 2000, 1920));
+    }
+}
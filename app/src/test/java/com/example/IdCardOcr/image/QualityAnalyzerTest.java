@@ -0,0 +1,118 @@
+package com.example.IdCardOcr.image;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+//图片质量分析测试：合成证件图、模糊图、暗图和反光图
+public class QualityAnalyzerTest {
+    private final QualityAnalyzer analyzer = new QualityAnalyzer();
+
+    //浅色底 + 随机深色文字笔画，模拟证件照
+    static int[] syntheticCard(int width, int height, long seed) {
+        int[] argb = new int[width * height];
+        Random random = new Random(seed);
+        Arrays.fill(argb, gray(180));
+        int strokes = width * height / 400;
+        int stroke = Math.max(1, width / 400);
+        for (int s = 0; s < strokes; s++) {
+            int x0 = random.nextInt(width - 12 * stroke);
+            int y0 = random.nextInt(height - 12 * stroke);
+            boolean horizontal = random.nextBoolean();
+            int length = (4 + random.nextInt(8)) * stroke;
+            for (int i = 0; i < length; i++) {
+                for (int t = 0; t < stroke; t++) {
+                    int x = horizontal ? x0 + i : x0 + t;
+                    int y = horizontal ? y0 + t : y0 + i;
+                    argb[y * width + x] = gray(40);
+                }
+            }
+        }
+        return argb;
+    }
+
+    static int gray(int v) { return 0xFF000000 | (v << 16) | (v << 8) | v; }
+
+    //水平和垂直方向各做一次盒式模糊
+    static int[] blur(int[] argb, int width, int height, int radius) {
+        int[] tmp = new int[argb.length];
+        int[] out = new int[argb.length];
+        for (int pass = 0; pass < 2; pass++) {
+            int[] src = pass == 0 ? argb : tmp;
+            int[] dst = pass == 0 ? tmp : out;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int sum = 0, count = 0;
+                    for (int d = -radius; d <= radius; d++) {
+                        int xx = pass == 0 ? x + d : x;
+                        int yy = pass == 0 ? y : y + d;
+                        if (xx < 0 || yy < 0 || xx >= width || yy >= height) continue;
+                        sum += src[yy * width + xx] & 0xFF;
+                        count++;
+                    }
+                    dst[y * width + x] = gray(sum / count);
+                }
+            }
+        }
+        return out;
+    }
+
+    @Test
+    public void sharpWellExposedCard_passes() {
+        QualityReport report = analyzer.analyze(syntheticCard(512, 323, 1), 512, 323);
+        assertEquals(report.toString(), QualityReport.Verdict.OK, report.getVerdict());
+        assertTrue(report.getReasons().isEmpty());
+    }
+
+    @Test
+    public void blurredCard_isRejectedAsBlurry() {
+        int[] sharp = syntheticCard(512, 323, 2);
+        QualityReport report = analyzer.analyze(blur(sharp, 512, 323, 4), 512, 323);
+        assertEquals(report.toString(), QualityReport.Verdict.REJECT, report.getVerdict());
+        assertTrue(report.describe().contains("模糊"));
+        assertTrue(report.getSharpness() < analyzer.analyze(sharp, 512, 323).getSharpness() / 10);
+    }
+
+    @Test
+    public void darkCard_isRejected() {
+        int[] argb = syntheticCard(512, 323, 3);
+        for (int i = 0; i < argb.length; i++) argb[i] = gray((argb[i] & 0xFF) / 5);
+        QualityReport report = analyzer.analyze(argb, 512, 323);
+        assertTrue(report.toString(), report.isRejected());
+        assertTrue(report.describe().contains("光线太暗"));
+    }
+
+    @Test
+    public void glareSpot_isDetected() {
+        int width = 512, height = 323;
+        int[] argb = syntheticCard(width, height, 4);
+        //中央椭圆形饱和高光，约占画面15%
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double dx = (x - width / 2.0) / (width * 0.25), dy = (y - height / 2.0) / (height * 0.25);
+                if (dx * dx + dy * dy < 1) argb[y * width + x] = gray(255);
+            }
+        }
+        QualityReport report = analyzer.analyze(argb, width, height);
+        assertTrue(report.toString(), report.isRejected());
+        assertTrue(report.describe().contains("反光"));
+        assertTrue(report.getHighlightRatio() > 0.1);
+    }
+
+    @Test
+    public void customThresholds_turnRejectIntoWarning() {
+        QualityAnalyzer lenient = new QualityAnalyzer(new QualityThresholds(0, 1e9, 0, 255, 0, 255, 1, 1));
+        QualityReport report = lenient.analyze(blur(syntheticCard(256, 162, 5), 256, 162, 4), 256, 162);
+        assertEquals(QualityReport.Verdict.WARN, report.getVerdict());
+    }
+
+    @Test
+    public void laplacianVariance_isZeroOnFlatImage() {
+        byte[] flat = new byte[64 * 64];
+        Arrays.fill(flat, (byte) 128);
+        assertEquals(0, QualityAnalyzer.laplacianVariance(flat, 64, 64), 1e-9);
+    }
+}
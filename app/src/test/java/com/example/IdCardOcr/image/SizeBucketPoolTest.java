@@ -0,0 +1,80 @@
+package com.example.IdCardOcr.image;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+//分桶对象池测试：用byte[]代替Bitmap，长度即字节大小
+public class SizeBucketPoolTest {
+    private final List<byte[]> released = new ArrayList<>();
+    private final SizeBucketPool.Sizer<byte[]> sizer = new SizeBucketPool.Sizer<byte[]>() {
+        @Override
+        public int sizeOf(byte[] item) { return item.length; }
+        @Override
+        public void release(byte[] item) { released.add(item); }
+    };
+
+    @Test
+    public void get_returnsSmallestFitWithinSizeMultiple() {
+        SizeBucketPool<byte[]> pool = new SizeBucketPool<>(sizer, 10_000);
+        byte[] small = new byte[1000];
+        byte[] large = new byte[5000];
+        pool.put(large);
+        pool.put(small);
+        assertSame(small, pool.get(800));
+        //5000超过1000的4倍，不拿大对象顶替小需求
+        assertNull(pool.get(1000));
+        assertSame(large, pool.get(2000));
+        assertNull(pool.get(100));
+        assertEquals(0, pool.getBytesHeld());
+        assertEquals(2, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+        assertEquals(0.5, pool.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyPutOverCeiling() {
+        SizeBucketPool<byte[]> pool = new SizeBucketPool<>(sizer, 3000);
+        byte[] first = new byte[1000];
+        byte[] second = new byte[1000];
+        byte[] third = new byte[1500];
+        pool.put(first);
+        pool.put(second);
+        pool.put(third);
+        assertEquals(1, released.size());
+        assertSame(first, released.get(0));
+        assertEquals(2500, pool.getBytesHeld());
+        assertEquals(2, pool.getCount());
+        //同一大小的桶里后放回的先取出
+        byte[] again = new byte[1000];
+        pool.put(again);
+        assertSame(again, pool.get(1000));
+        assertSame(second, released.get(1));
+    }
+
+    @Test
+    public void oversizedItem_isReleasedImmediately() {
+        SizeBucketPool<byte[]> pool = new SizeBucketPool<>(sizer, 1000);
+        byte[] huge = new byte[2000];
+        pool.put(huge);
+        assertSame(huge, released.get(0));
+        assertEquals(0, pool.getBytesHeld());
+        assertEquals(1, pool.getEvictionCount());
+    }
+
+    @Test
+    public void trimAndClear_releaseEverything() {
+        SizeBucketPool<byte[]> pool = new SizeBucketPool<>(sizer, 10_000);
+        for (int i = 1; i <= 4; i++) pool.put(new byte[i * 1000]);
+        pool.trimTo(5000);
+        assertEquals(4000, pool.getBytesHeld());
+        assertEquals(3, released.size());
+        pool.clear();
+        assertEquals(0, pool.getBytesHeld());
+        assertEquals(4, released.size());
+        assertNull(pool.get(4000));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.IdCardOcr.queue;
+
+import com.example.IdCardOcr.metrics.ScanMetrics;
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.network.RetryPolicy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+//离线队列消费测试：本地模拟服务器 + 可切换的网络状态
+public class JobDrainerTest {
+    private static final String SUCCESS_BODY = "{\"Response\":{\"Name\":\"张三\",\"IdNum\":\"110101199003070000\",\"RequestId\":\"r\"}}";
+
+    private MockWebServer server;
+    private OcrApiClient client;
+    private File dir;
+    private final AtomicBoolean online = new AtomicBoolean(false);
+    private final AtomicBoolean serverDown = new AtomicBoolean(false);
+    private final AtomicBoolean noCard = new AtomicBoolean(false);
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("drainer").toFile();
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (serverDown.get()) return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START);
+                if (noCard.get()) {
+                    return new MockResponse().setBody("{\"Response\":{\"Error\":{\"Code\":\"FailedOperation.ImageNoIdCard\","
+                            + "\"Message\":\"test\"},\"RequestId\":\"r\"}}");
+                }
+                Thread.sleep(100);
+                return new MockResponse().setBody(SUCCESS_BODY);
+            }
+        });
+        server.start();
+        client = OcrApiClient.forUrl(new OkHttpClient(), server.url("/").toString(), new ScanMetrics());
+        //不重试，重试由消费者负责
+        client.setRetryPolicy(RetryPolicy.NONE);
+    }
+
+    @After
+    public void tearDown() throws Exception { server.shutdown(); }
+
+    @Test
+    public void jobsAreReplayedWhenOnlineWithBoundedConcurrency() throws Exception {
+        JobQueue queue = new JobQueue(dir);
+        for (int i = 0; i < 6; i++) queue.enqueue(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) i}, CardSide.FRONT);
+        final JobDrainer drainer = new JobDrainer(queue, client, online::get, 2, 3);
+        final CountDownLatch done = new CountDownLatch(6);
+        final List<String> names = new CopyOnWriteArrayList<>();
+        final int[] maxInFlight = {0};
+        drainer.addListener(new JobListener() {
+            @Override
+            public void onJobCompleted(OfflineJob job, IdentifyResult result) {
+                synchronized (maxInFlight) { maxInFlight[0] = Math.max(maxInFlight[0], drainer.getInFlightCount()); }
+                names.add(result.getName());
+                done.countDown();
+            }
+            @Override
+            public void onJobFailed(OfflineJob job, String error) { fail(error); }
+        });
+        //离线时不消费
+        drainer.drain();
+        Thread.sleep(200);
+        assertEquals(0, server.getRequestCount());
+        //网络恢复
+        online.set(true);
+        drainer.drain();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(6, names.size());
+        assertTrue(maxInFlight[0] <= 2);
+        assertEquals(0, queue.size());
+        assertEquals(0, new File(dir, "payloads").listFiles().length);
+        drainer.shutdown();
+    }
+
+    @Test
+    public void networkFailureKeepsJobAndGivesUpAfterMaxAttempts() throws Exception {
+        online.set(true);
+        serverDown.set(true);
+        JobQueue queue = new JobQueue(dir);
+        queue.enqueue(new byte[]{1}, CardSide.FRONT);
+        JobDrainer drainer = new JobDrainer(queue, client, online::get, 1, 2);
+        final CountDownLatch failed = new CountDownLatch(1);
+        drainer.addListener(new JobListener() {
+            @Override
+            public void onJobCompleted(OfflineJob job, IdentifyResult result) { }
+            @Override
+            public void onJobFailed(OfflineJob job, String error) { failed.countDown(); }
+        });
+        drainer.drain();
+        waitFor(() -> queue.pending().get(0).getAttempts() == 1);
+        //失败后暂停，任务保留，重启后仍在队列中
+        assertEquals(1, queue.size());
+        queue.close();
+        JobQueue reopened = new JobQueue(dir);
+        assertEquals(1, reopened.pending().get(0).getAttempts());
+        drainer.shutdown();
+        JobDrainer second = new JobDrainer(reopened, client, online::get, 1, 2);
+        second.addListener(new JobListener() {
+            @Override
+            public void onJobCompleted(OfflineJob job, IdentifyResult result) { }
+            @Override
+            public void onJobFailed(OfflineJob job, String error) { failed.countDown(); }
+        });
+        second.drain();
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        assertEquals(0, reopened.size());
+        second.shutdown();
+    }
+
+    @Test
+    public void pausedDrainerResumesAfterBackoffWhileOnline() throws Exception {
+        online.set(true);
+        serverDown.set(true);
+        JobQueue queue = new JobQueue(dir);
+        queue.enqueue(new byte[]{4}, CardSide.FRONT);
+        JobDrainer drainer = new JobDrainer(queue, client, online::get, 1, 5);
+        drainer.setRetryBackoff(50, 200);
+        final CountDownLatch completed = new CountDownLatch(1);
+        drainer.addListener(new JobListener() {
+            @Override
+            public void onJobCompleted(OfflineJob job, IdentifyResult result) { completed.countDown(); }
+            @Override
+            public void onJobFailed(OfflineJob job, String error) { fail(error); }
+        });
+        drainer.drain();
+        waitFor(() -> queue.size() == 1 && queue.pending().get(0).getAttempts() >= 1);
+        //服务恢复，网络状态不变，不再调用drain也会在退避后重放
+        serverDown.set(false);
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        assertEquals(0, queue.size());
+        assertEquals(50, drainer.backoffMs(1));
+        assertEquals(100, drainer.backoffMs(2));
+        assertEquals(200, drainer.backoffMs(4));
+        drainer.shutdown();
+    }
+
+    @Test
+    public void permanentFailureIsDroppedWithoutRetry() throws Exception {
+        online.set(true);
+        noCard.set(true);
+        JobQueue queue = new JobQueue(dir);
+        queue.enqueue(new byte[]{2}, CardSide.FRONT);
+        queue.enqueue(new byte[]{3}, CardSide.FRONT);
+        JobDrainer drainer = new JobDrainer(queue, client, online::get, 1, 5);
+        final CountDownLatch failed = new CountDownLatch(2);
+        final List<String> errors = new CopyOnWriteArrayList<>();
+        drainer.addListener(new JobListener() {
+            @Override
+            public void onJobCompleted(OfflineJob job, IdentifyResult result) { }
+            @Override
+            public void onJobFailed(OfflineJob job, String error) {
+                errors.add(error);
+                failed.countDown();
+            }
+        });
+        drainer.drain();
+        //永久错误不暂停队列，两个任务各只请求一次
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, queue.size());
+        assertTrue(errors.get(0).startsWith("FailedOperation.ImageNoIdCard"));
+        drainer.shutdown();
+    }
+
+    private interface Condition { boolean met() throws Exception; }
+
+    private static void waitFor(Condition condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.met()) {
+            if (System.nanoTime() > deadline) fail("等待超时");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.IdCardOcr.queue;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+import com.example.IdCardOcr.network.CardSide;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+//持久化离线队列测试：重启恢复、日志截断、压缩和孤儿文件清理
+public class JobQueueTest {
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception { dir = Files.createTempDirectory("jobqueue").toFile(); }
+
+    @After
+    public void tearDown() { deleteRecursively(dir); }
+
+    @Test
+    public void jobsSurviveReopenInOrderWithAttempts() throws Exception {
+        JobQueue queue = new JobQueue(dir);
+        OfflineJob a = queue.enqueue(new byte[]{1, 2, 3}, CardSide.FRONT);
+        OfflineJob b = queue.enqueue(new byte[]{4, 5}, CardSide.BACK);
+        OfflineJob c = queue.enqueue(new byte[]{6}, CardSide.FRONT);
+        queue.recordFailure(b.getId());
+        queue.remove(a.getId());
+        queue.close();
+
+        JobQueue reopened = new JobQueue(dir);
+        List<OfflineJob> pending = reopened.pending();
+        assertEquals(2, pending.size());
+        assertEquals(b.getId(), pending.get(0).getId());
+        assertEquals(CardSide.BACK, pending.get(0).getCardSide());
+        assertEquals(1, pending.get(0).getAttempts());
+        assertArrayEquals(new byte[]{4, 5}, reopened.readPayload(pending.get(0)));
+        assertEquals(c.getId(), pending.get(1).getId());
+        assertFalse(a.getPayload().exists());
+        reopened.close();
+    }
+
+    @Test
+    public void tornTailRecordIsIgnoredAndRepaired() throws Exception {
+        JobQueue queue = new JobQueue(dir);
+        OfflineJob a = queue.enqueue(new byte[]{1}, CardSide.FRONT);
+        queue.close();
+        //模拟崩溃时只写了半条记录
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "journal.log"), true)) {
+            out.write("DEL\t".getBytes("UTF-8"));
+        }
+        JobQueue reopened = new JobQueue(dir);
+        assertEquals(1, reopened.size());
+        OfflineJob b = reopened.enqueue(new byte[]{2}, CardSide.FRONT);
+        reopened.close();
+        List<OfflineJob> pending = new JobQueue(dir).pending();
+        assertEquals(Arrays.asList(a.getId(), b.getId()), Arrays.asList(pending.get(0).getId(), pending.get(1).getId()));
+    }
+
+    @Test
+    public void compactionKeepsStateAndTruncatesJournal() throws Exception {
+        JobQueue queue = new JobQueue(dir);
+        OfflineJob keep = queue.enqueue(new byte[]{9}, CardSide.FRONT);
+        for (int i = 0; i < 70; i++) queue.remove(queue.enqueue(new byte[]{(byte) i}, CardSide.FRONT).getId());
+        assertTrue(new File(dir, "journal.log").length() < 64 * 100);
+        assertTrue(new File(dir, "state.snapshot").isFile());
+        queue.close();
+        JobQueue reopened = new JobQueue(dir);
+        assertEquals(1, reopened.size());
+        assertEquals(keep.getId(), reopened.pending().get(0).getId());
+        assertEquals(1, new File(dir, "payloads").listFiles().length);
+        reopened.close();
+    }
+
+    @Test
+    public void payloadsAreEncryptedAtRest() throws Exception {
+        RecordCipher cipher = RecordCipher.withEphemeralKey();
+        byte[] jpeg = "JFIF 110101199003070000".getBytes("UTF-8");
+        JobQueue queue = new JobQueue(dir, cipher);
+        OfflineJob job = queue.enqueue(jpeg, CardSide.FRONT);
+        byte[] onDisk = Files.readAllBytes(job.getPayload().toPath());
+        assertFalse(new String(onDisk, "ISO-8859-1").contains("110101199003070000"));
+        queue.close();
+        JobQueue reopened = new JobQueue(dir, cipher);
+        assertArrayEquals(jpeg, reopened.readPayload(reopened.pending().get(0)));
+        reopened.close();
+        //换了密钥（如临时密钥在重启后丢失）时无法读取
+        JobQueue otherKey = new JobQueue(dir, RecordCipher.withEphemeralKey());
+        try {
+            otherKey.readPayload(otherKey.pending().get(0));
+            fail();
+        } catch (IOException expected) {
+        }
+        otherKey.close();
+    }
+
+    @Test
+    public void orphanPayloadsAreRemovedOnOpen() throws Exception {
+        new JobQueue(dir).close();
+        File orphan = new File(new File(dir, "payloads"), "lost.jpg");
+        Files.write(orphan.toPath(), new byte[]{1});
+        JobQueue queue = new JobQueue(dir);
+        assertEquals(0, queue.size());
+        assertFalse(orphan.exists());
+        queue.close();
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) for (File child : children) deleteRecursively(child);
+        file.delete();
+    }
+}
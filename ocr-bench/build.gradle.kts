@@ -0,0 +1,42 @@
+plugins {
+    java
+}
+
+//JMH基准测试：扫描热路径（Base64、签名、请求体构建、响应解析、端到端吞吐）
+//运行: ./gradlew :ocr-bench:jmh [-PjmhArgs="Sign -f 1"]，结果JSON写入build/results/jmh/results.json
+//对比: ./gradlew :ocr-bench:jmhCompare -Pbaseline=<旧结果.json> [-Pcurrent=<新结果.json>] [-Pthreshold=10]
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":ocr-core"))
+    implementation("com.squareup.okhttp3:mockwebserver:4.12.0")
+    implementation("org.openjdk.jmh:jmh-core:1.37")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "运行JMH基准测试并输出JSON结果"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val extra = (project.findProperty("jmhArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+    args = listOf("-rf", "json", "-rff", jmhResults.get().asFile.path) + extra
+    doFirst { jmhResults.get().asFile.parentFile.mkdirs() }
+}
+
+tasks.register<JavaExec>("jmhCompare") {
+    group = "benchmark"
+    description = "对比两次JMH结果，退化超过阈值时失败"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.IdCardOcr.bench.BenchCompare")
+    args = listOfNotNull(
+        project.findProperty("baseline") as String?,
+        (project.findProperty("current") as String?) ?: jmhResults.get().asFile.path,
+        project.findProperty("threshold") as String?
+    )
+}
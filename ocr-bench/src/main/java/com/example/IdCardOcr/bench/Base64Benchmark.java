@@ -0,0 +1,58 @@
+package com.example.IdCardOcr.bench;
+
+import com.example.IdCardOcr.model.Base64Encoder;
+import com.example.IdCardOcr.model.Base64Util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+//Base64编码：从缩略图到未压缩大图的载荷大小
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Base64Benchmark {
+    @Param({"16384", "262144", "1048576", "4194304"})
+    public int size;
+
+    private byte[] input;
+    private byte[] output;
+
+    @Setup
+    public void setUp() {
+        input = Payloads.randomBytes(size, size);
+        output = new byte[Base64Encoder.encodedLength(size)];
+    }
+
+    //上传路径实际使用的入口，生成String
+    @Benchmark
+    public String base64UtilEncode() {
+        return Base64Util.encode(input);
+    }
+
+    //编码到复用的字节数组，不生成String
+    @Benchmark
+    public int encodeIntoBuffer() {
+        return Base64Encoder.encode(input, 0, input.length, output, 0);
+    }
+
+    //JDK编码器作为参照，不同机器间比较结果时用于归一化
+    @Benchmark
+    public int jdkEncodeIntoBuffer() {
+        return Base64.getEncoder().encode(input, output);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.IdCardOcr.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+//对比两次JMH运行的JSON结果，任一基准退化超过阈值时以非0退出码结束，供CI卡住性能回退
+public final class BenchCompare {
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private BenchCompare() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BenchCompare <基线.json> <本次.json> [退化阈值百分比，默认10]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Score> baseline = load(args[0]);
+        Map<String, Score> current = load(args[1]);
+        List<String> regressions = new ArrayList<>();
+        System.out.println(String.format(Locale.US, "%-70s %14s %14s %9s", "benchmark", "baseline", "current", "change"));
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.println(String.format(Locale.US, "%-70s %14s %14.3f %9s %s", entry.getKey(), "-", after.value, "new", after.unit));
+                continue;
+            }
+            double change = regressionPercent(before, after);
+            boolean regressed = change > threshold;
+            if (regressed) regressions.add(entry.getKey());
+            System.out.println(String.format(Locale.US, "%-70s %14.3f %14.3f %+8.1f%% %s%s", entry.getKey(),
+                    before.value, after.value, change, after.unit, regressed ? "  REGRESSION" : ""));
+        }
+        if (!regressions.isEmpty()) {
+            System.out.println(regressions.size() + "项基准退化超过" + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    //退化百分比，正数表示变差：吞吐模式越大越好，其余模式（耗时）越小越好
+    static double regressionPercent(Score before, Score after) {
+        if (before.value == 0) return 0;
+        double change = (after.value - before.value) / before.value * 100;
+        return before.higherIsBetter ? -change : change;
+    }
+
+    //以"基准名[参数]"为键读取JMH结果
+    static Map<String, Score> load(String path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            return parse(JsonParser.parseReader(reader).getAsJsonArray());
+        }
+    }
+
+    static Map<String, Score> parse(JsonArray results) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonElement element : results) {
+            JsonObject result = element.getAsJsonObject();
+            StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+            if (result.has("params")) {
+                Map<String, String> params = new TreeMap<>();
+                for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+                    params.put(param.getKey(), param.getValue().getAsString());
+                }
+                key.append(params);
+            }
+            JsonObject metric = result.getAsJsonObject("primaryMetric");
+            scores.put(key.toString(), new Score(metric.get("score").getAsDouble(), metric.get("scoreUnit").getAsString(),
+                    "thrpt".equals(result.get("mode").getAsString())));
+        }
+        return scores;
+    }
+
+    //单个基准的主指标
+    static final class Score {
+        final double value;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Score(double value, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
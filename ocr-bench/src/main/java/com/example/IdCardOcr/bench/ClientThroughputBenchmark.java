@@ -0,0 +1,145 @@
+package com.example.IdCardOcr.bench;
+
+import com.example.IdCardOcr.metrics.ScanMetrics;
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.network.RetryPolicy;
+import com.example.IdCardOcr.network.SignHelper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+//客户端端到端吞吐：进程内模拟服务器返回录制响应，覆盖请求体编码、签名、限流、并发控制和响应解析
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientThroughputBenchmark {
+    //预处理后的典型JPEG大小
+    private static final int JPEG_BYTES = 200 * 1024;
+
+    private MockWebServer server;
+    private OcrApiClient client;
+    private byte[] jpeg;
+
+    @Setup
+    public void setUp() throws IOException {
+        final String body = Payloads.smallResponse();
+        server = new MockWebServer();
+        //不保留请求体，避免记录的请求占用内存影响测量
+        server.setBodyLimit(0);
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody(body);
+            }
+        });
+        server.start();
+        SignHelper.setCredentials("AKIDbenchmark00000000000000000000000", "benchmarkSecretKey000000000000000");
+        client = OcrApiClient.forUrl(new OkHttpClient(), server.url("/").toString(), new ScanMetrics());
+        client.setRetryPolicy(RetryPolicy.NONE);
+        //放开客户端限流，测量的是客户端自身开销而不是配额
+        client.setRateLimit("IDCardOCR", 1e6, 1_000_000, 0);
+        client.setMaxConcurrentRequests(8);
+        jpeg = Payloads.randomBytes(JPEG_BYTES, 7);
+    }
+
+    //清空模拟服务器记录的请求队列
+    @TearDown(Level.Iteration)
+    public void drainRequests() throws InterruptedException {
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) { }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public IdentifyResult recognizeSerial() throws Exception {
+        return recognize();
+    }
+
+    //4个线程同时识别，测量并发控制和连接复用下的吞吐
+    @Benchmark
+    @Threads(4)
+    public IdentifyResult recognizeConcurrent() throws Exception {
+        return recognize();
+    }
+
+    private IdentifyResult recognize() throws Exception {
+        final CompletableFuture<IdentifyResult> future = new CompletableFuture<>();
+        client.recognizeIdCard(jpeg, CardSide.FRONT, new OcrApiClient.Callback() {
+            @Override
+            public void onSuccess(IdentifyResult result) { future.complete(result); }
+            @Override
+            public void onFailure(String error) { future.completeExceptionally(new IllegalStateException(error)); }
+        });
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    //模拟服务器分开写响应头和响应体，回环连接上Nagle算法与延迟确认叠加会使每次请求多出约40ms，
+    //服务端关闭Nagle后测到的才是客户端自身的开销
+    private static final class NoDelayServerSocketFactory extends ServerSocketFactory {
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            return createServerSocket(port, 50, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            return createServerSocket(port, backlog, null);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            ServerSocket socket = createServerSocket();
+            socket.bind(new InetSocketAddress(address, port), backlog);
+            return socket;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.IdCardOcr.bench;
+
+import com.example.IdCardOcr.metrics.LatencyHistogram;
+import com.example.IdCardOcr.metrics.ScanMetrics;
+import com.example.IdCardOcr.metrics.Stage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//指标记录开销：每个扫描阶段都要记录一次，单线程与多线程争用同一直方图
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final ScanMetrics metrics = new ScanMetrics();
+
+    //每个线程各自生成耗时序列，在各桶之间变化，避免总是命中同一个桶
+    @State(Scope.Thread)
+    public static class Durations {
+        private long duration;
+
+        long next() {
+            duration = (duration + 7919) & 0xFFFFFFF;
+            return duration;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void histogramRecord(Durations durations) {
+        histogram.record(durations.next(), 0);
+    }
+
+    //4线程共享同一直方图
+    @Benchmark
+    @Threads(4)
+    public void histogramRecordContended(Durations durations) {
+        histogram.record(durations.next(), 0);
+    }
+
+    //ScanMetrics按阶段查找直方图并通知监听器
+    @Benchmark
+    @Threads(1)
+    public void scanMetricsRecord(Durations durations) {
+        metrics.record(Stage.SIGN, durations.next(), 1024);
+    }
+}
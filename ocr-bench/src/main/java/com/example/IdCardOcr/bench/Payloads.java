@@ -0,0 +1,50 @@
+package com.example.IdCardOcr.bench;
+
+import com.example.IdCardOcr.model.Base64Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+//基准测试输入：录制的腾讯云响应和固定种子生成的图片字节，保证每次运行输入一致
+public final class Payloads {
+    //开启裁剪（CropIdCard/CropPortrait）时AdvancedInfo中返回的证件和人像图大小
+    private static final int CROPPED_CARD_BYTES = 300 * 1024;
+    private static final int CROPPED_PORTRAIT_BYTES = 40 * 1024;
+
+    private Payloads() { }
+
+    //人像面识别的录制响应（未开启裁剪）
+    public static String smallResponse() {
+        try (InputStream in = Payloads.class.getResourceAsStream("/payloads/idcard_front.json")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) != -1) out.write(buffer, 0, n);
+            return out.toString(StandardCharsets.UTF_8.name()).trim();
+        } catch (IOException e) {
+            throw new IllegalStateException("读取录制响应失败", e);
+        }
+    }
+
+    //开启裁剪的响应：在录制响应的AdvancedInfo中放入Base64编码的证件和人像裁剪图
+    public static String cropHeavyResponse() {
+        String advanced = "{\\\"IdCard\\\":\\\"" + Base64Encoder.encodeToString(randomBytes(CROPPED_CARD_BYTES, 1))
+                + "\\\",\\\"Portrait\\\":\\\"" + Base64Encoder.encodeToString(randomBytes(CROPPED_PORTRAIT_BYTES, 2))
+                + "\\\",\\\"Quality\\\":88,\\\"WarnInfos\\\":[]}";
+        return smallResponse().replace("\"AdvancedInfo\":\"{}\"", "\"AdvancedInfo\":\"" + advanced + "\"");
+    }
+
+    //固定种子的伪图片字节，以JPEG文件头开始
+    public static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        if (size >= 2) {
+            bytes[0] = (byte) 0xFF;
+            bytes[1] = (byte) 0xD8;
+        }
+        return bytes;
+    }
+}
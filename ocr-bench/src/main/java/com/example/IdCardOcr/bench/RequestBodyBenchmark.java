@@ -0,0 +1,58 @@
+package com.example.IdCardOcr.bench;
+
+import com.example.IdCardOcr.network.ImageRequestBody;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okio.BufferedSink;
+import okio.Okio;
+
+//请求体构建：签名前的流式哈希和上传时的流式写出，与OcrApiClient对JPEG字节的处理一致
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBodyBenchmark {
+    //预处理后的典型JPEG大小与未压缩原图
+    @Param({"204800", "819200"})
+    public int jpegBytes;
+
+    private byte[] jpeg;
+
+    @Setup
+    public void setUp() {
+        jpeg = Payloads.randomBytes(jpegBytes, jpegBytes);
+    }
+
+    //签名阶段：计算请求体SHA-256
+    @Benchmark
+    public String hashBody() throws IOException {
+        return ImageRequestBody.fromBytes(jpeg, "FRONT").sha256Hex();
+    }
+
+    //完整构建：哈希后再写出到丢弃一切的输出
+    @Benchmark
+    public long hashAndWrite() throws IOException {
+        ImageRequestBody body = ImageRequestBody.fromBytes(jpeg, "FRONT");
+        String hash = body.sha256Hex();
+        BufferedSink sink = Okio.buffer(Okio.blackhole());
+        body.writeTo(sink);
+        sink.flush();
+        return hash.length() + body.contentLength();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.IdCardOcr.bench;
+
+import com.example.IdCardOcr.network.OcrResponseReader;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+//响应解析：录制的普通响应和带裁剪图的大响应，流式解析对比Gson整树解析
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseParseBenchmark {
+    @Param({"small", "cropHeavy"})
+    public String payload;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        String json = payload.equals("small") ? Payloads.smallResponse() : Payloads.cropHeavyResponse();
+        body = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    //OcrApiClient实际使用的流式解析，跳过不需要的大字段
+    @Benchmark
+    public OcrResponseReader.Parsed streamingRead() throws IOException {
+        return OcrResponseReader.read(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    //对照：把整个响应解析为JSON树
+    @Benchmark
+    public JsonElement gsonTree() {
+        return JsonParser.parseReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.IdCardOcr.bench;
+
+import com.example.IdCardOcr.network.SignHelper;
+import com.example.IdCardOcr.network.Tc3Signer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+//TC3签名：单线程与多线程争用，以及请求体哈希已预先算好时的纯签名开销
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignBenchmark {
+    private static final String SECRET_ID = "AKIDbenchmark00000000000000000000000";
+    private static final String SECRET_KEY = "benchmarkSecretKey000000000000000";
+    //同一天内的时间戳，派生密钥命中缓存，与实际连续识别一致
+    private static final long TIMESTAMP = 1_700_000_000L;
+
+    //请求体大小：只有CardSide的小请求和约256KB图片的请求
+    @Param({"64", "349552"})
+    public int bodyLength;
+
+    private String body;
+    private String bodyHash;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(bodyLength);
+        sb.append("{\"ImageBase64\":\"");
+        while (sb.length() < bodyLength - 20) sb.append('A');
+        sb.append("\",\"CardSide\":\"FRONT\"}");
+        body = sb.toString();
+        bodyHash = Tc3Signer.sha256Hex(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generateSign() {
+        return SignHelper.generateSign(SECRET_ID, SECRET_KEY, body, TIMESTAMP);
+    }
+
+    //4线程共享同一签名器
+    @Benchmark
+    @Threads(4)
+    public String generateSignContended() {
+        return SignHelper.generateSign(SECRET_ID, SECRET_KEY, body, TIMESTAMP);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String signPayloadHash() {
+        return SignHelper.generateSignForPayloadHash(SECRET_ID, SECRET_KEY, bodyHash, TIMESTAMP);
+    }
+}
@@ -0,0 +1,19 @@
+plugins {
+    application
+}
+
+//命令行批量识别：扫描目录下的JPEG并行识别，结果写为JSONL
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+application {
+    mainClass.set("com.example.IdCardOcr.cli.OcrCli")
+}
+
+dependencies {
+    implementation(project(":ocr-core"))
+
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,151 @@
+package com.example.IdCardOcr.cli;
+
+import com.example.IdCardOcr.batch.BatchItemResult;
+import com.example.IdCardOcr.batch.BatchProgress;
+import com.example.IdCardOcr.batch.BatchRecognizer;
+import com.example.IdCardOcr.metrics.LatencyHistogram;
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+//目录批量识别：读取JPEG文件并行上传识别，每张图片的结果写一行JSON，结束后汇总吞吐和延迟
+public class DirectoryScan {
+    private final IdCardRecognizer recognizer;
+    private final int parallelism;
+
+    public DirectoryScan(IdCardRecognizer recognizer, int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("并发数必须大于0");
+        this.recognizer = recognizer;
+        this.parallelism = parallelism;
+    }
+
+    //列出目录中的JPEG文件，按路径排序保证输出顺序稳定
+    public static List<File> listJpegs(File dir, boolean recursive) {
+        List<File> files = new ArrayList<>();
+        collect(dir, recursive, files);
+        Collections.sort(files);
+        return files;
+    }
+
+    private static void collect(File dir, boolean recursive, List<File> out) {
+        File[] children = dir.listFiles();
+        if (children == null) return;
+        for (File child : children) {
+            if (child.isDirectory()) {
+                if (recursive) collect(child, true, out);
+            } else {
+                String name = child.getName().toLowerCase(Locale.ROOT);
+                if (name.endsWith(".jpg") || name.endsWith(".jpeg")) out.add(child);
+            }
+        }
+    }
+
+    //识别全部文件并阻塞到完成；结果按完成顺序写入out，写入失败时中止并抛出
+    public Summary run(List<File> files, CardSide cardSide, final Writer out) throws IOException, InterruptedException {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<BatchProgress> finalProgress = new AtomicReference<>();
+        final AtomicReference<IOException> writeError = new AtomicReference<>();
+        //文件读取很快，读取线程数与上传并发一致，拿不到上传许可时阻塞形成背压
+        BatchRecognizer<File> batchRecognizer = new BatchRecognizer<>(
+                file -> Files.readAllBytes(file.toPath()), recognizer, parallelism, parallelism);
+        try {
+            BatchRecognizer<File>.Batch batch = batchRecognizer.submit(files, cardSide, new BatchRecognizer.Listener<File>() {
+                @Override
+                public void onItemComplete(BatchItemResult<File> item, BatchProgress progress) {
+                    latency.record(TimeUnit.MILLISECONDS.toNanos(item.getLatencyMs()), item.getJpegBytes());
+                    try {
+                        synchronized (out) {
+                            writeLine(out, item);
+                        }
+                    } catch (IOException e) {
+                        writeError.compareAndSet(null, e);
+                    }
+                }
+                @Override
+                public void onBatchComplete(BatchProgress progress) {
+                    finalProgress.set(progress);
+                    done.countDown();
+                }
+            });
+            while (!done.await(200, TimeUnit.MILLISECONDS)) {
+                if (writeError.get() != null) batch.cancel();
+            }
+        } finally {
+            batchRecognizer.shutdown();
+        }
+        if (writeError.get() != null) throw writeError.get();
+        out.flush();
+        return new Summary(finalProgress.get(), latency);
+    }
+
+    //一行JSON：文件、是否成功、延迟，成功时附识别字段，失败时附错误信息
+    static void writeLine(Writer out, BatchItemResult<File> item) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        writer.name("file").value(item.getSource().getPath());
+        writer.name("ok").value(item.isSuccess());
+        writer.name("latencyMs").value(item.getLatencyMs());
+        if (item.isSuccess()) {
+            IdentifyResult r = item.getResult();
+            writer.name("bytes").value(item.getJpegBytes());
+            writer.name("result").beginObject();
+            field(writer, "Name", r.getName());
+            field(writer, "Sex", r.getSex());
+            field(writer, "Nation", r.getNation());
+            field(writer, "Birth", r.getBirth());
+            field(writer, "Address", r.getAddress());
+            field(writer, "IdNum", r.getId());
+            field(writer, "Authority", r.getAuthority());
+            field(writer, "ValidDate", r.getValidDate());
+            writer.endObject();
+        } else {
+            writer.name("error").value(item.getError());
+        }
+        writer.endObject();
+        writer.flush();
+        out.write('\n');
+    }
+
+    //空字段不输出
+    private static void field(JsonWriter writer, String name, String value) throws IOException {
+        if (value != null) writer.name(name).value(value);
+    }
+
+    //整批识别的吞吐与单张延迟分布
+    public static final class Summary {
+        private final BatchProgress progress;
+        private final LatencyHistogram latency;
+
+        Summary(BatchProgress progress, LatencyHistogram latency) {
+            this.progress = progress;
+            this.latency = latency;
+        }
+
+        public BatchProgress getProgress() { return progress; }
+        public long percentileMs(double percentile) { return latency.percentileMicros(percentile) / 1000; }
+        public long getMaxMs() { return latency.getMaxMicros() / 1000; }
+
+        //两行摘要：吞吐和延迟百分位
+        public String describe() {
+            return String.format(Locale.US, "图片%d张: 成功%d, 失败%d, 耗时%.1fs, %.2f张/秒, %.1fKB/s%n"
+                            + "单张延迟(读取+上传+识别): p50=%dms p95=%dms p99=%dms max=%dms",
+                    progress.getTotal(), progress.getSucceeded(), progress.getFailed(), progress.getElapsedMs() / 1000.0,
+                    progress.getItemsPerSecond(), progress.getBytesPerSecond() / 1024,
+                    percentileMs(50), percentileMs(95), percentileMs(99), getMaxMs());
+        }
+    }
+}
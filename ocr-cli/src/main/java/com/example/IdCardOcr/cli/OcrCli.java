@@ -0,0 +1,117 @@
+package com.example.IdCardOcr.cli;
+
+import com.example.IdCardOcr.metrics.ScanMetrics;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.network.SignHelper;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+//命令行入口：扫描目录下的JPEG并行识别，结果写为JSONL，汇总信息输出到标准错误
+public final class OcrCli {
+    private static final String USAGE = "用法: ocr-cli --input <目录> [--output <结果.jsonl>] [--parallelism <并发数>]"
+            + " [--side FRONT|BACK] [--recursive] [--env <密钥文件>]\n"
+            + "未指定--env时从环境变量TENCENT_SECRET_ID和TENCENT_SECRET_KEY读取密钥；未指定--output时输出到标准输出";
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private OcrCli() { }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(Options.parse(args)));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("识别失败: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(130);
+        }
+    }
+
+    //返回进程退出码：全部成功为0，有失败项为1
+    static int run(Options options) throws IOException, InterruptedException {
+        if (options.envFile != null) {
+            SignHelper.init(new FileInputStream(options.envFile));
+        } else {
+            SignHelper.setCredentials(System.getenv("TENCENT_SECRET_ID"), System.getenv("TENCENT_SECRET_KEY"));
+        }
+        if (!SignHelper.hasValidCredentials()) throw new IllegalArgumentException(SignHelper.getCredentialsStatus());
+        List<File> files = DirectoryScan.listJpegs(options.input, options.recursive);
+        System.err.println("找到" + files.size() + "张JPEG图片，并发" + options.parallelism);
+
+        OcrApiClient client = OcrApiClient.getInstance();
+        client.setMaxConcurrentRequests(options.parallelism);
+        client.startEndpointProbing();
+        DirectoryScan.Summary summary;
+        try (Writer out = new BufferedWriter(options.output != null
+                ? new OutputStreamWriter(Files.newOutputStream(options.output.toPath()), StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            summary = new DirectoryScan(client, options.parallelism).run(files, options.side, out);
+        } finally {
+            client.stopEndpointProbing();
+        }
+        System.err.println(summary.describe());
+        System.err.println(ScanMetrics.getInstance().summary());
+        System.err.println("endpoints " + client.getEndpointSelector().getStats());
+        System.err.println("clock " + client.getServerClock().getStats() + ", resigned=" + client.getClockSkewRetryCount());
+        return summary.getProgress().getFailed() == 0 ? 0 : 1;
+    }
+
+    //命令行参数
+    static final class Options {
+        File input;
+        File output;
+        File envFile;
+        int parallelism = DEFAULT_PARALLELISM;
+        CardSide side = CardSide.FRONT;
+        boolean recursive;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--input": options.input = new File(value(args, ++i)); break;
+                    case "--output": options.output = new File(value(args, ++i)); break;
+                    case "--env": options.envFile = new File(value(args, ++i)); break;
+                    case "--recursive": options.recursive = true; break;
+                    case "--parallelism":
+                        try {
+                            options.parallelism = Integer.parseInt(value(args, ++i));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("并发数必须是整数");
+                        }
+                        if (options.parallelism <= 0) throw new IllegalArgumentException("并发数必须大于0");
+                        break;
+                    case "--side":
+                        try {
+                            options.side = CardSide.valueOf(value(args, ++i));
+                        } catch (IllegalArgumentException e) {
+                            throw new IllegalArgumentException("--side只能是FRONT或BACK");
+                        }
+                        break;
+                    default: throw new IllegalArgumentException("未知参数: " + args[i]);
+                }
+            }
+            if (options.input == null) throw new IllegalArgumentException("缺少--input");
+            if (!options.input.isDirectory()) throw new IllegalArgumentException("不是目录: " + options.input);
+            return options;
+        }
+
+        private static String value(String[] args, int i) {
+            if (i >= args.length) throw new IllegalArgumentException(args[i - 1] + "缺少参数值");
+            return args[i];
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.IdCardOcr.cli;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+//目录批量识别测试：模拟识别器，检查JSONL输出、并发上限和汇总
+public class DirectoryScanTest {
+    private File dir;
+    private final ExecutorService network = Executors.newCachedThreadPool();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    //内容为"bad"的图片识别失败，其余以文件内容作为姓名返回
+    private final IdCardRecognizer recognizer = new IdCardRecognizer() {
+        @Override
+        public void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, OcrApiClient.Callback callback) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            network.execute(() -> {
+                try {
+                    Thread.sleep(30);
+                } catch (InterruptedException ignored) {
+                }
+                inFlight.decrementAndGet();
+                String content = new String(jpegBytes, StandardCharsets.UTF_8);
+                if (content.equals("bad")) {
+                    callback.onFailure("FailedOperation.ImageNoIdCard: test");
+                } else {
+                    IdentifyResult result = new IdentifyResult();
+                    result.setName(content);
+                    result.setId("110101199003070000");
+                    callback.onSuccess(result);
+                }
+            });
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("ocr-cli").toFile();
+        for (int i = 0; i < 10; i++) write("img" + i + ".jpg", "name" + i);
+        write("broken.JPEG", "bad");
+        write("notes.txt", "ignored");
+        new File(dir, "sub").mkdir();
+        write("sub/nested.jpg", "nested");
+    }
+
+    @After
+    public void tearDown() {
+        network.shutdownNow();
+        deleteRecursively(dir);
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(new File(dir, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) for (File child : children) deleteRecursively(child);
+        file.delete();
+    }
+
+    @Test
+    public void listJpegs_filtersByExtensionAndOptionallyRecurses() {
+        assertEquals(11, DirectoryScan.listJpegs(dir, false).size());
+        List<File> all = DirectoryScan.listJpegs(dir, true);
+        assertEquals(12, all.size());
+        assertEquals("broken.JPEG", all.get(0).getName());
+    }
+
+    @Test
+    public void run_writesOneJsonLinePerImageWithinParallelism() throws Exception {
+        StringWriter out = new StringWriter();
+        DirectoryScan.Summary summary = new DirectoryScan(recognizer, 3).run(DirectoryScan.listJpegs(dir, true), CardSide.FRONT, out);
+        String[] lines = out.toString().split("\n");
+        assertEquals(12, lines.length);
+        Map<String, JsonObject> byFile = new HashMap<>();
+        for (String line : lines) {
+            JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+            byFile.put(new File(json.get("file").getAsString()).getName(), json);
+        }
+        JsonObject ok = byFile.get("img3.jpg");
+        assertTrue(ok.get("ok").getAsBoolean());
+        assertEquals("name3", ok.getAsJsonObject("result").get("Name").getAsString());
+        assertFalse(ok.getAsJsonObject("result").has("Address"));
+        JsonObject failed = byFile.get("broken.JPEG");
+        assertFalse(failed.get("ok").getAsBoolean());
+        assertTrue(failed.get("error").getAsString().startsWith("FailedOperation.ImageNoIdCard"));
+
+        assertEquals(12, summary.getProgress().getTotal());
+        assertEquals(11, summary.getProgress().getSucceeded());
+        assertEquals(1, summary.getProgress().getFailed());
+        assertTrue(maxInFlight.get() <= 3);
+        assertTrue(summary.percentileMs(50) >= 30);
+        assertTrue(summary.describe().contains("成功11"));
+    }
+
+    @Test
+    public void options_rejectInvalidArguments() {
+        try {
+            OcrCli.Options.parse(new String[]{"--input", dir.getPath(), "--parallelism", "0"});
+            fail("应当拒绝并发数0");
+        } catch (IllegalArgumentException expected) {
+        }
+        OcrCli.Options options = OcrCli.Options.parse(new String[]{"--input", dir.getPath(), "--side", "BACK", "--recursive"});
+        assertEquals(CardSide.BACK, options.side);
+        assertTrue(options.recursive);
+    }
+}
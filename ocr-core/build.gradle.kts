@@ -0,0 +1,17 @@
+plugins {
+    `java-library`
+}
+
+//纯JVM核心库：签名、请求构建、响应解析、重试/熔断/限流和结果缓存，App与命令行工具共用
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    api("com.squareup.okhttp3:okhttp:4.12.0")
+    api("com.google.code.gson:gson:2.10.1")
+
+    testImplementation(libs.junit)
+    testImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
+}
@@ -0,0 +1,41 @@
+package com.example.IdCardOcr.batch;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+
+//批量识别中单张图片的结果
+public class BatchItemResult<T> {
+    private final int index;
+    private final T source;
+    private final IdentifyResult result;
+    private final String error;
+    private final int jpegBytes;
+    private final long latencyMs;
+
+    private BatchItemResult(int index, T source, IdentifyResult result, String error, int jpegBytes, long latencyMs) {
+        this.index = index;
+        this.source = source;
+        this.result = result;
+        this.error = error;
+        this.jpegBytes = jpegBytes;
+        this.latencyMs = latencyMs;
+    }
+
+    static <T> BatchItemResult<T> success(int index, T source, IdentifyResult result, int jpegBytes, long startNanos) {
+        return new BatchItemResult<>(index, source, result, null, jpegBytes, elapsedMs(startNanos));
+    }
+
+    static <T> BatchItemResult<T> failure(int index, T source, String error, long startNanos) {
+        return new BatchItemResult<>(index, source, null, error, 0, elapsedMs(startNanos));
+    }
+
+    private static long elapsedMs(long startNanos) { return (System.nanoTime() - startNanos) / 1_000_000; }
+
+    //Getter方法
+    public int getIndex() { return index; }
+    public T getSource() { return source; }
+    public boolean isSuccess() { return result != null; }
+    public IdentifyResult getResult() { return result; }
+    public String getError() { return error; }
+    public int getJpegBytes() { return jpegBytes; }
+    public long getLatencyMs() { return latencyMs; }
+}
@@ -0,0 +1,45 @@
+package com.example.IdCardOcr.batch;
+
+import java.util.Locale;
+
+//批量识别进度快照
+public class BatchProgress {
+    private final int total;
+    private final int succeeded;
+    private final int failed;
+    private final long uploadedBytes;
+    private final long elapsedMs;
+
+    public BatchProgress(int total, int succeeded, int failed, long uploadedBytes, long elapsedMs) {
+        this.total = total;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.uploadedBytes = uploadedBytes;
+        this.elapsedMs = elapsedMs;
+    }
+
+    //Getter方法
+    public int getTotal() { return total; }
+    public int getSucceeded() { return succeeded; }
+    public int getFailed() { return failed; }
+    public int getCompleted() { return succeeded + failed; }
+    public long getUploadedBytes() { return uploadedBytes; }
+    public long getElapsedMs() { return elapsedMs; }
+    public boolean isDone() { return getCompleted() >= total; }
+
+    //每秒完成的图片数
+    public double getItemsPerSecond() {
+        return elapsedMs <= 0 ? 0 : getCompleted() * 1000.0 / elapsedMs;
+    }
+
+    //每秒上传的字节数
+    public double getBytesPerSecond() {
+        return elapsedMs <= 0 ? 0 : uploadedBytes * 1000.0 / elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%d/%d (成功%d, 失败%d), %.2f张/秒, %.1fKB/s",
+                getCompleted(), total, succeeded, failed, getItemsPerSecond(), getBytesPerSecond() / 1024);
+    }
+}
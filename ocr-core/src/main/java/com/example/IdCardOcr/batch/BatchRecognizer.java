@@ -0,0 +1,228 @@
+package com.example.IdCardOcr.batch;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.example.IdCardOcr.network.OcrApiClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//批量识别：解码 -> 压缩 -> 签名 -> 上传四级流水线，各级并发数由StageLimits配置，逐项回调结果和整体进度
+public class BatchRecognizer<T> {
+    //加载单张图片并返回待上传的JPEG字节（解码、缩放、压缩在同一步完成，只受解码并发限制）
+    public interface ImageLoader<T> {
+        byte[] loadJpeg(T source) throws Exception;
+    }
+
+    //分两步加载：decode在解码线程上产出中间结果，encode在拿到压缩许可后压缩为JPEG
+    public interface ImageStages<T, D> {
+        D decode(T source) throws Exception;
+        byte[] encode(D decoded) throws Exception;
+        //解码结果未交给encode（等待压缩许可时被中断）时释放其占用的资源，交给encode后由encode负责释放
+        default void discard(D decoded) { }
+    }
+
+    //批量识别监听器，在工作线程或网络线程回调
+    public interface Listener<T> {
+        void onItemComplete(BatchItemResult<T> item, BatchProgress progress);
+        void onBatchComplete(BatchProgress progress);
+    }
+
+    private final ImageStages<T, ?> stages;
+    private final IdCardRecognizer recognizer;
+    private final StageLimits limits;
+    //解码线程池，线程数即解码并发上限；压缩、签名在同一线程上按许可继续执行
+    private final ExecutorService decodeExecutor;
+
+    public BatchRecognizer(ImageLoader<T> loader, IdCardRecognizer recognizer) {
+        this(asStages(loader), recognizer, StageLimits.DEFAULT);
+    }
+
+    //一步加载时压缩并发等于解码并发，签名并发等于上传并发
+    public BatchRecognizer(ImageLoader<T> loader, IdCardRecognizer recognizer, int decodeConcurrency, int uploadConcurrency) {
+        this(asStages(loader), recognizer, new StageLimits(decodeConcurrency, decodeConcurrency, uploadConcurrency, uploadConcurrency));
+    }
+
+    public BatchRecognizer(ImageStages<T, ?> stages, IdCardRecognizer recognizer, StageLimits limits) {
+        this.stages = stages;
+        this.recognizer = recognizer;
+        this.limits = limits;
+        final AtomicInteger threadIndex = new AtomicInteger();
+        this.decodeExecutor = Executors.newFixedThreadPool(limits.getDecode(), r -> {
+            Thread t = new Thread(r, "ocr-batch-decode-" + threadIndex.incrementAndGet());
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    private static <T> ImageStages<T, byte[]> asStages(ImageLoader<T> loader) {
+        return new ImageStages<T, byte[]>() {
+            @Override
+            public byte[] decode(T source) throws Exception { return loader.loadJpeg(source); }
+            @Override
+            public byte[] encode(byte[] jpeg) { return jpeg; }
+        };
+    }
+
+    public StageLimits getLimits() { return limits; }
+    public int getUploadConcurrency() { return limits.getUpload(); }
+
+    //在解码线程池上执行批次的准备工作（如列出文件夹中的图片），避免在主线程上查询
+    public void execute(Runnable task) { decodeExecutor.execute(task); }
+
+    //提交一批图片，立即返回可取消的批次句柄
+    public Batch submit(List<T> sources, CardSide cardSide, Listener<T> listener) {
+        Batch batch = new Batch(new ArrayList<>(sources), cardSide, listener);
+        if (batch.sources.isEmpty()) {
+            listener.onBatchComplete(batch.snapshot());
+            return batch;
+        }
+        for (int i = 0; i < batch.sources.size(); i++) {
+            final int index = i;
+            decodeExecutor.execute(() -> batch.process(index));
+        }
+        return batch;
+    }
+
+    //关闭线程池，进行中的批次剩余项不再处理
+    public void shutdown() { decodeExecutor.shutdownNow(); }
+
+    //一次批量识别的状态
+    public final class Batch {
+        private final List<T> sources;
+        private final CardSide cardSide;
+        private final Listener<T> listener;
+        //压缩许可：限制同时压缩的图片数
+        private final Semaphore encodePermits = new Semaphore(limits.getEncode());
+        //签名许可：覆盖识别调用的同步部分（请求体编码哈希和签名）
+        private final Semaphore signPermits = new Semaphore(limits.getSign());
+        //上传许可：拿到许可才能签名上传，未拿到时解码线程阻塞，形成背压
+        private final Semaphore uploadPermits = new Semaphore(limits.getUpload());
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicLong uploadedBytes = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+        private final List<BatchItemResult<T>> results;
+
+        private Batch(List<T> sources, CardSide cardSide, Listener<T> listener) {
+            this.sources = sources;
+            this.cardSide = cardSide;
+            this.listener = listener;
+            this.results = Collections.synchronizedList(new ArrayList<>(sources.size()));
+        }
+
+        //取消后尚未上传的图片以失败结束
+        public void cancel() { cancelled.set(true); }
+        public boolean isCancelled() { return cancelled.get(); }
+
+        //已完成项的结果副本
+        public List<BatchItemResult<T>> getResults() {
+            synchronized (results) {
+                return new ArrayList<>(results);
+            }
+        }
+
+        public BatchProgress snapshot() {
+            return new BatchProgress(sources.size(), succeeded.get(), failed.get(), uploadedBytes.get(),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        }
+
+        //在解码线程中执行：解码 -> 获取压缩许可并压缩 -> 获取上传和签名许可 -> 签名并异步上传
+        private void process(final int index) {
+            final T source = sources.get(index);
+            final long itemStart = System.nanoTime();
+            if (cancelled.get()) {
+                finish(BatchItemResult.failure(index, source, "已取消", itemStart));
+                return;
+            }
+            final byte[] jpeg;
+            try {
+                jpeg = loadJpeg(stages, source);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finish(BatchItemResult.failure(index, source, "已中断", itemStart));
+                return;
+            } catch (Exception | OutOfMemoryError e) {
+                finish(BatchItemResult.failure(index, source, "图片处理失败: " + e.getMessage(), itemStart));
+                return;
+            }
+            try {
+                uploadPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finish(BatchItemResult.failure(index, source, "已中断", itemStart));
+                return;
+            }
+            if (cancelled.get()) {
+                uploadPermits.release();
+                finish(BatchItemResult.failure(index, source, "已取消", itemStart));
+                return;
+            }
+            try {
+                signPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                uploadPermits.release();
+                finish(BatchItemResult.failure(index, source, "已中断", itemStart));
+                return;
+            }
+            try {
+                upload(index, source, jpeg, itemStart);
+            } finally {
+                signPermits.release();
+            }
+        }
+
+        //识别调用在返回前完成请求体哈希和签名，网络部分异步进行，回调中释放上传许可
+        private void upload(final int index, final T source, final byte[] jpeg, final long itemStart) {
+            recognizer.recognizeIdCard(jpeg, cardSide, new OcrApiClient.Callback() {
+                @Override
+                public void onSuccess(IdentifyResult result) {
+                    uploadPermits.release();
+                    uploadedBytes.addAndGet(jpeg.length);
+                    finish(BatchItemResult.success(index, source, result, jpeg.length, itemStart));
+                }
+                @Override
+                public void onFailure(String error) {
+                    uploadPermits.release();
+                    finish(BatchItemResult.failure(index, source, error, itemStart));
+                }
+            });
+        }
+
+        //解码后等待压缩许可，等待中被中断时释放解码结果
+        private <D> byte[] loadJpeg(ImageStages<T, D> stages, T source) throws Exception {
+            D decoded = stages.decode(source);
+            try {
+                encodePermits.acquire();
+            } catch (InterruptedException e) {
+                stages.discard(decoded);
+                throw e;
+            }
+            try {
+                return stages.encode(decoded);
+            } finally {
+                encodePermits.release();
+            }
+        }
+
+        //记录单项结果并回调进度，最后一项完成时回调批次完成
+        private void finish(BatchItemResult<T> item) {
+            results.add(item);
+            if (item.isSuccess()) succeeded.incrementAndGet(); else failed.incrementAndGet();
+            boolean last = completed.incrementAndGet() == sources.size();
+            listener.onItemComplete(item, snapshot());
+            if (last) listener.onBatchComplete(snapshot());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.IdCardOcr.batch;
+
+//批量流水线各阶段并发上限：解码、压缩、签名（请求体编码哈希和签名）、上传（在途请求）
+public final class StageLimits {
+    //默认并发：解码和压缩占用内存和CPU较多，上传受网络和QPS限制
+    public static final StageLimits DEFAULT = new StageLimits(2, 2, 2, 4);
+
+    private final int decode;
+    private final int encode;
+    private final int sign;
+    private final int upload;
+
+    public StageLimits(int decode, int encode, int sign, int upload) {
+        if (decode <= 0 || encode <= 0 || sign <= 0 || upload <= 0) throw new IllegalArgumentException("并发数必须大于0");
+        this.decode = decode;
+        this.encode = encode;
+        this.sign = sign;
+        this.upload = upload;
+    }
+
+    public int getDecode() { return decode; }
+    public int getEncode() { return encode; }
+    public int getSign() { return sign; }
+    public int getUpload() { return upload; }
+
+    @Override
+    public String toString() {
+        return "decode=" + decode + ", encode=" + encode + ", sign=" + sign + ", upload=" + upload;
+    }
+}
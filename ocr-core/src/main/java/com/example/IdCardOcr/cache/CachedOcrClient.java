@@ -0,0 +1,172 @@
+package com.example.IdCardOcr.cache;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.Deadline;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.network.OcrFuture;
+import com.example.IdCardOcr.network.Tc3Signer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//OCR客户端缓存层：按图片内容哈希+CardSide缓存结果，相同的进行中请求合并为一次网络调用
+//合并的等待者可各自取消或超时，全部放弃后才取消底层请求
+public class CachedOcrClient implements IdCardRecognizer {
+    //底层识别调用，通常为OcrApiClient
+    private final IdCardRecognizer recognizer;
+    private final ResultCache cache;
+    //进行中的请求：键 -> 共享的底层请求
+    private final Map<String, Shared> inFlight = new ConcurrentHashMap<>();
+    //统计计数
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+
+    public CachedOcrClient(IdCardRecognizer recognizer, ResultCache cache) {
+        this.recognizer = recognizer;
+        this.cache = cache;
+    }
+
+    //识别人像面
+    public void recognizeIdCard(byte[] jpegBytes, OcrApiClient.Callback callback) {
+        recognizeIdCard(jpegBytes, CardSide.FRONT, callback);
+    }
+
+    //命中缓存时同步回调；未命中时发起请求或加入已有的进行中请求
+    @Override
+    public void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, OcrApiClient.Callback callback) {
+        OcrFuture.deliver(recognizeAsync(jpegBytes, cardSide, Deadline.NONE), callback);
+    }
+
+    //命中缓存时返回已完成的Future；未命中时发起请求或加入已有的进行中请求
+    //底层请求不限时，每个等待者按自己的deadline超时
+    @Override
+    public OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, CardSide cardSide, Deadline deadline) {
+        return recognizeAsync(jpegBytes, Tc3Signer.sha256Hex(jpegBytes), cardSide, deadline);
+    }
+
+    @Override
+    public OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, String jpegSha256, CardSide cardSide, Deadline deadline) {
+        final String key = cacheKey(jpegSha256, cardSide);
+        IdentifyResult cached = cache.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return OcrFuture.completed(cached);
+        }
+        OcrFuture<IdentifyResult> waiter = new OcrFuture<>();
+        while (true) {
+            Shared shared = inFlight.get(key);
+            if (shared != null) {
+                if (shared.join(waiter)) {
+                    coalesced.incrementAndGet();
+                    return waiter.expireAt(deadline);
+                }
+                //结果已分发或已放弃，重新发起
+                inFlight.remove(key, shared);
+                continue;
+            }
+            Shared created = new Shared(key);
+            if (inFlight.putIfAbsent(key, created) != null) continue;
+            created.join(waiter);
+            //上一个相同请求可能在首次查缓存之后才写入缓存并移出进行中列表，登记后复查，避免重复的计费调用
+            IdentifyResult raced = cache.peekMemory(key);
+            if (raced != null) {
+                hits.incrementAndGet();
+                created.resolve(raced);
+                return waiter.expireAt(deadline);
+            }
+            misses.incrementAndGet();
+            created.start(recognizer.recognizeAsync(jpegBytes, cardSide, Deadline.NONE));
+            return waiter.expireAt(deadline);
+        }
+    }
+
+    //一次进行中的底层请求及其等待者
+    private final class Shared {
+        private final String key;
+        private final List<OcrFuture<IdentifyResult>> waiters = new ArrayList<>();
+        private OcrFuture<IdentifyResult> upstream;
+        //结果已分发或全部等待者已放弃
+        private boolean closed;
+
+        Shared(String key) { this.key = key; }
+
+        synchronized boolean join(final OcrFuture<IdentifyResult> waiter) {
+            if (closed) return false;
+            waiters.add(waiter);
+            waiter.onAbort(() -> leave(waiter));
+            return true;
+        }
+
+        void start(OcrFuture<IdentifyResult> call) {
+            boolean abandonedBeforeStart;
+            synchronized (this) {
+                upstream = call;
+                abandonedBeforeStart = closed;
+            }
+            if (abandonedBeforeStart) {
+                call.cancel(true);
+                return;
+            }
+            call.whenComplete(this::complete);
+        }
+
+        //复查时缓存已有结果：不发起底层请求，直接分发
+        void resolve(IdentifyResult result) { finish(result, null, false); }
+
+        private void complete(IdentifyResult result, Throwable error) { finish(result, error, true); }
+
+        //先写缓存再移出进行中列表，之后的相同请求直接命中缓存
+        private void finish(IdentifyResult result, Throwable error, boolean store) {
+            List<OcrFuture<IdentifyResult>> targets;
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                targets = new ArrayList<>(waiters);
+                waiters.clear();
+            }
+            if (error == null && store) cache.put(key, result);
+            inFlight.remove(key, this);
+            for (OcrFuture<IdentifyResult> waiter : targets) {
+                if (error == null) waiter.complete(result); else waiter.completeExceptionally(OcrFuture.unwrap(error));
+            }
+        }
+
+        //等待者取消或超时；最后一个等待者离开时取消底层请求
+        private void leave(OcrFuture<IdentifyResult> waiter) {
+            OcrFuture<IdentifyResult> toCancel;
+            synchronized (this) {
+                if (closed || !waiters.remove(waiter) || !waiters.isEmpty()) return;
+                closed = true;
+                toCancel = upstream;
+            }
+            inFlight.remove(key, this);
+            abandoned.incrementAndGet();
+            if (toCancel != null) toCancel.cancel(true);
+        }
+    }
+
+    //缓存键：JPEG字节SHA-256 + 身份证面
+    static String cacheKey(String jpegSha256, CardSide cardSide) {
+        return jpegSha256 + "_" + cardSide.name();
+    }
+
+    public ResultCache getCache() { return cache; }
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getCoalesced() { return coalesced.get(); }
+    public long getAbandoned() { return abandoned.get(); }
+
+    //统计摘要，便于日志输出
+    public String getStats() {
+        return "hits=" + hits.get() + " (memory=" + cache.getMemoryHits() + ", disk=" + cache.getDiskHits() + ")"
+                + ", misses=" + misses.get() + ", coalesced=" + coalesced.get() + ", abandoned=" + abandoned.get()
+                + ", evictions=" + cache.getEvictions();
+    }
+}
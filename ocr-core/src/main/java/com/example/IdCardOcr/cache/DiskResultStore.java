@@ -0,0 +1,144 @@
+package com.example.IdCardOcr.cache;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+//磁盘结果存储：每个键一个JSON文件，按总大小淘汰最旧文件，读取时检查过期
+//结果含姓名、身份证号，提供RecordCipher时文件内容整体加密，未加密的旧文件按损坏删除
+class DiskResultStore {
+    private static final String SUFFIX = ".json";
+    private final File directory;
+    private final long maxBytes;
+    private final long ttlMs;
+    //为null时明文存储（仅测试和命令行）
+    private final RecordCipher cipher;
+    private final Gson gson = new Gson();
+    //写入后累计的大小估计，超过上限时才扫描目录
+    private long approximateBytes = -1;
+    private long evictions = 0;
+
+    //文件内容：写入时间 + 识别结果
+    private static class Entry {
+        long storedAt;
+        IdentifyResult result;
+    }
+
+    DiskResultStore(File directory, long maxBytes, long ttlMs, RecordCipher cipher) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.ttlMs = ttlMs;
+        this.cipher = cipher;
+    }
+
+    //读取未过期的结果，过期或损坏的文件直接删除
+    synchronized IdentifyResult get(String key, long now) {
+        File file = fileFor(key);
+        if (!file.isFile()) return null;
+        try {
+            Entry entry = gson.fromJson(decode(readText(file)), Entry.class);
+            if (entry != null && entry.result != null && now - entry.storedAt <= ttlMs) {
+                file.setLastModified(now);
+                return entry.result;
+            }
+        } catch (IOException | JsonParseException | GeneralSecurityException e) {
+            //按未命中处理
+        }
+        delete(file);
+        return null;
+    }
+
+    //先写临时文件再重命名，避免进程中断留下半个文件；加密失败时只保留内存缓存
+    synchronized void put(String key, IdentifyResult result, long now) {
+        if (!directory.isDirectory() && !directory.mkdirs()) return;
+        Entry entry = new Entry();
+        entry.storedAt = now;
+        entry.result = result;
+        String text;
+        try {
+            text = encode(gson.toJson(entry));
+        } catch (GeneralSecurityException e) {
+            return;
+        }
+        File target = fileFor(key);
+        File temp = new File(directory, key + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writer.write(text);
+        } catch (IOException e) {
+            delete(temp);
+            return;
+        }
+        if (!temp.renameTo(target)) {
+            delete(temp);
+            return;
+        }
+        if (approximateBytes >= 0) approximateBytes += target.length();
+        if (approximateBytes < 0 || approximateBytes > maxBytes) trim();
+    }
+
+    synchronized void clear() {
+        File[] files = directory.listFiles();
+        if (files != null) for (File f : files) delete(f);
+        approximateBytes = 0;
+    }
+
+    synchronized long getEvictions() { return evictions; }
+
+    //按最近访问时间从旧到新删除，直到总大小不超过上限
+    private void trim() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) return;
+        long total = 0;
+        for (File f : files) total += f.length();
+        if (total > maxBytes) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File f : files) {
+                if (total <= maxBytes) break;
+                total -= f.length();
+                delete(f);
+                evictions++;
+            }
+        }
+        approximateBytes = total;
+    }
+
+    private String encode(String json) throws GeneralSecurityException {
+        return cipher != null ? cipher.seal(json) : json;
+    }
+
+    //启用加密时明文内容无法通过校验，抛出GeneralSecurityException
+    private String decode(String text) throws GeneralSecurityException {
+        return cipher != null ? cipher.open(text.trim()) : text;
+    }
+
+    private static String readText(File file) throws IOException {
+        StringBuilder text = new StringBuilder((int) Math.min(file.length(), 64 * 1024));
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[4096];
+            int n;
+            while ((n = reader.read(buffer)) != -1) text.append(buffer, 0, n);
+        }
+        return text.toString();
+    }
+
+    private File fileFor(String key) { return new File(directory, key + SUFFIX); }
+
+    private static void delete(File file) {
+        //删除失败时下次trim会再次尝试
+        file.delete();
+    }
+}
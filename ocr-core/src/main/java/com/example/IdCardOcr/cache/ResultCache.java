@@ -0,0 +1,134 @@
+package com.example.IdCardOcr.cache;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+import com.example.IdCardOcr.model.IdentifyResult;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+//两级识别结果缓存：内存LRU + 容量受限的磁盘存储，均带TTL，过期结果读取时删除
+//磁盘上的结果含身份证号和姓名，App中应传入RecordCipher加密存储
+public class ResultCache {
+    //默认配置
+    public static final int DEFAULT_MEMORY_ENTRIES = 64;
+    public static final long DEFAULT_DISK_BYTES = 1024 * 1024;
+    public static final long DEFAULT_TTL_MS = TimeUnit.HOURS.toMillis(24);
+
+    private final int memoryEntries;
+    private final long ttlMs;
+    private final DiskResultStore diskStore;
+    private final LongSupplier clock;
+    //访问顺序的LinkedHashMap实现LRU
+    private final Map<String, MemoryEntry> memory;
+    //统计计数
+    private long memoryHits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long memoryEvictions = 0;
+
+    private static final class MemoryEntry {
+        final IdentifyResult result;
+        final long storedAt;
+
+        MemoryEntry(IdentifyResult result, long storedAt) {
+            this.result = result;
+            this.storedAt = storedAt;
+        }
+    }
+
+    public ResultCache(File directory) {
+        this(directory, DEFAULT_MEMORY_ENTRIES, DEFAULT_DISK_BYTES, DEFAULT_TTL_MS);
+    }
+
+    //磁盘内容用cipher加密
+    public ResultCache(File directory, RecordCipher cipher) {
+        this(directory, DEFAULT_MEMORY_ENTRIES, DEFAULT_DISK_BYTES, DEFAULT_TTL_MS, cipher, System::currentTimeMillis);
+    }
+
+    public ResultCache(File directory, int memoryEntries, long diskBytes, long ttlMs) {
+        this(directory, memoryEntries, diskBytes, ttlMs, null, System::currentTimeMillis);
+    }
+
+    ResultCache(File directory, int memoryEntries, long diskBytes, long ttlMs, LongSupplier clock) {
+        this(directory, memoryEntries, diskBytes, ttlMs, null, clock);
+    }
+
+    ResultCache(File directory, int memoryEntries, long diskBytes, long ttlMs, RecordCipher cipher, LongSupplier clock) {
+        this.memoryEntries = memoryEntries;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.diskStore = directory != null ? new DiskResultStore(directory, diskBytes, ttlMs, cipher) : null;
+        this.memory = new LinkedHashMap<String, MemoryEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+                if (size() > ResultCache.this.memoryEntries) {
+                    memoryEvictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    //先查内存再查磁盘，磁盘命中时回填内存
+    public IdentifyResult get(String key) {
+        long now = clock.getAsLong();
+        synchronized (this) {
+            MemoryEntry entry = memory.get(key);
+            if (entry != null) {
+                if (now - entry.storedAt <= ttlMs) {
+                    memoryHits++;
+                    return entry.result;
+                }
+                memory.remove(key);
+            }
+        }
+        IdentifyResult fromDisk = diskStore != null ? diskStore.get(key, now) : null;
+        synchronized (this) {
+            if (fromDisk == null) {
+                misses++;
+                return null;
+            }
+            diskHits++;
+            memory.put(key, new MemoryEntry(fromDisk, now));
+            return fromDisk;
+        }
+    }
+
+    //只查内存且不计入统计，用于合并请求时复查刚写入的结果
+    synchronized IdentifyResult peekMemory(String key) {
+        MemoryEntry entry = memory.get(key);
+        return entry != null && clock.getAsLong() - entry.storedAt <= ttlMs ? entry.result : null;
+    }
+
+    //同时写入内存和磁盘
+    public void put(String key, IdentifyResult result) {
+        long now = clock.getAsLong();
+        synchronized (this) {
+            memory.put(key, new MemoryEntry(result, now));
+        }
+        if (diskStore != null) diskStore.put(key, result, now);
+    }
+
+    public void clear() {
+        synchronized (this) {
+            memory.clear();
+        }
+        if (diskStore != null) diskStore.clear();
+    }
+
+    //Getter方法
+    public synchronized long getMemoryHits() { return memoryHits; }
+    public synchronized long getDiskHits() { return diskHits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized int getMemorySize() { return memory.size(); }
+    public long getEvictions() {
+        long disk = diskStore != null ? diskStore.getEvictions() : 0;
+        synchronized (this) {
+            return memoryEvictions + disk;
+        }
+    }
+}
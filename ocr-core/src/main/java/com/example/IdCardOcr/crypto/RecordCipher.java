@@ -0,0 +1,69 @@
+package com.example.IdCardOcr.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import okio.ByteString;
+
+//本地持久化记录（识别历史、结果缓存、离线图片）的加密：AES-GCM，每条记录由Cipher生成随机IV，输出Base64(IV + 密文)
+//密钥由调用方提供，Android上来自AndroidKeyStore，密钥材料不出安全硬件
+public final class RecordCipher {
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+
+    public RecordCipher(SecretKey key) { this.key = key; }
+
+    //内存中随机生成的密钥，进程结束后密文不可再读；用于测试和无法使用系统密钥库时
+    public static RecordCipher withEphemeralKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256, new SecureRandom());
+            return new RecordCipher(generator.generateKey());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES不可用", e);
+        }
+    }
+
+    //加密一条记录，结果为单行文本
+    public String seal(String plaintext) throws GeneralSecurityException {
+        return ByteString.of(seal(plaintext.getBytes(StandardCharsets.UTF_8))).base64();
+    }
+
+    //解密seal的输出，格式错误或被篡改时抛出GeneralSecurityException
+    public String open(String sealed) throws GeneralSecurityException {
+        ByteString decoded = ByteString.decodeBase64(sealed);
+        if (decoded == null) throw new GeneralSecurityException("密文格式错误");
+        return new String(open(decoded.toByteArray()), StandardCharsets.UTF_8);
+    }
+
+    //加密二进制内容（如离线图片），输出IV + 密文
+    public byte[] seal(byte[] plaintext) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        //不指定IV，由实现生成随机IV（AndroidKeyStore要求如此）
+        cipher.init(Cipher.ENCRYPT_MODE, key);
+        byte[] iv = cipher.getIV();
+        if (iv == null || iv.length != IV_BYTES) throw new GeneralSecurityException("IV长度异常");
+        byte[] body = cipher.doFinal(plaintext);
+        byte[] sealed = new byte[IV_BYTES + body.length];
+        System.arraycopy(iv, 0, sealed, 0, IV_BYTES);
+        System.arraycopy(body, 0, sealed, IV_BYTES, body.length);
+        return sealed;
+    }
+
+    //解密seal(byte[])的输出
+    public byte[] open(byte[] sealed) throws GeneralSecurityException {
+        if (sealed.length <= IV_BYTES) throw new GeneralSecurityException("密文格式错误");
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_BYTES));
+        return cipher.doFinal(sealed, IV_BYTES, sealed.length - IV_BYTES);
+    }
+}
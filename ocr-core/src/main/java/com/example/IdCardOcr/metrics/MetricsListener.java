@@ -0,0 +1,9 @@
+package com.example.IdCardOcr.metrics;
+
+//指标监听器：每记录一个阶段耗时回调一次，在记录线程同步调用，实现需轻量
+public interface MetricsListener {
+    void onStageRecorded(Stage stage, long durationNanos, long bytes);
+
+    //请求获取到连接时回调，reused表示复用了连接池中的已有连接
+    default void onConnectionAcquired(boolean reused) { }
+}
@@ -0,0 +1,103 @@
+package com.example.IdCardOcr.metrics;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+//OkHttp事件监听器：把DNS、连接、TLS、上传、服务端处理和下载耗时记录到ScanMetrics，每个调用一个实例
+public class OcrEventListener extends EventListener {
+    private final ScanMetrics metrics;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestStart;
+    private long requestBodyEnd;
+    private long responseStart;
+    private long requestBytes;
+    private boolean connectStarted;
+
+    //为每个Call创建独立的监听器；HEAD请求只用于连接预热，不计入指标
+    public static EventListener.Factory factory(final ScanMetrics metrics) {
+        return call -> "HEAD".equals(call.request().method()) ? EventListener.NONE : new OcrEventListener(metrics);
+    }
+
+    public OcrEventListener(ScanMetrics metrics) { this.metrics = metrics; }
+
+    @Override
+    public void callStart(Call call) { callStart = System.nanoTime(); }
+
+    @Override
+    public void dnsStart(Call call, String domainName) { dnsStart = System.nanoTime(); }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        metrics.recordSince(Stage.DNS, dnsStart, 0);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+        connectStarted = true;
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        //本次调用没有新建连接即为复用
+        metrics.recordConnection(!connectStarted);
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStart = System.nanoTime();
+        //TCP连接耗时不含TLS握手
+        metrics.record(Stage.CONNECT, secureConnectStart - connectStart, 0);
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        metrics.recordSince(Stage.TLS, secureConnectStart, 0);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        //明文连接没有TLS阶段，在此记录TCP连接耗时
+        if (secureConnectStart == 0) metrics.recordSince(Stage.CONNECT, connectStart, 0);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) { requestStart = System.nanoTime(); }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestBodyEnd = System.nanoTime();
+        requestBytes = byteCount;
+        metrics.record(Stage.UPLOAD, requestBodyEnd - requestStart, byteCount);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        responseStart = System.nanoTime();
+        //请求体发送完成到响应头到达之间为服务端处理时间
+        if (requestBodyEnd != 0) metrics.record(Stage.SERVER, responseStart - requestBodyEnd, 0);
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        metrics.recordSince(Stage.DOWNLOAD, responseStart, byteCount);
+    }
+
+    @Override
+    public void callEnd(Call call) { metrics.recordSince(Stage.CALL, callStart, requestBytes); }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) { metrics.recordSince(Stage.CALL, callStart, requestBytes); }
+}
@@ -0,0 +1,79 @@
+package com.example.IdCardOcr.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+//扫描流水线指标：按阶段汇总耗时直方图和字节数，支持注册监听器导出
+public class ScanMetrics {
+    private static final ScanMetrics INSTANCE = new ScanMetrics();
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean enabled = true;
+    //连接复用统计
+    private final AtomicLong reusedConnections = new AtomicLong();
+    private final AtomicLong newConnections = new AtomicLong();
+
+    //全局实例，各阶段共用
+    public static ScanMetrics getInstance() { return INSTANCE; }
+
+    public ScanMetrics() {
+        for (Stage stage : Stage.values()) histograms.put(stage, new LatencyHistogram());
+    }
+
+    //记录阶段耗时，关闭时直接返回
+    public void record(Stage stage, long durationNanos, long bytes) {
+        if (!enabled) return;
+        histograms.get(stage).record(durationNanos, bytes);
+        for (MetricsListener listener : listeners) listener.onStageRecorded(stage, durationNanos, bytes);
+    }
+
+    //从startNanos计时到现在
+    public void recordSince(Stage stage, long startNanos, long bytes) {
+        record(stage, System.nanoTime() - startNanos, bytes);
+    }
+
+    //记录请求是否复用了已建立的连接
+    public void recordConnection(boolean reused) {
+        if (!enabled) return;
+        (reused ? reusedConnections : newConnections).incrementAndGet();
+        for (MetricsListener listener : listeners) listener.onConnectionAcquired(reused);
+    }
+
+    public long getReusedConnections() { return reusedConnections.get(); }
+    public long getNewConnections() { return newConnections.get(); }
+
+    public void addListener(MetricsListener listener) { listeners.add(listener); }
+    public void removeListener(MetricsListener listener) { listeners.remove(listener); }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public boolean isEnabled() { return enabled; }
+
+    public StageSnapshot snapshot(Stage stage) { return new StageSnapshot(stage, histograms.get(stage)); }
+
+    //所有有数据的阶段快照
+    public List<StageSnapshot> snapshot() {
+        List<StageSnapshot> result = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            if (histograms.get(stage).getCount() > 0) result.add(snapshot(stage));
+        }
+        return result;
+    }
+
+    //多行文本摘要，便于日志输出
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (StageSnapshot s : snapshot()) builder.append(s).append('\n');
+        builder.append("connections reused=").append(reusedConnections.get()).append(" new=").append(newConnections.get()).append('\n');
+        return builder.toString();
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) histogram.reset();
+        reusedConnections.set(0);
+        newConnections.set(0);
+    }
+}
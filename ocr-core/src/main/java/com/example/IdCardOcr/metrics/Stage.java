@@ -0,0 +1,31 @@
+package com.example.IdCardOcr.metrics;
+
+//识别流水线的计时阶段
+public enum Stage {
+    //图片解码、缩放和方向校正
+    DECODE,
+    //证件定位和透视裁剪
+    CARD_DETECT,
+    //图片质量检查（清晰度、曝光、反光）
+    QUALITY_CHECK,
+    //JPEG压缩（含自适应质量搜索）
+    JPEG_ENCODE,
+    //请求体Base64编码并计算SHA-256
+    BODY_HASH,
+    //TC3签名
+    SIGN,
+    //客户端限流排队
+    RATE_LIMIT_WAIT,
+    //以下为OkHttp EventListener上报的网络阶段
+    DNS,
+    CONNECT,
+    TLS,
+    UPLOAD,
+    SERVER,
+    DOWNLOAD,
+    CALL,
+    //响应JSON解析
+    PARSE,
+    //从发起识别到回调的总耗时（含重试）
+    TOTAL
+}
@@ -0,0 +1,42 @@
+package com.example.IdCardOcr.metrics;
+
+import java.util.Locale;
+
+//单个阶段的统计快照，耗时单位毫秒
+public class StageSnapshot {
+    private final Stage stage;
+    private final long count;
+    private final double meanMs;
+    private final double p50Ms;
+    private final double p95Ms;
+    private final double p99Ms;
+    private final double maxMs;
+    private final long totalBytes;
+
+    StageSnapshot(Stage stage, LatencyHistogram histogram) {
+        this.stage = stage;
+        this.count = histogram.getCount();
+        this.meanMs = histogram.getMeanMicros() / 1000.0;
+        this.p50Ms = histogram.percentileMicros(50) / 1000.0;
+        this.p95Ms = histogram.percentileMicros(95) / 1000.0;
+        this.p99Ms = histogram.percentileMicros(99) / 1000.0;
+        this.maxMs = histogram.getMaxMicros() / 1000.0;
+        this.totalBytes = histogram.getTotalBytes();
+    }
+
+    //Getter方法
+    public Stage getStage() { return stage; }
+    public long getCount() { return count; }
+    public double getMeanMs() { return meanMs; }
+    public double getP50Ms() { return p50Ms; }
+    public double getP95Ms() { return p95Ms; }
+    public double getP99Ms() { return p99Ms; }
+    public double getMaxMs() { return maxMs; }
+    public long getTotalBytes() { return totalBytes; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s n=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms bytes=%d",
+                stage, count, p50Ms, p95Ms, p99Ms, maxMs, totalBytes);
+    }
+}
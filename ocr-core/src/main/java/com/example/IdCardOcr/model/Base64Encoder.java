@@ -0,0 +1,109 @@
+package com.example.IdCardOcr.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+//查表式Base64编码器：每步将3字节转换为4个字符，直接写入调用方提供的缓冲区
+public final class Base64Encoder {
+    //标准Base64字符表（ASCII字节）
+    private static final byte[] ENCODE_TABLE = {
+            'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M',
+            'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z',
+            'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm',
+            'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z',
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '/'};
+    private static final byte PAD = '=';
+
+    private Base64Encoder() { }
+
+    //计算编码后的字节长度（含填充）
+    public static int encodedLength(int srcLength) {
+        if (srcLength < 0) throw new IllegalArgumentException("srcLength < 0");
+        long len = 4L * ((srcLength + 2L) / 3);
+        if (len > Integer.MAX_VALUE) throw new IllegalArgumentException("输入过大: " + srcLength);
+        return (int) len;
+    }
+
+    //编码为字符串，仅分配一次输出缓冲区
+    public static String encodeToString(byte[] src) {
+        byte[] dst = new byte[encodedLength(src.length)];
+        int written = encode(src, 0, src.length, dst, 0);
+        return new String(dst, 0, written, StandardCharsets.US_ASCII);
+    }
+
+    //编码到调用方提供的数组，返回写入的字节数
+    public static int encode(byte[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        if (srcOff < 0 || len < 0 || srcOff + len > src.length) {
+            throw new IndexOutOfBoundsException("src范围越界: off=" + srcOff + ", len=" + len);
+        }
+        int required = encodedLength(len);
+        if (dstOff < 0 || dst.length - dstOff < required) {
+            throw new IllegalArgumentException("输出缓冲区不足: 需要" + required + "字节");
+        }
+        int fullEnd = srcOff + len - len % 3;
+        int dp = encodeBlocks(src, srcOff, fullEnd, dst, dstOff);
+        return dp - dstOff + encodeTail(src, fullEnd, srcOff + len - fullEnd, dst, dp);
+    }
+
+    //从src的剩余字节编码到dst，两者position均前移，返回写入的字节数
+    public static int encode(ByteBuffer src, ByteBuffer dst) {
+        int len = src.remaining();
+        int required = encodedLength(len);
+        if (dst.remaining() < required) {
+            throw new IllegalArgumentException("输出缓冲区不足: 需要" + required + "字节");
+        }
+        if (src.hasArray() && dst.hasArray()) {
+            int written = encode(src.array(), src.arrayOffset() + src.position(), len,
+                    dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + written);
+            return written;
+        }
+        //直接缓冲区逐块处理
+        while (src.remaining() >= 3) {
+            int bits = (src.get() & 0xFF) << 16 | (src.get() & 0xFF) << 8 | (src.get() & 0xFF);
+            dst.put(ENCODE_TABLE[bits >>> 18]);
+            dst.put(ENCODE_TABLE[(bits >>> 12) & 0x3F]);
+            dst.put(ENCODE_TABLE[(bits >>> 6) & 0x3F]);
+            dst.put(ENCODE_TABLE[bits & 0x3F]);
+        }
+        int rest = src.remaining();
+        if (rest > 0) {
+            byte[] tail = new byte[4];
+            byte[] in = new byte[rest];
+            src.get(in);
+            encodeTail(in, 0, rest, tail, 0);
+            dst.put(tail);
+        }
+        return required;
+    }
+
+    //编码[from, to)范围内的完整3字节组，返回下一个写入位置
+    static int encodeBlocks(byte[] src, int from, int to, byte[] dst, int dp) {
+        for (int sp = from; sp < to; sp += 3) {
+            int bits = (src[sp] & 0xFF) << 16 | (src[sp + 1] & 0xFF) << 8 | (src[sp + 2] & 0xFF);
+            dst[dp++] = ENCODE_TABLE[bits >>> 18];
+            dst[dp++] = ENCODE_TABLE[(bits >>> 12) & 0x3F];
+            dst[dp++] = ENCODE_TABLE[(bits >>> 6) & 0x3F];
+            dst[dp++] = ENCODE_TABLE[bits & 0x3F];
+        }
+        return dp;
+    }
+
+    //编码末尾不足3字节的部分并补齐'='，返回写入的字节数
+    static int encodeTail(byte[] src, int sp, int rest, byte[] dst, int dp) {
+        if (rest == 0) return 0;
+        int b0 = src[sp] & 0xFF;
+        dst[dp] = ENCODE_TABLE[b0 >>> 2];
+        if (rest == 1) {
+            dst[dp + 1] = ENCODE_TABLE[(b0 << 4) & 0x3F];
+            dst[dp + 2] = PAD;
+        } else {
+            int b1 = src[sp + 1] & 0xFF;
+            dst[dp + 1] = ENCODE_TABLE[(b0 << 4 | b1 >>> 4) & 0x3F];
+            dst[dp + 2] = ENCODE_TABLE[(b1 << 2) & 0x3F];
+        }
+        dst[dp + 3] = PAD;
+        return 4;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.IdCardOcr.model;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+//流式Base64编码输出流：写入原始字节，向下游输出Base64字符
+public class Base64OutputStream extends FilterOutputStream {
+    //默认输出缓冲区大小（必须为4的倍数）
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    //复用的输出缓冲区
+    private final byte[] outBuffer;
+    //上次写入剩余的不足3字节
+    private final byte[] pending = new byte[3];
+    private int pendingCount = 0;
+    private boolean finished = false;
+
+    public Base64OutputStream(OutputStream out) { this(out, DEFAULT_BUFFER_SIZE); }
+
+    public Base64OutputStream(OutputStream out, int bufferSize) {
+        super(out);
+        if (bufferSize < 4) throw new IllegalArgumentException("bufferSize < 4");
+        this.outBuffer = new byte[bufferSize - bufferSize % 4];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        pending[pendingCount++] = (byte) b;
+        if (pendingCount == 3) {
+            int dp = Base64Encoder.encodeBlocks(pending, 0, 3, outBuffer, 0);
+            out.write(outBuffer, 0, dp);
+            pendingCount = 0;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off + len > b.length) throw new IndexOutOfBoundsException();
+        //先补齐上次剩余的字节
+        while (pendingCount != 0 && len > 0) {
+            write(b[off++]);
+            len--;
+        }
+        //整块编码，每次最多填满输出缓冲区
+        int maxChunk = outBuffer.length / 4 * 3;
+        while (len >= 3) {
+            int chunk = Math.min(len - len % 3, maxChunk);
+            int dp = Base64Encoder.encodeBlocks(b, off, off + chunk, outBuffer, 0);
+            out.write(outBuffer, 0, dp);
+            off += chunk;
+            len -= chunk;
+        }
+        //保存剩余字节
+        while (len-- > 0) pending[pendingCount++] = b[off++];
+    }
+
+    //输出末尾填充但不关闭下游流，便于继续写入后续内容
+    public void finish() throws IOException {
+        if (finished) return;
+        int n = Base64Encoder.encodeTail(pending, 0, pendingCount, outBuffer, 0);
+        if (n > 0) out.write(outBuffer, 0, n);
+        pendingCount = 0;
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            super.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) throw new IOException("Base64OutputStream已结束");
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.IdCardOcr.model;
+
+//Base64编码工具类
+public class Base64Util {
+    //Base64编码方法，委托给查表式编码器（每步3字节转4字符）
+    public static String encode(byte[] from) {
+        return Base64Encoder.encodeToString(from);
+    }
+}
@@ -20,6 +20,11 @@ public class IdentifyResult implements Serializable {
     private String address;
     @SerializedName("IdNum")
     private String id;
+    //国徽面字段
+    @SerializedName("Authority")
+    private String authority;
+    @SerializedName("ValidDate")
+    private String validDate;
 
     //Getter和Setter方法
     public int getErrorcode() { return errorcode; }
@@ -38,4 +43,8 @@ public class IdentifyResult implements Serializable {
     public void setAddress(String address) { this.address = address; }
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
+    public String getAuthority() { return authority; }
+    public void setAuthority(String authority) { this.authority = authority; }
+    public String getValidDate() { return validDate; }
+    public void setValidDate(String validDate) { this.validDate = validDate; }
 }
@@ -0,0 +1,79 @@
+package com.example.IdCardOcr.network;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import okhttp3.Dns;
+
+//带TTL的DNS缓存：有效期内直接返回缓存地址，过期后重新解析，解析失败时退回过期地址
+public class CachingDns implements Dns {
+    public static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Dns delegate;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+
+    //缓存条目
+    private static final class Entry {
+        final List<InetAddress> addresses;
+        final long expiresAt;
+
+        Entry(List<InetAddress> addresses, long expiresAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public CachingDns() { this(Dns.SYSTEM, DEFAULT_TTL_MS); }
+
+    public CachingDns(Dns delegate, long ttlMs) { this(delegate, ttlMs, System::currentTimeMillis); }
+
+    CachingDns(Dns delegate, long ttlMs, LongSupplier clock) {
+        if (ttlMs <= 0) throw new IllegalArgumentException("ttlMs必须大于0");
+        this.delegate = delegate;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        Entry entry = cache.get(hostname);
+        long now = clock.getAsLong();
+        if (entry != null && now < entry.expiresAt) {
+            hits.incrementAndGet();
+            return entry.addresses;
+        }
+        misses.incrementAndGet();
+        try {
+            List<InetAddress> addresses = delegate.lookup(hostname);
+            cache.put(hostname, new Entry(addresses, now + ttlMs));
+            return addresses;
+        } catch (UnknownHostException e) {
+            //网络抖动时使用过期地址，连接失败再由重试处理
+            if (entry == null) throw e;
+            staleServed.incrementAndGet();
+            return entry.addresses;
+        }
+    }
+
+    //清除缓存，网络切换时调用
+    public void clear() { cache.clear(); }
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+
+    //统计摘要，便于日志输出
+    public String getStats() {
+        return "hits=" + hits.get() + ", misses=" + misses.get() + ", stale=" + staleServed.get() + ", hosts=" + cache.size();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.IdCardOcr.network;
+
+//身份证面：人像面/国徽面，取值与腾讯云CardSide参数一致
+public enum CardSide {
+    FRONT,
+    BACK
+}
@@ -0,0 +1,84 @@
+package com.example.IdCardOcr.network;
+
+import java.util.function.LongSupplier;
+
+//熔断器：连续失败达到阈值后打开，冷却期内快速失败，之后放行一个探测请求
+//探测请求必须以onSuccess/onFailure/onProbeAbandoned之一结束；超过openMs仍未结束的探测视为丢失，重新放行
+public class CircuitBreaker {
+    //熔断器状态
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    //准入结果：PROBE表示占用了半开状态唯一的探测名额，结束时必须归还
+    public enum Admission { REJECTED, ALLOWED, PROBE }
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MS = 30_000;
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+    private long probeStartedAt = 0;
+    private long rejected = 0;
+
+    public CircuitBreaker() { this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MS); }
+
+    public CircuitBreaker(int failureThreshold, long openMs) {
+        this(failureThreshold, openMs, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMs, LongSupplier clock) {
+        if (failureThreshold < 1) throw new IllegalArgumentException("failureThreshold必须至少为1");
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clock = clock;
+    }
+
+    //是否允许发送请求；半开状态只放行一个探测请求
+    public boolean allowRequest() { return admit() != Admission.REJECTED; }
+
+    //同allowRequest，返回值区分是否占用了探测名额
+    public synchronized Admission admit() {
+        long now = clock.getAsLong();
+        if (state == State.OPEN && now - openedAt >= openMs) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.CLOSED) return Admission.ALLOWED;
+        if (state == State.HALF_OPEN && (!probeInFlight || now - probeStartedAt >= openMs)) {
+            probeInFlight = true;
+            probeStartedAt = now;
+            return Admission.PROBE;
+        }
+        rejected++;
+        return Admission.REJECTED;
+    }
+
+    //请求成功或失败原因与服务端健康无关
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    //服务端故障或网络异常
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    //探测请求未得到能反映服务端健康的结果（被限流、被取消、本地失败）：归还名额，状态不变
+    public synchronized void onProbeAbandoned() {
+        if (state == State.HALF_OPEN) probeInFlight = false;
+    }
+
+    public synchronized State getState() { return state; }
+    public synchronized long getRejectedCount() { return rejected; }
+}
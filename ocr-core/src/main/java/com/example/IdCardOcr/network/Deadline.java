@@ -0,0 +1,35 @@
+package com.example.IdCardOcr.network;
+
+import java.util.concurrent.TimeUnit;
+
+//识别截止时间：基于System.nanoTime的绝对时刻，贯穿预处理、签名、限流排队、重试和网络
+public final class Deadline {
+    //不限时
+    public static final Deadline NONE = new Deadline(0, false);
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private Deadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    //从现在起timeoutMs毫秒后到期
+    public static Deadline after(long timeoutMs) {
+        if (timeoutMs < 0) throw new IllegalArgumentException("timeoutMs不能为负数");
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs), true);
+    }
+
+    public boolean isBounded() { return bounded; }
+
+    //剩余时间，不限时为Long.MAX_VALUE，已到期时不大于0
+    public long remainingNanos() { return bounded ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE; }
+
+    public boolean isExpired() { return bounded && remainingNanos() <= 0; }
+
+    @Override
+    public String toString() {
+        return bounded ? "Deadline(" + TimeUnit.NANOSECONDS.toMillis(remainingNanos()) + "ms)" : "Deadline(none)";
+    }
+}
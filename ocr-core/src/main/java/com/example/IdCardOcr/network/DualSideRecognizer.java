@@ -0,0 +1,100 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+
+//正反面并行识别：两面各自提交，结果合并为一个IdentifyResult，总耗时接近较慢一面而非两面之和
+//部分失败语义：两面都成功回调onSuccess；只有一面成功回调onPartialSuccess，结果只含成功面的字段；两面都失败回调onFailure
+public class DualSideRecognizer {
+    //正反面识别回调，在最后完成的一面所在线程回调且只回调一次
+    public interface Callback {
+        void onSuccess(IdentifyResult merged);
+        void onPartialSuccess(IdentifyResult merged, CardSide failedSide, String error);
+        void onFailure(String frontError, String backError);
+    }
+
+    private final IdCardRecognizer recognizer;
+
+    public DualSideRecognizer(IdCardRecognizer recognizer) { this.recognizer = recognizer; }
+
+    //两面JPEG都已就绪时同时提交
+    public Session recognize(byte[] frontJpeg, byte[] backJpeg, Callback callback) {
+        Session session = start(callback);
+        session.submit(CardSide.FRONT, frontJpeg);
+        session.submit(CardSide.BACK, backJpeg);
+        return session;
+    }
+
+    //开始一次识别，各面预处理完成后分别调用submit，先就绪的一面先上传
+    public Session start(Callback callback) { return new Session(callback); }
+
+    //一次正反面识别
+    public final class Session {
+        private final Callback callback;
+        private final IdentifyResult[] results = new IdentifyResult[2];
+        private final String[] errors = new String[2];
+        private final boolean[] completed = new boolean[2];
+        private boolean delivered = false;
+
+        private Session(Callback callback) { this.callback = callback; }
+
+        //提交一面的JPEG进行识别
+        public void submit(final CardSide side, byte[] jpegBytes) {
+            recognizer.recognizeIdCard(jpegBytes, side, new OcrApiClient.Callback() {
+                @Override
+                public void onSuccess(IdentifyResult result) { complete(side, result, null); }
+                @Override
+                public void onFailure(String error) { complete(side, null, error); }
+            });
+        }
+
+        //某一面在提交前失败（如图片处理失败）
+        public void fail(CardSide side, String error) { complete(side, null, error); }
+
+        //记录一面的结果，两面都完成后在锁外回调，同一面重复完成时忽略
+        private void complete(CardSide side, IdentifyResult result, String error) {
+            int i = side.ordinal();
+            synchronized (this) {
+                if (completed[i] || delivered) return;
+                completed[i] = true;
+                results[i] = result;
+                errors[i] = error;
+                if (!completed[0] || !completed[1]) return;
+                delivered = true;
+            }
+            deliver();
+        }
+
+        private void deliver() {
+            IdentifyResult front = results[CardSide.FRONT.ordinal()];
+            IdentifyResult back = results[CardSide.BACK.ordinal()];
+            if (callback == null) return;
+            if (front == null && back == null) {
+                callback.onFailure(errors[CardSide.FRONT.ordinal()], errors[CardSide.BACK.ordinal()]);
+            } else if (front == null) {
+                callback.onPartialSuccess(merge(null, back), CardSide.FRONT, errors[CardSide.FRONT.ordinal()]);
+            } else if (back == null) {
+                callback.onPartialSuccess(merge(front, null), CardSide.BACK, errors[CardSide.BACK.ordinal()]);
+            } else {
+                callback.onSuccess(merge(front, back));
+            }
+        }
+    }
+
+    //合并结果：人像面提供姓名等字段，国徽面提供签发机关和有效期限，任一面可为null
+    static IdentifyResult merge(IdentifyResult front, IdentifyResult back) {
+        IdentifyResult merged = new IdentifyResult();
+        if (front != null) {
+            merged.setName(front.getName());
+            merged.setSex(front.getSex());
+            merged.setNation(front.getNation());
+            merged.setBirth(front.getBirth());
+            merged.setAddress(front.getAddress());
+            merged.setId(front.getId());
+        }
+        if (back != null) {
+            merged.setAuthority(back.getAuthority());
+            merged.setValidDate(back.getValidDate());
+        }
+        return merged;
+    }
+}
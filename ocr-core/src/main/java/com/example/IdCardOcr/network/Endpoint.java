@@ -0,0 +1,79 @@
+package com.example.IdCardOcr.network;
+
+import java.util.Locale;
+
+//OCR服务接入点：地域、域名、请求地址和与域名绑定的签名器，并记录探测RTT和错误率
+public final class Endpoint {
+    //RTT指数加权平均系数
+    static final double EWMA_ALPHA = 0.3;
+    //错误率加权系数：连续失败由连续失败次数判定，错误率只用于识别时好时坏的接入点，
+    //取0.2时连续4次失败才超过阈值，不会比连续失败判定更早（0.3时2次失败即为0.51）
+    static final double ERROR_RATE_ALPHA = 0.2;
+    //错误率或连续失败次数超过阈值即视为不健康
+    static final double UNHEALTHY_ERROR_RATE = 0.5;
+    static final int UNHEALTHY_CONSECUTIVE_FAILURES = 3;
+
+    private final String region;
+    private final String host;
+    private final String url;
+    //签名中的host必须与请求的Host头一致，因此每个接入点持有自己的签名器
+    private final Tc3Signer signer;
+    //健康统计，rttMs小于0表示尚未测得
+    private double rttMs = -1;
+    private double errorRate;
+    private int consecutiveFailures;
+    private long successes;
+    private long failures;
+
+    //腾讯云地域接入点，域名形如ocr.ap-shanghai.tencentcloudapi.com
+    public Endpoint(String region, String host) {
+        this(region, host, "https://" + host);
+    }
+
+    //请求地址与签名域名分开指定，供测试连接本地模拟服务器
+    public Endpoint(String region, String host, String url) {
+        this.region = region;
+        this.host = host;
+        this.url = url;
+        this.signer = new Tc3Signer(host, SignHelper.getService());
+    }
+
+    //请求成功；rttMs为探测测得的往返时间，业务请求传-1只更新错误率
+    public synchronized void recordSuccess(double rttMs) {
+        successes++;
+        consecutiveFailures = 0;
+        errorRate = (1 - ERROR_RATE_ALPHA) * errorRate;
+        if (rttMs >= 0) this.rttMs = this.rttMs < 0 ? rttMs : EWMA_ALPHA * rttMs + (1 - EWMA_ALPHA) * this.rttMs;
+    }
+
+    //网络异常或服务端故障
+    public synchronized void recordFailure() {
+        failures++;
+        consecutiveFailures++;
+        errorRate = ERROR_RATE_ALPHA + (1 - ERROR_RATE_ALPHA) * errorRate;
+    }
+
+    public synchronized boolean isHealthy() {
+        return consecutiveFailures < UNHEALTHY_CONSECUTIVE_FAILURES && errorRate < UNHEALTHY_ERROR_RATE;
+    }
+
+    //Getter方法
+    public String getRegion() { return region; }
+    public String getHost() { return host; }
+    public String getUrl() { return url; }
+    public Tc3Signer getSigner() { return signer; }
+    public synchronized double getRttMs() { return rttMs; }
+    public synchronized double getErrorRate() { return errorRate; }
+    public synchronized int getConsecutiveFailures() { return consecutiveFailures; }
+    public synchronized long getSuccessCount() { return successes; }
+    public synchronized long getFailureCount() { return failures; }
+
+    //统计摘要，便于日志输出
+    public synchronized String describe() {
+        return String.format(Locale.US, "%s(rtt=%.0fms, errorRate=%.2f, ok=%d, fail=%d%s)", region, rttMs, errorRate,
+                successes, failures, isHealthy() ? "" : ", unhealthy");
+    }
+
+    @Override
+    public String toString() { return region + "@" + host; }
+}
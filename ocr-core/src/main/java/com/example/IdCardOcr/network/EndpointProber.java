@@ -0,0 +1,76 @@
+package com.example.IdCardOcr.network;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+//后台接入点探测：定期向每个接入点发HEAD请求，测量RTT和可用性供EndpointSelector选路
+public class EndpointProber {
+    //默认探测间隔
+    public static final long DEFAULT_INTERVAL_MS = 60_000;
+
+    private final OkHttpClient httpClient;
+    private final EndpointSelector selector;
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> task;
+
+    public EndpointProber(OkHttpClient httpClient, EndpointSelector selector, ScheduledExecutorService scheduler) {
+        this.httpClient = httpClient;
+        this.selector = selector;
+        this.scheduler = scheduler;
+    }
+
+    //立即探测一轮，之后按间隔周期探测；重复调用无效
+    public synchronized void start(long intervalMs) {
+        if (task != null) return;
+        task = scheduler.scheduleWithFixedDelay(() -> probeAll(null), 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    //探测全部接入点，全部返回后回调onComplete并按新数据重新选路
+    public void probeAll(final Runnable onComplete) {
+        List<Endpoint> endpoints = selector.getEndpoints();
+        final AtomicInteger remaining = new AtomicInteger(endpoints.size());
+        for (final Endpoint endpoint : endpoints) {
+            //HEAD请求只测量往返时间，不经过限流和签名；连接复用后测得的接近纯网络RTT
+            Request request = new Request.Builder().url(endpoint.getUrl()).head().build();
+            final long start = System.nanoTime();
+            httpClient.newCall(request).enqueue(new okhttp3.Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    OcrLog.w("OCR_ENDPOINT", "探测失败 " + endpoint + ": " + e.getMessage());
+                    endpoint.recordFailure();
+                    done();
+                }
+                @Override
+                public void onResponse(Call call, Response response) {
+                    double rttMs = (System.nanoTime() - start) / 1e6;
+                    //任何非5xx响应都说明接入点可达
+                    if (response.code() >= 500) endpoint.recordFailure(); else endpoint.recordSuccess(rttMs);
+                    response.close();
+                    done();
+                }
+                private void done() {
+                    if (remaining.decrementAndGet() != 0) return;
+                    selector.select();
+                    OcrLog.d("OCR_ENDPOINT", selector.getStats());
+                    if (onComplete != null) onComplete.run();
+                }
+            });
+        }
+    }
+}
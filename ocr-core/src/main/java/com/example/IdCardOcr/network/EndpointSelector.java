@@ -0,0 +1,99 @@
+package com.example.IdCardOcr.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+//接入点选择器：在健康的接入点中选RTT最低的一个，当前接入点变差时自动切换
+public class EndpointSelector {
+    //新接入点的RTT需低于当前的80%才切换，避免RTT抖动导致来回切换
+    static final double SWITCH_RATIO = 0.8;
+    //腾讯云OCR常用地域
+    private static final String[][] TENCENT_REGIONS = {
+            {"ap-guangzhou", "ocr.ap-guangzhou.tencentcloudapi.com"},
+            {"ap-shanghai", "ocr.ap-shanghai.tencentcloudapi.com"},
+            {"ap-beijing", "ocr.ap-beijing.tencentcloudapi.com"},
+    };
+
+    private final List<Endpoint> endpoints;
+    private Endpoint current;
+    private long switches;
+
+    //第一个接入点为初始首选
+    public EndpointSelector(List<Endpoint> endpoints) {
+        if (endpoints.isEmpty()) throw new IllegalArgumentException("至少需要一个接入点");
+        this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+        this.current = endpoints.get(0);
+    }
+
+    public EndpointSelector(Endpoint... endpoints) { this(Arrays.asList(endpoints)); }
+
+    //广州、上海、北京三个地域，广州为初始首选
+    public static EndpointSelector tencentDefault() {
+        List<Endpoint> list = new ArrayList<>();
+        for (String[] region : TENCENT_REGIONS) list.add(new Endpoint(region[0], region[1]));
+        return new EndpointSelector(list);
+    }
+
+    //为下一次请求选择接入点
+    public Endpoint select() { return select(Collections.emptySet()); }
+
+    //排除本次识别已失败或已有请求在途的接入点（重试和对冲发往其他地域），全部排除时退回全集
+    public synchronized Endpoint select(Set<Endpoint> exclude) {
+        Endpoint best = null;
+        for (Endpoint e : endpoints) {
+            if (exclude.contains(e)) continue;
+            if (best == null || isBetter(e, best)) best = e;
+        }
+        if (best == null) return select(Collections.emptySet());
+        if (!exclude.isEmpty()) {
+            //带排除条件的选择只影响本次请求，不改变首选
+            return best == current || exclude.contains(current) || shouldSwitch(best) ? best : current;
+        }
+        if (best != current && shouldSwitch(best)) {
+            OcrLog.i("OCR_ENDPOINT", "切换接入点: " + current.describe() + " -> " + best.describe());
+            current = best;
+            switches++;
+        }
+        return current;
+    }
+
+    //除exclude之外是否还有健康的接入点可以切换
+    public synchronized boolean hasHealthyEndpoint(Set<Endpoint> exclude) {
+        for (Endpoint e : endpoints) if (!exclude.contains(e) && e.isHealthy()) return true;
+        return false;
+    }
+
+    //当前接入点不健康、RTT未知，或候选明显更快时切换
+    private boolean shouldSwitch(Endpoint candidate) {
+        if (!current.isHealthy()) return candidate.isHealthy() || candidate.getErrorRate() < current.getErrorRate();
+        if (!candidate.isHealthy()) return false;
+        double candidateRtt = candidate.getRttMs(), currentRtt = current.getRttMs();
+        if (candidateRtt < 0) return false;
+        return currentRtt < 0 || candidateRtt < currentRtt * SWITCH_RATIO;
+    }
+
+    //健康优先，其次RTT（未测得的排在后面），都不健康时比较错误率
+    private static boolean isBetter(Endpoint a, Endpoint b) {
+        boolean healthyA = a.isHealthy(), healthyB = b.isHealthy();
+        if (healthyA != healthyB) return healthyA;
+        if (!healthyA) return a.getErrorRate() < b.getErrorRate();
+        double rttA = a.getRttMs(), rttB = b.getRttMs();
+        if (rttA < 0) return false;
+        return rttB < 0 || rttA < rttB;
+    }
+
+    //Getter方法
+    public List<Endpoint> getEndpoints() { return endpoints; }
+    public synchronized Endpoint getCurrent() { return current; }
+    public synchronized long getSwitchCount() { return switches; }
+
+    //各接入点统计摘要，便于日志输出
+    public synchronized String getStats() {
+        StringBuilder sb = new StringBuilder("current=").append(current.getRegion()).append(", switches=").append(switches);
+        for (Endpoint e : endpoints) sb.append(", ").append(e.describe());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.IdCardOcr.network;
+
+//错误分类：结合HTTP状态码和腾讯云错误码判断是否可重试
+public final class ErrorClassifier {
+    //错误类型
+    public enum Kind {
+        //服务端临时故障或网络异常，可重试，计入熔断统计
+        RETRYABLE,
+        //请求频率超限，可重试但需要更长的退避，不计入熔断
+        THROTTLED,
+        //参数、鉴权、图片内容等错误，重试无意义
+        FATAL
+    }
+
+    private ErrorClassifier() { }
+
+    //按HTTP状态码分类，非2xx时调用
+    public static Kind classifyHttpStatus(int code) {
+        if (code == 429) return Kind.THROTTLED;
+        if (code == 408 || code == 500 || code == 502 || code == 503 || code == 504) return Kind.RETRYABLE;
+        return Kind.FATAL;
+    }
+
+    //按腾讯云Response.Error.Code分类
+    public static Kind classifyTencentCode(String code) {
+        if (code == null) return Kind.FATAL;
+        if (matches(code, "RequestLimitExceeded")) return Kind.THROTTLED;
+        if (matches(code, "InternalError") || matches(code, "ResourceUnavailable")
+                || matches(code, "FailedOperation.UnKnowError") || matches(code, "FailedOperation.EngineRecognizeTimeout")
+                || matches(code, "FailedOperation.DownLoadError")) {
+            return Kind.RETRYABLE;
+        }
+        return Kind.FATAL;
+    }
+
+    //签名时间戳与服务器时间相差过大，按校准后的时间重新签名即可成功
+    public static boolean isClockSkew(String code) {
+        return code != null && matches(code, "AuthFailure.SignatureExpire");
+    }
+
+    //精确匹配或子错误码匹配，如InternalError.ServerConnectionFailed
+    private static boolean matches(String code, String prefix) {
+        return code.equals(prefix) || code.startsWith(prefix + ".");
+    }
+}
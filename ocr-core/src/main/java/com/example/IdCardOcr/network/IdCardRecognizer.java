@@ -0,0 +1,21 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+
+//身份证识别调用接口，OcrApiClient和其上的缓存、批量等层均实现此接口
+public interface IdCardRecognizer {
+    void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, OcrApiClient.Callback callback);
+
+    //Future形式的识别，超过deadline以TimeoutException结束；默认基于回调实现，取消只放弃结果，
+    //能真正中止请求的实现（OcrApiClient及其上的缓存、历史层）覆盖此方法
+    default OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, CardSide cardSide, Deadline deadline) {
+        OcrFuture<IdentifyResult> future = new OcrFuture<>();
+        recognizeIdCard(jpegBytes, cardSide, OcrFuture.completing(future));
+        return future.expireAt(deadline);
+    }
+
+    //调用方已算出JPEG字节的SHA-256十六进制串时传入，缓存、历史等按图片去重的层直接复用，不再逐层哈希整张图片
+    default OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, String jpegSha256, CardSide cardSide, Deadline deadline) {
+        return recognizeAsync(jpegBytes, cardSide, deadline);
+    }
+}
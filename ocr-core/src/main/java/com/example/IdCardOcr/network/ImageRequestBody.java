@@ -0,0 +1,110 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.model.Base64Encoder;
+import com.example.IdCardOcr.model.Base64OutputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+//流式OCR请求体：直接从JPEG字节或文件写出JSON信封和Base64图片，不在内存中生成完整JSON字符串
+public class ImageRequestBody extends RequestBody {
+    private static final MediaType MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
+    //读取块大小（3的倍数，保证块内编码无填充）
+    private static final int READ_CHUNK = 48 * 1024;
+    //图片来源：内存字节或文件，二者只有一个非空
+    private final byte[] imageBytes;
+    private final File imageFile;
+    private final long imageLength;
+    //JSON信封的前后缀
+    private final byte[] prefix;
+    private final byte[] suffix;
+    //请求体SHA-256（十六进制），首次签名时计算
+    private volatile String payloadHash;
+
+    private ImageRequestBody(byte[] imageBytes, File imageFile, long imageLength, String cardSide) {
+        this.imageBytes = imageBytes;
+        this.imageFile = imageFile;
+        this.imageLength = imageLength;
+        //字段顺序与原Gson序列化的RequestParams一致
+        this.prefix = "{\"ImageBase64\":\"".getBytes(StandardCharsets.UTF_8);
+        this.suffix = ("\",\"CardSide\":\"" + cardSide + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    //由内存中的JPEG字节构建，不复制数组
+    public static ImageRequestBody fromBytes(byte[] jpegBytes, String cardSide) {
+        if (jpegBytes == null || jpegBytes.length == 0) throw new IllegalArgumentException("图片数据为空");
+        return new ImageRequestBody(jpegBytes, null, jpegBytes.length, cardSide);
+    }
+
+    //由JPEG文件构建，写出时才读取文件内容
+    public static ImageRequestBody fromFile(File jpegFile, String cardSide) {
+        if (jpegFile == null || !jpegFile.isFile() || jpegFile.length() == 0) {
+            throw new IllegalArgumentException("图片文件无效: " + jpegFile);
+        }
+        return new ImageRequestBody(null, jpegFile, jpegFile.length(), cardSide);
+    }
+
+    @Override
+    public MediaType contentType() { return MEDIA_TYPE; }
+
+    @Override
+    public long contentLength() {
+        if (imageLength > Integer.MAX_VALUE) return -1;
+        return prefix.length + (long) Base64Encoder.encodedLength((int) imageLength) + suffix.length;
+    }
+
+    //OkHttp重试时可能多次调用，每次都从原始数据重新编码
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        writeJson(sink.outputStream());
+    }
+
+    //计算请求体的SHA-256，与writeTo写出的字节完全一致，结果缓存
+    public String sha256Hex() throws IOException {
+        String hash = payloadHash;
+        if (hash == null) {
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException("SHA-256不可用", e);
+            }
+            writeJson(new OutputStream() {
+                @Override
+                public void write(int b) { digest.update((byte) b); }
+                @Override
+                public void write(byte[] b, int off, int len) { digest.update(b, off, len); }
+            });
+            hash = SignHelper.bytesToHex(digest.digest());
+            payloadHash = hash;
+        }
+        return hash;
+    }
+
+    //写出完整JSON：前缀 + Base64图片 + 后缀，不关闭下游流
+    private void writeJson(OutputStream out) throws IOException {
+        out.write(prefix);
+        Base64OutputStream base64 = new Base64OutputStream(out);
+        if (imageBytes != null) {
+            base64.write(imageBytes, 0, imageBytes.length);
+        } else {
+            byte[] chunk = new byte[READ_CHUNK];
+            try (InputStream in = new FileInputStream(imageFile)) {
+                int n;
+                while ((n = in.read(chunk)) != -1) base64.write(chunk, 0, n);
+            }
+        }
+        base64.finish();
+        out.write(suffix);
+    }
+}
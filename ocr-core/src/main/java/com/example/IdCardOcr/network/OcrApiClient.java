@@ -0,0 +1,591 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.metrics.OcrEventListener;
+import com.example.IdCardOcr.metrics.ScanMetrics;
+import com.example.IdCardOcr.metrics.Stage;
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+//腾讯云OCR API客户端
+public class OcrApiClient implements IdCardRecognizer {
+    //API配置常量
+    private static final String ACTION = "IDCardOCR";
+    private static final String VERSION = "2018-11-19";
+    //单地址构造时使用的地域（原固定接入点）
+    private static final String REGION = "ap-guangzhou";
+    private static final String MEDIA_TYPE = "application/json; charset=utf-8";
+    private static final int TIMEOUT = 30;
+    //默认客户端限流：与账号QPS配额对应，超出时排队最多10秒
+    private static final double DEFAULT_PERMITS_PER_SECOND = 10;
+    private static final int DEFAULT_BURST = 10;
+    private static final long DEFAULT_MAX_QUEUE_WAIT_MS = 10_000;
+    //连接池保持空闲连接5分钟，HTTP/2每30秒ping保活并及时发现断开的连接
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final long PING_INTERVAL_SECONDS = 30;
+    //两次预热的最小间隔
+    private static final long WARM_UP_INTERVAL_MS = 10_000;
+    //HTTP客户端
+    private final OkHttpClient httpClient;
+    //多地域接入点选择与后台探测
+    private final EndpointSelector endpointSelector;
+    private final EndpointProber endpointProber;
+    //重试调度线程、重试策略和熔断器
+    private final ScheduledExecutorService scheduler;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    private volatile CircuitBreaker circuitBreaker = new CircuitBreaker();
+    //按Action划分的限流器，所有调用方共享
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    //分阶段耗时指标
+    private final ScanMetrics metrics;
+    //上次预热时间
+    private final AtomicLong lastWarmUp = new AtomicLong();
+    //调用方取消或超时而中止的识别次数
+    private final AtomicLong cancelled = new AtomicLong();
+    //按服务器Date头校准的签名时钟，以及因签名过期重新签名的次数
+    private final ServerClock serverClock;
+    private final AtomicLong clockSkewRetries = new AtomicLong();
+    //单例实例
+    private static OcrApiClient instance;
+
+    //双重检查锁获取单例
+    public static OcrApiClient getInstance() {
+        if (instance == null) {
+            synchronized (OcrApiClient.class) {
+                if (instance == null) instance = new OcrApiClient();
+            }
+        }
+        return instance;
+    }
+
+    //私有构造函数，配置OkHttp超时、连接池、保活和DNS缓存
+    private OcrApiClient() {
+        this(new OkHttpClient.Builder()
+                .connectTimeout(TIMEOUT, TimeUnit.SECONDS)
+                .readTimeout(TIMEOUT, TimeUnit.SECONDS)
+                .writeTimeout(TIMEOUT, TimeUnit.SECONDS)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .pingInterval(PING_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                .dns(new CachingDns())
+                .build(), EndpointSelector.tencentDefault(), ScanMetrics.getInstance());
+    }
+
+    //连接指定地址（本地模拟服务器、代理）的客户端，签名仍使用腾讯云域名；供基准测试和其他模块的测试使用
+    public static OcrApiClient forUrl(OkHttpClient httpClient, String url, ScanMetrics metrics) {
+        return new OcrApiClient(httpClient, url, metrics);
+    }
+
+    //指定HTTP客户端和地址，供测试连接本地模拟服务器
+    OcrApiClient(OkHttpClient httpClient, String url) {
+        this(httpClient, url, ScanMetrics.getInstance());
+    }
+
+    OcrApiClient(OkHttpClient httpClient, String url, ScanMetrics metrics) {
+        this(httpClient, new EndpointSelector(new Endpoint(REGION, SignHelper.getHost(), url)), metrics);
+    }
+
+    //网络阶段耗时通过EventListener采集，与传入客户端共享连接池和调度器
+    OcrApiClient(OkHttpClient httpClient, EndpointSelector endpointSelector, ScanMetrics metrics) {
+        this(httpClient, endpointSelector, metrics, new ServerClock());
+    }
+
+    OcrApiClient(OkHttpClient httpClient, EndpointSelector endpointSelector, ScanMetrics metrics, ServerClock serverClock) {
+        this.metrics = metrics;
+        this.serverClock = serverClock;
+        this.httpClient = httpClient.newBuilder().eventListenerFactory(OcrEventListener.factory(metrics)).build();
+        this.endpointSelector = endpointSelector;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ocr-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        this.endpointProber = new EndpointProber(this.httpClient, endpointSelector, scheduler);
+        setRateLimit(ACTION, DEFAULT_PERMITS_PER_SECOND, DEFAULT_BURST, DEFAULT_MAX_QUEUE_WAIT_MS);
+    }
+
+    //设置某个Action的客户端限流参数
+    public void setRateLimit(String action, double permitsPerSecond, int burst, long maxWaitMs) {
+        rateLimiters.put(action, new RateLimiter(permitsPerSecond, burst, maxWaitMs));
+    }
+
+    //获取身份证识别的限流器及统计
+    public RateLimiter getRateLimiter() { return rateLimiters.get(ACTION); }
+
+    //设置重试策略，对之后发起的请求生效
+    public void setRetryPolicy(RetryPolicy retryPolicy) { this.retryPolicy = retryPolicy; }
+    public RetryPolicy getRetryPolicy() { return retryPolicy; }
+    public CircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+    //替换熔断器，供测试使用较短的冷却期
+    void setCircuitBreaker(CircuitBreaker circuitBreaker) { this.circuitBreaker = circuitBreaker; }
+    public ScanMetrics getMetrics() { return metrics; }
+    public EndpointSelector getEndpointSelector() { return endpointSelector; }
+    public long getCancelledCount() { return cancelled.get(); }
+    public ServerClock getServerClock() { return serverClock; }
+    public long getClockSkewRetryCount() { return clockSkewRetries.get(); }
+
+    //开始后台探测各地域接入点，只有一个接入点时无需探测
+    public void startEndpointProbing() {
+        if (endpointSelector.getEndpoints().size() > 1) endpointProber.start(EndpointProber.DEFAULT_INTERVAL_MS);
+    }
+
+    public void stopEndpointProbing() { endpointProber.stop(); }
+
+    //预热连接：在用户取景或选图时提前完成DNS解析、TCP和TLS握手，首次识别直接复用连接；
+    //预热响应的Date头同时用于校准签名时钟，本机时间不准时首次上传即可签名正确
+    //连接池已有空闲连接或距上次预热不足10秒时跳过
+    public void warmUp() { warmUp(null); }
+
+    //预热完成（无论成功与否）后回调onComplete，返回是否实际发起了预热
+    boolean warmUp(final Runnable onComplete) {
+        long now = System.currentTimeMillis();
+        long last = lastWarmUp.get();
+        if (httpClient.connectionPool().idleConnectionCount() > 0 || now - last < WARM_UP_INTERVAL_MS
+                || !lastWarmUp.compareAndSet(last, now)) {
+            return false;
+        }
+        //HEAD请求只用于建立连接，响应内容不关心，不经过限流和签名
+        Request request = new Request.Builder().url(endpointSelector.select().getUrl()).head().build();
+        httpClient.newCall(request).enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                OcrLog.w("OCR_API", "连接预热失败: " + e.getMessage());
+                if (onComplete != null) onComplete.run();
+            }
+            @Override
+            public void onResponse(Call call, Response response) {
+                observeServerDate(response);
+                response.close();
+                if (onComplete != null) onComplete.run();
+            }
+        });
+        return true;
+    }
+
+    //DNS缓存统计，未使用CachingDns时返回null
+    public String getDnsStats() {
+        return httpClient.dns() instanceof CachingDns ? ((CachingDns) httpClient.dns()).getStats() : null;
+    }
+
+    //保证OkHttp调度器能容纳maxRequests个并发识别，避免批量上传在调度器内排队
+    //每个识别可能同时有一个对冲请求，按两倍预留；只调大不调小，批量并发由调用方自己的许可限制，
+    //不因此压低单次识别和对冲请求可用的每host并发
+    public void setMaxConcurrentRequests(int maxRequests) {
+        if (maxRequests <= 0) throw new IllegalArgumentException("maxRequests必须大于0");
+        Dispatcher dispatcher = httpClient.dispatcher();
+        int needed = maxRequests * 2;
+        dispatcher.setMaxRequests(Math.max(needed, dispatcher.getMaxRequests()));
+        dispatcher.setMaxRequestsPerHost(Math.max(needed, dispatcher.getMaxRequestsPerHost()));
+    }
+
+    //调度器当前的每host并发上限
+    int getMaxRequestsPerHost() { return httpClient.dispatcher().getMaxRequestsPerHost(); }
+
+    //OCR识别回调接口
+    public interface Callback {
+        void onSuccess(IdentifyResult result);
+        void onFailure(String error);
+
+        //带错误分类的失败回调，需要区分临时故障和永久错误（如离线队列）的调用方覆盖此方法
+        default void onFailure(String error, ErrorClassifier.Kind kind) { onFailure(error); }
+    }
+
+    //异步识别身份证人像面（Base64字符串输入）
+    public void recognizeIdCard(String imageBase64, Callback callback) {
+        recognizeIdCard(imageBase64, CardSide.FRONT, callback);
+    }
+
+    //异步识别身份证指定面（Base64字符串输入）
+    public void recognizeIdCard(String imageBase64, CardSide cardSide, Callback callback) {
+        try {
+            long start = System.nanoTime();
+            byte[] requestJson = buildRequestBody(imageBase64, cardSide).getBytes(StandardCharsets.UTF_8);
+            RequestBody requestBody = RequestBody.create(requestJson, MediaType.parse(MEDIA_TYPE));
+            String hash = SignHelper.sha256Hex(requestJson);
+            metrics.recordSince(Stage.BODY_HASH, start, requestJson.length);
+            sendRequest(requestBody, hash, callback, Deadline.NONE);
+        } catch (Exception e) {
+            if (callback != null) callback.onFailure("构建请求失败: " + e.getMessage());
+        }
+    }
+
+    //异步识别身份证人像面（JPEG字节输入）
+    public void recognizeIdCard(byte[] jpegBytes, Callback callback) {
+        recognizeIdCard(jpegBytes, CardSide.FRONT, callback);
+    }
+
+    //异步识别身份证指定面（JPEG字节输入），请求体流式编码，不生成Base64字符串
+    @Override
+    public void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, Callback callback) {
+        try {
+            recognize(ImageRequestBody.fromBytes(jpegBytes, cardSide.name()), callback);
+        } catch (Exception e) {
+            if (callback != null) callback.onFailure("构建请求失败: " + e.getMessage());
+        }
+    }
+
+    //异步识别身份证人像面（JPEG文件输入），上传时直接从文件读取
+    public void recognizeIdCard(File jpegFile, Callback callback) {
+        recognizeIdCard(jpegFile, CardSide.FRONT, callback);
+    }
+
+    //异步识别身份证指定面（JPEG文件输入）
+    public void recognizeIdCard(File jpegFile, CardSide cardSide, Callback callback) {
+        try {
+            recognize(ImageRequestBody.fromFile(jpegFile, cardSide.name()), callback);
+        } catch (Exception e) {
+            if (callback != null) callback.onFailure("构建请求失败: " + e.getMessage());
+        }
+    }
+
+    //可取消的异步识别（JPEG字节输入）：返回的Future被取消或超过deadline时取消进行中的HTTP调用，
+    //排队中的发送和待执行的重试不再进行；deadline涵盖请求体哈希、签名、限流排队、重试和网络
+    @Override
+    public OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, CardSide cardSide, Deadline deadline) {
+        OcrFuture<IdentifyResult> future = new OcrFuture<>();
+        try {
+            Execution execution = recognize(ImageRequestBody.fromBytes(jpegBytes, cardSide.name()),
+                    OcrFuture.completing(future), deadline);
+            if (execution != null) future.onAbort(execution::abort);
+        } catch (Exception e) {
+            future.completeExceptionally(new OcrException("构建请求失败: " + e.getMessage()));
+        }
+        return future.expireAt(deadline);
+    }
+
+    private void recognize(ImageRequestBody requestBody, Callback callback) throws IOException {
+        recognize(requestBody, callback, Deadline.NONE);
+    }
+
+    //签名所需的请求体哈希与实际上传的字节来自同一编码流，哈希阶段包含一次完整的Base64编码
+    private Execution recognize(ImageRequestBody requestBody, Callback callback, Deadline deadline) throws IOException {
+        long start = System.nanoTime();
+        String hash = requestBody.sha256Hex();
+        metrics.recordSince(Stage.BODY_HASH, start, requestBody.contentLength());
+        return sendRequest(requestBody, hash, callback, deadline);
+    }
+
+    //构建请求体JSON
+    private String buildRequestBody(String imageBase64, CardSide cardSide) throws IOException {
+        StringWriter out = new StringWriter(imageBase64.length() + 48);
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject().name("ImageBase64").value(imageBase64).name("CardSide").value(cardSide.name()).endObject();
+        writer.close();
+        return out.toString();
+    }
+
+    //发送HTTP请求，熔断打开时直接失败并返回null
+    private Execution sendRequest(RequestBody requestBody, String hashedRequestBody, Callback callback, Deadline deadline) {
+        Execution execution = new Execution(requestBody, hashedRequestBody, callback, retryPolicy, deadline);
+        if (!execution.admit()) {
+            if (callback != null) callback.onFailure("服务暂时不可用，请稍后重试", ErrorClassifier.Kind.RETRYABLE);
+            return null;
+        }
+        execution.attempt();
+        return execution;
+    }
+
+    //构建带签名的HTTP请求，每次尝试使用新的时间戳重新签名，签名host与Host头均取自所选接入点
+    //时间戳取校准后的服务器时间，凭证日期由签名器按同一时间戳计算
+    private Request buildSignedRequest(Endpoint endpoint, RequestBody requestBody, String hashedRequestBody) {
+        final long timestamp = serverClock.nowSeconds();
+        String secretId = SignHelper.getSecretId();
+        String secretKey = SignHelper.getSecretKey();
+        //生成腾讯云API V3签名
+        long signStart = System.nanoTime();
+        String authorization = SignHelper.generateSignForPayloadHash(endpoint.getSigner(), secretId, secretKey, hashedRequestBody, timestamp);
+        metrics.recordSince(Stage.SIGN, signStart, 0);
+        if (authorization == null) return null;
+        return new Request.Builder()
+                .url(endpoint.getUrl())
+                .post(requestBody)
+                .addHeader("Authorization", authorization)
+                .addHeader("Content-Type", MEDIA_TYPE)
+                .addHeader("Host", endpoint.getHost())
+                .addHeader("X-TC-Action", ACTION)
+                .addHeader("X-TC-Version", VERSION)
+                .addHeader("X-TC-Timestamp", String.valueOf(timestamp))
+                .addHeader("X-TC-Region", endpoint.getRegion())
+                .build();
+    }
+
+    //用响应的Date头校准签名时钟，无Date头或格式错误时忽略
+    private void observeServerDate(Response response) {
+        Date date = response.headers().getDate("Date");
+        if (date != null) serverClock.onServerDate(date.getTime(), response.receivedResponseAtMillis());
+    }
+
+    //解析HTTP响应为识别结果或分类后的错误
+    private Outcome parseResponse(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            return Outcome.failure(ErrorClassifier.classifyHttpStatus(response.code()), "HTTP错误: " + response.code());
+        }
+        ResponseBody body = response.body();
+        if (body == null || body.source().exhausted()) return Outcome.failure(ErrorClassifier.Kind.RETRYABLE, "响应体为空");
+        //边下载边解析，跳过不需要的大字段
+        long parseStart = System.nanoTime();
+        OcrResponseReader.Parsed parsed = OcrResponseReader.read(body.charStream());
+        metrics.recordSince(Stage.PARSE, parseStart, Math.max(0, body.contentLength()));
+        if (parsed == null) return Outcome.failure(ErrorClassifier.Kind.FATAL, "API返回数据为空");
+        OcrLog.d("OCR_API", "响应解析完成: RequestId=" + parsed.requestId);
+        //腾讯云业务错误在HTTP 200的响应体中返回
+        if (parsed.isError()) {
+            Outcome failure = Outcome.failure(ErrorClassifier.classifyTencentCode(parsed.errorCode), parsed.errorCode + ": " + parsed.errorMessage);
+            failure.clockSkew = ErrorClassifier.isClockSkew(parsed.errorCode);
+            return failure;
+        }
+        return Outcome.success(parsed.result);
+    }
+
+    //单次尝试的结果
+    private static final class Outcome {
+        final IdentifyResult result;
+        final ErrorClassifier.Kind kind;
+        final String error;
+        //签名时间戳过期，可按校准后的时钟重新签名
+        boolean clockSkew;
+
+        private Outcome(IdentifyResult result, ErrorClassifier.Kind kind, String error) {
+            this.result = result;
+            this.kind = kind;
+            this.error = error;
+        }
+
+        static Outcome success(IdentifyResult result) { return new Outcome(result, null, null); }
+        static Outcome failure(ErrorClassifier.Kind kind, String error) { return new Outcome(null, kind, error); }
+        boolean isSuccess() { return result != null; }
+    }
+
+    //一次识别的完整执行过程：重试、对冲和熔断统计，保证回调只触发一次
+    private final class Execution {
+        private final RequestBody requestBody;
+        private final String hashedRequestBody;
+        private final Callback callback;
+        private final RetryPolicy policy;
+        private final Deadline deadline;
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        //进行中的调用（含对冲请求）及其接入点，完成时取消其余调用
+        private final Map<Call, Endpoint> activeCalls = new ConcurrentHashMap<>();
+        //本次识别中已失败的接入点，重试时优先换用其他接入点
+        private final Set<Endpoint> failedEndpoints = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        private final AtomicInteger attempts = new AtomicInteger();
+        //是否已因签名过期重新签名，每次识别只重签一次
+        private final AtomicBoolean resigned = new AtomicBoolean(false);
+        //是否占用着熔断器半开状态的探测名额
+        private final AtomicBoolean holdsProbe = new AtomicBoolean(false);
+        private final CircuitBreaker breaker = circuitBreaker;
+        private final long startNanos = System.nanoTime();
+
+        Execution(RequestBody requestBody, String hashedRequestBody, Callback callback, RetryPolicy policy, Deadline deadline) {
+            this.requestBody = requestBody;
+            this.hashedRequestBody = hashedRequestBody;
+            this.callback = callback;
+            this.policy = policy;
+            this.deadline = deadline;
+        }
+
+        //向熔断器申请发送，占用探测名额时记录下来，结束时归还
+        boolean admit() {
+            CircuitBreaker.Admission admission = breaker.admit();
+            if (admission == CircuitBreaker.Admission.PROBE) holdsProbe.set(true);
+            return admission != CircuitBreaker.Admission.REJECTED;
+        }
+
+        //向熔断器报告服务端健康状况，探测名额随之结束
+        private void reportHealthy() {
+            holdsProbe.set(false);
+            breaker.onSuccess();
+        }
+
+        private void reportUnhealthy() {
+            holdsProbe.set(false);
+            breaker.onFailure();
+        }
+
+        //探测请求没有得到反映服务端健康的结果（限流、取消、本地失败），归还探测名额
+        private void releaseProbe() {
+            if (holdsProbe.compareAndSet(true, false)) breaker.onProbeAbandoned();
+        }
+
+        //发起一次尝试，启用对冲时超时未返回则再发一次
+        void attempt() {
+            if (done.get()) return;
+            attempts.incrementAndGet();
+            if (!launch(false)) return;
+            if (policy.isHedgingEnabled()) {
+                final int attemptNo = attempts.get();
+                scheduler.schedule(() -> {
+                    //仍是同一轮尝试且未完成时才对冲
+                    if (!done.get() && attempts.get() == attemptNo && !activeCalls.isEmpty()) launch(true);
+                }, policy.getHedgeDelayMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        //获取限流令牌后发送，需要排队时延迟发送；排队超时时对冲请求直接放弃，其余情况结束执行
+        private boolean launch(boolean hedge) {
+            final RateLimiter limiter = rateLimiters.get(ACTION);
+            long waitNanos = limiter != null ? limiter.reserve() : 0;
+            if (waitNanos < 0) {
+                if (hedge) {
+                    OcrLog.d("OCR_API", "限流令牌不足，跳过对冲请求");
+                    return false;
+                }
+                finish(Outcome.failure(ErrorClassifier.Kind.THROTTLED, "请求过于频繁，本地排队超时"));
+                return false;
+            }
+            if (waitNanos == 0) return send(limiter);
+            final long queuedAt = System.nanoTime();
+            scheduler.schedule(() -> {
+                limiter.onDequeued();
+                metrics.recordSince(Stage.RATE_LIMIT_WAIT, queuedAt, 0);
+                send(limiter);
+            }, waitNanos, TimeUnit.NANOSECONDS);
+            return true;
+        }
+
+        //签名并异步发送，签名失败时结束执行；未实际发出请求时归还限流令牌
+        private boolean send(RateLimiter limiter) {
+            if (done.get()) {
+                if (limiter != null) limiter.release();
+                return false;
+            }
+            Set<Endpoint> exclude = new HashSet<>(failedEndpoints);
+            exclude.addAll(activeCalls.values());
+            final Endpoint endpoint = endpointSelector.select(exclude);
+            Request request = buildSignedRequest(endpoint, requestBody, hashedRequestBody);
+            if (request == null) {
+                if (limiter != null) limiter.release();
+                finish(Outcome.failure(ErrorClassifier.Kind.FATAL, "生成签名失败"));
+                return false;
+            }
+            Call call = httpClient.newCall(request);
+            activeCalls.put(call, endpoint);
+            //与abort/finish并发时，登记后再检查一次，避免漏取消
+            if (done.get()) {
+                activeCalls.remove(call);
+                if (limiter != null) limiter.release();
+                return false;
+            }
+            call.enqueue(new okhttp3.Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    handle(call, endpoint, Outcome.failure(ErrorClassifier.Kind.RETRYABLE, "网络请求失败: " + e.getMessage()));
+                }
+                @Override
+                public void onResponse(Call call, Response response) {
+                    observeServerDate(response);
+                    Outcome outcome;
+                    try {
+                        outcome = parseResponse(response);
+                    } catch (Exception e) {
+                        OcrLog.e("OCR_API", "解析响应失败: " + e.getMessage());
+                        outcome = Outcome.failure(ErrorClassifier.Kind.FATAL, "解析响应失败: " + e.getMessage());
+                    } finally {
+                        response.close();
+                    }
+                    handle(call, endpoint, outcome);
+                }
+            });
+            return true;
+        }
+
+        //处理单个调用结果：成功或不可重试则结束，可重试则在其余调用都失败后退避重试
+        private void handle(Call call, Endpoint endpoint, Outcome outcome) {
+            activeCalls.remove(call);
+            //被取消的对冲调用不计入接入点健康统计
+            if (call.isCanceled()) return;
+            if (outcome.kind == ErrorClassifier.Kind.RETRYABLE) {
+                endpoint.recordFailure();
+                failedEndpoints.add(endpoint);
+            } else if (outcome.kind != ErrorClassifier.Kind.THROTTLED) {
+                endpoint.recordSuccess(-1);
+            }
+            if (done.get()) return;
+            if (outcome.clockSkew && !resigned.get()) {
+                reportHealthy();
+                //对冲请求使用同一过期时间戳，等其返回后统一重签
+                if (!activeCalls.isEmpty() || !resigned.compareAndSet(false, true)) return;
+                clockSkewRetries.incrementAndGet();
+                OcrLog.w("OCR_API", "签名已过期(" + outcome.error + ")，按校准后的时钟重新签名: " + serverClock.getStats());
+                attempt();
+                return;
+            }
+            if (outcome.isSuccess() || outcome.kind == ErrorClassifier.Kind.FATAL) {
+                //不可重试的业务错误说明服务端健康
+                reportHealthy();
+                finish(outcome);
+                return;
+            }
+            //熔断器是全局的：还有健康的其他地域可切换时失败只计入接入点统计并归还探测名额，
+            //全部地域都失败时才计入熔断，避免单个地域故障在切换期间把所有地域一起熔断
+            if (outcome.kind == ErrorClassifier.Kind.RETRYABLE) {
+                if (endpointSelector.hasHealthyEndpoint(failedEndpoints)) releaseProbe(); else reportUnhealthy();
+            }
+            //限流不说明服务端健康与否，归还探测名额，重试时重新申请
+            if (outcome.kind == ErrorClassifier.Kind.THROTTLED) releaseProbe();
+            //对冲请求仍在进行，等待其结果
+            if (!activeCalls.isEmpty()) return;
+            int attempt = attempts.get();
+            if (attempt >= policy.getMaxAttempts() || !admit()) {
+                finish(outcome);
+                return;
+            }
+            long delay = policy.backoffDelayMs(attempt, outcome.kind);
+            //退避结束时已超过截止时间，直接返回本次错误而不是等到超时
+            if (TimeUnit.MILLISECONDS.toNanos(delay) >= deadline.remainingNanos()) {
+                finish(outcome);
+                return;
+            }
+            OcrLog.w("OCR_API", "第" + attempt + "次请求失败(" + outcome.error + ")，" + delay + "ms后重试");
+            scheduler.schedule(this::attempt, delay, TimeUnit.MILLISECONDS);
+        }
+
+        //调用方取消或超时：不再回调，取消进行中的调用，排队中的发送和待执行的重试在执行时直接返回；
+        //被取消的调用在handle中不计入熔断统计，占用的探测名额在此归还
+        void abort() {
+            if (!done.compareAndSet(false, true)) return;
+            releaseProbe();
+            cancelled.incrementAndGet();
+            for (Call call : activeCalls.keySet()) call.cancel();
+            activeCalls.clear();
+            OcrLog.d("OCR_API", "识别已取消，第" + attempts.get() + "次尝试");
+        }
+
+        //回调结果并取消其余进行中的调用；限流排队超时、签名失败等本地原因结束时归还探测名额
+        private void finish(Outcome outcome) {
+            if (!done.compareAndSet(false, true)) return;
+            releaseProbe();
+            for (Call other : activeCalls.keySet()) other.cancel();
+            activeCalls.clear();
+            metrics.recordSince(Stage.TOTAL, startNanos, 0);
+            if (callback == null) return;
+            if (outcome.isSuccess()) callback.onSuccess(outcome.result); else callback.onFailure(outcome.error, outcome.kind);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.IdCardOcr.network;
+
+//识别失败：消息与Callback.onFailure收到的错误信息一致，kind区分临时故障和重试无意义的永久错误
+public class OcrException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final ErrorClassifier.Kind kind;
+
+    public OcrException(String message) { this(message, ErrorClassifier.Kind.FATAL); }
+
+    public OcrException(String message, ErrorClassifier.Kind kind) {
+        super(message);
+        this.kind = kind;
+    }
+
+    public ErrorClassifier.Kind getKind() { return kind; }
+
+    //网络异常、服务端故障、熔断打开或限流等稍后重试可能成功的失败
+    public boolean isTransient() { return kind != ErrorClassifier.Kind.FATAL; }
+}
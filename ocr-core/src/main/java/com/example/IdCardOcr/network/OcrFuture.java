@@ -0,0 +1,192 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+//可取消的识别Future：被取消或超过截止时间时执行登记的中止动作（取消HTTP调用、停止预处理等）
+//map/then/mapError派生的Future被取消时同时取消上游，多个阶段可直接串联而不嵌套回调
+public class OcrFuture<T> extends CompletableFuture<T> {
+    //所有Future共用的截止时间定时器
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ocr-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final List<Runnable> abortActions = new ArrayList<>();
+    private boolean aborted;
+
+    public static <T> OcrFuture<T> completed(T value) {
+        OcrFuture<T> future = new OcrFuture<>();
+        future.complete(value);
+        return future;
+    }
+
+    public static <T> OcrFuture<T> failed(Throwable error) {
+        OcrFuture<T> future = new OcrFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    //登记中止动作，只在取消或超时时执行一次；已中止时立即执行
+    public OcrFuture<T> onAbort(Runnable action) {
+        synchronized (abortActions) {
+            if (!aborted) {
+                abortActions.add(action);
+                return this;
+            }
+        }
+        action.run();
+        return this;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) abort();
+        return cancelled;
+    }
+
+    //到达截止时间仍未完成时以TimeoutException结束并中止，不限时的deadline不做处理
+    public OcrFuture<T> expireAt(Deadline deadline) {
+        if (!deadline.isBounded() || isDone()) return this;
+        long remaining = deadline.remainingNanos();
+        if (remaining <= 0) {
+            expire();
+            return this;
+        }
+        final ScheduledFuture<?> timer = TIMER.schedule(this::expire, remaining, TimeUnit.NANOSECONDS);
+        whenComplete((value, error) -> timer.cancel(false));
+        return this;
+    }
+
+    private void expire() {
+        if (completeExceptionally(new TimeoutException("识别超时"))) abort();
+    }
+
+    private void abort() {
+        List<Runnable> actions;
+        synchronized (abortActions) {
+            if (aborted) return;
+            aborted = true;
+            actions = new ArrayList<>(abortActions);
+            abortActions.clear();
+        }
+        for (Runnable action : actions) action.run();
+    }
+
+    //转换结果
+    public <U> OcrFuture<U> map(final Function<? super T, ? extends U> fn) {
+        final OcrFuture<U> next = derive();
+        whenComplete((value, error) -> {
+            if (error != null) {
+                next.completeExceptionally(unwrap(error));
+                return;
+            }
+            try {
+                next.complete(fn.apply(value));
+            } catch (Throwable t) {
+                next.completeExceptionally(t);
+            }
+        });
+        return next;
+    }
+
+    //转换失败原因，如把网络错误换成已转入离线队列
+    public OcrFuture<T> mapError(final Function<Throwable, ? extends Throwable> fn) {
+        final OcrFuture<T> next = derive();
+        whenComplete((value, error) -> {
+            if (error == null) next.complete(value); else next.completeExceptionally(fn.apply(unwrap(error)));
+        });
+        return next;
+    }
+
+    //本阶段成功后开始下一个可取消阶段，取消返回的Future时取消当前所处的阶段
+    public <U> OcrFuture<U> then(final Function<? super T, ? extends OcrFuture<U>> fn) {
+        final OcrFuture<U> next = derive();
+        whenComplete((value, error) -> {
+            if (error != null) {
+                next.completeExceptionally(unwrap(error));
+                return;
+            }
+            if (next.isDone()) return;
+            final OcrFuture<U> stage;
+            try {
+                stage = fn.apply(value);
+            } catch (Throwable t) {
+                next.completeExceptionally(t);
+                return;
+            }
+            next.onAbort(() -> stage.cancel(true));
+            stage.whenComplete((result, stageError) -> {
+                if (stageError != null) next.completeExceptionally(unwrap(stageError)); else next.complete(result);
+            });
+        });
+        return next;
+    }
+
+    //派生的Future被取消或超时时取消本Future
+    private <U> OcrFuture<U> derive() {
+        OcrFuture<U> next = new OcrFuture<>();
+        next.onAbort(() -> cancel(true));
+        return next;
+    }
+
+    //以OcrException完成识别结果的回调，供基于回调的实现转换为Future；未分类的失败视为永久错误
+    public static OcrApiClient.Callback completing(final OcrFuture<IdentifyResult> future) {
+        return new OcrApiClient.Callback() {
+            @Override
+            public void onSuccess(IdentifyResult result) { future.complete(result); }
+            @Override
+            public void onFailure(String error) { onFailure(error, ErrorClassifier.Kind.FATAL); }
+            @Override
+            public void onFailure(String error, ErrorClassifier.Kind kind) { future.completeExceptionally(new OcrException(error, kind)); }
+        };
+    }
+
+    //把Future的结果转交给回调，失败信息和分类与回调接口一致
+    public static void deliver(CompletableFuture<IdentifyResult> future, final OcrApiClient.Callback callback) {
+        future.whenComplete((result, error) -> {
+            if (callback == null) return;
+            if (error == null) callback.onSuccess(result); else callback.onFailure(errorMessage(error), kindOf(error));
+        });
+    }
+
+    //失败的分类：超过截止时间视为临时故障，取消和其他异常视为永久错误
+    public static ErrorClassifier.Kind kindOf(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof OcrException) return ((OcrException) cause).getKind();
+        if (cause instanceof TimeoutException) return ErrorClassifier.Kind.RETRYABLE;
+        return ErrorClassifier.Kind.FATAL;
+    }
+
+    //稍后重试可能成功的失败
+    public static boolean isTransient(Throwable error) { return kindOf(error) != ErrorClassifier.Kind.FATAL; }
+
+    //失败原因的错误信息
+    public static String errorMessage(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof CancellationException) return "已取消";
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
+    //去掉CompletableFuture包装的CompletionException/ExecutionException
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.IdCardOcr.network;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//核心库日志出口：不依赖Android，默认输出到java.util.logging，App启动时替换为android.util.Log
+public final class OcrLog {
+    //日志级别，数值与android.util.Log一致
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+
+    //日志输出接口，Android上可直接传入Log::println
+    public interface Sink {
+        void println(int priority, String tag, String message);
+    }
+
+    private static volatile Sink sink = OcrLog::toJavaLogging;
+
+    private OcrLog() { }
+
+    public static void setSink(Sink newSink) { sink = newSink != null ? newSink : OcrLog::toJavaLogging; }
+
+    public static void d(String tag, String message) { sink.println(DEBUG, tag, message); }
+    public static void i(String tag, String message) { sink.println(INFO, tag, message); }
+    public static void w(String tag, String message) { sink.println(WARN, tag, message); }
+    public static void e(String tag, String message) { sink.println(ERROR, tag, message); }
+
+    //默认输出：按tag取Logger，级别映射为FINE/INFO/WARNING/SEVERE
+    private static void toJavaLogging(int priority, String tag, String message) {
+        Level level = priority >= ERROR ? Level.SEVERE : priority == WARN ? Level.WARNING : priority == INFO ? Level.INFO : Level.FINE;
+        Logger.getLogger(tag).log(level, message);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+//腾讯云OCR响应流式解析：直接从响应流填充IdentifyResult，不生成完整响应字符串，不使用反射
+//未用到的字段（如裁剪图片、人像Base64）通过skipValue跳过，不会为其分配字符串
+public final class OcrResponseReader {
+    //解析结果：识别成功时result非空，业务错误时errorCode非空
+    public static final class Parsed {
+        public IdentifyResult result;
+        public String errorCode;
+        public String errorMessage;
+        public String requestId;
+
+        public boolean isError() { return errorCode != null; }
+    }
+
+    private OcrResponseReader() { }
+
+    //读取{"Response":{...}}，Response缺失时返回null
+    public static Parsed read(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        Parsed parsed = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("Response".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                parsed = readResponse(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return parsed;
+    }
+
+    //读取Response对象，识别字段直接写入IdentifyResult
+    private static Parsed readResponse(JsonReader reader) throws IOException {
+        Parsed parsed = new Parsed();
+        IdentifyResult result = new IdentifyResult();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Name": result.setName(nextString(reader)); break;
+                case "Sex": result.setSex(nextString(reader)); break;
+                case "Nation": result.setNation(nextString(reader)); break;
+                case "Birth": result.setBirth(nextString(reader)); break;
+                case "Address": result.setAddress(nextString(reader)); break;
+                case "IdNum": result.setId(nextString(reader)); break;
+                case "Authority": result.setAuthority(nextString(reader)); break;
+                case "ValidDate": result.setValidDate(nextString(reader)); break;
+                case "RequestId": parsed.requestId = nextString(reader); break;
+                case "Error": readError(reader, parsed); break;
+                default: reader.skipValue(); break;
+            }
+        }
+        reader.endObject();
+        if (!parsed.isError()) parsed.result = result;
+        return parsed;
+    }
+
+    //读取Error对象的Code和Message
+    private static void readError(JsonReader reader, Parsed parsed) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("Code".equals(name)) parsed.errorCode = nextString(reader);
+            else if ("Message".equals(name)) parsed.errorMessage = nextString(reader);
+            else reader.skipValue();
+        }
+        reader.endObject();
+    }
+
+    //读取字符串字段，null或非字符串类型返回null
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) return reader.nextString();
+        reader.skipValue();
+        return null;
+    }
+}
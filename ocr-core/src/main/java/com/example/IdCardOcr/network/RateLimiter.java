@@ -0,0 +1,103 @@
+package com.example.IdCardOcr.network;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//无锁令牌桶限流器（GCRA虚拟调度实现）：CAS推进理论到达时间，超出预算的请求排队等待，等待超过上限则拒绝
+public class RateLimiter {
+    private final long intervalNanos;
+    private final long burstToleranceNanos;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+    //理论到达时间：下一个令牌可用的时刻
+    private final AtomicLong theoreticalArrival;
+    //统计计数
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong returned = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitObservedNanos = new AtomicLong();
+
+    //permitsPerSecond为持续速率，burst为可瞬时通过的请求数，maxWaitMs为排队等待上限
+    public RateLimiter(double permitsPerSecond, int burst, long maxWaitMs) {
+        this(permitsPerSecond, burst, maxWaitMs, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, long maxWaitMs, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1 || maxWaitMs < 0) throw new IllegalArgumentException("限流参数无效");
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstToleranceNanos = intervalNanos * (burst - 1);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    //预约一个令牌，返回需要等待的纳秒数；等待超过上限时返回-1且不消耗令牌
+    public long reserve() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, now);
+            long wait = base - burstToleranceNanos - now;
+            if (wait < 0) wait = 0;
+            if (wait > maxWaitNanos) {
+                rejected.incrementAndGet();
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + intervalNanos)) {
+                acquired.incrementAndGet();
+                if (wait > 0) {
+                    delayed.incrementAndGet();
+                    totalWaitNanos.addAndGet(wait);
+                    maxWaitObservedNanos.accumulateAndGet(wait, Math::max);
+                    maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+                }
+                return wait;
+            }
+        }
+    }
+
+    //排队等待结束（reserve返回值大于0时调用）
+    public void onDequeued() { queueDepth.decrementAndGet(); }
+
+    //归还已预约但最终未发出请求的令牌，理论到达时间回退一个间隔，不早于当前时刻
+    public void release() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long tat = theoreticalArrival.get();
+            if (theoreticalArrival.compareAndSet(tat, Math.max(tat - intervalNanos, now))) {
+                returned.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    //Getter方法
+    public int getQueueDepth() { return queueDepth.get(); }
+    public int getMaxQueueDepth() { return maxQueueDepth.get(); }
+    public long getAcquiredCount() { return acquired.get(); }
+    public long getDelayedCount() { return delayed.get(); }
+    public long getRejectedCount() { return rejected.get(); }
+    public long getReturnedCount() { return returned.get(); }
+    public long getTotalWaitMs() { return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()); }
+    public long getMaxWaitMs() { return TimeUnit.NANOSECONDS.toMillis(maxWaitObservedNanos.get()); }
+
+    //平均等待时间（仅统计排队的请求）
+    public double getAverageWaitMs() {
+        long count = delayed.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1e6 / count;
+    }
+
+    //统计摘要，便于日志输出
+    public String getStats() {
+        return "acquired=" + acquired.get() + ", delayed=" + delayed.get() + ", rejected=" + rejected.get() + ", returned=" + returned.get()
+                + ", queueDepth=" + queueDepth.get() + ", maxQueueDepth=" + maxQueueDepth.get()
+                + ", avgWaitMs=" + String.format(Locale.US, "%.1f", getAverageWaitMs()) + ", maxWaitMs=" + getMaxWaitMs();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.IdCardOcr.network;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+//重试策略：带抖动的指数退避，可选对慢请求发起对冲请求
+public final class RetryPolicy {
+    //默认：最多3次尝试，200ms起步，最长5秒，不对冲
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 200, 5000, 0);
+    //不重试
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0);
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long hedgeDelayMs;
+
+    //hedgeDelayMs为0表示不对冲；大于0时请求超过该时间未返回则并发发起第二个请求
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, long hedgeDelayMs) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts必须至少为1");
+        if (baseDelayMs < 0 || maxDelayMs < baseDelayMs || hedgeDelayMs < 0) throw new IllegalArgumentException("延迟参数无效");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.hedgeDelayMs = hedgeDelayMs;
+    }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public long getHedgeDelayMs() { return hedgeDelayMs; }
+    public boolean isHedgingEnabled() { return hedgeDelayMs > 0; }
+
+    //第attempt次失败后的等待时间（attempt从1开始），限流错误退避加倍；采用等量抖动避免多个客户端同时重试
+    public long backoffDelayMs(int attempt, ErrorClassifier.Kind kind) {
+        long exp = baseDelayMs << Math.min(attempt - 1, 20);
+        if (kind == ErrorClassifier.Kind.THROTTLED) exp <<= 1;
+        long capped = Math.min(maxDelayMs, exp);
+        long half = capped / 2;
+        return half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0);
+    }
+}
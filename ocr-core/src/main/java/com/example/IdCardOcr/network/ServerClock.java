@@ -0,0 +1,49 @@
+package com.example.IdCardOcr.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//服务器时钟校准：从响应的Date头估算本机与服务器的时间偏差，签名时间戳按偏差修正，
+//避免本机时间不准时整张图片上传后才被AuthFailure.SignatureExpire拒绝
+public class ServerClock {
+    //Date头精确到秒且含单程网络延迟，偏差变化不足2秒时不调整，避免时间戳来回抖动
+    static final long MIN_ADJUST_MS = 2_000;
+
+    private final LongSupplier clock;
+    //服务器时间 - 本机时间
+    private volatile long offsetMs;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong adjustments = new AtomicLong();
+
+    public ServerClock() { this(System::currentTimeMillis); }
+
+    ServerClock(LongSupplier clock) { this.clock = clock; }
+
+    //校准后的当前时间（毫秒）
+    public long nowMillis() { return clock.getAsLong() + offsetMs; }
+
+    //校准后的当前时间（秒），用于X-TC-Timestamp和凭证日期
+    public long nowSeconds() { return Math.floorDiv(nowMillis(), 1000); }
+
+    //记录一次响应的Date头：serverDateMs为Date头时间，receivedAtMs为本机收到响应头的时间
+    //Date头截断到整秒，取该秒中点估算；返回偏差是否被调整
+    public boolean onServerDate(long serverDateMs, long receivedAtMs) {
+        samples.incrementAndGet();
+        long sample = serverDateMs + 500 - receivedAtMs;
+        if (Math.abs(sample - offsetMs) < MIN_ADJUST_MS) return false;
+        long previous = offsetMs;
+        offsetMs = sample;
+        adjustments.incrementAndGet();
+        OcrLog.w("OCR_CLOCK", "本机时间与服务器相差" + sample + "ms，签名时间戳已校准(原偏差" + previous + "ms)");
+        return true;
+    }
+
+    public long getOffsetMs() { return offsetMs; }
+    public long getSampleCount() { return samples.get(); }
+    public long getAdjustmentCount() { return adjustments.get(); }
+
+    //统计摘要，便于日志输出
+    public String getStats() {
+        return "offset=" + offsetMs + "ms, samples=" + samples.get() + ", adjustments=" + adjustments.get();
+    }
+}
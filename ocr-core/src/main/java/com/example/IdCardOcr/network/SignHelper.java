@@ -0,0 +1,109 @@
+package com.example.IdCardOcr.network;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+//腾讯云API V3签名辅助类
+public class SignHelper {
+    //服务配置常量
+    private static final String HOST = "ocr.tencentcloudapi.com";
+    private static final String SERVICE = "ocr";
+    //共享签名器，缓存当日派生密钥
+    private static final Tc3Signer SIGNER = new Tc3Signer(HOST, SERVICE);
+    //密钥存储
+    private static String SECRET_ID = null;
+    private static String SECRET_KEY = null;
+    private static boolean HAS_SECRET_ID = false;
+    private static boolean HAS_SECRET_KEY = false;
+
+    //从env格式的输入流加载密钥（TENCENT_SECRET_ID=...和TENCENT_SECRET_KEY=...各占一行），读取后关闭输入流
+    public static void init(InputStream in) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            //逐行读取配置
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.contains("TENCENT_SECRET_ID")) {
+                    String[] parts = line.split("=", 2);
+                    if (parts.length == 2) setSecretId(parts[1].trim());
+                } else if (line.contains("TENCENT_SECRET_KEY")) {
+                    String[] parts = line.split("=", 2);
+                    if (parts.length == 2) setSecretKey(parts[1].trim());
+                }
+            }
+            OcrLog.d("SignHelper", "密钥加载成功");
+        } catch (IOException e) {
+            OcrLog.e("SignHelper", "加载env文件失败: " + e.getMessage());
+        }
+    }
+
+    //直接设置密钥，供命令行等从环境变量读取密钥的场景使用
+    public static void setCredentials(String secretId, String secretKey) {
+        setSecretId(secretId);
+        setSecretKey(secretKey);
+    }
+
+    private static void setSecretId(String secretId) {
+        SECRET_ID = secretId;
+        HAS_SECRET_ID = secretId != null && !secretId.isEmpty();
+    }
+
+    private static void setSecretKey(String secretKey) {
+        SECRET_KEY = secretKey;
+        HAS_SECRET_KEY = secretKey != null && !secretKey.isEmpty();
+    }
+
+    //生成腾讯云API V3签名
+    public static String generateSign(String secretId, String secretKey, String requestBody, long timestamp) {
+        return generateSignForPayloadHash(secretId, secretKey, sha256Hash(requestBody), timestamp);
+    }
+
+    //使用预先计算的请求体SHA-256生成签名，供流式请求体使用
+    public static String generateSignForPayloadHash(String secretId, String secretKey, String hashedRequestBody, long timestamp) {
+        return generateSignForPayloadHash(SIGNER, secretId, secretKey, hashedRequestBody, timestamp);
+    }
+
+    //使用指定接入点的签名器生成签名，签名中的host与该接入点一致
+    public static String generateSignForPayloadHash(Tc3Signer signer, String secretId, String secretKey, String hashedRequestBody,
+                                                    long timestamp) {
+        try {
+            return signer.sign(secretId, secretKey, hashedRequestBody, timestamp);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    //SHA256哈希计算
+    private static String sha256Hash(String input) {
+        return Tc3Signer.sha256Hex(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //字节数组的SHA256哈希，返回十六进制字符串
+    static String sha256Hex(byte[] input) {
+        return Tc3Signer.sha256Hex(input);
+    }
+
+    //字节数组转十六进制字符串
+    static String bytesToHex(byte[] bytes) {
+        return Tc3Signer.toHex(bytes);
+    }
+
+    //Getter方法
+    public static String getSecretId() { return SECRET_ID; }
+    public static String getSecretKey() { return SECRET_KEY; }
+    public static String getHost() { return HOST; }
+    public static String getService() { return SERVICE; }
+    public static boolean hasValidCredentials() { return HAS_SECRET_ID && HAS_SECRET_KEY; }
+
+    //获取密钥配置状态
+    public static String getCredentialsStatus() {
+        if (!HAS_SECRET_ID && !HAS_SECRET_KEY) return "密钥未配置（env文件未找到或内容为空）";
+        String idStatus = HAS_SECRET_ID ? "已设置(" + SECRET_ID.substring(0, Math.min(10, SECRET_ID.length())) + "...)" : "未设置";
+        String keyStatus = HAS_SECRET_KEY ? "已设置(" + SECRET_KEY.substring(0, Math.min(10, SECRET_KEY.length())) + "...)" : "未设置";
+        return "SECRET_ID=" + idStatus + ", SECRET_KEY=" + keyStatus;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.example.IdCardOcr.network;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+//腾讯云TC3-HMAC-SHA256签名器：按(secretKey, UTC日期)缓存派生密钥，线程内复用Mac/MessageDigest
+public class Tc3Signer {
+    private static final String ALGORITHM = "TC3-HMAC-SHA256";
+    private static final String TERMINATOR = "tc3_request";
+    private static final String SIGNED_HEADERS = "content-type;host";
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final long SECONDS_PER_DAY = 86400L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    //每个线程独占的摘要和HMAC实例
+    private static final ThreadLocal<Crypto> CRYPTO = new ThreadLocal<Crypto>() {
+        @Override
+        protected Crypto initialValue() { return new Crypto(); }
+    };
+
+    private final String host;
+    private final String service;
+    //规范请求串中除请求体哈希外的固定部分
+    private final byte[] canonicalRequestPrefix;
+    //最近一次使用的派生密钥，密钥或日期变化时整体替换
+    private volatile DerivedKey derivedKey;
+
+    public Tc3Signer(String host, String service) {
+        this.host = host;
+        this.service = service;
+        String canonicalHeaders = "content-type:" + CONTENT_TYPE + "\n" + "host:" + host + "\n";
+        this.canonicalRequestPrefix = ("POST\n/\n\n" + canonicalHeaders + "\n" + SIGNED_HEADERS + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String getHost() { return host; }
+    public String getService() { return service; }
+
+    //生成Authorization头，hashedRequestBody为请求体SHA-256十六进制串
+    public String sign(String secretId, String secretKey, String hashedRequestBody, long timestamp) {
+        Crypto crypto = CRYPTO.get();
+        DerivedKey key = derivedKeyFor(secretKey, timestamp, crypto);
+        //规范请求串哈希：固定前缀 + 请求体哈希
+        MessageDigest sha = crypto.sha;
+        sha.update(canonicalRequestPrefix);
+        sha.update(hashedRequestBody.getBytes(StandardCharsets.UTF_8));
+        String hashedCanonicalRequest = toHex(sha.digest());
+        //待签名字符串
+        String stringToSign = ALGORITHM + "\n" + timestamp + "\n" + key.credentialScope + "\n" + hashedCanonicalRequest;
+        String signature = toHex(crypto.hmac(key.signingKey, stringToSign.getBytes(StandardCharsets.UTF_8)));
+        return ALGORITHM + " Credential=" + secretId + "/" + key.credentialScope
+                + ", SignedHeaders=" + SIGNED_HEADERS + ", Signature=" + signature;
+    }
+
+    //SHA-256十六进制摘要
+    public static String sha256Hex(byte[] input) {
+        return toHex(CRYPTO.get().sha.digest(input));
+    }
+
+    //查表方式转十六进制，小写
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            chars[j++] = HEX[v >>> 4];
+            chars[j++] = HEX[v & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    //UTC日期yyyy-MM-dd，按天数直接换算公历日期，不使用SimpleDateFormat
+    static String utcDate(long timestamp) {
+        long days = Math.floorDiv(timestamp, SECONDS_PER_DAY);
+        //civil_from_days算法，纪元从0000-03-01起算
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        char[] out = new char[10];
+        out[0] = (char) ('0' + year / 1000 % 10);
+        out[1] = (char) ('0' + year / 100 % 10);
+        out[2] = (char) ('0' + year / 10 % 10);
+        out[3] = (char) ('0' + year % 10);
+        out[4] = '-';
+        out[5] = (char) ('0' + month / 10);
+        out[6] = (char) ('0' + month % 10);
+        out[7] = '-';
+        out[8] = (char) ('0' + day / 10);
+        out[9] = (char) ('0' + day % 10);
+        return new String(out);
+    }
+
+    //获取派生密钥，同一天同一密钥只计算一次三轮HMAC
+    private DerivedKey derivedKeyFor(String secretKey, long timestamp, Crypto crypto) {
+        long day = Math.floorDiv(timestamp, SECONDS_PER_DAY);
+        DerivedKey cached = derivedKey;
+        if (cached != null && cached.day == day && Objects.equals(cached.secretKey, secretKey)) return cached;
+        String date = utcDate(timestamp);
+        byte[] secretDate = crypto.hmac(("TC3" + secretKey).getBytes(StandardCharsets.UTF_8), date.getBytes(StandardCharsets.UTF_8));
+        byte[] secretService = crypto.hmac(secretDate, service.getBytes(StandardCharsets.UTF_8));
+        byte[] signingKey = crypto.hmac(secretService, TERMINATOR.getBytes(StandardCharsets.UTF_8));
+        DerivedKey fresh = new DerivedKey(secretKey, day, date + "/" + service + "/" + TERMINATOR, signingKey);
+        derivedKey = fresh;
+        return fresh;
+    }
+
+    //不可变的派生密钥快照
+    private static final class DerivedKey {
+        final String secretKey;
+        final long day;
+        final String credentialScope;
+        final byte[] signingKey;
+
+        DerivedKey(String secretKey, long day, String credentialScope, byte[] signingKey) {
+            this.secretKey = secretKey;
+            this.day = day;
+            this.credentialScope = credentialScope;
+            this.signingKey = signingKey;
+        }
+    }
+
+    //线程独占的加密实例，记住Mac当前初始化的密钥以跳过重复init
+    private static final class Crypto {
+        final MessageDigest sha;
+        final Mac mac;
+        private byte[] macKey;
+
+        Crypto() {
+            try {
+                sha = MessageDigest.getInstance("SHA-256");
+                mac = Mac.getInstance("HmacSHA256");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("SHA-256/HmacSHA256不可用", e);
+            }
+        }
+
+        byte[] hmac(byte[] key, byte[] data) {
+            try {
+                if (key != macKey) {
+                    mac.init(new SecretKeySpec(key, "HmacSHA256"));
+                    macKey = key;
+                }
+                return mac.doFinal(data);
+            } catch (GeneralSecurityException e) {
+                macKey = null;
+                throw new IllegalStateException("HMAC计算失败", e);
+            }
+        }
+    }
+}
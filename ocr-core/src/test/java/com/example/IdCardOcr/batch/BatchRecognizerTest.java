@@ -0,0 +1,152 @@
+package com.example.IdCardOcr.batch;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.example.IdCardOcr.network.OcrApiClient;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+//批量识别流水线测试：并发上限、逐项结果与进度回调
+public class BatchRecognizerTest {
+
+    //异步模拟网络调用，记录最大并发数
+    private static final class SlowRecognizer implements IdCardRecognizer {
+        final ExecutorService network = Executors.newCachedThreadPool();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        @Override
+        public void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, OcrApiClient.Callback callback) {
+            int now = active.incrementAndGet();
+            maxActive.accumulateAndGet(now, Math::max);
+            network.execute(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ignored) {
+                }
+                active.decrementAndGet();
+                IdentifyResult result = new IdentifyResult();
+                result.setName(new String(jpegBytes, StandardCharsets.UTF_8));
+                callback.onSuccess(result);
+            });
+        }
+    }
+
+    @Test
+    public void submit_respectsUploadConcurrencyAndReportsEveryItem() throws Exception {
+        SlowRecognizer recognizer = new SlowRecognizer();
+        BatchRecognizer<String> batchRecognizer = new BatchRecognizer<>(
+                source -> {
+                    if (source.startsWith("bad")) throw new IllegalStateException("解码失败");
+                    return source.getBytes(StandardCharsets.UTF_8);
+                }, recognizer, 3, 2);
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 20; i++) sources.add(i == 7 ? "bad" + i : "img" + i);
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicInteger itemCallbacks = new AtomicInteger();
+        final AtomicInteger completeCallbacks = new AtomicInteger();
+        final BatchProgress[] finalProgress = new BatchProgress[1];
+        BatchRecognizer<String>.Batch batch = batchRecognizer.submit(sources, CardSide.FRONT, new BatchRecognizer.Listener<String>() {
+            @Override
+            public void onItemComplete(BatchItemResult<String> item, BatchProgress progress) {
+                itemCallbacks.incrementAndGet();
+                if (item.isSuccess()) assertEquals(item.getSource(), item.getResult().getName());
+            }
+            @Override
+            public void onBatchComplete(BatchProgress progress) {
+                completeCallbacks.incrementAndGet();
+                finalProgress[0] = progress;
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(20, itemCallbacks.get());
+        assertEquals(1, completeCallbacks.get());
+        assertEquals(19, finalProgress[0].getSucceeded());
+        assertEquals(1, finalProgress[0].getFailed());
+        assertTrue(finalProgress[0].getItemsPerSecond() > 0);
+        assertTrue("maxActive=" + recognizer.maxActive.get(), recognizer.maxActive.get() <= 2);
+        assertEquals(20, batch.getResults().size());
+        batchRecognizer.shutdown();
+        recognizer.network.shutdownNow();
+    }
+
+    @Test
+    public void stagedLoader_respectsEncodeAndSignConcurrency() throws Exception {
+        final AtomicInteger encoding = new AtomicInteger();
+        final AtomicInteger maxEncoding = new AtomicInteger();
+        BatchRecognizer.ImageStages<String, String> stages = new BatchRecognizer.ImageStages<String, String>() {
+            @Override
+            public String decode(String source) { return source; }
+            @Override
+            public byte[] encode(String decoded) throws Exception {
+                maxEncoding.accumulateAndGet(encoding.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                encoding.decrementAndGet();
+                return decoded.getBytes(StandardCharsets.UTF_8);
+            }
+        };
+        //识别调用的同步部分模拟请求体哈希和签名
+        final AtomicInteger signing = new AtomicInteger();
+        final AtomicInteger maxSigning = new AtomicInteger();
+        final SlowRecognizer network = new SlowRecognizer();
+        IdCardRecognizer recognizer = (jpegBytes, cardSide, callback) -> {
+            maxSigning.accumulateAndGet(signing.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException ignored) {
+            }
+            signing.decrementAndGet();
+            network.recognizeIdCard(jpegBytes, cardSide, callback);
+        };
+        BatchRecognizer<String> batchRecognizer = new BatchRecognizer<>(stages, recognizer, new StageLimits(4, 1, 1, 3));
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 16; i++) sources.add("img" + i);
+        final CountDownLatch done = new CountDownLatch(1);
+        final BatchProgress[] finalProgress = new BatchProgress[1];
+        batchRecognizer.submit(sources, CardSide.FRONT, new BatchRecognizer.Listener<String>() {
+            @Override
+            public void onItemComplete(BatchItemResult<String> item, BatchProgress progress) { }
+            @Override
+            public void onBatchComplete(BatchProgress progress) {
+                finalProgress[0] = progress;
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(16, finalProgress[0].getSucceeded());
+        assertEquals(1, maxEncoding.get());
+        assertEquals(1, maxSigning.get());
+        assertTrue("maxActive=" + network.maxActive.get(), network.maxActive.get() <= 3);
+        batchRecognizer.shutdown();
+        network.network.shutdownNow();
+    }
+
+    @Test
+    public void emptyBatch_completesImmediately() {
+        BatchRecognizer<String> batchRecognizer = new BatchRecognizer<>(s -> new byte[0], new SlowRecognizer());
+        final AtomicInteger completed = new AtomicInteger();
+        batchRecognizer.submit(new ArrayList<>(), CardSide.FRONT, new BatchRecognizer.Listener<String>() {
+            @Override
+            public void onItemComplete(BatchItemResult<String> item, BatchProgress progress) { }
+            @Override
+            public void onBatchComplete(BatchProgress progress) { completed.incrementAndGet(); }
+        });
+        assertEquals(1, completed.get());
+        batchRecognizer.shutdown();
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.IdCardOcr.cache;
+
+import com.example.IdCardOcr.crypto.RecordCipher;
+import com.example.IdCardOcr.model.IdentifyResult;
+import com.example.IdCardOcr.network.CardSide;
+import com.example.IdCardOcr.network.Deadline;
+import com.example.IdCardOcr.network.IdCardRecognizer;
+import com.example.IdCardOcr.network.OcrApiClient;
+import com.example.IdCardOcr.network.OcrFuture;
+import com.example.IdCardOcr.network.Tc3Signer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+//缓存层与请求合并测试
+public class CachedOcrClientTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //记录调用并手动完成的假识别器
+    private static final class ManualRecognizer implements IdCardRecognizer {
+        final List<OcrApiClient.Callback> pending = new ArrayList<>();
+
+        @Override
+        public void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, OcrApiClient.Callback callback) {
+            pending.add(callback);
+        }
+    }
+
+    //计数回调
+    private static final class CountingCallback implements OcrApiClient.Callback {
+        final AtomicInteger successes = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        IdentifyResult last;
+
+        @Override
+        public void onSuccess(IdentifyResult result) {
+            last = result;
+            successes.incrementAndGet();
+        }
+        @Override
+        public void onFailure(String error) { failures.incrementAndGet(); }
+    }
+
+    @Test
+    public void identicalInFlightRequests_shareOneCall() {
+        ManualRecognizer recognizer = new ManualRecognizer();
+        CachedOcrClient client = new CachedOcrClient(recognizer, new ResultCache(folder.getRoot()));
+        byte[] jpeg = {1, 2, 3};
+        CountingCallback a = new CountingCallback();
+        CountingCallback b = new CountingCallback();
+        client.recognizeIdCard(jpeg, a);
+        client.recognizeIdCard(jpeg.clone(), b);
+        assertEquals(1, recognizer.pending.size());
+        assertEquals(1, client.getCoalesced());
+        recognizer.pending.get(0).onSuccess(result("张三"));
+        assertEquals(1, a.successes.get());
+        assertEquals(1, b.successes.get());
+        //再次提交命中缓存，不再调用网络
+        CountingCallback c = new CountingCallback();
+        client.recognizeIdCard(jpeg, c);
+        assertEquals(1, recognizer.pending.size());
+        assertEquals(1, client.getHits());
+        assertEquals("张三", c.last.getName());
+    }
+
+    @Test
+    public void cardSide_isPartOfKey() {
+        ManualRecognizer recognizer = new ManualRecognizer();
+        CachedOcrClient client = new CachedOcrClient(recognizer, new ResultCache(null));
+        byte[] jpeg = {9, 9};
+        client.recognizeIdCard(jpeg, CardSide.FRONT, new CountingCallback());
+        client.recognizeIdCard(jpeg, CardSide.BACK, new CountingCallback());
+        assertEquals(2, recognizer.pending.size());
+    }
+
+    @Test
+    public void failures_areDeliveredToAllWaitersAndNotCached() {
+        ManualRecognizer recognizer = new ManualRecognizer();
+        CachedOcrClient client = new CachedOcrClient(recognizer, new ResultCache(null));
+        byte[] jpeg = {4, 5, 6};
+        CountingCallback a = new CountingCallback();
+        CountingCallback b = new CountingCallback();
+        client.recognizeIdCard(jpeg, a);
+        client.recognizeIdCard(jpeg, b);
+        recognizer.pending.get(0).onFailure("HTTP错误: 500");
+        assertEquals(1, a.failures.get());
+        assertEquals(1, b.failures.get());
+        client.recognizeIdCard(jpeg, new CountingCallback());
+        assertEquals(2, recognizer.pending.size());
+    }
+
+    @Test
+    public void diskStore_survivesNewInstanceAndExpiresAfterTtl() {
+        AtomicLong now = new AtomicLong(1_000);
+        File dir = folder.getRoot();
+        new ResultCache(dir, 4, 1024 * 1024, 10_000, now::get).put("k", result("李四"));
+        ResultCache reopened = new ResultCache(dir, 4, 1024 * 1024, 10_000, now::get);
+        assertEquals("李四", reopened.get("k").getName());
+        assertEquals(1, reopened.getDiskHits());
+        now.addAndGet(20_000);
+        assertNull(new ResultCache(dir, 4, 1024 * 1024, 10_000, now::get).get("k"));
+    }
+
+    @Test
+    public void encryptedDiskStore_hidesIdentityAndDropsPlaintextFiles() throws Exception {
+        AtomicLong now = new AtomicLong(1_000);
+        File dir = folder.getRoot();
+        RecordCipher cipher = RecordCipher.withEphemeralKey();
+        new ResultCache(dir, 4, 1024 * 1024, 10_000, cipher, now::get).put("k", result("李四"));
+        String stored = new String(Files.readAllBytes(new File(dir, "k.json").toPath()), StandardCharsets.UTF_8);
+        assertFalse(stored.contains("李四"));
+        assertFalse(stored.contains("110101199003070000"));
+        assertEquals("李四", new ResultCache(dir, 4, 1024 * 1024, 10_000, cipher, now::get).get("k").getName());
+        //旧版本的明文文件不再读取并被删除
+        new ResultCache(dir, 4, 1024 * 1024, 10_000, now::get).put("old", result("王五"));
+        assertNull(new ResultCache(dir, 4, 1024 * 1024, 10_000, cipher, now::get).get("old"));
+        assertFalse(new File(dir, "old.json").exists());
+    }
+
+    @Test
+    public void resultCachedWhileRegistering_skipsUpstreamCall() throws Exception {
+        ManualRecognizer recognizer = new ManualRecognizer();
+        //模拟首次查缓存未命中，登记进行中请求前上一个相同请求已写入缓存
+        ResultCache cache = new ResultCache(null) {
+            @Override
+            public IdentifyResult get(String key) { return null; }
+        };
+        byte[] jpeg = {1, 2, 3};
+        cache.put(CachedOcrClient.cacheKey(Tc3Signer.sha256Hex(jpeg), CardSide.FRONT), result("张三"));
+        CachedOcrClient client = new CachedOcrClient(recognizer, cache);
+        assertEquals("张三", client.recognizeAsync(jpeg, CardSide.FRONT, Deadline.NONE).get(1, TimeUnit.SECONDS).getName());
+        assertEquals(0, recognizer.pending.size());
+        assertEquals(1, client.getHits());
+        assertEquals(0, client.getMisses());
+    }
+
+    @Test
+    public void memoryAndDisk_areBounded() {
+        ResultCache cache = new ResultCache(folder.getRoot(), 2, 600, ResultCache.DEFAULT_TTL_MS);
+        for (int i = 0; i < 10; i++) cache.put("key" + i, result("姓名" + i));
+        assertEquals(2, cache.getMemorySize());
+        long diskBytes = 0;
+        for (File f : folder.getRoot().listFiles()) diskBytes += f.length();
+        assertTrue(diskBytes <= 600);
+        assertTrue(cache.getEvictions() > 0);
+    }
+
+    //返回可取消Future的假识别器
+    private static final class FutureRecognizer implements IdCardRecognizer {
+        final List<OcrFuture<IdentifyResult>> pending = new ArrayList<>();
+
+        @Override
+        public void recognizeIdCard(byte[] jpegBytes, CardSide cardSide, OcrApiClient.Callback callback) {
+            OcrFuture.deliver(recognizeAsync(jpegBytes, cardSide, Deadline.NONE), callback);
+        }
+
+        @Override
+        public OcrFuture<IdentifyResult> recognizeAsync(byte[] jpegBytes, CardSide cardSide, Deadline deadline) {
+            OcrFuture<IdentifyResult> future = new OcrFuture<>();
+            pending.add(future);
+            return future;
+        }
+    }
+
+    @Test
+    public void sharedCall_isCancelledOnlyWhenAllWaitersLeave() {
+        FutureRecognizer recognizer = new FutureRecognizer();
+        CachedOcrClient client = new CachedOcrClient(recognizer, new ResultCache(null));
+        byte[] jpeg = {7, 7};
+        OcrFuture<IdentifyResult> a = client.recognizeAsync(jpeg, CardSide.FRONT, Deadline.NONE);
+        OcrFuture<IdentifyResult> b = client.recognizeAsync(jpeg, CardSide.FRONT, Deadline.NONE);
+        assertEquals(1, recognizer.pending.size());
+        OcrFuture<IdentifyResult> upstream = recognizer.pending.get(0);
+        a.cancel(true);
+        assertFalse(upstream.isCancelled());
+        b.cancel(true);
+        assertTrue(upstream.isCancelled());
+        assertEquals(1, client.getAbandoned());
+        //放弃后的相同请求重新发起
+        client.recognizeAsync(jpeg, CardSide.FRONT, Deadline.NONE);
+        assertEquals(2, recognizer.pending.size());
+    }
+
+    @Test
+    public void waiterDeadline_doesNotFailOtherWaiters() throws Exception {
+        FutureRecognizer recognizer = new FutureRecognizer();
+        CachedOcrClient client = new CachedOcrClient(recognizer, new ResultCache(null));
+        byte[] jpeg = {8, 8};
+        OcrFuture<IdentifyResult> hurried = client.recognizeAsync(jpeg, CardSide.FRONT, Deadline.after(50));
+        OcrFuture<IdentifyResult> patient = client.recognizeAsync(jpeg, CardSide.FRONT, Deadline.NONE);
+        try {
+            hurried.get(2, TimeUnit.SECONDS);
+            fail("应当超时");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertFalse(recognizer.pending.get(0).isCancelled());
+        recognizer.pending.get(0).complete(result("王五"));
+        assertEquals("王五", patient.get(2, TimeUnit.SECONDS).getName());
+    }
+
+    private static IdentifyResult result(String name) {
+        IdentifyResult result = new IdentifyResult();
+        result.setName(name);
+        result.setId("110101199003070000");
+        return result;
+    }
+}
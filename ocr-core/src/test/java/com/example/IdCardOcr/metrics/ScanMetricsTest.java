@@ -0,0 +1,81 @@
+package com.example.IdCardOcr.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+//耗时直方图与指标监听测试；记录开销见ocr-bench的MetricsBenchmark
+public class ScanMetricsTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void bucketIndex_isMonotonicAndUpperBoundContainsValue() {
+        int previous = -1;
+        for (long v = 0; v < 5_000_000; v = v < 64 ? v + 1 : v + v / 7) {
+            int index = LatencyHistogram.bucketIndex(v);
+            assertTrue(index >= previous);
+            assertTrue(v <= LatencyHistogram.bucketUpperBound(index));
+            //相对误差不超过12.5%
+            assertTrue(LatencyHistogram.bucketUpperBound(index) <= v + Math.max(0, v / 8));
+            previous = index;
+        }
+    }
+
+    @Test
+    public void percentiles_matchUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) histogram.record(i * MS, 10);
+        assertEquals(1000, histogram.getCount());
+        assertEquals(10_000, histogram.getTotalBytes());
+        assertEquals(500_000, histogram.percentileMicros(50), 500_000 / 8.0);
+        assertEquals(950_000, histogram.percentileMicros(95), 950_000 / 8.0);
+        assertEquals(990_000, histogram.percentileMicros(99), 990_000 / 8.0);
+        assertEquals(1_000_000, histogram.getMaxMicros());
+        assertTrue(histogram.percentileMicros(100) <= histogram.getMaxMicros());
+    }
+
+    @Test
+    public void concurrentRecording_countsEverySample() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) histogram.record(i * 1000L, 1);
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(9_999, histogram.getMaxMicros());
+    }
+
+    @Test
+    public void listenersReceiveRecordsAndSnapshotSkipsEmptyStages() {
+        ScanMetrics metrics = new ScanMetrics();
+        final List<Stage> seen = new ArrayList<>();
+        MetricsListener listener = (stage, durationNanos, bytes) -> seen.add(stage);
+        metrics.addListener(listener);
+        metrics.record(Stage.SIGN, 2 * MS, 0);
+        metrics.record(Stage.UPLOAD, 40 * MS, 1024);
+        metrics.removeListener(listener);
+        metrics.record(Stage.SIGN, 3 * MS, 0);
+        assertEquals(2, seen.size());
+        List<StageSnapshot> snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.size());
+        assertEquals(Stage.SIGN, snapshot.get(0).getStage());
+        assertEquals(2, snapshot.get(0).getCount());
+        assertEquals(1024, metrics.snapshot(Stage.UPLOAD).getTotalBytes());
+        //关闭后不再记录
+        metrics.setEnabled(false);
+        metrics.record(Stage.PARSE, MS, 0);
+        assertEquals(0, metrics.snapshot(Stage.PARSE).getCount());
+        metrics.reset();
+        assertTrue(metrics.snapshot().isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.IdCardOcr.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+//查表式Base64编码器单元测试，与旧实现逐字节对比；吞吐量见ocr-bench的Base64Benchmark
+public class Base64EncoderTest {
+    @Test
+    public void encode_matchesLegacyForAllTailLengths() {
+        Random random = new Random(42);
+        for (int len = 0; len <= 300; len++) {
+            byte[] data = new byte[len];
+            random.nextBytes(data);
+            assertEquals("len=" + len, LegacyBase64.encode(data), Base64Encoder.encodeToString(data));
+        }
+    }
+
+    @Test
+    public void encode_matchesLegacyOnLargePayload() {
+        byte[] data = randomBytes(1024 * 1024 + 1);
+        assertEquals(LegacyBase64.encode(data), Base64Util.encode(data));
+    }
+
+    @Test
+    public void encode_writesIntoCallerBufferAtOffset() {
+        byte[] data = "IdCardOcr".getBytes(StandardCharsets.US_ASCII);
+        byte[] dst = new byte[Base64Encoder.encodedLength(data.length) + 5];
+        int written = Base64Encoder.encode(data, 0, data.length, dst, 5);
+        assertEquals(12, written);
+        assertEquals("SWRDYXJkT2Ny", new String(dst, 5, written, StandardCharsets.US_ASCII));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void encode_rejectsTooSmallBuffer() {
+        Base64Encoder.encode(new byte[4], 0, 4, new byte[7], 0);
+    }
+
+    @Test
+    public void encode_byteBufferHeapAndDirectMatchLegacy() {
+        byte[] data = randomBytes(1000);
+        String expected = LegacyBase64.encode(data);
+        ByteBuffer heapOut = ByteBuffer.allocate(Base64Encoder.encodedLength(data.length));
+        Base64Encoder.encode(ByteBuffer.wrap(data), heapOut);
+        assertEquals(expected, new String(heapOut.array(), StandardCharsets.US_ASCII));
+
+        ByteBuffer directIn = ByteBuffer.allocateDirect(data.length);
+        directIn.put(data).flip();
+        ByteBuffer directOut = ByteBuffer.allocateDirect(Base64Encoder.encodedLength(data.length));
+        Base64Encoder.encode(directIn, directOut);
+        directOut.flip();
+        byte[] out = new byte[directOut.remaining()];
+        directOut.get(out);
+        assertEquals(expected, new String(out, StandardCharsets.US_ASCII));
+        assertFalse(directIn.hasRemaining());
+    }
+
+    @Test
+    public void outputStream_matchesLegacyWithIrregularWrites() throws Exception {
+        Random random = new Random(7);
+        byte[] data = randomBytes(100_003);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        Base64OutputStream out = new Base64OutputStream(sink, 64);
+        int pos = 0;
+        while (pos < data.length) {
+            int n = Math.min(data.length - pos, random.nextInt(200));
+            if (n == 1) out.write(data[pos]); else out.write(data, pos, n);
+            pos += n;
+        }
+        out.finish();
+        sink.write('"');
+        assertEquals(LegacyBase64.encode(data) + "\"", sink.toString("US-ASCII"));
+    }
+
+    private static byte[] randomBytes(int len) {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+        return data;
+    }
+}
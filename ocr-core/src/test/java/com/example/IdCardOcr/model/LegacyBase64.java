@@ -1,7 +1,7 @@
 package com.example.IdCardOcr.model;
 
-//Base64编码工具类
-public class Base64Util {
+//旧版逐6位编码实现，仅用于测试中对比输出和吞吐量
+class LegacyBase64 {
     //Base64编码常量
     private static final char last2byte = (char) Integer.parseInt("00000011", 2);
     private static final char last4byte = (char) Integer.parseInt("00001111", 2);
@@ -17,7 +17,7 @@ public class Base64Util {
             '4', '5', '6', '7', '8', '9', '+', '/'};
 
     //Base64编码方法
-    public static String encode(byte[] from) {
+    static String encode(byte[] from) {
         StringBuilder to = new StringBuilder((int) (from.length * 1.34) + 3);
         int num = 0;
         char currentByte = 0;
@@ -0,0 +1,56 @@
+package com.example.IdCardOcr.network;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Dns;
+
+import static org.junit.Assert.*;
+
+//DNS缓存测试，使用可控时钟和计数解析器
+public class CachingDnsTest {
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final AtomicLong now = new AtomicLong(0);
+    private final Dns delegate = hostname -> {
+        lookups.incrementAndGet();
+        if (failing.get()) throw new UnknownHostException(hostname);
+        List<InetAddress> addresses = Collections.singletonList(InetAddress.getByAddress(hostname, new byte[]{10, 0, 0, (byte) lookups.get()}));
+        return addresses;
+    };
+
+    @Test
+    public void lookup_isCachedUntilTtlExpires() throws Exception {
+        CachingDns dns = new CachingDns(delegate, 1000, now::get);
+        List<InetAddress> first = dns.lookup("ocr.tencentcloudapi.com");
+        now.set(999);
+        assertSame(first, dns.lookup("ocr.tencentcloudapi.com"));
+        assertEquals(1, lookups.get());
+        now.set(1000);
+        assertNotEquals(first, dns.lookup("ocr.tencentcloudapi.com"));
+        assertEquals(2, lookups.get());
+        assertEquals(1, dns.getHitCount());
+        assertEquals(2, dns.getMissCount());
+    }
+
+    @Test
+    public void lookup_servesStaleAddressWhenRefreshFails() throws Exception {
+        CachingDns dns = new CachingDns(delegate, 1000, now::get);
+        List<InetAddress> first = dns.lookup("ocr.tencentcloudapi.com");
+        failing.set(true);
+        now.set(5000);
+        assertSame(first, dns.lookup("ocr.tencentcloudapi.com"));
+        try {
+            dns.lookup("other.example.com");
+            fail("未缓存的主机解析失败应抛出异常");
+        } catch (UnknownHostException expected) {
+        }
+    }
+}
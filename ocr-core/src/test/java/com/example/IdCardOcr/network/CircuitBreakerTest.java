@@ -0,0 +1,56 @@
+package com.example.IdCardOcr.network;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+//熔断器状态转换测试：半开探测名额的占用、归还与丢失
+public class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final CircuitBreaker breaker = new CircuitBreaker(2, 100, now::get);
+
+    private void open() {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void halfOpen_allowsSingleProbe() {
+        open();
+        assertEquals(CircuitBreaker.Admission.REJECTED, breaker.admit());
+        now.addAndGet(100);
+        assertEquals(CircuitBreaker.Admission.PROBE, breaker.admit());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.Admission.ALLOWED, breaker.admit());
+    }
+
+    @Test
+    public void abandonedProbe_releasesSlotWithoutChangingState() {
+        open();
+        now.addAndGet(100);
+        assertEquals(CircuitBreaker.Admission.PROBE, breaker.admit());
+        breaker.onProbeAbandoned();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.Admission.PROBE, breaker.admit());
+        //非半开状态下归还不影响状态
+        breaker.onFailure();
+        breaker.onProbeAbandoned();
+        assertEquals(CircuitBreaker.Admission.REJECTED, breaker.admit());
+    }
+
+    @Test
+    public void lostProbe_isReplacedAfterOpenMs() {
+        open();
+        now.addAndGet(100);
+        assertEquals(CircuitBreaker.Admission.PROBE, breaker.admit());
+        now.addAndGet(99);
+        assertEquals(CircuitBreaker.Admission.REJECTED, breaker.admit());
+        now.addAndGet(1);
+        assertEquals(CircuitBreaker.Admission.PROBE, breaker.admit());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+//正反面并行识别测试，使用按面延迟返回的模拟识别器
+public class DualSideRecognizerTest {
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private long frontDelayMs = 300;
+    private long backDelayMs = 300;
+    private String frontError;
+    private String backError;
+
+    private final IdCardRecognizer fake = (jpegBytes, side, callback) -> {
+        long delay = side == CardSide.FRONT ? frontDelayMs : backDelayMs;
+        String error = side == CardSide.FRONT ? frontError : backError;
+        scheduler.schedule(() -> {
+            if (error != null) {
+                callback.onFailure(error);
+                return;
+            }
+            IdentifyResult result = new IdentifyResult();
+            if (side == CardSide.FRONT) {
+                result.setName("张三");
+                result.setId("110101199003070000");
+            } else {
+                result.setAuthority("北京市公安局东城分局");
+                result.setValidDate("2015.01.01-2035.01.01");
+            }
+            callback.onSuccess(result);
+        }, delay, TimeUnit.MILLISECONDS);
+    };
+
+    @After
+    public void tearDown() { scheduler.shutdownNow(); }
+
+    @Test
+    public void bothSides_mergeAndRunConcurrently() throws Exception {
+        long start = System.nanoTime();
+        Object outcome = run();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        IdentifyResult merged = (IdentifyResult) outcome;
+        assertEquals("张三", merged.getName());
+        assertEquals("110101199003070000", merged.getId());
+        assertEquals("北京市公安局东城分局", merged.getAuthority());
+        assertEquals("2015.01.01-2035.01.01", merged.getValidDate());
+        //两面并行，耗时接近单面而不是两面之和
+        assertTrue("elapsed=" + elapsedMs, elapsedMs < 550);
+    }
+
+    @Test
+    public void oneSideFailing_reportsPartialSuccess() throws Exception {
+        backError = "FailedOperation.ImageNoIdCard: test";
+        Object outcome = run();
+        assertTrue(outcome instanceof Object[]);
+        Object[] partial = (Object[]) outcome;
+        IdentifyResult merged = (IdentifyResult) partial[0];
+        assertEquals("张三", merged.getName());
+        assertNull(merged.getAuthority());
+        assertEquals(CardSide.BACK, partial[1]);
+        assertEquals(backError, partial[2]);
+    }
+
+    @Test
+    public void bothSidesFailing_reportsBothErrors() throws Exception {
+        frontError = "front";
+        backError = "back";
+        assertEquals("front|back", run());
+    }
+
+    @Test
+    public void preprocessFailure_countsAsSideFailureAndCallbackFiresOnce() throws Exception {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final int[] calls = {0};
+        DualSideRecognizer.Session session = new DualSideRecognizer(fake).start(callback(future, calls));
+        session.fail(CardSide.FRONT, "图片处理失败");
+        session.submit(CardSide.BACK, new byte[]{1});
+        Object[] partial = (Object[]) future.get(5, TimeUnit.SECONDS);
+        assertEquals(CardSide.FRONT, partial[1]);
+        assertEquals("北京市公安局东城分局", ((IdentifyResult) partial[0]).getAuthority());
+        //重复完成被忽略
+        session.fail(CardSide.BACK, "late");
+        Thread.sleep(50);
+        assertEquals(1, calls[0]);
+    }
+
+    private Object run() throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        new DualSideRecognizer(fake).recognize(new byte[]{1}, new byte[]{2}, callback(future, new int[1]));
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    //成功返回合并结果，部分成功返回{结果, 失败面, 错误}，全部失败返回"正面错误|反面错误"
+    private static DualSideRecognizer.Callback callback(final CompletableFuture<Object> future, final int[] calls) {
+        return new DualSideRecognizer.Callback() {
+            @Override
+            public void onSuccess(IdentifyResult merged) { calls[0]++; future.complete(merged); }
+            @Override
+            public void onPartialSuccess(IdentifyResult merged, CardSide failedSide, String error) {
+                calls[0]++;
+                future.complete(new Object[]{merged, failedSide, error});
+            }
+            @Override
+            public void onFailure(String frontError, String backError) { calls[0]++; future.complete(frontError + "|" + backError); }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.IdCardOcr.network;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+//接入点选择测试：RTT优先、切换滞回、故障转移和排除
+public class EndpointSelectorTest {
+    private final Endpoint guangzhou = new Endpoint("ap-guangzhou", "ocr.ap-guangzhou.tencentcloudapi.com");
+    private final Endpoint shanghai = new Endpoint("ap-shanghai", "ocr.ap-shanghai.tencentcloudapi.com");
+    private final Endpoint beijing = new Endpoint("ap-beijing", "ocr.ap-beijing.tencentcloudapi.com");
+    private final EndpointSelector selector = new EndpointSelector(guangzhou, shanghai, beijing);
+
+    @Test
+    public void firstEndpoint_isUsedUntilRttIsKnown() {
+        assertSame(guangzhou, selector.select());
+        shanghai.recordSuccess(40);
+        //首选RTT未知时切到已测得的接入点
+        assertSame(shanghai, selector.select());
+        assertEquals(1, selector.getSwitchCount());
+    }
+
+    @Test
+    public void fasterEndpoint_mustBeClearlyBetterToSwitch() {
+        guangzhou.recordSuccess(100);
+        shanghai.recordSuccess(90);
+        beijing.recordSuccess(150);
+        assertSame(guangzhou, selector.select());
+        shanghai.recordSuccess(30);
+        //EWMA: 0.3*30 + 0.7*90 = 72 < 100*0.8
+        assertEquals(72, shanghai.getRttMs(), 0.001);
+        assertSame(shanghai, selector.select());
+    }
+
+    @Test
+    public void unhealthyEndpoint_failsOverAndRecovers() {
+        guangzhou.recordSuccess(30);
+        shanghai.recordSuccess(80);
+        assertSame(guangzhou, selector.select());
+        for (int i = 0; i < Endpoint.UNHEALTHY_CONSECUTIVE_FAILURES; i++) guangzhou.recordFailure();
+        assertFalse(guangzhou.isHealthy());
+        assertSame(shanghai, selector.select());
+        //探测恢复后错误率逐步下降，重新健康且RTT明显更低时切回
+        for (int i = 0; i < 3; i++) guangzhou.recordSuccess(30);
+        assertTrue(guangzhou.isHealthy());
+        assertSame(guangzhou, selector.select());
+    }
+
+    @Test
+    public void twoFailures_keepEndpointHealthy_intermittentFailuresDoNot() {
+        guangzhou.recordFailure();
+        guangzhou.recordFailure();
+        assertTrue(guangzhou.isHealthy());
+        guangzhou.recordFailure();
+        assertFalse(guangzhou.isHealthy());
+        //一半请求失败：没有连续失败，由错误率判定
+        for (int i = 0; i < 20; i++) {
+            shanghai.recordSuccess(-1);
+            shanghai.recordFailure();
+        }
+        assertEquals(1, shanghai.getConsecutiveFailures());
+        assertFalse(shanghai.isHealthy());
+    }
+
+    @Test
+    public void allUnhealthy_picksLowestErrorRate() {
+        for (int i = 0; i < 5; i++) guangzhou.recordFailure();
+        for (int i = 0; i < 3; i++) shanghai.recordFailure();
+        for (int i = 0; i < 4; i++) beijing.recordFailure();
+        assertSame(shanghai, selector.select());
+    }
+
+    @Test
+    public void exclusion_routesRetryElsewhereWithoutChangingPreference() {
+        guangzhou.recordSuccess(30);
+        shanghai.recordSuccess(60);
+        beijing.recordSuccess(50);
+        assertSame(guangzhou, selector.select());
+        assertSame(beijing, selector.select(Collections.singleton(guangzhou)));
+        assertSame(guangzhou, selector.getCurrent());
+        //全部排除时退回全集
+        assertSame(guangzhou, selector.select(new java.util.HashSet<>(selector.getEndpoints())));
+    }
+
+    @Test
+    public void eachEndpoint_signsWithItsOwnHost() {
+        String hash = Tc3Signer.sha256Hex(new byte[]{1, 2, 3});
+        String a = guangzhou.getSigner().sign("id", "key", hash, 1_700_000_000L);
+        String b = shanghai.getSigner().sign("id", "key", hash, 1_700_000_000L);
+        assertNotEquals(a, b);
+        assertEquals(new Tc3Signer("ocr.ap-shanghai.tencentcloudapi.com", "ocr").sign("id", "key", hash, 1_700_000_000L), b);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.model.Base64Util;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+//流式请求体单元测试
+public class ImageRequestBodyTest {
+
+    @Test
+    public void writeTo_producesEnvelopeWithEncodedImage() throws Exception {
+        byte[] jpeg = randomBytes(10_001);
+        ImageRequestBody body = ImageRequestBody.fromBytes(jpeg, "FRONT");
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        assertEquals(body.contentLength(), buffer.size());
+        JsonObject json = new Gson().fromJson(buffer.readUtf8(), JsonObject.class);
+        assertEquals(Base64Util.encode(jpeg), json.get("ImageBase64").getAsString());
+        assertEquals("FRONT", json.get("CardSide").getAsString());
+    }
+
+    @Test
+    public void sha256Hex_matchesHashOfWrittenBytes() throws Exception {
+        ImageRequestBody body = ImageRequestBody.fromBytes(randomBytes(70_000), "FRONT");
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        byte[] written = buffer.readByteArray();
+        String expected = SignHelper.bytesToHex(MessageDigest.getInstance("SHA-256").digest(written));
+        assertEquals(expected, body.sha256Hex());
+    }
+
+    @Test
+    public void fromFile_matchesFromBytes() throws Exception {
+        byte[] jpeg = randomBytes(200_000);
+        File file = File.createTempFile("ocr", ".jpg");
+        file.deleteOnExit();
+        Files.write(file.toPath(), jpeg);
+        ImageRequestBody fromFile = ImageRequestBody.fromFile(file, "FRONT");
+        ImageRequestBody fromBytes = ImageRequestBody.fromBytes(jpeg, "FRONT");
+        Buffer a = new Buffer();
+        Buffer b = new Buffer();
+        fromFile.writeTo(a);
+        fromBytes.writeTo(b);
+        assertEquals(b.readByteString(), a.readByteString());
+        assertEquals(fromBytes.sha256Hex(), fromFile.sha256Hex());
+    }
+
+    private static byte[] randomBytes(int len) {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+        return data;
+    }
+}
@@ -1,12 +1,5 @@
 package com.example.IdCardOcr.network;
 
-import android.content.Context;
-import android.util.Log;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.text.SimpleDateFormat;
@@ -17,9 +10,8 @@ import java.util.TimeZone;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
-//腾讯云API V3签名辅助类
-public class SignHelper {
-    //服务配置常量
+//旧版逐次计算的TC3签名实现，仅用于测试中对比签名结果和吞吐量
+class LegacyTc3Sign {
     private static final String HOST = "ocr.tencentcloudapi.com";
     private static final String SERVICE = "ocr";
     private static final String ALGORITHM = "TC3-HMAC-SHA256";
@@ -27,47 +19,17 @@ public class SignHelper {
     private static final String HTTP_METHOD = "POST";
     private static final String HTTP_URI = "/";
     private static final String CONTENT_TYPE = "application/json; charset=utf-8";
-    //密钥存储
-    private static String SECRET_ID = null;
-    private static String SECRET_KEY = null;
-    private static boolean HAS_SECRET_ID = false;
-    private static boolean HAS_SECRET_KEY = false;
 
-    //从assets/env文件加载密钥
-    public static void init(Context context) {
-        try {
-            InputStream is = context.getAssets().open("env");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-            String line;
-            //逐行读取配置
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.contains("TENCENT_SECRET_ID")) {
-                    String[] parts = line.split("=", 2);
-                    if (parts.length == 2) {
-                        SECRET_ID = parts[1].trim();
-                        HAS_SECRET_ID = SECRET_ID != null && !SECRET_ID.isEmpty();
-                    }
-                } else if (line.contains("TENCENT_SECRET_KEY")) {
-                    String[] parts = line.split("=", 2);
-                    if (parts.length == 2) {
-                        SECRET_KEY = parts[1].trim();
-                        HAS_SECRET_KEY = SECRET_KEY != null && !SECRET_KEY.isEmpty();
-                    }
-                }
-            }
-            reader.close();
-            Log.d("SignHelper", "密钥加载成功");
-        } catch (IOException e) {
-            Log.e("SignHelper", "加载env文件失败: " + e.getMessage());
-        }
+    //生成腾讯云API V3签名
+    static String generateSign(String secretId, String secretKey, String requestBody, long timestamp) {
+        return generateSignForPayloadHash(secretId, secretKey, sha256Hash(requestBody), timestamp);
     }
 
-    //生成腾讯云API V3签名
-    public static String generateSign(String secretId, String secretKey, String requestBody, long timestamp) {
+    //使用预先计算的请求体SHA-256生成签名，供流式请求体使用
+    static String generateSignForPayloadHash(String secretId, String secretKey, String hashedRequestBody, long timestamp) {
         try {
             //构建规范请求串
-            String canonicalRequest = buildCanonicalRequest(requestBody);
+            String canonicalRequest = buildCanonicalRequest(hashedRequestBody);
             String date = getUtcDate(timestamp);
             String credentialScope = date + "/" + SERVICE + "/" + TERMINATOR;
             String hashedCanonicalRequest = sha256Hash(canonicalRequest);
@@ -85,8 +47,7 @@ public class SignHelper {
     }
 
     //构建规范请求串
-    private static String buildCanonicalRequest(String requestBody) {
-        String hashedRequestBody = sha256Hash(requestBody);
+    private static String buildCanonicalRequest(String hashedRequestBody) {
         String canonicalHeaders = "content-type:" + CONTENT_TYPE + "\n" + "host:" + HOST + "\n";
         String signedHeaders = "content-type;host";
         return HTTP_METHOD + "\n" + HTTP_URI + "\n" + "\n" + canonicalHeaders + "\n" + signedHeaders + "\n" + hashedRequestBody;
@@ -156,7 +117,7 @@ public class SignHelper {
     }
 
     //字节数组转十六进制字符串
-    private static String bytesToHex(byte[] bytes) {
+    static String bytesToHex(byte[] bytes) {
         StringBuilder result = new StringBuilder();
         for (byte b : bytes) result.append(String.format("%02x", b));
         return result.toString();
@@ -168,19 +129,4 @@ public class SignHelper {
         sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
         return sdf.format(new Date(timestamp * 1000));
     }
-
-    //Getter方法
-    public static String getSecretId() { return SECRET_ID; }
-    public static String getSecretKey() { return SECRET_KEY; }
-    public static String getHost() { return HOST; }
-    public static String getService() { return SERVICE; }
-    public static boolean hasValidCredentials() { return HAS_SECRET_ID && HAS_SECRET_KEY; }
-
-    //获取密钥配置状态
-    public static String getCredentialsStatus() {
-        if (!HAS_SECRET_ID && !HAS_SECRET_KEY) return "密钥未配置（env文件未找到或内容为空）";
-        String idStatus = HAS_SECRET_ID ? "已设置(" + SECRET_ID.substring(0, Math.min(10, SECRET_ID.length())) + "...)" : "未设置";
-        String keyStatus = HAS_SECRET_KEY ? "已设置(" + SECRET_KEY.substring(0, Math.min(10, SECRET_KEY.length())) + "...)" : "未设置";
-        return "SECRET_ID=" + idStatus + ", SECRET_KEY=" + keyStatus;
-    }
-}
\ No newline at end of file
+}
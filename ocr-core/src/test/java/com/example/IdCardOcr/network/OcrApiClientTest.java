@@ -0,0 +1,406 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.metrics.ScanMetrics;
+import com.example.IdCardOcr.metrics.Stage;
+import com.example.IdCardOcr.model.IdentifyResult;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+//OcrApiClient重试、熔断与对冲测试，使用本地模拟服务器
+public class OcrApiClientTest {
+    static final String SUCCESS_BODY = "{\"Response\":{\"Name\":\"张三\",\"Sex\":\"男\",\"Nation\":\"汉\",\"Birth\":\"1990/3/7\","
+            + "\"Address\":\"北京市东城区\",\"IdNum\":\"110101199003070000\",\"RequestId\":\"r-1\"}}";
+    static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9};
+
+    private MockWebServer server;
+    private OcrApiClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new OcrApiClient(new OkHttpClient(), server.url("/").toString());
+        client.setRetryPolicy(new RetryPolicy(3, 1, 5, 0));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    static String errorBody(String code) {
+        return "{\"Response\":{\"Error\":{\"Code\":\"" + code + "\",\"Message\":\"test\"},\"RequestId\":\"r-2\"}}";
+    }
+
+    @Test
+    public void success_parsesResultAndSignsRequest() throws Exception {
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        IdentifyResult result = recognize().get(5, TimeUnit.SECONDS);
+        assertEquals("张三", result.getName());
+        assertEquals("110101199003070000", result.getId());
+        RecordedRequest request = server.takeRequest();
+        assertEquals("IDCardOCR", request.getHeader("X-TC-Action"));
+        assertTrue(request.getHeader("Authorization").startsWith("TC3-HMAC-SHA256 Credential="));
+        assertTrue(request.getBody().readUtf8().startsWith("{\"ImageBase64\":\""));
+    }
+
+    @Test
+    public void throttledAndServerErrors_areRetried() throws Exception {
+        server.enqueue(new MockResponse().setBody(errorBody("RequestLimitExceeded")));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void retriesStopAtMaxAttempts() throws Exception {
+        for (int i = 0; i < 5; i++) server.enqueue(new MockResponse().setBody(errorBody("InternalError")));
+        String error = failure(recognize());
+        assertTrue(error, error.startsWith("InternalError"));
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void fatalErrorCode_isNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setBody(errorBody("FailedOperation.ImageNoIdCard")));
+        String error = failure(recognize());
+        assertTrue(error, error.startsWith("FailedOperation.ImageNoIdCard"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void circuitBreaker_failsFastAfterRepeatedFailures() throws Exception {
+        for (int i = 0; i < 10; i++) server.enqueue(new MockResponse().setResponseCode(500));
+        failure(recognize());
+        failure(recognize());
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+        int before = server.getRequestCount();
+        failure(recognize());
+        assertEquals(before, server.getRequestCount());
+        //熔断打开属于临时故障，调用方可转入离线队列
+        try {
+            client.recognizeAsync(JPEG, CardSide.FRONT, Deadline.NONE).get(5, TimeUnit.SECONDS);
+            fail("应当失败");
+        } catch (ExecutionException e) {
+            assertTrue(OcrFuture.isTransient(e));
+        }
+    }
+
+    @Test
+    public void throttledHalfOpenProbe_doesNotWedgeBreaker() throws Exception {
+        client.setCircuitBreaker(new CircuitBreaker(1, 50));
+        client.setRetryPolicy(RetryPolicy.NONE);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        failure(recognize());
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+        Thread.sleep(60);
+        //探测请求被限流：既不说明健康也不说明故障，名额归还
+        server.enqueue(new MockResponse().setBody(errorBody("RequestLimitExceeded")));
+        failure(recognize());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, client.getCircuitBreaker().getState());
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void throttledHalfOpenProbe_isRetriedAsProbe() throws Exception {
+        client.setCircuitBreaker(new CircuitBreaker(1, 50));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        client.setRetryPolicy(RetryPolicy.NONE);
+        failure(recognize());
+        client.setRetryPolicy(new RetryPolicy(3, 1, 5, 0));
+        Thread.sleep(60);
+        server.enqueue(new MockResponse().setResponseCode(429));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void hedging_returnsFasterSecondRequest() throws Exception {
+        client.setRetryPolicy(new RetryPolicy(1, 1, 5, 100));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY).setHeadersDelay(3, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        long start = System.nanoTime();
+        assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void hedgeDeniedByRateLimiter_keepsPrimaryCall() throws Exception {
+        client.setRetryPolicy(new RetryPolicy(1, 1, 5, 100));
+        client.setRateLimit("IDCardOCR", 1, 1, 0);
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY).setHeadersDelay(400, TimeUnit.MILLISECONDS));
+        assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, client.getRateLimiter().getRejectedCount());
+    }
+
+    @Test
+    public void setMaxConcurrentRequests_neverLowersPerHostLimit() {
+        int before = client.getMaxRequestsPerHost();
+        client.setMaxConcurrentRequests(1);
+        assertEquals(before, client.getMaxRequestsPerHost());
+        //每个识别预留一个对冲请求
+        client.setMaxConcurrentRequests(8);
+        assertEquals(16, client.getMaxRequestsPerHost());
+    }
+
+    @Test
+    public void rateLimiter_spacesBurstOfRequests() throws Exception {
+        client.setRateLimit("IDCardOCR", 5, 1, 5000);
+        for (int i = 0; i < 3; i++) server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        long start = System.nanoTime();
+        CompletableFuture<IdentifyResult> a = recognize();
+        CompletableFuture<IdentifyResult> b = recognize();
+        CompletableFuture<IdentifyResult> c = recognize();
+        CompletableFuture.allOf(a, b, c).get(5, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(350));
+        assertEquals(2, client.getRateLimiter().getDelayedCount());
+        assertEquals(0, client.getRateLimiter().getQueueDepth());
+    }
+
+    @Test
+    public void rateLimiter_rejectsWhenQueueWaitTooLong() throws Exception {
+        client.setRateLimit("IDCardOCR", 1, 1, 100);
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        recognize().get(5, TimeUnit.SECONDS);
+        String error = failure(recognize());
+        assertTrue(error, error.contains("排队超时"));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void metrics_recordEachPipelineStage() throws Exception {
+        ScanMetrics metrics = new ScanMetrics();
+        client = new OcrApiClient(new OkHttpClient(), server.url("/").toString(), metrics);
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        recognize().get(5, TimeUnit.SECONDS);
+        for (Stage stage : new Stage[]{Stage.BODY_HASH, Stage.SIGN, Stage.CONNECT, Stage.UPLOAD, Stage.SERVER,
+                Stage.DOWNLOAD, Stage.CALL, Stage.PARSE, Stage.TOTAL}) {
+            assertEquals(stage.name(), 1, metrics.snapshot(stage).getCount());
+        }
+        assertEquals(SUCCESS_BODY.getBytes("UTF-8").length, metrics.snapshot(Stage.DOWNLOAD).getTotalBytes());
+        assertTrue(metrics.snapshot(Stage.UPLOAD).getTotalBytes() > JPEG.length);
+    }
+
+    @Test
+    public void warmUp_preconnectsSoFirstRequestReusesConnection() throws Exception {
+        ScanMetrics metrics = new ScanMetrics();
+        client = new OcrApiClient(new OkHttpClient(), server.url("/").toString(), metrics);
+        server.enqueue(new MockResponse());
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        CountDownLatch warmed = new CountDownLatch(1);
+        assertTrue(client.warmUp(warmed::countDown));
+        assertTrue(warmed.await(5, TimeUnit.SECONDS));
+        //连接池已有空闲连接，不重复预热
+        assertFalse(client.warmUp(null));
+        assertEquals("HEAD", server.takeRequest().getMethod());
+        recognize().get(5, TimeUnit.SECONDS);
+        assertEquals(1, metrics.getReusedConnections());
+        assertEquals(0, metrics.getNewConnections());
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    public void failingEndpoint_failsOverAndSignsForNewHost() throws Exception {
+        MockWebServer backup = new MockWebServer();
+        backup.start();
+        try {
+            Endpoint primary = new Endpoint("ap-guangzhou", "ocr.ap-guangzhou.tencentcloudapi.com", server.url("/").toString());
+            Endpoint secondary = new Endpoint("ap-shanghai", "ocr.ap-shanghai.tencentcloudapi.com", backup.url("/").toString());
+            EndpointSelector selector = new EndpointSelector(primary, secondary);
+            client = new OcrApiClient(new OkHttpClient(), selector, new ScanMetrics());
+            client.setRetryPolicy(new RetryPolicy(3, 1, 5, 0));
+            server.enqueue(new MockResponse().setResponseCode(503));
+            backup.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+            assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+            assertEquals("ap-guangzhou", server.takeRequest().getHeader("X-TC-Region"));
+            //重试发往另一地域，Host头、地域和签名都与新接入点一致
+            RecordedRequest retried = backup.takeRequest();
+            assertEquals("ocr.ap-shanghai.tencentcloudapi.com", retried.getHeader("Host"));
+            assertEquals("ap-shanghai", retried.getHeader("X-TC-Region"));
+            long timestamp = Long.parseLong(retried.getHeader("X-TC-Timestamp"));
+            String hash = Tc3Signer.sha256Hex(retried.getBody().readByteArray());
+            String expected = new Tc3Signer("ocr.ap-shanghai.tencentcloudapi.com", "ocr")
+                    .sign(SignHelper.getSecretId(), SignHelper.getSecretKey(), hash, timestamp);
+            assertEquals(expected, retried.getHeader("Authorization"));
+            assertEquals(1, primary.getFailureCount());
+            assertEquals(1, secondary.getSuccessCount());
+        } finally {
+            backup.shutdown();
+        }
+    }
+
+    @Test
+    public void singleRegionFailure_doesNotOpenBreakerForAllRegions() throws Exception {
+        MockWebServer backup = new MockWebServer();
+        backup.start();
+        try {
+            Endpoint primary = new Endpoint("ap-guangzhou", "ocr.ap-guangzhou.tencentcloudapi.com", server.url("/").toString());
+            Endpoint secondary = new Endpoint("ap-shanghai", "ocr.ap-shanghai.tencentcloudapi.com", backup.url("/").toString());
+            client = new OcrApiClient(new OkHttpClient(), new EndpointSelector(primary, secondary), new ScanMetrics());
+            client.setRetryPolicy(new RetryPolicy(3, 1, 5, 0));
+            client.setCircuitBreaker(new CircuitBreaker(1, 60_000));
+            server.enqueue(new MockResponse().setResponseCode(503));
+            backup.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+            assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+            assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+            //所有地域都失败时才熔断
+            server.enqueue(new MockResponse().setResponseCode(503));
+            backup.enqueue(new MockResponse().setResponseCode(503));
+            assertNotNull(failure(recognize()));
+            assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+        } finally {
+            backup.shutdown();
+        }
+    }
+
+    @Test
+    public void prober_routesToFasterEndpoint() throws Exception {
+        MockWebServer slow = new MockWebServer();
+        slow.start();
+        try {
+            Endpoint primary = new Endpoint("ap-guangzhou", "ocr.ap-guangzhou.tencentcloudapi.com", slow.url("/").toString());
+            Endpoint fast = new Endpoint("ap-shanghai", "ocr.ap-shanghai.tencentcloudapi.com", server.url("/").toString());
+            EndpointSelector selector = new EndpointSelector(primary, fast);
+            slow.enqueue(new MockResponse().setHeadersDelay(500, TimeUnit.MILLISECONDS));
+            server.enqueue(new MockResponse());
+            CountDownLatch probed = new CountDownLatch(1);
+            new EndpointProber(new OkHttpClient(), selector, null).probeAll(probed::countDown);
+            assertTrue(probed.await(5, TimeUnit.SECONDS));
+            assertTrue(primary.getRttMs() >= 500);
+            assertSame(fast, selector.getCurrent());
+        } finally {
+            slow.shutdown();
+        }
+    }
+
+    @Test
+    public void recognizeAsync_cancelAbortsInFlightCallWithoutRetry() throws Exception {
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY).setHeadersDelay(3, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        OcrFuture<IdentifyResult> future = client.recognizeAsync(JPEG, CardSide.FRONT, Deadline.NONE);
+        server.takeRequest(5, TimeUnit.SECONDS);
+        assertTrue(future.cancel(true));
+        Thread.sleep(200);
+        assertEquals(1, client.getCancelledCount());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void recognizeAsync_deadlineExpiresSlowRequest() throws Exception {
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY).setHeadersDelay(3, TimeUnit.SECONDS));
+        long start = System.nanoTime();
+        try {
+            client.recognizeAsync(JPEG, CardSide.FRONT, Deadline.after(300)).get(5, TimeUnit.SECONDS);
+            fail("应当超时");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        //超时先结束Future再在定时线程中止请求
+        Thread.sleep(200);
+        assertEquals(1, client.getCancelledCount());
+    }
+
+    @Test
+    public void cancelledHalfOpenProbe_releasesBreaker() throws Exception {
+        client.setCircuitBreaker(new CircuitBreaker(1, 50));
+        client.setRetryPolicy(RetryPolicy.NONE);
+        server.enqueue(new MockResponse().setResponseCode(500));
+        failure(recognize());
+        Thread.sleep(60);
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY).setHeadersDelay(3, TimeUnit.SECONDS));
+        OcrFuture<IdentifyResult> probe = client.recognizeAsync(JPEG, CardSide.FRONT, Deadline.NONE);
+        server.takeRequest(5, TimeUnit.SECONDS);
+        probe.cancel(true);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, client.getCircuitBreaker().getState());
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+    }
+
+    @Test
+    public void recognizeAsync_skipsRetryThatCannotFinishBeforeDeadline() throws Exception {
+        client.setRetryPolicy(new RetryPolicy(3, 2000, 2000, 0));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY));
+        try {
+            client.recognizeAsync(JPEG, CardSide.FRONT, Deadline.after(1000)).get(5, TimeUnit.SECONDS);
+            fail("应当失败");
+        } catch (ExecutionException e) {
+            assertFalse(e.getCause() instanceof TimeoutException);
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void signatureExpire_calibratesClockAndResignsOnce() throws Exception {
+        //服务器时间比本机快2小时
+        long serverMs = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2);
+        String serverDate = DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(serverMs).atZone(ZoneOffset.UTC));
+        server.enqueue(new MockResponse().setBody(errorBody("AuthFailure.SignatureExpire")).addHeader("Date", serverDate));
+        server.enqueue(new MockResponse().setBody(SUCCESS_BODY).addHeader("Date", serverDate));
+        assertEquals("张三", recognize().get(5, TimeUnit.SECONDS).getName());
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, client.getClockSkewRetryCount());
+        long stale = Long.parseLong(server.takeRequest().getHeader("X-TC-Timestamp"));
+        RecordedRequest resigned = server.takeRequest();
+        long timestamp = Long.parseLong(resigned.getHeader("X-TC-Timestamp"));
+        assertTrue(Math.abs(timestamp - serverMs / 1000) <= 5);
+        assertTrue(timestamp - stale > 7000);
+        //凭证日期与校准后的时间戳一致
+        assertTrue(resigned.getHeader("Authorization").contains("/" + Tc3Signer.utcDate(timestamp) + "/ocr/tc3_request"));
+    }
+
+    @Test
+    public void signatureExpire_isResignedOnlyOnce() throws Exception {
+        for (int i = 0; i < 3; i++) server.enqueue(new MockResponse().setBody(errorBody("AuthFailure.SignatureExpire")));
+        String error = failure(recognize());
+        assertTrue(error, error.startsWith("AuthFailure.SignatureExpire"));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+    }
+
+    private CompletableFuture<IdentifyResult> recognize() {
+        final CompletableFuture<IdentifyResult> future = new CompletableFuture<>();
+        client.recognizeIdCard(JPEG, new OcrApiClient.Callback() {
+            @Override
+            public void onSuccess(IdentifyResult result) { future.complete(result); }
+            @Override
+            public void onFailure(String error) { future.completeExceptionally(new RuntimeException(error)); }
+        });
+        return future;
+    }
+
+    private static String failure(CompletableFuture<IdentifyResult> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (java.util.concurrent.ExecutionException e) {
+            return e.getCause().getMessage();
+        }
+        fail("应当失败");
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.IdCardOcr.network;
+
+import com.example.IdCardOcr.model.IdentifyResult;
+
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+//可取消Future测试：中止动作、截止时间和派生阶段的级联取消
+public class OcrFutureTest {
+
+    @Test
+    public void cancel_runsAbortActionsOnce() {
+        AtomicInteger aborted = new AtomicInteger();
+        OcrFuture<String> future = new OcrFuture<String>().onAbort(aborted::incrementAndGet);
+        assertTrue(future.cancel(true));
+        future.cancel(true);
+        assertEquals(1, aborted.get());
+        //已中止后登记的动作立即执行
+        future.onAbort(aborted::incrementAndGet);
+        assertEquals(2, aborted.get());
+    }
+
+    @Test
+    public void normalCompletion_doesNotAbort() {
+        AtomicInteger aborted = new AtomicInteger();
+        OcrFuture<String> future = new OcrFuture<String>().onAbort(aborted::incrementAndGet);
+        future.complete("ok");
+        future.cancel(true);
+        assertEquals(0, aborted.get());
+    }
+
+    @Test
+    public void deadline_failsWithTimeoutAndAborts() throws Exception {
+        CountDownLatch aborted = new CountDownLatch(1);
+        OcrFuture<String> future = new OcrFuture<String>().onAbort(aborted::countDown).expireAt(Deadline.after(50));
+        try {
+            future.get(2, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+            assertEquals("识别超时", OcrFuture.errorMessage(e));
+        }
+        //超时先结束Future再在定时线程执行中止动作
+        assertTrue(aborted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancellingDerivedStage_cancelsCurrentUpstream() {
+        OcrFuture<Integer> preprocess = new OcrFuture<>();
+        OcrFuture<String> upload = new OcrFuture<>();
+        OcrFuture<String> chain = preprocess.map(n -> n * 2).then(n -> upload);
+        //第一阶段进行中：取消传到预处理
+        OcrFuture<Integer> first = new OcrFuture<>();
+        OcrFuture<String> early = first.then(n -> upload);
+        early.cancel(true);
+        assertTrue(first.isCancelled());
+        assertFalse(upload.isCancelled());
+        //第二阶段进行中：取消传到上传
+        preprocess.complete(21);
+        chain.cancel(true);
+        assertTrue(upload.isCancelled());
+    }
+
+    @Test
+    public void chain_propagatesResultsAndErrors() throws Exception {
+        OcrFuture<String> ok = OcrFuture.completed(20).map(n -> n + 1).then(n -> OcrFuture.completed("n=" + n));
+        assertEquals("n=21", ok.get());
+        OcrFuture<String> failed = OcrFuture.<Integer>failed(new OcrException("HTTP错误: 500"))
+                .then(n -> OcrFuture.completed("unreachable"))
+                .mapError(error -> new OcrException("包装: " + error.getMessage()));
+        try {
+            failed.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("包装: HTTP错误: 500", OcrFuture.errorMessage(e));
+        }
+        assertEquals("已取消", OcrFuture.errorMessage(new CancellationException()));
+    }
+
+    @Test
+    public void failureKind_survivesCallbackAndFutureConversions() throws Exception {
+        OcrFuture<IdentifyResult> future = new OcrFuture<>();
+        OcrFuture.completing(future).onFailure("网络请求失败: reset", ErrorClassifier.Kind.RETRYABLE);
+        assertTrue(OcrFuture.isTransient(new ExecutionException(new OcrException("x", ErrorClassifier.Kind.THROTTLED))));
+        final ErrorClassifier.Kind[] delivered = new ErrorClassifier.Kind[1];
+        OcrFuture.deliver(future, new OcrApiClient.Callback() {
+            @Override
+            public void onSuccess(IdentifyResult result) { }
+            @Override
+            public void onFailure(String error) { }
+            @Override
+            public void onFailure(String error, ErrorClassifier.Kind kind) { delivered[0] = kind; }
+        });
+        assertEquals(ErrorClassifier.Kind.RETRYABLE, delivered[0]);
+        assertTrue(OcrFuture.isTransient(new TimeoutException()));
+        assertFalse(OcrFuture.isTransient(new CancellationException()));
+        assertFalse(OcrFuture.isTransient(new OcrException("FailedOperation.ImageNoIdCard: test")));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.IdCardOcr.network;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+//流式响应解析测试
+public class OcrResponseReaderTest {
+
+    @Test
+    public void read_fillsResultAndSkipsUnknownFields() throws Exception {
+        char[] image = new char[2 * 1024 * 1024];
+        Arrays.fill(image, 'A');
+        String json = "{\"Response\":{\"Name\":\"张三\",\"Sex\":\"男\",\"Nation\":\"汉\",\"Birth\":\"1990/3/7\","
+                + "\"Address\":\"北京市东城区\",\"IdNum\":\"110101199003070000\","
+                + "\"AdvancedInfo\":\"{\\\"IdCard\\\":\\\"" + new String(image) + "\\\",\\\"WarnInfos\\\":[]}\","
+                + "\"ReflectDetailInfos\":[{\"Type\":1,\"Nested\":{\"a\":[1,2,{\"b\":null}]}}],"
+                + "\"RequestId\":\"r-1\"},\"Extra\":[true,false]}";
+        OcrResponseReader.Parsed parsed = OcrResponseReader.read(new StringReader(json));
+        assertFalse(parsed.isError());
+        assertEquals("r-1", parsed.requestId);
+        assertEquals("张三", parsed.result.getName());
+        assertEquals("男", parsed.result.getSex());
+        assertEquals("汉", parsed.result.getNation());
+        assertEquals("1990/3/7", parsed.result.getBirth());
+        assertEquals("北京市东城区", parsed.result.getAddress());
+        assertEquals("110101199003070000", parsed.result.getId());
+    }
+
+    @Test
+    public void read_fillsBackSideFields() throws Exception {
+        OcrResponseReader.Parsed parsed = OcrResponseReader.read(new StringReader(
+                "{\"Response\":{\"Name\":\"\",\"Authority\":\"北京市公安局东城分局\",\"ValidDate\":\"2015.01.01-2035.01.01\"}}"));
+        assertEquals("北京市公安局东城分局", parsed.result.getAuthority());
+        assertEquals("2015.01.01-2035.01.01", parsed.result.getValidDate());
+    }
+
+    @Test
+    public void read_returnsErrorWithoutResult() throws Exception {
+        OcrResponseReader.Parsed parsed = OcrResponseReader.read(new StringReader(OcrApiClientTest.errorBody("InternalError")));
+        assertTrue(parsed.isError());
+        assertEquals("InternalError", parsed.errorCode);
+        assertEquals("test", parsed.errorMessage);
+        assertNull(parsed.result);
+    }
+
+    @Test
+    public void read_toleratesNullsAndWrongTypes() throws Exception {
+        OcrResponseReader.Parsed parsed = OcrResponseReader.read(new StringReader(
+                "{\"Response\":{\"Name\":null,\"IdNum\":{\"x\":1},\"Birth\":19900307,\"Error\":null}}"));
+        assertFalse(parsed.isError());
+        assertNull(parsed.result.getName());
+        assertNull(parsed.result.getId());
+        assertEquals("19900307", parsed.result.getBirth());
+    }
+
+    @Test
+    public void read_returnsNullWithoutResponseObject() throws Exception {
+        assertNull(OcrResponseReader.read(new StringReader("{\"Other\":{}}")));
+        assertNull(OcrResponseReader.read(new StringReader("{\"Response\":null}")));
+    }
+}
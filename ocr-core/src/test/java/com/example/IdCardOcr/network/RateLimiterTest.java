@@ -0,0 +1,90 @@
+package com.example.IdCardOcr.network;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+//令牌桶限流器测试，使用可控时钟
+public class RateLimiterTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void burst_passesImmediatelyThenRequestsAreSpaced() {
+        AtomicLong now = new AtomicLong(1_000 * MS);
+        RateLimiter limiter = new RateLimiter(10, 3, 1000, now::get);
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(100 * MS, limiter.reserve());
+        assertEquals(200 * MS, limiter.reserve());
+        assertEquals(2, limiter.getQueueDepth());
+        assertEquals(2, limiter.getDelayedCount());
+        limiter.onDequeued();
+        assertEquals(1, limiter.getQueueDepth());
+        //空闲足够久后恢复突发额度
+        now.addAndGet(10_000 * MS);
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void reserve_rejectsWhenWaitExceedsLimitWithoutConsumingToken() {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(1, 1, 1500, now::get);
+        assertEquals(0, limiter.reserve());
+        assertEquals(1000 * MS, limiter.reserve());
+        assertEquals(-1, limiter.reserve());
+        assertEquals(1, limiter.getRejectedCount());
+        now.addAndGet(1000 * MS);
+        assertEquals(1000 * MS, limiter.reserve());
+    }
+
+    @Test
+    public void release_returnsUnusedToken() {
+        AtomicLong now = new AtomicLong(0);
+        RateLimiter limiter = new RateLimiter(1, 1, 0, now::get);
+        assertEquals(0, limiter.reserve());
+        assertEquals(-1, limiter.reserve());
+        limiter.release();
+        assertEquals(0, limiter.reserve());
+        //桶已满时归还不会累积额外的突发额度
+        now.addAndGet(5000 * MS);
+        limiter.release();
+        assertEquals(0, limiter.reserve());
+        assertEquals(-1, limiter.reserve());
+        assertEquals(2, limiter.getReturnedCount());
+    }
+
+    @Test
+    public void concurrentCallers_neverExceedConfiguredRate() throws Exception {
+        final AtomicLong now = new AtomicLong(0);
+        final RateLimiter limiter = new RateLimiter(100, 5, 60_000, now::get);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    List<Long> waits = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) waits.add(limiter.reserve());
+                    return waits;
+                }));
+            }
+            List<Long> all = new ArrayList<>();
+            for (Future<List<Long>> f : futures) all.addAll(f.get());
+            all.sort(Long::compare);
+            //800个请求：前5个突发，其余每10ms一个，且等待时间互不相同
+            assertEquals(800, limiter.getAcquiredCount());
+            assertEquals(0L, (long) all.get(4));
+            for (int i = 5; i < all.size(); i++) assertEquals((i - 4) * 10 * MS, (long) all.get(i));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.IdCardOcr.network;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+//服务器时钟校准测试：偏差估算、小幅抖动忽略
+public class ServerClockTest {
+
+    @Test
+    public void serverDate_adjustsOffsetAndTimestamp() {
+        AtomicLong now = new AtomicLong(1_700_000_000_000L);
+        ServerClock clock = new ServerClock(now::get);
+        assertEquals(1_700_000_000L, clock.nowSeconds());
+        //本机慢10分钟：服务器Date为整秒，按该秒中点估算
+        long serverDate = now.get() + 600_000;
+        assertTrue(clock.onServerDate(serverDate, now.get()));
+        assertEquals(600_500, clock.getOffsetMs());
+        assertEquals(1_700_000_600L, clock.nowSeconds());
+        assertEquals(1, clock.getAdjustmentCount());
+    }
+
+    @Test
+    public void smallDifferences_areIgnored() {
+        AtomicLong now = new AtomicLong(1_700_000_000_000L);
+        ServerClock clock = new ServerClock(now::get);
+        assertFalse(clock.onServerDate(now.get() - 1_000, now.get()));
+        assertEquals(0, clock.getOffsetMs());
+        clock.onServerDate(now.get() - 3_600_000, now.get());
+        //已校准后同方向的小幅变化不再调整
+        assertFalse(clock.onServerDate(now.get() - 3_600_000 + 1_000, now.get()));
+        assertEquals(-3_599_500, clock.getOffsetMs());
+        assertEquals(3, clock.getSampleCount());
+        assertEquals(1, clock.getAdjustmentCount());
+    }
+}
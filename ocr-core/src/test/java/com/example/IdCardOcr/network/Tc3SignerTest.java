@@ -0,0 +1,82 @@
+package com.example.IdCardOcr.network;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+//TC3签名器单元测试，与旧实现逐一对比签名；并发吞吐量见ocr-bench的SignBenchmark
+public class Tc3SignerTest {
+    private static final String SECRET_ID = "AKIDz8krbsJ5yKBZQpn74WFkmLPx3EXAMPLE";
+    private static final String SECRET_KEY = "Gu5t9xGARNpq86cd98joQYCN3EXAMPLE";
+    private static final String BODY = "{\"ImageBase64\":\"SWRDYXJkT2Ny\",\"CardSide\":\"FRONT\"}";
+    private static final int THREADS = 4;
+
+    @Test
+    public void sign_matchesLegacyAcrossDaysAndKeys() {
+        Tc3Signer signer = new Tc3Signer("ocr.tencentcloudapi.com", "ocr");
+        String hash = SignHelper.sha256Hex(BODY.getBytes());
+        long[] timestamps = {0L, 86399L, 86400L, 1551113065L, 1700000000L, 1709251199L, 1709251200L, 4102444800L};
+        String[] keys = {SECRET_KEY, "another-key", SECRET_KEY};
+        for (long ts : timestamps) {
+            for (String key : keys) {
+                assertEquals("ts=" + ts, LegacyTc3Sign.generateSign(SECRET_ID, key, BODY, ts),
+                        signer.sign(SECRET_ID, key, hash, ts));
+            }
+        }
+    }
+
+    @Test
+    public void signHelper_matchesLegacy() {
+        long ts = 1551113065L;
+        assertEquals(LegacyTc3Sign.generateSign(SECRET_ID, SECRET_KEY, BODY, ts),
+                SignHelper.generateSign(SECRET_ID, SECRET_KEY, BODY, ts));
+    }
+
+    @Test
+    public void utcDate_matchesSimpleDateFormat() {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+        Random random = new Random(1);
+        for (int i = 0; i < 10_000; i++) {
+            long ts = (long) (random.nextDouble() * 4_000_000_000L);
+            assertEquals(sdf.format(new Date(ts * 1000)), Tc3Signer.utcDate(ts));
+        }
+    }
+
+    @Test
+    public void sign_isConsistentUnderConcurrentCallers() throws Exception {
+        final Tc3Signer signer = new Tc3Signer("ocr.tencentcloudapi.com", "ocr");
+        final String hash = SignHelper.sha256Hex(BODY.getBytes());
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final long base = 1700000000L + t * 86400L;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        long ts = base + (i % 3) * 86400L;
+                        String key = (i % 2 == 0) ? SECRET_KEY : "k2";
+                        if (!LegacyTc3Sign.generateSign(SECRET_ID, key, BODY, ts).equals(signer.sign(SECRET_ID, key, hash, ts))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> f : results) assertTrue(f.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
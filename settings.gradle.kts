@@ -21,3 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "IdCardOcrDemo"
 include(":app")
+include(":ocr-core")
+include(":ocr-cli")
+include(":ocr-bench")